@@ -0,0 +1,76 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures polygon collision checks, using a mix of rectangles and circles
+ * that are randomly distributed across the screen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int nodes;
+
+    private Polygon[] polygons;
+    private Point2D[] points;
+    private Polygon probe;
+
+    @Setup
+    public void prepare() {
+        RNG.seed(1234L);
+        polygons = new Polygon[nodes];
+        points = new Point2D[nodes];
+        probe = Polygon.createCircle(new Point2D(400, 300), 100, 16);
+
+        for (int i = 0; i < nodes; i++) {
+            Point2D origin = new Point2D(RNG.getDouble(0, 800), RNG.getDouble(0, 600));
+
+            if (i % 2 == 0) {
+                polygons[i] = Polygon.createRectangle(origin, RNG.getDouble(10, 50), RNG.getDouble(10, 50));
+            } else {
+                polygons[i] = Polygon.createCircle(origin, RNG.getDouble(5, 25), 8);
+            }
+
+            points[i] = new Point2D(RNG.getDouble(0, 800), RNG.getDouble(0, 600));
+        }
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (int i = 0; i < nodes; i++) {
+            blackhole.consume(polygons[i].contains(points[i]));
+        }
+    }
+
+    @Benchmark
+    public void intersects(Blackhole blackhole) {
+        for (int i = 0; i < nodes; i++) {
+            blackhole.consume(polygons[i].intersects(probe));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of recording frame statistics, which happens for
+ * every frame, and of querying them, which happens for every frame when the
+ * performance monitor is visible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameStatsBenchmark {
+
+    private FrameStats frameStats;
+    private long frame;
+
+    private static final String[] CUSTOM_PHASES = {"Physics", "AI", "Particles", "Audio"};
+    private static final String COUNTER = "Entities";
+
+    @Setup
+    public void prepare() {
+        frameStats = new FrameStats();
+        frame = 0L;
+
+        for (int i = 0; i < FrameStats.BUFFER_CAPACITY * 2; i++) {
+            recordFrame();
+        }
+    }
+
+    @Benchmark
+    public void recordFrame() {
+        frame++;
+        frameStats.markStart(FrameStats.PHASE_FRAME_TIME);
+        frameStats.markStart(FrameStats.PHASE_FRAME_UPDATE);
+        for (int i = 0; i < CUSTOM_PHASES.length; i++) {
+            frameStats.record(CUSTOM_PHASES[i], 1_000_000L + (frame * 7919L + i) % 500_000L);
+        }
+        frameStats.markEnd(FrameStats.PHASE_FRAME_UPDATE);
+        frameStats.markStart(FrameStats.PHASE_FRAME_RENDER);
+        frameStats.recordCount(COUNTER, frame % 1000L);
+        frameStats.markEnd(FrameStats.PHASE_FRAME_RENDER);
+        frameStats.markEnd(FrameStats.PHASE_FRAME_TIME);
+    }
+
+    @Benchmark
+    public void queryAverages(Blackhole blackhole) {
+        blackhole.consume(frameStats.getAverageFramerate());
+        blackhole.consume(frameStats.getFrameUpdateTime());
+        blackhole.consume(frameStats.getFrameRenderTime());
+        for (String phase : frameStats.getCustomStats()) {
+            blackhole.consume(frameStats.getAverageTimeNanos(phase));
+        }
+        blackhole.consume(frameStats.getAverageCount(COUNTER));
+    }
+
+    @Benchmark
+    public void queryPercentiles(Blackhole blackhole) {
+        blackhole.consume(frameStats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.95));
+        blackhole.consume(frameStats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.99));
+        blackhole.consume(frameStats.getMaxTimeNanos(FrameStats.PHASE_FRAME_TIME));
+    }
+
+    @Benchmark
+    public void queryFrameTimes(Blackhole blackhole) {
+        int size = frameStats.getBufferSize(FrameStats.PHASE_FRAME_TIME);
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(frameStats.getFrameTimeNanos(FrameStats.PHASE_FRAME_TIME, i));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import nl.colorize.multimedialib.renderer.java2d.StandardMediaLoader;
+import nl.colorize.multimedialib.stage.Image;
+import nl.colorize.multimedialib.stage.SpriteAtlas;
+import nl.colorize.util.ResourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures parsing sprite atlas files with a large number of regions. The
+ * atlas image itself is only loaded once, so that the results are not
+ * dominated by decoding the PNG file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteAtlasLoaderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int regions;
+
+    private File tempDir;
+    private SpriteAtlasLoader loader;
+
+    @Setup
+    public void prepare() throws IOException {
+        tempDir = Files.createTempDirectory("atlas").toFile();
+        Files.writeString(new File(tempDir, "benchmark.atlas").toPath(), generateAtlas(), UTF_8);
+
+        StandardMediaLoader mediaLoader = new StandardMediaLoader();
+        Image image = mediaLoader.loadImage(new ResourceFile("colorize-icon-256.png"));
+
+        loader = new SpriteAtlasLoader(new StandardMediaLoader() {
+            @Override
+            protected ResourceFile locateFile(ResourceFile location) {
+                return new ResourceFile(new File(tempDir, location.path()));
+            }
+
+            @Override
+            public Image loadImage(ResourceFile file) {
+                return image;
+            }
+        });
+    }
+
+    private String generateAtlas() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("benchmark.png\n");
+        buffer.append("size: 256, 256\n");
+        buffer.append("format: RGBA8888\n");
+        buffer.append("filter: Nearest, Nearest\n");
+        buffer.append("repeat: none\n");
+
+        for (int i = 0; i < regions; i++) {
+            buffer.append("region").append(i).append("\n");
+            buffer.append("  rotate: false\n");
+            buffer.append("  xy: ").append((i * 16) % 240).append(", ").append((i / 15 * 16) % 240).append("\n");
+            buffer.append("  size: 16, 16\n");
+            buffer.append("  orig: 16, 16\n");
+            buffer.append("  offset: 0, 0\n");
+            buffer.append("  index: -1\n");
+        }
+
+        return buffer.toString();
+    }
+
+    @TearDown
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(new File(tempDir, "benchmark.atlas").toPath());
+        Files.deleteIfExists(tempDir.toPath());
+    }
+
+    @Benchmark
+    public SpriteAtlas load() {
+        return loader.load(new ResourceFile("benchmark.atlas"));
+    }
+}
@@ -0,0 +1,149 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import nl.colorize.multimedialib.math.Circle;
+import nl.colorize.multimedialib.math.RNG;
+import nl.colorize.multimedialib.renderer.headless.CollectingStageVisitor;
+import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.multimedialib.scene.Actor;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.Primitive;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the entity component system to using one actor per object. Both
+ * versions move the same number of objects across the screen and copy their
+ * positions to stage nodes, the frame update is then followed by visiting
+ * the stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityWorldBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int nodes;
+
+    private HeadlessRenderer entityRenderer;
+    private HeadlessRenderer actorRenderer;
+    private CollectingStageVisitor visitor;
+
+    private static final double FRAME_TIME = 1.0 / 60.0;
+    private static final double WIDTH = 800.0;
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int VELOCITY_X = 2;
+    private static final int VELOCITY_Y = 3;
+
+    @Setup
+    public void prepare() {
+        RNG.seed(1234L);
+        entityRenderer = new HeadlessRenderer();
+        actorRenderer = new HeadlessRenderer();
+        visitor = new CollectingStageVisitor();
+
+        EntityWorld world = new EntityWorld();
+        ComponentStore motion = world.addComponentStore(4);
+        ObjectStore<Primitive> graphics = world.addObjectStore();
+        world.addSystem((w, deltaTime) -> move(motion, deltaTime));
+        world.addSystem(new StageSyncSystem(graphics, motion, X, Y));
+        entityRenderer.attach(world);
+
+        for (int i = 0; i < nodes; i++) {
+            double x = RNG.getDouble(0.0, WIDTH);
+            double y = RNG.getDouble(0.0, 600.0);
+            double velocityX = RNG.getDouble(-100.0, 100.0);
+            double velocityY = RNG.getDouble(-100.0, 100.0);
+
+            int entity = world.createEntity();
+            motion.add(entity, x, y, velocityX, velocityY);
+            graphics.add(entity, createGraphic(entityRenderer));
+
+            actorRenderer.attach(new Mover(createGraphic(actorRenderer), x, y, velocityX, velocityY));
+        }
+
+        entityRenderer.doFrame(FRAME_TIME);
+        actorRenderer.doFrame(FRAME_TIME);
+    }
+
+    private Primitive createGraphic(HeadlessRenderer renderer) {
+        Primitive graphic = new Primitive(new Circle(4.0), ColorRGB.WHITE);
+        renderer.getStage().getRoot().addChild(graphic);
+        return graphic;
+    }
+
+    private static void move(ComponentStore motion, double deltaTime) {
+        double[] x = motion.getField(X);
+        double[] y = motion.getField(Y);
+        double[] velocityX = motion.getField(VELOCITY_X);
+        double[] velocityY = motion.getField(VELOCITY_Y);
+        int count = motion.size();
+
+        for (int i = 0; i < count; i++) {
+            x[i] = (x[i] + velocityX[i] * deltaTime + WIDTH) % WIDTH;
+            y[i] = y[i] + velocityY[i] * deltaTime;
+        }
+    }
+
+    @Benchmark
+    public int entityWorld() {
+        entityRenderer.doFrame(FRAME_TIME);
+        entityRenderer.getStage().visit(visitor);
+        return visitor.getNodes2D().size();
+    }
+
+    @Benchmark
+    public int actors() {
+        actorRenderer.doFrame(FRAME_TIME);
+        actorRenderer.getStage().visit(visitor);
+        return visitor.getNodes2D().size();
+    }
+
+    /**
+     * Performs the same logic as the entity systems, but with one actor per
+     * object that contains its own state.
+     */
+    private static class Mover implements Actor {
+
+        private Primitive graphic;
+        private double x;
+        private double y;
+        private double velocityX;
+        private double velocityY;
+
+        public Mover(Primitive graphic, double x, double y, double velocityX, double velocityY) {
+            this.graphic = graphic;
+            this.x = x;
+            this.y = y;
+            this.velocityX = velocityX;
+            this.velocityY = velocityY;
+        }
+
+        @Override
+        public void update(double deltaTime) {
+            x = (x + velocityX * deltaTime + WIDTH) % WIDTH;
+            y = y + velocityY * deltaTime;
+            graphic.getTransform().setPosition(x, y);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.util.ResourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up the current frame of an animation, which happens for
+ * every animated sprite during every frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int nodes;
+
+    @Param({"4", "32"})
+    private int frames;
+
+    private Animation animation;
+    private double[] times;
+
+    @Setup
+    public void prepare() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        Image image = renderer.getMediaLoader().loadImage(new ResourceFile("colorize-icon-32.png"));
+
+        animation = new Animation(true);
+        for (int i = 0; i < frames; i++) {
+            animation.addFrame(image, 0.1);
+        }
+
+        times = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            times[i] = i * 0.01;
+        }
+    }
+
+    @Benchmark
+    public void getFrameAtTime(Blackhole blackhole) {
+        for (int i = 0; i < nodes; i++) {
+            blackhole.consume(animation.getFrameAtTime(times[i]));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.math.Circle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of adding and removing children from a container that
+ * already contains a large number of nodes. This simulates scenes where
+ * objects are constantly being created and destroyed, such as bullets or
+ * particles that are represented by individual stage nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int nodes;
+
+    private Container container;
+    private List<Primitive> children;
+    private int next;
+
+    private static final int CHURN = 100;
+
+    @Setup
+    public void prepare() {
+        container = new Container();
+        children = new ArrayList<>();
+        next = 0;
+
+        for (int i = 0; i < nodes; i++) {
+            Primitive child = new Primitive(new Circle(4), ColorRGB.WHITE);
+            container.addChild(child, i % 800, (i / 800) % 600);
+            children.add(child);
+        }
+    }
+
+    /**
+     * Removes and then re-adds a number of children, spread out over the
+     * container, so that the number of children remains constant between
+     * invocations.
+     */
+    @Benchmark
+    public Container churn() {
+        for (int i = 0; i < CHURN; i++) {
+            Primitive child = children.get(next);
+            container.removeChild(child);
+            container.addChild(child);
+            next = (next + (nodes / CHURN) + 1) % nodes;
+        }
+        return container;
+    }
+}
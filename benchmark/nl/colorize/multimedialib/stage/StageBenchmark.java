@@ -0,0 +1,76 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.renderer.headless.CollectingStageVisitor;
+import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.util.ResourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to traverse the stage during every frame. The
+ * stage is visited using {@link CollectingStageVisitor}, so the results
+ * include calculating global transforms and culling, but not the time spent
+ * by the renderer to actually draw the graphics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int nodes;
+
+    private HeadlessRenderer renderer;
+    private CollectingStageVisitor visitor;
+
+    private static final int NODES_PER_CONTAINER = 100;
+
+    @Setup
+    public void prepare() {
+        renderer = new HeadlessRenderer();
+        visitor = new CollectingStageVisitor();
+
+        Image image = renderer.getMediaLoader().loadImage(new ResourceFile("colorize-icon-32.png"));
+        Container container = null;
+
+        for (int i = 0; i < nodes; i++) {
+            if (i % NODES_PER_CONTAINER == 0) {
+                container = renderer.getStage().getRoot().addChildContainer();
+            }
+            container.addChild(new Sprite(image), i % 800, (i / 800) % 600);
+        }
+    }
+
+    @Benchmark
+    public int visit() {
+        renderer.getStage().visit(visitor);
+        return visitor.getNodes2D().size();
+    }
+
+    @Benchmark
+    public int updateAndVisit() {
+        renderer.doFrame(1.0 / 60.0);
+        renderer.getStage().visit(visitor);
+        return visitor.getNodes2D().size();
+    }
+}
@@ -0,0 +1,79 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.math.RNG;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures combining transforms, which happens for every node in the stage
+ * during every frame to calculate the node's global transform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int nodes;
+
+    private Transform[] parents;
+    private Transform[] transforms;
+    private ImageTransform[] imageTransforms;
+
+    @Setup
+    public void prepare() {
+        RNG.seed(1234L);
+        parents = new Transform[nodes];
+        transforms = new Transform[nodes];
+        imageTransforms = new ImageTransform[nodes];
+
+        for (int i = 0; i < nodes; i++) {
+            parents[i] = createTransform(new Transform());
+            transforms[i] = createTransform(new Transform());
+            imageTransforms[i] = createTransform(new ImageTransform());
+            imageTransforms[i].setRotation(RNG.getInt(0, 360));
+            imageTransforms[i].setScale(RNG.getDouble(50.0, 200.0));
+        }
+    }
+
+    private <T extends Transform> T createTransform(T transform) {
+        transform.setPosition(RNG.getDouble(0.0, 800.0), RNG.getDouble(0.0, 600.0));
+        transform.setAlpha(RNG.getDouble(0.0, 100.0));
+        return transform;
+    }
+
+    @Benchmark
+    public void combine(Blackhole blackhole) {
+        for (int i = 0; i < nodes; i++) {
+            blackhole.consume(parents[i].combine(transforms[i]));
+        }
+    }
+
+    @Benchmark
+    public void combineImageTransform(Blackhole blackhole) {
+        for (int i = 0; i < nodes; i++) {
+            blackhole.consume(parents[i].combine(imageTransforms[i]));
+        }
+    }
+}
@@ -23,10 +23,16 @@ import java.util.stream.Stream;
  * application code creates {@link Random} instances across various
  * locations, making it easier to toggle between "real" random number
  * generation versus deterministic pseudo-random.
+ * <p>
+ * Applications that run multiple independent simulations in parallel can
+ * use {@link #seedCurrentThread(long)} to give each thread its own
+ * generator. This allows each simulation to be deterministic, without the
+ * simulations influencing each other through the shared generator.
  */
 public class RNG {
 
     private static Random generator = new Random();
+    private static final ThreadLocal<Random> THREAD_GENERATOR = new ThreadLocal<>();
 
     private RNG() {
     }
@@ -48,6 +54,29 @@ public class RNG {
         generator = new Random();
     }
 
+    /**
+     * Changes the random number generator used by this class, but only for
+     * the current thread, to generate deterministic pseudo-random numbers
+     * based on the specified seed value. Other threads will continue to use
+     * the shared generator.
+     */
+    public static void seedCurrentThread(long value) {
+        THREAD_GENERATOR.set(new Random(value));
+    }
+
+    /**
+     * Reverts the changes made by {@link #seedCurrentThread(long)}, so that
+     * the current thread will use the shared generator again.
+     */
+    public static void clearCurrentThread() {
+        THREAD_GENERATOR.remove();
+    }
+
+    private static Random getGenerator() {
+        Random threadGenerator = THREAD_GENERATOR.get();
+        return threadGenerator != null ? threadGenerator : generator;
+    }
+
     /**
      * Returns a random integer somewhere in the range between the minimum
      * (inclusive) and maximum (exclusive).
@@ -59,7 +88,7 @@ public class RNG {
             return min;
         }
 
-        return min + generator.nextInt(max - min);
+        return min + getGenerator().nextInt(max - min);
     }
 
     /**
@@ -73,7 +102,7 @@ public class RNG {
             return min;
         }
 
-        return min + generator.nextDouble() * (max - min);
+        return min + getGenerator().nextDouble() * (max - min);
     }
 
     /**
@@ -84,7 +113,7 @@ public class RNG {
     public static boolean chance(double n) {
         Preconditions.checkArgument(n >= 0f && n <= 1f, "Number out of range: " + n);
 
-        double value = generator.nextDouble();
+        double value = getGenerator().nextDouble();
         return value <= n;
     }
 
@@ -162,7 +191,7 @@ public class RNG {
     public static <T> List<T> shuffle(List<T> original) {
         List<T> shuffled = new ArrayList<>(original);
         if (original.size() >= 2) {
-            Collections.shuffle(shuffled, generator);
+            Collections.shuffle(shuffled, getGenerator());
         }
         return shuffled;
     }
@@ -0,0 +1,43 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import nl.colorize.multimedialib.scene.Scene;
+
+/**
+ * Receives notifications for events that happen during the application's
+ * life cycle, so that they can be forwarded to external profiling tools.
+ * Renderers can provide an implementation that is suitable for their
+ * platform, for example by emitting Java Flight Recorder events on desktop
+ * platforms.
+ * <p>
+ * Notifications are sent from the renderer thread during every frame, so
+ * implementations should return quickly when the profiling tool is not
+ * currently recording. All methods in this interface are optional, the
+ * default implementations are empty.
+ */
+public interface EventTracer {
+
+    /**
+     * Called when {@link FrameStats} starts measuring one of its phases.
+     */
+    default void phaseStarted(String phase) {
+    }
+
+    /**
+     * Called when {@link FrameStats} completes a measurement for one of its
+     * phases, with the measured duration in nanoseconds.
+     */
+    default void phaseEnded(String phase, long nanos) {
+    }
+
+    default void sceneStarted(Scene scene) {
+    }
+
+    default void sceneEnded(Scene scene) {
+    }
+}
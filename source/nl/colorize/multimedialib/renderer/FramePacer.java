@@ -0,0 +1,138 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Schedules frames at a fixed framerate, for renderers that manage their own
+ * animation loop instead of relying on vsync or on the platform's animation
+ * loop. The renderer calls {@link #awaitNextFrame()} after every frame, which
+ * blocks until the next frame is scheduled to start.
+ * <p>
+ * Sleeping is not very precise on most platforms: threads typically wake up
+ * somewhat later than requested. The frame pacer therefore sleeps until
+ * shortly before the next frame, then spins for the remaining time. The
+ * amount of time that the thread oversleeps is measured, and the pacer will
+ * wake up earlier when it notices the platform tends to oversleep. This
+ * keeps the time spent spinning, and therefore the CPU usage, limited.
+ * <p>
+ * Frames are scheduled relative to when the previous frame was scheduled,
+ * not relative to when it actually started, so that small errors do not
+ * accumulate over time. If the application falls behind by more than one
+ * frame, the schedule is reset rather than trying to catch up by running
+ * multiple frames back-to-back.
+ * <p>
+ * The difference between the scheduled and actual start of each frame is
+ * recorded in {@link FrameStats} as {@link FrameStats#PHASE_PACING_ERROR}.
+ */
+public class FramePacer {
+
+    @Getter private long targetFrameNanos;
+    @Nullable private FrameStats frameStats;
+    private LongSupplier clock;
+    private LongConsumer sleeper;
+    private boolean started;
+    private long nextFrame;
+    @Getter private long estimatedOversleep;
+
+    private static final long SPIN_THRESHOLD_NANOS = 1_000_000L;
+    private static final long MAX_OVERSLEEP_NANOS = 4_000_000L;
+    private static final int OVERSLEEP_SMOOTHING = 8;
+
+    public FramePacer(int framerate, @Nullable FrameStats frameStats) {
+        this(framerate, frameStats, System::nanoTime, LockSupport::parkNanos);
+    }
+
+    /**
+     * Creates a {@link FramePacer} that uses the specified clock, which
+     * should return a timestamp in nanoseconds, and the specified function
+     * to sleep for a number of nanoseconds. This is mainly intended for
+     * testing purposes.
+     */
+    protected FramePacer(int framerate, @Nullable FrameStats frameStats, LongSupplier clock,
+                         LongConsumer sleeper) {
+        Preconditions.checkArgument(framerate > 0, "Invalid framerate: " + framerate);
+
+        this.targetFrameNanos = 1_000_000_000L / framerate;
+        this.frameStats = frameStats;
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.started = false;
+        this.nextFrame = 0L;
+        this.estimatedOversleep = 0L;
+    }
+
+    /**
+     * Blocks the current thread until the next frame is scheduled to start.
+     * The first call to this method starts the schedule and returns
+     * immediately.
+     */
+    public void awaitNextFrame() {
+        long now = clock.getAsLong();
+
+        if (!started) {
+            started = true;
+            nextFrame = now + targetFrameNanos;
+            return;
+        }
+
+        now = sleep(now);
+        now = spin(now);
+
+        long error = now - nextFrame;
+        if (frameStats != null) {
+            frameStats.record(FrameStats.PHASE_PACING_ERROR, error);
+        }
+
+        nextFrame += targetFrameNanos;
+        if (now >= nextFrame) {
+            nextFrame = now + targetFrameNanos;
+        }
+    }
+
+    private long sleep(long now) {
+        long remaining = nextFrame - now;
+
+        while (remaining > SPIN_THRESHOLD_NANOS + estimatedOversleep) {
+            long requested = remaining - SPIN_THRESHOLD_NANOS - estimatedOversleep;
+            long sleepStart = now;
+            sleeper.accept(requested);
+            now = clock.getAsLong();
+
+            long oversleep = Math.clamp(now - sleepStart - requested, 0L, MAX_OVERSLEEP_NANOS);
+            estimatedOversleep += (oversleep - estimatedOversleep) / OVERSLEEP_SMOOTHING;
+            remaining = nextFrame - now;
+        }
+
+        return now;
+    }
+
+    private long spin(long now) {
+        while (now < nextFrame) {
+            Thread.onSpinWait();
+            now = clock.getAsLong();
+        }
+        return now;
+    }
+
+    /**
+     * Resets the schedule, so that the next call to {@link #awaitNextFrame()}
+     * will start a new schedule. This can be used after the animation loop
+     * has been paused, to prevent the pause from being reported as a large
+     * pacing error.
+     */
+    public void reset() {
+        started = false;
+    }
+}
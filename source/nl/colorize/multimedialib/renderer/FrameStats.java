@@ -6,13 +6,17 @@
 
 package nl.colorize.multimedialib.renderer;
 
-import nl.colorize.util.Stopwatch;
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.Nullable;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * Tracks performance statistics for each frame, then reports on average
@@ -24,47 +28,340 @@ import java.util.Map;
  * each frame. The renderer will automatically measure frame update logic and
  * rendering the frame, but this can be extended by registering additioanl
  * application-specific statistics which are then also tracked every frame.
+ * <p>
+ * Measurements are stored with nanosecond precision. The most recent frames
+ * are kept in a fixed-size ring buffer, which is used for averages. In
+ * addition, every phase keeps a histogram of all measurements since the
+ * last call to {@link #reset()}, which is used for percentiles. Counters
+ * only keep the ring buffer, since they are not used for percentiles. Both
+ * the ring buffer and the histogram use primitive arrays that are allocated
+ * once, so measuring and querying does not create any objects. Querying a
+ * phase or counter that has not been measured yet returns zero, and does
+ * not register it.
+ * <p>
+ * On platforms that can measure the number of bytes allocated by the
+ * renderer thread, the amount of memory allocated during frame updates
+ * and rendering can be tracked as well. Garbage collection pauses can be
+ * reported from any thread, and are attributed to the frame during which
+ * they were reported.
  */
 public class FrameStats {
 
+    private LongSupplier clock;
     private Map<String, PhaseStats> stats;
+    private Map<String, RingBuffer> counters;
+    private List<EventTracer> tracers;
+    @Nullable private LongSupplier allocationCounter;
+    private boolean garbageCollectionTracking;
+    private AtomicLong pendingGarbageCollections;
+    private AtomicLong pendingGarbageCollectionTime;
 
     public static final String PHASE_FRAME_TIME = "$$frameTime";
     public static final String PHASE_FRAME_UPDATE = "$$frameUpdate";
     public static final String PHASE_FRAME_RENDER = "$$frameRender";
+    public static final String PHASE_FRAME_DRAW = "$$frameDraw";
+    public static final String PHASE_PARALLEL_UPDATE = "$$parallelUpdate";
+    public static final String PHASE_PARALLEL_GLOBAL_UPDATE = "$$parallelGlobalUpdate";
+    public static final String PHASE_GC_PAUSE = "$$gcPause";
+    public static final String PHASE_PACING_ERROR = "$$pacingError";
+    public static final String COUNTER_ALLOCATED_UPDATE = "$$allocatedUpdate";
+    public static final String COUNTER_ALLOCATED_RENDER = "$$allocatedRender";
+    public static final String COUNTER_GC_COUNT = "$$gcCount";
     public static final int BUFFER_CAPACITY = 60;
 
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final PhaseStats EMPTY_PHASE = new PhaseStats(0L);
+    private static final RingBuffer EMPTY_COUNTER = new RingBuffer();
+
     public FrameStats() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a {@link FrameStats} instance that uses the specified clock,
+     * which should return a timestamp in nanoseconds. This is mainly intended
+     * for testing purposes.
+     */
+    protected FrameStats(LongSupplier clock) {
+        this.clock = clock;
         this.stats = new LinkedHashMap<>();
+        this.counters = new LinkedHashMap<>();
+        this.tracers = new ArrayList<>();
+        this.allocationCounter = null;
+        this.garbageCollectionTracking = false;
+        this.pendingGarbageCollections = new AtomicLong(0L);
+        this.pendingGarbageCollectionTime = new AtomicLong(0L);
+    }
+
+    /**
+     * Forwards the start and end of every phase to the specified
+     * {@link EventTracer}, in addition to measuring the phase.
+     */
+    public void addTracer(EventTracer tracer) {
+        tracers.add(tracer);
+    }
+
+    /**
+     * Enables tracking the number of bytes allocated during frame updates
+     * and rendering. The counter should return the total number of bytes
+     * that have been allocated by the current thread. This is only supported
+     * on platforms that can provide this information, and is therefore not
+     * enabled by default.
+     */
+    public void enableAllocationTracking(LongSupplier allocationCounter) {
+        this.allocationCounter = allocationCounter;
+    }
+
+    public boolean isAllocationTracking() {
+        return allocationCounter != null;
+    }
+
+    /**
+     * Enables tracking garbage collection pauses. Once enabled, the pauses
+     * reported using {@link #recordGarbageCollection(long)} are attributed
+     * to the frame during which they were reported.
+     */
+    public void enableGarbageCollectionTracking() {
+        garbageCollectionTracking = true;
+    }
+
+    public boolean isGarbageCollectionTracking() {
+        return garbageCollectionTracking;
+    }
+
+    /**
+     * Reports a garbage collection pause, with its duration in nanoseconds.
+     * Unlike the other methods in this class, this method can be called
+     * from any thread, since garbage collection notifications are usually
+     * delivered on a background thread.
+     */
+    public void recordGarbageCollection(long pauseNanos) {
+        pendingGarbageCollections.incrementAndGet();
+        pendingGarbageCollectionTime.addAndGet(pauseNanos);
+    }
+
+    private boolean isAllocationPhase(String phase) {
+        return phase.equals(PHASE_FRAME_UPDATE) || phase.equals(PHASE_FRAME_RENDER);
     }
 
     private PhaseStats prepare(String phase) {
         PhaseStats phaseStats = stats.get(phase);
         if (phaseStats == null) {
-            phaseStats = new PhaseStats(phase, new Stopwatch(), new ArrayDeque<>());
+            phaseStats = new PhaseStats(clock.getAsLong());
             stats.put(phase, phaseStats);
         }
         return phaseStats;
     }
 
+    /**
+     * Returns the statistics for the specified phase without registering it,
+     * for methods that only read measurements. Returns a shared empty
+     * instance if the phase has not been measured yet, which must therefore
+     * never be modified.
+     */
+    private PhaseStats lookup(String phase) {
+        return stats.getOrDefault(phase, EMPTY_PHASE);
+    }
+
     public void markStart(String phase) {
         PhaseStats phaseStats = prepare(phase);
-        phaseStats.timer.tick();
+        phaseStats.lastTick = clock.getAsLong();
+
+        if (allocationCounter != null && isAllocationPhase(phase)) {
+            phaseStats.lastAllocated = allocationCounter.getAsLong();
+        }
+
+        for (int i = 0; i < tracers.size(); i++) {
+            tracers.get(i).phaseStarted(phase);
+        }
     }
 
+    /**
+     * Marks the end of the specified phase, and records the time since the
+     * most recent call to either {@link #markStart(String)} or this method.
+     * The latter allows phases such as {@link #PHASE_FRAME_TIME} to measure
+     * the time between consecutive frames by only calling this method.
+     */
     public void markEnd(String phase) {
         PhaseStats phaseStats = prepare(phase);
-        long value = phaseStats.timer.tick();
-        phaseStats.values.add(value);
+        long now = clock.getAsLong();
+        long duration = now - phaseStats.lastTick;
+        phaseStats.add(duration);
+        phaseStats.lastTick = now;
+
+        if (allocationCounter != null && isAllocationPhase(phase)) {
+            long allocated = allocationCounter.getAsLong() - phaseStats.lastAllocated;
+            String counter = phase.equals(PHASE_FRAME_UPDATE) ?
+                COUNTER_ALLOCATED_UPDATE : COUNTER_ALLOCATED_RENDER;
+            recordCount(counter, allocated);
+        }
+
+        if (garbageCollectionTracking && phase.equals(PHASE_FRAME_TIME)) {
+            record(PHASE_GC_PAUSE, pendingGarbageCollectionTime.getAndSet(0L));
+            recordCount(COUNTER_GC_COUNT, pendingGarbageCollections.getAndSet(0L));
+        }
+
+        for (int i = 0; i < tracers.size(); i++) {
+            tracers.get(i).phaseEnded(phase, duration);
+        }
+    }
+
+    /**
+     * Records a measurement for the specified phase directly, instead of
+     * measuring the time between {@link #markStart(String)} and
+     * {@link #markEnd(String)}.
+     */
+    public void record(String phase, long nanos) {
+        prepare(phase).add(nanos);
+    }
+
+    /**
+     * Records the value of a counter for the current frame. Unlike phases,
+     * counters do not measure time, but the number of times something
+     * happened during the frame, such as the number of draw calls.
+     */
+    public void recordCount(String counter, long value) {
+        prepareCounter(counter).add(value);
+    }
+
+    private RingBuffer prepareCounter(String counter) {
+        RingBuffer counterStats = counters.get(counter);
+        if (counterStats == null) {
+            counterStats = new RingBuffer();
+            counters.put(counter, counterStats);
+        }
+        return counterStats;
+    }
+
+    private RingBuffer lookupCounter(String counter) {
+        return counters.getOrDefault(counter, EMPTY_COUNTER);
+    }
 
-        while (phaseStats.values.size() > BUFFER_CAPACITY) {
-            phaseStats.values.removeFirst();
+    /**
+     * Returns the value of the specified counter for the most recent frame,
+     * or zero if the counter has not been recorded yet.
+     */
+    public long getCount(String counter) {
+        RingBuffer counterStats = lookupCounter(counter);
+
+        if (counterStats.size == 0) {
+            return 0L;
+        }
+
+        return counterStats.get(counterStats.size - 1);
+    }
+
+    /**
+     * Returns the average value of the specified counter, based on all
+     * previously recorded frames that are currently in the buffer.
+     */
+    public long getAverageCount(String counter) {
+        RingBuffer counterStats = lookupCounter(counter);
+
+        if (counterStats.size == 0) {
+            return 0L;
+        }
+
+        return counterStats.sum / counterStats.size;
+    }
+
+    /**
+     * Returns the names of all counters that have been recorded, in the
+     * order in which they were first recorded. Note this does <em>not</em>
+     * return the standard counters used for allocation and garbage
+     * collection tracking.
+     */
+    public List<String> getCounters() {
+        return counters.keySet().stream()
+            .filter(counter -> !counter.startsWith("$$"))
+            .toList();
+    }
+
+    public boolean hasCounter(String counter) {
+        return counters.containsKey(counter);
+    }
+
+    /**
+     * Returns the value of the specified counter at the specified index in
+     * the buffer. Index 0 refers to the oldest frame,
+     * {@code getCountBufferSize(counter) - 1} to the most recent frame.
+     */
+    public long getCount(String counter, int index) {
+        RingBuffer counterStats = lookupCounter(counter);
+        Preconditions.checkElementIndex(index, counterStats.size);
+        return counterStats.get(index);
+    }
+
+    /**
+     * Returns the number of frames for which the specified counter has been
+     * recorded, and that are currently in the buffer.
+     */
+    public int getCountBufferSize(String counter) {
+        return lookupCounter(counter).size;
+    }
+
+    /**
+     * Returns the sum of the specified counter for all frames that are
+     * currently in the buffer.
+     */
+    public long getTotalCount(String counter) {
+        return lookupCounter(counter).sum;
+    }
+
+    /**
+     * Returns the average number of bytes allocated by the renderer thread
+     * during each frame, including both the frame update and rendering the
+     * frame. Returns zero if allocation tracking is not enabled.
+     */
+    public long getAllocatedBytesPerFrame() {
+        return getAverageCount(COUNTER_ALLOCATED_UPDATE) + getAverageCount(COUNTER_ALLOCATED_RENDER);
+    }
+
+    /**
+     * Returns the number of garbage collection pauses that occurred during
+     * the frames that are currently in the buffer.
+     */
+    public long getGarbageCollectionCount() {
+        return getTotalCount(COUNTER_GC_COUNT);
+    }
+
+    /**
+     * Returns the total duration of all garbage collection pauses that
+     * occurred during the frames that are currently in the buffer, in
+     * milliseconds.
+     */
+    public int getGarbageCollectionTime() {
+        return (int) (lookup(PHASE_GC_PAUSE).sum / NANOS_PER_MS);
+    }
+
+    /**
+     * Returns the average difference between the time at which frames were
+     * scheduled to start and the time at which they actually started, in
+     * nanoseconds. Returns zero if the renderer does not use a
+     * {@link FramePacer} to schedule frames.
+     */
+    public long getPacingErrorNanos() {
+        return getAverageTimeNanos(PHASE_PACING_ERROR);
+    }
+
+    public boolean isPacingMeasured() {
+        return lookup(PHASE_PACING_ERROR).size > 0;
+    }
+
+    /**
+     * Clears the percentile histograms for all phases, so that
+     * percentiles only describe measurements taken after this method was
+     * called. The ring buffers used for averages are not affected.
+     */
+    public void reset() {
+        for (PhaseStats phaseStats : stats.values()) {
+            phaseStats.resetHistogram();
         }
     }
 
     public double getAverageFramerate() {
-        int frameTimeMS = getAverageTimeMS(PHASE_FRAME_TIME);
-        return 1000f / Math.max(frameTimeMS, 1);
+        long frameTime = getAverageTimeNanos(PHASE_FRAME_TIME);
+        return 1_000_000_000.0 / Math.max(frameTime, NANOS_PER_MS);
     }
 
     public int getFrameUpdateTime() {
@@ -76,21 +373,49 @@ public class FrameStats {
     }
 
     /**
-     * Returns the average duration for the specified phase, in milliseconds.
+     * Returns the average time spent drawing frames on a separate render
+     * thread, for renderers that support drawing and frame updates to run
+     * concurrently. In that case, {@link #getFrameRenderTime()} only
+     * includes the time spent preparing the frame for the render thread.
+     * Returns zero if the renderer draws frames on the same thread.
+     */
+    public int getFrameDrawTime() {
+        return getAverageTimeMS(PHASE_FRAME_DRAW);
+    }
+
+    /**
+     * Returns the average duration of the parallel actor phases, which are
+     * part of the frame update. This combines the phase for actors attached
+     * to the scene and the phase for global actors. Returns zero if the
+     * application does not contain any {@code ParallelActor}s.
+     */
+    public int getParallelUpdateTime() {
+        return getAverageTimeMS(PHASE_PARALLEL_UPDATE) +
+            getAverageTimeMS(PHASE_PARALLEL_GLOBAL_UPDATE);
+    }
+
+    /**
+     * Returns the average duration for the specified phase, in nanoseconds.
      * The average is based on all previously measured frames that are
      * currently in the buffer.
      */
-    public int getAverageTimeMS(String phase) {
-        PhaseStats phaseStats = prepare(phase);
+    public long getAverageTimeNanos(String phase) {
+        PhaseStats phaseStats = lookup(phase);
 
-        if (phaseStats.values.isEmpty()) {
-            return 0;
+        if (phaseStats.size == 0) {
+            return 0L;
         }
 
-        return (int) phaseStats.values.stream()
-            .mapToLong(value -> value)
-            .summaryStatistics()
-            .getAverage();
+        return phaseStats.sum / phaseStats.size;
+    }
+
+    /**
+     * Returns the average duration for the specified phase, in milliseconds.
+     * The average is based on all previously measured frames that are
+     * currently in the buffer.
+     */
+    public int getAverageTimeMS(String phase) {
+        return (int) (getAverageTimeNanos(phase) / NANOS_PER_MS);
     }
 
     /**
@@ -99,7 +424,30 @@ public class FrameStats {
      * currently in the buffer.
      */
     public double getAverageTime(String phase) {
-        return getAverageTimeMS(phase) / 1000f;
+        return getAverageTimeNanos(phase) / 1_000_000_000.0;
+    }
+
+    /**
+     * Returns the specified percentile of all durations measured for the
+     * phase since the last {@link #reset()}, in nanoseconds. The percentile
+     * should be between 0.0 and 1.0, so 0.95 returns the 95th percentile.
+     * The result is based on a histogram, and is accurate to within about
+     * 3% of the actual value. Returns zero if no frames have been measured.
+     */
+    public long getPercentileNanos(String phase, double percentile) {
+        Preconditions.checkArgument(percentile >= 0.0 && percentile <= 1.0,
+            "Invalid percentile: " + percentile);
+
+        return lookup(phase).getPercentile(percentile);
+    }
+
+    /**
+     * Returns the longest duration measured for the phase since the last
+     * {@link #reset()}, in nanoseconds. Unlike percentiles, this value is
+     * exact.
+     */
+    public long getMaxTimeNanos(String phase) {
+        return lookup(phase).max;
     }
 
     /**
@@ -117,9 +465,51 @@ public class FrameStats {
      * Returns all measured frame times for the specified phase that are
      * currently in the buffer, in millisecond precision. Frames are sorted
      * so that the oldest frame is first, and the most recent frame is last.
+     * <p>
+     * This method is retained for compatibility, but creates an object for
+     * every frame. Prefer {@link #getFrameTimeNanos(String, int)} when
+     * performance is important.
      */
     public Iterable<Long> getFrameTimes(String phase) {
-        return prepare(phase).values();
+        PhaseStats phaseStats = lookup(phase);
+
+        return () -> new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < phaseStats.size;
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long value = phaseStats.get(index) / NANOS_PER_MS;
+                index++;
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Returns the measured frame time at the specified index in the buffer
+     * for the specified phase, in nanoseconds. Index 0 refers to the oldest
+     * frame, {@code getBufferSize(phase) - 1} to the most recent frame.
+     */
+    public long getFrameTimeNanos(String phase, int index) {
+        PhaseStats phaseStats = lookup(phase);
+        Preconditions.checkElementIndex(index, phaseStats.size);
+        return phaseStats.get(index);
+    }
+
+    /**
+     * Returns the number of frames that have been measured for the specified
+     * phase and that are currently in the buffer.
+     */
+    public int getBufferSize(String phase) {
+        return lookup(phase).size;
     }
 
     /**
@@ -127,15 +517,150 @@ public class FrameStats {
      * currently in the buffer.
      */
     public int getBufferSize() {
-        return prepare(PHASE_FRAME_TIME).values().size();
+        return getBufferSize(PHASE_FRAME_TIME);
+    }
+
+    /**
+     * Fixed-size ring buffer that contains the most recent measurements,
+     * with a running sum so averages can be calculated in constant time.
+     * Negative values are stored as zero.
+     */
+    private static class RingBuffer {
+
+        private long[] buffer;
+        private int head;
+        protected int size;
+        protected long sum;
+
+        public RingBuffer() {
+            this.buffer = new long[BUFFER_CAPACITY];
+            this.head = 0;
+            this.size = 0;
+            this.sum = 0L;
+        }
+
+        public void add(long value) {
+            long clamped = Math.max(value, 0L);
+
+            if (size == BUFFER_CAPACITY) {
+                sum -= buffer[head];
+            } else {
+                size++;
+            }
+
+            buffer[head] = clamped;
+            head = (head + 1) % BUFFER_CAPACITY;
+            sum += clamped;
+        }
+
+        public long get(int index) {
+            int oldest = (head - size + BUFFER_CAPACITY) % BUFFER_CAPACITY;
+            return buffer[(oldest + index) % BUFFER_CAPACITY];
+        }
     }
 
     /**
-     * Performance statistics captured during a single frame. Each statistic
-     * uses its timer to allow overlapping measurements. Since performance
-     * statistics are measured using a timer, measurement values are expressed
-     * in milliseconds.
+     * Performance statistics for a single phase. Each phase has its own
+     * timestamp to allow overlapping measurements. Recent measurements are
+     * stored in the ring buffer, all measurements since the last reset are
+     * also included in the histogram.
+     * <p>
+     * The histogram uses logarithmic buckets with microsecond precision.
+     * Values below 64 microseconds have their own bucket, larger values use
+     * 32 buckets per power of two. This limits the relative error to about
+     * 3%, while covering durations of up to several hours.
      */
-    private record PhaseStats(String phase, Stopwatch timer, Deque<Long> values) {
+    private static final class PhaseStats extends RingBuffer {
+
+        private long lastTick;
+        private long lastAllocated;
+
+        private int[] histogram;
+        private long count;
+        private long max;
+
+        private static final int LINEAR_BUCKETS = 64;
+        private static final int SUB_BUCKETS = 32;
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int MIN_EXPONENT = 6;
+        private static final int MAX_EXPONENT = 40;
+        private static final int HISTOGRAM_SIZE =
+            LINEAR_BUCKETS + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+        public PhaseStats(long timestamp) {
+            this.lastTick = timestamp;
+            this.lastAllocated = 0L;
+            this.histogram = new int[HISTOGRAM_SIZE];
+            this.count = 0L;
+            this.max = 0L;
+        }
+
+        @Override
+        public void add(long nanos) {
+            long value = Math.max(nanos, 0L);
+            super.add(value);
+
+            histogram[toBucket(value)]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        public long getPercentile(double percentile) {
+            if (count == 0L) {
+                return 0L;
+            }
+
+            long rank = Math.max((long) Math.ceil(percentile * count), 1L);
+            if (rank >= count) {
+                return max;
+            }
+
+            long seen = 0L;
+
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return Math.min(fromBucket(i), max);
+                }
+            }
+
+            return max;
+        }
+
+        public void resetHistogram() {
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                histogram[i] = 0;
+            }
+            count = 0L;
+            max = 0L;
+        }
+
+        private static int toBucket(long nanos) {
+            long micros = nanos / 1000L;
+            if (micros < LINEAR_BUCKETS) {
+                return (int) micros;
+            }
+
+            int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+            int shift = exponent - SUB_BUCKET_BITS;
+            int subBucket = (int) ((micros >> shift) & (SUB_BUCKETS - 1));
+            return LINEAR_BUCKETS + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * Returns the value in the middle of the bucket, in nanoseconds.
+         */
+        private static long fromBucket(int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket * 1000L + 500L;
+            }
+
+            int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + MIN_EXPONENT;
+            int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            int shift = exponent - SUB_BUCKET_BITS;
+            long lowerBound = (long) (SUB_BUCKETS + subBucket) << shift;
+            long width = 1L << shift;
+            return (lowerBound + width / 2L) * 1000L;
+        }
     }
 }
@@ -0,0 +1,268 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.base.Preconditions;
+import lombok.Setter;
+import nl.colorize.multimedialib.scene.Actor;
+import nl.colorize.multimedialib.scene.Scene;
+import nl.colorize.util.LogHelper;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Watchdog that runs on a background thread and monitors the renderer
+ * thread. When the current frame exceeds the configured threshold, the
+ * watchdog repeatedly samples the renderer thread's stack until the frame
+ * has been completed. The samples are then aggregated into a
+ * {@link HitchReport}, which is logged by default.
+ * <p>
+ * The watchdog is notified of the start and end of each frame by
+ * {@link FrameStats}, which means it works with any renderer that measures
+ * the frame update and frame render phases. A frame starts when the frame
+ * update starts, or when rendering starts without a preceding frame update.
+ * A frame ends when rendering has been completed.
+ * <p>
+ * While no frame exceeds the threshold, the watchdog thread only wakes up
+ * once per frame, so the overhead is minimal. Each time it wakes up, the
+ * watchdog takes at most one sample, and reports the hitch once the frame
+ * has ended. Sampling the stack does
+ * briefly pause the renderer thread, but only for frames that are already
+ * too slow. The watchdog relies on threads, and is therefore not supported
+ * on platforms that do not support multithreading, such as the browser.
+ */
+public class FrameWatchdog implements EventTracer {
+
+    private long thresholdNanos;
+    private long samplingIntervalNanos;
+    @Setter private Consumer<HitchReport> reportHandler;
+    private LongSupplier clock;
+    private LongConsumer sleeper;
+    private AtomicBoolean running;
+    @Nullable private Hitch currentHitch;
+
+    private volatile Thread renderThread;
+    private volatile long frameStart;
+    private AtomicLong frameCount;
+    private volatile String activeScene;
+
+    private static final long DEFAULT_SAMPLING_INTERVAL_NANOS = 1_000_000L;
+    private static final int MAX_HOT_FRAMES = 10;
+    private static final Logger LOGGER = LogHelper.getLogger(FrameWatchdog.class);
+
+    public FrameWatchdog(long thresholdMillis) {
+        this(thresholdMillis * 1_000_000L, DEFAULT_SAMPLING_INTERVAL_NANOS);
+    }
+
+    /**
+     * Creates a watchdog with the specified threshold and sampling interval,
+     * both in nanoseconds.
+     */
+    public FrameWatchdog(long thresholdNanos, long samplingIntervalNanos) {
+        this(thresholdNanos, samplingIntervalNanos, System::nanoTime, LockSupport::parkNanos);
+    }
+
+    /**
+     * Creates a watchdog that uses the specified clock, which should return
+     * a timestamp in nanoseconds, and the specified function to sleep for a
+     * number of nanoseconds. This is mainly intended for testing purposes.
+     */
+    protected FrameWatchdog(long thresholdNanos, long samplingIntervalNanos, LongSupplier clock,
+                            LongConsumer sleeper) {
+        Preconditions.checkArgument(thresholdNanos > 0L, "Invalid threshold: " + thresholdNanos);
+        Preconditions.checkArgument(samplingIntervalNanos > 0L,
+            "Invalid sampling interval: " + samplingIntervalNanos);
+
+        this.thresholdNanos = thresholdNanos;
+        this.samplingIntervalNanos = samplingIntervalNanos;
+        this.reportHandler = report -> LOGGER.warning("Frame hitch detected: " + report);
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.running = new AtomicBoolean(false);
+        this.currentHitch = null;
+        this.frameStart = 0L;
+        this.frameCount = new AtomicLong(0L);
+        this.activeScene = "<none>";
+    }
+
+    /**
+     * Starts the watchdog thread. Returns this watchdog, so that it can be
+     * started while it is being registered with the {@link FrameStats}.
+     */
+    public FrameWatchdog start() {
+        if (running.compareAndSet(false, true)) {
+            Thread watchdogThread = new Thread(this::runWatchdog, "MultimediaLib-Watchdog");
+            watchdogThread.setDaemon(true);
+            watchdogThread.start();
+        }
+        return this;
+    }
+
+    public void stop() {
+        running.set(false);
+    }
+
+    @Override
+    public void phaseStarted(String phase) {
+        boolean update = phase.equals(FrameStats.PHASE_FRAME_UPDATE);
+        boolean render = phase.equals(FrameStats.PHASE_FRAME_RENDER);
+
+        if (update || (render && frameStart == 0L)) {
+            renderThread = Thread.currentThread();
+            frameCount.incrementAndGet();
+            frameStart = clock.getAsLong();
+        }
+    }
+
+    @Override
+    public void phaseEnded(String phase, long nanos) {
+        if (phase.equals(FrameStats.PHASE_FRAME_RENDER)) {
+            frameStart = 0L;
+        }
+    }
+
+    @Override
+    public void sceneStarted(Scene scene) {
+        activeScene = scene.getClass().getName();
+    }
+
+    private void runWatchdog() {
+        while (running.get()) {
+            checkFrame();
+        }
+
+        if (currentHitch != null) {
+            reportHitch(currentHitch);
+            currentHitch = null;
+        }
+    }
+
+    /**
+     * Checks the renderer thread's current frame, then sleeps until the
+     * frame should be checked again. If the frame exceeds the threshold,
+     * this takes one sample of the renderer thread's stack. The hitch is
+     * reported once a later check finds that the frame has ended. This is
+     * called repeatedly by the watchdog thread.
+     */
+    protected void checkFrame() {
+        long frame = frameCount.get();
+        long start = frameStart;
+
+        if (currentHitch != null && (currentHitch.frame != frame || start == 0L)) {
+            reportHitch(currentHitch);
+            currentHitch = null;
+        }
+
+        if (start == 0L) {
+            sleeper.accept(thresholdNanos / 2L);
+            return;
+        }
+
+        long elapsed = clock.getAsLong() - start;
+
+        if (elapsed < thresholdNanos) {
+            sleeper.accept(thresholdNanos - elapsed);
+        } else {
+            if (currentHitch == null) {
+                currentHitch = new Hitch(frame, start, renderThread);
+            }
+            sampleHitch(currentHitch);
+            sleeper.accept(samplingIntervalNanos);
+        }
+    }
+
+    private void sampleHitch(Hitch hitch) {
+        StackTraceElement[] stack = hitch.thread.getStackTrace();
+
+        if (stack.length > 0) {
+            hitch.topFrames.merge(stack[0].toString(), 1, Integer::sum);
+            hitch.samples++;
+        }
+
+        for (StackTraceElement element : stack) {
+            hitch.classes.add(element.getClassName());
+        }
+    }
+
+    private void reportHitch(Hitch hitch) {
+        if (hitch.samples > 0) {
+            long frameNanos = clock.getAsLong() - hitch.start;
+            List<String> actors = findActorClasses(hitch.classes, hitch.thread.getContextClassLoader());
+            reportHandler.accept(new HitchReport(frameNanos, hitch.samples, activeScene, actors,
+                getHotFrames(hitch.topFrames)));
+        }
+    }
+
+    private List<HitchReport.HotFrame> getHotFrames(Map<String, Integer> topFrames) {
+        return topFrames.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(MAX_HOT_FRAMES)
+            .map(entry -> new HitchReport.HotFrame(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+
+    /**
+     * Returns the classes from the sampled stacks that are actors or scenes,
+     * which indicates which parts of the application were active during the
+     * hitch. Classes that cannot be loaded, such as lambdas, are ignored.
+     */
+    private List<String> findActorClasses(Set<String> classNames, ClassLoader classLoader) {
+        List<String> actors = new ArrayList<>();
+
+        for (String className : classNames) {
+            try {
+                Class<?> type = Class.forName(className, false, classLoader);
+                if (Actor.class.isAssignableFrom(type) || Scene.class.isAssignableFrom(type)) {
+                    actors.add(className);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOGGER.fine("Cannot load sampled class " + className);
+            }
+        }
+
+        actors.sort(Comparator.naturalOrder());
+        return actors;
+    }
+
+    /**
+     * The samples that have been taken so far for a frame that exceeded the
+     * threshold. Only accessed by the watchdog thread.
+     */
+    private static class Hitch {
+
+        private long frame;
+        private long start;
+        private Thread thread;
+        private Map<String, Integer> topFrames;
+        private Set<String> classes;
+        private int samples;
+
+        public Hitch(long frame, long start, Thread thread) {
+            this.frame = frame;
+            this.start = start;
+            this.thread = thread;
+            this.topFrames = new HashMap<>();
+            this.classes = new LinkedHashSet<>();
+            this.samples = 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import java.util.List;
+
+/**
+ * Describes a frame that exceeded the threshold of the {@link FrameWatchdog}.
+ * Hot frames are the stack frames that were most often at the top of the
+ * renderer thread's stack while the frame was being sampled, sorted so
+ * that the most frequent stack frame is first. The actor classes are all
+ * actors and scenes that appeared anywhere in the sampled stacks.
+ */
+public record HitchReport(
+    long frameNanos,
+    int samples,
+    String scene,
+    List<String> actors,
+    List<HotFrame> hotFrames
+) {
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(String.format("Frame took %d ms (%d samples)\n", frameNanos / 1_000_000L, samples));
+        buffer.append("    Scene: ").append(scene).append("\n");
+        buffer.append("    Actors: ").append(String.join(", ", actors)).append("\n");
+        for (HotFrame hotFrame : hotFrames) {
+            buffer.append(String.format("    %3d  %s\n", hotFrame.samples(), hotFrame.frame()));
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Stack frame that was sampled during a hitch, and the number of samples
+     * in which it was at the top of the stack.
+     */
+    public record HotFrame(String frame, int samples) {
+    }
+}
@@ -0,0 +1,146 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the state of an {@link InputDevice} during every frame update,
+ * together with the frame's delta time, into a compact binary log. The
+ * recording can then be played back using {@link ReplayInput}, which allows
+ * a session to be replayed with the exact same sequence of frame updates.
+ * <p>
+ * The binary format contains the following data for every frame:
+ * <ul>
+ *   <li>Delta time (double)</li>
+ *   <li>Flags for touch and keyboard availability (byte)</li>
+ *   <li>Number of pressed keys, followed by their key codes (bytes)</li>
+ *   <li>Number of released keys, followed by their key codes (bytes)</li>
+ *   <li>Number of pointers (byte), followed by each pointer's index in the
+ *       pointer table (byte), its ID if the pointer did not appear in
+ *       earlier frames (UTF), its position (two doubles), and its state
+ *       (byte).</li>
+ * </ul>
+ * Most frames do not contain key events and only a single pointer, which
+ * means they use 30 bytes.
+ */
+public final class InputRecording {
+
+    private ByteArrayOutputStream buffer;
+    private DataOutputStream out;
+    private List<String> pointerTable;
+    private int frameCount;
+
+    static final int FORMAT_VERSION = 1;
+    static final int FLAG_TOUCH = 1;
+    static final int FLAG_KEYBOARD = 2;
+    static final KeyCode[] KEY_CODES = KeyCode.values();
+
+    public InputRecording() {
+        this.buffer = new ByteArrayOutputStream();
+        this.out = new DataOutputStream(buffer);
+        this.pointerTable = new ArrayList<>();
+        this.frameCount = 0;
+
+        write(() -> out.writeByte(FORMAT_VERSION));
+    }
+
+    /**
+     * Appends a frame to the recording, using the current state of the
+     * input device.
+     */
+    public void recordFrame(double deltaTime, InputDevice input) {
+        write(() -> {
+            out.writeDouble(deltaTime);
+            out.writeByte((input.isTouchAvailable() ? FLAG_TOUCH : 0) |
+                (input.isKeyboardAvailable() ? FLAG_KEYBOARD : 0));
+            writeKeys(input, true);
+            writeKeys(input, false);
+            writePointers(input);
+        });
+        frameCount++;
+    }
+
+    private void writeKeys(InputDevice input, boolean pressed) throws IOException {
+        int count = 0;
+        for (KeyCode keyCode : KEY_CODES) {
+            if (isKeyActive(input, keyCode, pressed)) {
+                count++;
+            }
+        }
+
+        out.writeByte(count);
+
+        if (count > 0) {
+            for (KeyCode keyCode : KEY_CODES) {
+                if (isKeyActive(input, keyCode, pressed)) {
+                    out.writeByte(keyCode.ordinal());
+                }
+            }
+        }
+    }
+
+    private boolean isKeyActive(InputDevice input, KeyCode keyCode, boolean pressed) {
+        return pressed ? input.isKeyPressed(keyCode) : input.isKeyReleased(keyCode);
+    }
+
+    private void writePointers(InputDevice input) throws IOException {
+        int count = 0;
+        for (Pointer _ : input.getPointers()) {
+            count++;
+        }
+
+        out.writeByte(count);
+
+        for (Pointer pointer : input.getPointers()) {
+            int index = pointerTable.indexOf(pointer.getId());
+            if (index == -1) {
+                out.writeByte(pointerTable.size());
+                out.writeUTF(pointer.getId());
+                pointerTable.add(pointer.getId());
+            } else {
+                out.writeByte(index);
+            }
+
+            out.writeDouble(pointer.getPosition().x());
+            out.writeDouble(pointer.getPosition().y());
+            out.writeByte(pointer.getState());
+        }
+    }
+
+    private void write(RecordingTask task) {
+        try {
+            task.write();
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array,
+            // but DataOutputStream declares the exception.
+            throw new MediaException("Failed to write input recording", e);
+        }
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the binary representation of this recording, which can be
+     * passed to {@link ReplayInput} to play back the recording.
+     */
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface RecordingTask {
+
+        public void write() throws IOException;
+    }
+}
@@ -0,0 +1,352 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import nl.colorize.multimedialib.math.Circle;
+import nl.colorize.multimedialib.math.Line;
+import nl.colorize.multimedialib.math.Polygon;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.math.SegmentedLine;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.Container;
+import nl.colorize.multimedialib.stage.Group;
+import nl.colorize.multimedialib.stage.ImageTransform;
+import nl.colorize.multimedialib.stage.Mesh;
+import nl.colorize.multimedialib.stage.ParticleBatch;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Spatial2D;
+import nl.colorize.multimedialib.stage.Sprite;
+import nl.colorize.multimedialib.stage.Stage;
+import nl.colorize.multimedialib.stage.StageVisitor;
+import nl.colorize.multimedialib.stage.Text;
+import nl.colorize.multimedialib.stage.Transform;
+import nl.colorize.multimedialib.stage.Transform3D;
+
+/**
+ * Decorates another {@link StageVisitor} to count and measure the draw calls
+ * that are made while visiting the stage. This can be used with any renderer,
+ * since it only observes the calls made to the renderer's visitor. Renderers
+ * can report additional information that is not visible from the outside,
+ * such as batch flushes, state changes, and texture switches. Renderers
+ * that use a {@link ResourceCache} also report its hit rate and memory
+ * usage.
+ * <p>
+ * The results are published to {@link FrameStats} at the end of every frame.
+ * The time spent in each type of draw call is recorded as a custom
+ * statistic, the number of draw calls, drawn and culled nodes, and
+ * renderer-reported events are recorded as counters. Draw call types are
+ * only published once they have been used at least once, so that the
+ * results only contain the types that are relevant for the application.
+ * <p>
+ * Instrumentation is enabled by setting the visitor on the {@link Stage},
+ * which will then automatically decorate the renderer's visitor. Measuring
+ * every draw call has a small performance overhead, so instrumentation
+ * should normally only be enabled during development.
+ */
+public class InstrumentedStageVisitor implements StageVisitor {
+
+    private FrameStats frameStats;
+    private StageVisitor delegate;
+
+    private long[] drawCalls;
+    private long[] drawTime;
+    private boolean[] published;
+    @Getter private int culledNodes;
+    @Getter private int batchFlushes;
+    @Getter private int stateChanges;
+    @Getter private int textureSwitches;
+    @Getter private int cacheHits;
+    @Getter private int cacheMisses;
+    @Getter private long cacheMemory;
+    private boolean cachePublished;
+
+    private int deferredBatchFlushes;
+    private int deferredStateChanges;
+    private int deferredTextureSwitches;
+    private int deferredCacheHits;
+    private int deferredCacheMisses;
+    private long deferredCacheMemory;
+
+    public static final String COUNTER_DRAW_CALLS = "Draw calls";
+    public static final String COUNTER_CULLED = "Culled nodes";
+    public static final String COUNTER_BATCH_FLUSHES = "Batch flushes";
+    public static final String COUNTER_STATE_CHANGES = "State changes";
+    public static final String COUNTER_TEXTURE_SWITCHES = "Texture switches";
+    public static final String COUNTER_CACHE_HIT_RATE = "Cache hit rate (%)";
+    public static final String COUNTER_CACHE_MEMORY = "Cache memory (KB)";
+
+    public InstrumentedStageVisitor(FrameStats frameStats) {
+        this.frameStats = frameStats;
+        this.drawCalls = new long[DrawType.values().length];
+        this.drawTime = new long[DrawType.values().length];
+        this.published = new boolean[DrawType.values().length];
+    }
+
+    /**
+     * Changes the visitor that should be decorated. This is normally called
+     * by the {@link Stage} before visiting, so that the same instance can be
+     * used with whatever visitor is used by the renderer.
+     */
+    public void wrap(StageVisitor delegate) {
+        Preconditions.checkArgument(delegate != this, "Cannot decorate itself");
+        this.delegate = delegate;
+    }
+
+    /**
+     * Reports that the renderer has flushed its batch, submitting the
+     * batched graphics to the GPU. Renderers that do not use batching
+     * will never call this method.
+     */
+    public void reportBatchFlushes(int flushes) {
+        batchFlushes += flushes;
+    }
+
+    /**
+     * Reports that the renderer had to change its graphics state, for
+     * example by switching between drawing sprites and drawing shapes.
+     */
+    public void reportStateChange() {
+        stateChanges++;
+    }
+
+    /**
+     * Reports that the renderer had to switch to a different texture while
+     * drawing sprites.
+     */
+    public void reportTextureSwitch() {
+        textureSwitches++;
+    }
+
+    /**
+     * Reports the number of cache hits and misses during the current frame,
+     * and the current memory usage, for one of the renderer's caches. When
+     * the renderer uses multiple caches, the results are combined.
+     */
+    public void reportCacheUsage(int hits, int misses, long memoryUsage) {
+        cacheHits += hits;
+        cacheMisses += misses;
+        cacheMemory += memoryUsage;
+        cachePublished = true;
+    }
+
+    /**
+     * Reports events that were measured by a renderer that draws frames on
+     * a separate thread. That thread should use its own instrumentation
+     * while drawing, and pass the results to the thread that updates the
+     * stage, which then calls this method. The frame is drawn while the
+     * next frame is already being updated, so the events are included in
+     * the results for the next frame that is visited.
+     */
+    public void reportDeferredEvents(int batchFlushes, int stateChanges, int textureSwitches,
+                                     int cacheHits, int cacheMisses, long cacheMemory) {
+        deferredBatchFlushes += batchFlushes;
+        deferredStateChanges += stateChanges;
+        deferredTextureSwitches += textureSwitches;
+        deferredCacheHits += cacheHits;
+        deferredCacheMisses += cacheMisses;
+        deferredCacheMemory = cacheMemory;
+        cachePublished |= cacheHits > 0 || cacheMisses > 0 || cacheMemory > 0L;
+    }
+
+    /**
+     * Returns the number of draw calls of the specified type that have been
+     * made during the current frame.
+     */
+    public long getDrawCalls(DrawType type) {
+        return drawCalls[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of nodes that have been drawn during the current
+     * frame, which is the total number of draw calls for all types.
+     */
+    public long getDrawnNodes() {
+        long total = 0L;
+        for (long count : drawCalls) {
+            total += count;
+        }
+        return total;
+    }
+
+    private void reset() {
+        for (int i = 0; i < drawCalls.length; i++) {
+            drawCalls[i] = 0L;
+            drawTime[i] = 0L;
+        }
+
+        culledNodes = 0;
+        batchFlushes = deferredBatchFlushes;
+        stateChanges = deferredStateChanges;
+        textureSwitches = deferredTextureSwitches;
+        cacheHits = deferredCacheHits;
+        cacheMisses = deferredCacheMisses;
+        cacheMemory = deferredCacheMemory;
+
+        deferredBatchFlushes = 0;
+        deferredStateChanges = 0;
+        deferredTextureSwitches = 0;
+        deferredCacheHits = 0;
+        deferredCacheMisses = 0;
+        deferredCacheMemory = 0L;
+    }
+
+    private void publish() {
+        for (DrawType type : DrawType.values()) {
+            int index = type.ordinal();
+            published[index] |= drawCalls[index] > 0L;
+
+            if (published[index]) {
+                frameStats.record(type.phase, drawTime[index]);
+                frameStats.recordCount(type.counter, drawCalls[index]);
+            }
+        }
+
+        frameStats.recordCount(COUNTER_DRAW_CALLS, getDrawnNodes());
+        frameStats.recordCount(COUNTER_CULLED, culledNodes);
+        frameStats.recordCount(COUNTER_BATCH_FLUSHES, batchFlushes);
+        frameStats.recordCount(COUNTER_STATE_CHANGES, stateChanges);
+        frameStats.recordCount(COUNTER_TEXTURE_SWITCHES, textureSwitches);
+
+        if (cachePublished) {
+            int lookups = cacheHits + cacheMisses;
+            frameStats.recordCount(COUNTER_CACHE_HIT_RATE, lookups == 0 ? 100L : cacheHits * 100L / lookups);
+            frameStats.recordCount(COUNTER_CACHE_MEMORY, cacheMemory / 1024L);
+        }
+    }
+
+    private void measure(DrawType type, long start) {
+        drawCalls[type.ordinal()]++;
+        drawTime[type.ordinal()] += System.nanoTime() - start;
+    }
+
+    @Override
+    public void prepareStage(Stage stage) {
+        Preconditions.checkState(delegate != null, "No visitor to decorate");
+        reset();
+        delegate.prepareStage(stage);
+    }
+
+    @Override
+    public void visitContainer(Container container, Transform globalTransform) {
+        delegate.visitContainer(container, globalTransform);
+    }
+
+    @Override
+    public void visitCulledNode(Spatial2D node) {
+        culledNodes++;
+        delegate.visitCulledNode(node);
+    }
+
+    @Override
+    public void drawBackground(ColorRGB color) {
+        delegate.drawBackground(color);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawSprite(sprite, globalTransform);
+        measure(DrawType.SPRITE, start);
+    }
+
+    @Override
+    public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawLine(graphic, line, globalTransform);
+        measure(DrawType.LINE, start);
+    }
+
+    @Override
+    public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawSegmentedLine(graphic, line, globalTransform);
+        measure(DrawType.LINE, start);
+    }
+
+    @Override
+    public void drawRect(Primitive graphic, Rect rect, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawRect(graphic, rect, globalTransform);
+        measure(DrawType.RECT, start);
+    }
+
+    @Override
+    public void drawCircle(Primitive graphic, Circle circle, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawCircle(graphic, circle, globalTransform);
+        measure(DrawType.CIRCLE, start);
+    }
+
+    @Override
+    public void drawPolygon(Primitive graphic, Polygon polygon, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawPolygon(graphic, polygon, globalTransform);
+        measure(DrawType.POLYGON, start);
+    }
+
+    @Override
+    public void drawText(Text text, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawText(text, globalTransform);
+        measure(DrawType.TEXT, start);
+    }
+
+    @Override
+    public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawParticles(particles, globalTransform);
+        measure(DrawType.PARTICLES, start);
+    }
+
+    @Override
+    public void finalize2D(Stage stage) {
+        delegate.finalize2D(stage);
+        publish();
+    }
+
+    @Override
+    public void visitGroup(Group group, Transform3D globalTransform) {
+        delegate.visitGroup(group, globalTransform);
+    }
+
+    @Override
+    public void drawMesh(Mesh mesh, Transform3D globalTransform) {
+        long start = System.nanoTime();
+        delegate.drawMesh(mesh, globalTransform);
+        measure(DrawType.MESH, start);
+    }
+
+    @Override
+    public void finalize3D(Stage stage) {
+        delegate.finalize3D(stage);
+    }
+
+    /**
+     * The types of draw calls that are measured separately. Lines and
+     * segmented lines are combined into a single type.
+     */
+    public enum DrawType {
+        SPRITE("Sprites"),
+        TEXT("Text"),
+        LINE("Lines"),
+        RECT("Rects"),
+        CIRCLE("Circles"),
+        POLYGON("Polygons"),
+        PARTICLES("Particles"),
+        MESH("Meshes");
+
+        private final String counter;
+        private final String phase;
+
+        private DrawType(String label) {
+            this.counter = label;
+            this.phase = "Draw " + label.toLowerCase();
+        }
+    }
+}
@@ -138,6 +138,17 @@ public interface MediaLoader {
      */
     public boolean containsResourceFile(ResourceFile file);
 
+    /**
+     * Returns true if this {@link MediaLoader} can be used to load media
+     * files from background threads, allowing assets to be loaded while
+     * the renderer continues to render frames. The default implementation
+     * returns false, which is the safe choice for renderers that need to
+     * load media files on the thread that owns the graphics context.
+     */
+    default boolean supportsBackgroundLoading() {
+        return false;
+    }
+
     /**
      * Loads the application data for the application with the specified name.
      * Application data is limited to key/value properties, as this type of
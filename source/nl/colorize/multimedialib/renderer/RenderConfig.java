@@ -79,6 +79,49 @@ import static lombok.AccessLevel.PRIVATE;
  * platforms. This is comparable to "responsive design mode" in desktop
  * browsers. Simulation mode can be activated programmatically, but it can
  * also be enabled using the system property {@code multimedialib.simulation}.
+ * <p>
+ * <strong>Allocation tracking:</strong> Desktop renderers can measure the
+ * memory allocated during every frame, and report garbage collection
+ * pauses. This has a small performance cost, so it is disabled by default.
+ * It can be enabled programmatically, or by using the system property
+ * {@code multimedialib.allocationTracking}.
+ * <p>
+ * <strong>Hitch threshold:</strong> Desktop renderers can monitor frames
+ * that take longer than the threshold, in milliseconds, and log where the
+ * time was spent. See {@link FrameWatchdog} for more information. The
+ * watchdog is disabled when the threshold is zero, which is the default.
+ * It can be enabled programmatically, or by using the system property
+ * {@code multimedialib.hitchThreshold}.
+ * <p>
+ * <strong>Flight recorder:</strong> Desktop renderers can emit Java Flight
+ * Recorder events for every frame and scene change, so that they can be
+ * correlated with other events when profiling. This is disabled by default,
+ * so that applications and tests do not produce events unless profiling
+ * was requested. It can be enabled programmatically, or by using the system
+ * property {@code multimedialib.flightRecorder}.
+ * <p>
+ * <strong>Threaded rendering:</strong> Desktop renderers can perform frame
+ * updates and draw frames on separate threads, so that both can use a full
+ * processor core. The frame is drawn from a snapshot of the stage that is
+ * recorded after every frame update. This means the frame being displayed
+ * lags one frame behind the frame update, so it is disabled by default.
+ * It can be enabled programmatically, or by using the system property
+ * {@code multimedialib.threadedRendering}.
+ * <p>
+ * <strong>Accelerated images:</strong> Renderers that do not keep images
+ * in video memory by default, such as the Java2D renderer, can copy images
+ * to video memory the first time they are drawn. This is faster on most
+ * systems, but depends on the graphics driver, so it is disabled by default.
+ * It can be enabled programmatically, or by using the system property
+ * {@code multimedialib.acceleratedImages}.
+ * <p>
+ * <strong>Partial redraw:</strong> Desktop renderers can track which parts
+ * of the stage have changed since the previous frame, and only redraw that
+ * region of the screen. This benefits applications with mostly static
+ * graphics, but adds overhead to applications where most of the screen
+ * changes every frame, so it is disabled by default. It can be enabled
+ * programmatically, or by using the system property
+ * {@code multimedialib.partialRedraw}.
  */
 @AllArgsConstructor(access=PRIVATE)
 @Getter
@@ -94,6 +137,12 @@ public final class RenderConfig {
     @With private List<Actor> globalHandlers;
     @With private String simulationMode;
     private Locale userLocale;
+    @With private boolean allocationTracking;
+    @With private int hitchThreshold;
+    @With private boolean flightRecorder;
+    @With private boolean threadedRendering;
+    @With private boolean acceleratedImages;
+    @With private boolean partialRedraw;
 
     private static final Size SIMULATION_MODE_PHONE = new Size(350, 760);
     private static final Size SIMULATION_MODE_TABLET = new Size(570, 760);
@@ -111,6 +160,12 @@ public final class RenderConfig {
         this.globalHandlers = new CopyOnWriteArrayList<>();
         this.simulationMode = System.getProperty("multimedialib.simulation");
         this.userLocale = Locale.getDefault();
+        this.allocationTracking = Boolean.getBoolean("multimedialib.allocationTracking");
+        this.hitchThreshold = Integer.getInteger("multimedialib.hitchThreshold", 0);
+        this.flightRecorder = Boolean.getBoolean("multimedialib.flightRecorder");
+        this.threadedRendering = Boolean.getBoolean("multimedialib.threadedRendering");
+        this.acceleratedImages = Boolean.getBoolean("multimedialib.acceleratedImages");
+        this.partialRedraw = Boolean.getBoolean("multimedialib.partialRedraw");
     }
 
     public boolean isSimulationMode() {
@@ -0,0 +1,168 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.math.Point2D;
+import nl.colorize.util.EventQueue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static nl.colorize.multimedialib.renderer.InputRecording.FLAG_KEYBOARD;
+import static nl.colorize.multimedialib.renderer.InputRecording.FLAG_TOUCH;
+import static nl.colorize.multimedialib.renderer.InputRecording.FORMAT_VERSION;
+import static nl.colorize.multimedialib.renderer.InputRecording.KEY_CODES;
+
+/**
+ * Input device that plays back a recording created using
+ * {@link InputRecording}. Every call to {@link #nextFrame()} reads the next
+ * frame from the recording, changes the input state to match that frame,
+ * and returns the frame's delta time. The caller should then perform a
+ * frame update using that delta time, which allows sessions to be replayed
+ * deterministically.
+ * <p>
+ * Text input and clipboard access are not part of the recording. Requests
+ * for text input will therefore never receive a response.
+ */
+public class ReplayInput implements InputDevice {
+
+    private DataInputStream in;
+    private int remaining;
+    private boolean[] keysPressed;
+    private boolean[] keysReleased;
+    private boolean touchAvailable;
+    private boolean keyboardAvailable;
+    private List<Pointer> pointerTable;
+    private List<Pointer> pointers;
+
+    public ReplayInput(byte[] recording) {
+        this.in = new DataInputStream(new ByteArrayInputStream(recording));
+        this.keysPressed = new boolean[KEY_CODES.length];
+        this.keysReleased = new boolean[KEY_CODES.length];
+        this.touchAvailable = false;
+        this.keyboardAvailable = false;
+        this.pointerTable = new ArrayList<>();
+        this.pointers = new ArrayList<>();
+
+        try {
+            int version = in.readUnsignedByte();
+            Preconditions.checkArgument(version == FORMAT_VERSION,
+                "Unsupported input recording version: " + version);
+            this.remaining = in.available();
+        } catch (IOException e) {
+            throw new MediaException("Invalid input recording", e);
+        }
+    }
+
+    public boolean hasNextFrame() {
+        return remaining > 0;
+    }
+
+    /**
+     * Reads the next frame from the recording and changes the input state
+     * to match that frame. Returns the frame's delta time.
+     *
+     * @throws IllegalStateException if the recording has no more frames.
+     */
+    public double nextFrame() {
+        Preconditions.checkState(hasNextFrame(), "End of input recording");
+
+        try {
+            double deltaTime = in.readDouble();
+            int flags = in.readUnsignedByte();
+            touchAvailable = (flags & FLAG_TOUCH) != 0;
+            keyboardAvailable = (flags & FLAG_KEYBOARD) != 0;
+            readKeys(keysPressed);
+            readKeys(keysReleased);
+            readPointers();
+            remaining = in.available();
+            return deltaTime;
+        } catch (IOException e) {
+            throw new MediaException("Invalid input recording", e);
+        }
+    }
+
+    private void readKeys(boolean[] keys) throws IOException {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = false;
+        }
+
+        int count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            keys[in.readUnsignedByte()] = true;
+        }
+    }
+
+    private void readPointers() throws IOException {
+        pointers.clear();
+
+        int count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            int index = in.readUnsignedByte();
+            if (index == pointerTable.size()) {
+                pointerTable.add(new Pointer(in.readUTF()));
+            }
+
+            Pointer pointer = pointerTable.get(index);
+            pointer.setPosition(new Point2D(in.readDouble(), in.readDouble()));
+            pointer.setState(in.readUnsignedByte());
+            pointers.add(pointer);
+        }
+    }
+
+    @Override
+    public void update(double deltaTime) {
+        // Input state is changed by nextFrame(), since it depends
+        // on the recording instead of the elapsed time.
+    }
+
+    @Override
+    public Iterable<Pointer> getPointers() {
+        return pointers;
+    }
+
+    @Override
+    @Deprecated
+    public void clearPointerState() {
+        for (Pointer pointer : pointers) {
+            pointer.clearState();
+        }
+    }
+
+    @Override
+    public boolean isTouchAvailable() {
+        return touchAvailable;
+    }
+
+    @Override
+    public boolean isKeyboardAvailable() {
+        return keyboardAvailable;
+    }
+
+    @Override
+    public boolean isKeyPressed(KeyCode keyCode) {
+        return keysPressed[keyCode.ordinal()];
+    }
+
+    @Override
+    public boolean isKeyReleased(KeyCode keyCode) {
+        return keysReleased[keyCode.ordinal()];
+    }
+
+    @Override
+    public EventQueue<String> requestTextInput(String label, String initialValue) {
+        return new EventQueue<>();
+    }
+
+    @Override
+    public void fillClipboard(String text) {
+    }
+}
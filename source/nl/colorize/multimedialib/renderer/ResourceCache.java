@@ -0,0 +1,190 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache for images and textures that are derived from other graphics by the
+ * renderer, such as masked images or pre-rendered shapes. Unlike a regular
+ * cache, the capacity is not based on the number of entries, but on the
+ * estimated amount of memory used by the cached values. This prevents a
+ * small number of large images from using an unreasonable amount of memory,
+ * while still allowing a large number of small images to be cached.
+ * <p>
+ * When the cache exceeds its memory budget, the least recently used entries
+ * are evicted. Cached values often hold native resources, such as textures
+ * in video memory, that are not released by the garbage collector. Evicted
+ * values are therefore passed to a callback that should release those
+ * resources.
+ * <p>
+ * The cache keeps track of hits, misses, and memory usage, which can be
+ * reported to {@link InstrumentedStageVisitor} at the end of every frame
+ * so that they are included in the {@link FrameStats}.
+ *
+ * @param <K> The type of the cache keys.
+ * @param <V> The type of the cached values.
+ */
+public class ResourceCache<K, V> {
+
+    private Function<K, V> factory;
+    private ToLongFunction<V> sizeEstimate;
+    private Consumer<V> disposer;
+    @Getter private long memoryBudget;
+    private Map<K, Entry<V>> entries;
+
+    @Getter private long memoryUsage;
+    @Getter private long hits;
+    @Getter private long misses;
+    @Getter private long evictions;
+    private int frameHits;
+    private int frameMisses;
+
+    /**
+     * Creates a cache that uses the specified factory function to create
+     * values on demand. The size estimate should return the number of bytes
+     * used by a value, and the disposer is called for every value that is
+     * evicted from the cache.
+     */
+    public ResourceCache(Function<K, V> factory, ToLongFunction<V> sizeEstimate, Consumer<V> disposer,
+                         long memoryBudget) {
+        Preconditions.checkArgument(memoryBudget > 0L, "Invalid memory budget: " + memoryBudget);
+
+        this.factory = factory;
+        this.sizeEstimate = sizeEstimate;
+        this.disposer = disposer;
+        this.memoryBudget = memoryBudget;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached value for the specified key, creating it if it is
+     * not yet in the cache. Creating a new value might cause other entries
+     * to be evicted. The value that was just created is never evicted, even
+     * if it exceeds the memory budget on its own.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry != null) {
+            hits++;
+            frameHits++;
+            return entry.value;
+        }
+
+        misses++;
+        frameMisses++;
+
+        V value = factory.apply(key);
+        long size = sizeEstimate.applyAsLong(value);
+        entries.put(key, new Entry<>(value, size));
+        memoryUsage += size;
+        evict();
+        return value;
+    }
+
+    private void evict() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+
+        while (memoryUsage > memoryBudget && entries.size() > 1) {
+            Entry<V> eldest = iterator.next();
+            iterator.remove();
+            memoryUsage -= eldest.size;
+            evictions++;
+            disposer.accept(eldest.value);
+        }
+    }
+
+    /**
+     * Removes the entry for the specified key from the cache, and disposes
+     * its value. This method does nothing if the key is not in the cache.
+     */
+    public void forget(K key) {
+        Entry<V> entry = entries.remove(key);
+
+        if (entry != null) {
+            memoryUsage -= entry.size;
+            disposer.accept(entry.value);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache, and disposes their values.
+     */
+    public void clear() {
+        for (Entry<V> entry : entries.values()) {
+            disposer.accept(entry.value);
+        }
+
+        entries.clear();
+        memoryUsage = 0L;
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the fraction of lookups that were served from the cache, as a
+     * number between 0.0 and 1.0. Returns 1.0 if the cache has not been used
+     * yet.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0L ? 1.0 : (double) hits / total;
+    }
+
+    /**
+     * Reports the hits and misses since the previous call to this method,
+     * along with the current memory usage, to the specified instrumentation.
+     * This method should be called by the renderer at the end of every
+     * frame. Does nothing if instrumentation is not enabled.
+     */
+    public void reportUsage(@Nullable InstrumentedStageVisitor instrumentation) {
+        if (instrumentation != null) {
+            instrumentation.reportCacheUsage(frameHits, frameMisses, memoryUsage);
+        }
+
+        frameHits = 0;
+        frameMisses = 0;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by an image with the
+     * specified dimensions, assuming 4 bytes per pixel.
+     */
+    public static long estimateImageSize(int width, int height) {
+        return 4L * Math.max(width, 0) * Math.max(height, 0);
+    }
+
+    /**
+     * Rounds the value to the nearest multiple of the specified step. This
+     * is intended for cache keys that contain continuous values, such as
+     * sizes, which would otherwise create a separate cache entry for every
+     * value that is only marginally different.
+     */
+    public static double quantize(double value, double step) {
+        Preconditions.checkArgument(step > 0.0, "Invalid step: " + step);
+        return Math.round(value / step) * step;
+    }
+
+    /**
+     * Cached value together with its estimated size, which is stored so
+     * that the value does not need to be measured again when it is evicted.
+     */
+    private record Entry<V>(V value, long size) {
+    }
+}
@@ -17,6 +17,7 @@ import nl.colorize.multimedialib.stage.Container;
 import nl.colorize.multimedialib.stage.Group;
 import nl.colorize.multimedialib.stage.ImageTransform;
 import nl.colorize.multimedialib.stage.Mesh;
+import nl.colorize.multimedialib.stage.ParticleBatch;
 import nl.colorize.multimedialib.stage.Primitive;
 import nl.colorize.multimedialib.stage.Sprite;
 import nl.colorize.multimedialib.stage.Stage;
@@ -65,6 +66,11 @@ public class CollectingStageVisitor implements StageVisitor {
         nodes2D.add(sprite);
     }
 
+    @Override
+    public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        nodes2D.add(particles);
+    }
+
     @Override
     public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
         nodes2D.add(graphic);
@@ -18,8 +18,11 @@ import nl.colorize.multimedialib.renderer.Network;
 import nl.colorize.multimedialib.renderer.Pointer;
 import nl.colorize.multimedialib.renderer.RenderConfig;
 import nl.colorize.multimedialib.renderer.Renderer;
+import nl.colorize.multimedialib.renderer.ReplayInput;
 import nl.colorize.multimedialib.renderer.ScaleStrategy;
 import nl.colorize.multimedialib.renderer.World3D;
+import nl.colorize.multimedialib.renderer.java2d.AllocationTracker;
+import nl.colorize.multimedialib.renderer.java2d.FlightRecorderTracer;
 import nl.colorize.multimedialib.renderer.java2d.StandardMediaLoader;
 import nl.colorize.multimedialib.renderer.java2d.StandardNetwork;
 import nl.colorize.multimedialib.scene.Scene;
@@ -29,9 +32,12 @@ import nl.colorize.multimedialib.stage.FontFace;
 import nl.colorize.multimedialib.stage.StageVisitor;
 import nl.colorize.util.Development;
 import nl.colorize.util.EventQueue;
+import org.jspecify.annotations.Nullable;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
+import static lombok.AccessLevel.NONE;
 import static nl.colorize.multimedialib.stage.ColorRGB.BLACK;
 
 /**
@@ -53,12 +59,16 @@ public class HeadlessRenderer implements Renderer, SceneContext, InputDevice {
     private Network network;
     private SceneManager sceneManager;
     private World3D world3D;
+    private InputDevice input;
 
     private boolean touchAvailable;
     private boolean keyboardAvailable;
     private Point2D pointer;
     private boolean pointerPressed;
     private boolean pointerReleased;
+    private boolean terminated;
+    @Nullable private ExecutorService parallelExecutor;
+    @Getter(NONE) @Setter(NONE) @Nullable private AllocationTracker allocationTracker;
 
     public static final FontFace DEFAULT_FONT = new FontFace(null, "sans-serif", 10, BLACK);
 
@@ -68,6 +78,8 @@ public class HeadlessRenderer implements Renderer, SceneContext, InputDevice {
         this.pointer = new Point2D(0f, 0f);
         this.pointerPressed = false;
         this.pointerReleased = false;
+        this.terminated = false;
+        this.input = this;
 
         // The headless renderer doesn't need to be started explicitly
         // and can be used immediately after creation.
@@ -84,6 +96,15 @@ public class HeadlessRenderer implements Renderer, SceneContext, InputDevice {
         this.mediaLoader = new StandardMediaLoader();
         this.network = new StandardNetwork();
         this.sceneManager = new SimulatedSceneManager(this, initialScene);
+        this.sceneManager.setParallelExecutor(parallelExecutor);
+        if (config.isFlightRecorder()) {
+            sceneManager.addTracer(new FlightRecorderTracer());
+        }
+        stopAllocationTracking();
+        if (config.isAllocationTracking()) {
+            allocationTracker = AllocationTracker.enable(sceneManager.getFrameStats());
+        }
+        this.terminated = false;
 
         doFrame(0f);
     }
@@ -102,6 +123,26 @@ public class HeadlessRenderer implements Renderer, SceneContext, InputDevice {
         return List.of(GraphicsMode.HEADLESS);
     }
 
+    /**
+     * Marks this renderer as terminated. Since the headless renderer does not
+     * have an animation loop, this does not actually stop anything, but it
+     * allows code that performs frame updates to check if the scene has
+     * requested to terminate the application. Allocation tracking is
+     * stopped, since no more frames will be measured.
+     */
+    @Override
+    public void terminate() {
+        terminated = true;
+        stopAllocationTracking();
+    }
+
+    private void stopAllocationTracking() {
+        if (allocationTracker != null) {
+            allocationTracker.disable();
+            allocationTracker = null;
+        }
+    }
+
     @Deprecated
     public SceneContext getContext() {
         return this;
@@ -132,7 +173,32 @@ public class HeadlessRenderer implements Renderer, SceneContext, InputDevice {
 
     @Override
     public InputDevice getInput() {
-        return this;
+        return input;
+    }
+
+    /**
+     * Plays back all frames in the recording, as fast as possible. Frame
+     * updates use the delta time from the recording, and the recorded
+     * input state is used as the renderer's input device during playback.
+     * Playback stops early if the scene terminates the renderer.
+     *
+     * @return The number of frames that were played back.
+     */
+    public int replay(ReplayInput recording) {
+        InputDevice original = input;
+        input = recording;
+        int frames = 0;
+
+        try {
+            while (recording.hasNextFrame() && !terminated) {
+                doFrame(recording.nextFrame());
+                frames++;
+            }
+        } finally {
+            input = original;
+        }
+
+        return frames;
     }
 
     @Override
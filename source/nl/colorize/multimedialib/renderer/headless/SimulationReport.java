@@ -0,0 +1,43 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.headless;
+
+import java.util.List;
+
+/**
+ * Combines the results of all simulation instances that were run using the
+ * {@link SimulationRunner}. The elapsed time is the actual time it took to
+ * run all instances, which is less than the sum of the instance times when
+ * instances are run in parallel.
+ */
+public record SimulationReport(List<SimulationResult> results, long elapsedNanos) {
+
+    public int getTotalFrames() {
+        int total = 0;
+        for (SimulationResult result : results) {
+            total += result.frames();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the throughput of all simulation instances combined, in
+     * simulated frames per second of actual time.
+     */
+    public double getFramesPerSecond() {
+        if (elapsedNanos == 0L) {
+            return 0.0;
+        }
+        return getTotalFrames() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d instances, %d frames, %.0f frames/sec",
+            results.size(), getTotalFrames(), getFramesPerSecond());
+    }
+}
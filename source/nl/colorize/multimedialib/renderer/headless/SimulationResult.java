@@ -0,0 +1,33 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.headless;
+
+/**
+ * Describes the outcome of running a single simulation instance using the
+ * {@link SimulationRunner}. The simulated time is based on the number of
+ * frames and the simulated framerate, the elapsed time is the actual time
+ * it took to run the simulation.
+ */
+public record SimulationResult(
+    int instance,
+    long seed,
+    int frames,
+    double simulatedTime,
+    boolean terminated,
+    long elapsedNanos
+) {
+
+    /**
+     * Returns the number of simulated frames per second of actual time.
+     */
+    public double getFramesPerSecond() {
+        if (elapsedNanos == 0L) {
+            return 0.0;
+        }
+        return frames / (elapsedNanos / 1_000_000_000.0);
+    }
+}
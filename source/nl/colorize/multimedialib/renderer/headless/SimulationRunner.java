@@ -0,0 +1,143 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.headless;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.MoreExecutors;
+import nl.colorize.multimedialib.math.RNG;
+import nl.colorize.multimedialib.renderer.RenderConfig;
+import nl.colorize.multimedialib.renderer.RendererException;
+import nl.colorize.multimedialib.scene.ParallelActor;
+import nl.colorize.multimedialib.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Runs scenes as fast as possible, without frame pacing and without
+ * rendering, for example to run balance simulations or matches between
+ * bots. Every simulation instance uses its own {@link HeadlessRenderer},
+ * and instances can be run in parallel on multiple threads.
+ * <p>
+ * Each frame update uses a fixed delta time based on the simulated
+ * framerate, regardless of how much time has actually elapsed. The
+ * simulation ends when the scene calls {@code terminate()} on its
+ * context, or when the maximum number of frames has been reached.
+ * <p>
+ * Every instance receives its own seed, which is used to seed the
+ * {@link RNG} for the thread that runs the instance. This makes each
+ * simulation deterministic, as long as the scene does not rely on other
+ * shared state. Actors that implement {@link ParallelActor} are updated on
+ * that same thread, in the order in which they were attached, since they
+ * would otherwise not use the seeded random number generator. The
+ * simulation instances themselves already run in parallel.
+ */
+public class SimulationRunner {
+
+    private int framerate;
+    private int maxFrames;
+    private int threads;
+
+    /**
+     * Creates a simulation runner that performs frame updates based on the
+     * simulated {@code framerate}. Simulations are stopped after
+     * {@code maxFrames} frames. Instances are distributed over the specified
+     * number of threads.
+     */
+    public SimulationRunner(int framerate, int maxFrames, int threads) {
+        Preconditions.checkArgument(framerate >= 1, "Invalid framerate: " + framerate);
+        Preconditions.checkArgument(maxFrames >= 1, "Invalid max frames: " + maxFrames);
+        Preconditions.checkArgument(threads >= 1, "Invalid number of threads: " + threads);
+
+        this.framerate = framerate;
+        this.maxFrames = maxFrames;
+        this.threads = threads;
+    }
+
+    /**
+     * Creates a simulation runner that uses one thread per available
+     * processor core.
+     */
+    public SimulationRunner(int framerate, int maxFrames) {
+        this(framerate, maxFrames, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs the specified number of simulation instances, using the scene
+     * factory to create the initial scene for each instance. Instance
+     * {@code i} is seeded with {@code seed + i}. Blocks until all instances
+     * have completed.
+     *
+     * @throws RendererException if one of the simulation instances failed.
+     */
+    public SimulationReport run(int instances, long seed, IntFunction<Scene> sceneFactory) {
+        Preconditions.checkArgument(instances >= 1, "Invalid number of instances: " + instances);
+
+        long startTime = System.nanoTime();
+        List<Callable<SimulationResult>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < instances; i++) {
+            int instance = i;
+            tasks.add(() -> runInstance(instance, seed + instance, sceneFactory.apply(instance)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, instances));
+        List<SimulationResult> results = new ArrayList<>();
+
+        try {
+            for (Future<SimulationResult> result : executor.invokeAll(tasks)) {
+                results.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RendererException("Interrupted while running simulation", e);
+        } catch (ExecutionException e) {
+            throw new RendererException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new SimulationReport(results, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Runs a single simulation instance on the current thread, and blocks
+     * until the simulation has completed.
+     */
+    public SimulationResult runInstance(int instance, long seed, Scene scene) {
+        RNG.seedCurrentThread(seed);
+
+        try {
+            long startTime = System.nanoTime();
+            double deltaTime = 1.0 / framerate;
+
+            HeadlessRenderer renderer = new HeadlessRenderer();
+            renderer.setParallelExecutor(MoreExecutors.newDirectExecutorService());
+            RenderConfig config = renderer.getConfig().withFramerate(framerate);
+            renderer.start(config, scene);
+
+            int frames = 0;
+            while (frames < maxFrames && !renderer.isTerminated()) {
+                renderer.doFrame(deltaTime);
+                frames++;
+            }
+
+            SimulationResult result = new SimulationResult(instance, seed, frames, frames * deltaTime,
+                renderer.isTerminated(), System.nanoTime() - startTime);
+            renderer.terminate();
+            return result;
+        } finally {
+            RNG.clearCurrentThread();
+        }
+    }
+}
@@ -12,17 +12,32 @@ import nl.colorize.multimedialib.math.Region;
 import nl.colorize.multimedialib.stage.ColorRGB;
 import nl.colorize.multimedialib.stage.Image;
 
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+
+import static lombok.AccessLevel.NONE;
 
 /**
  * Implements the {@link Image} interface using an {@link BufferedImage},
  * which is part of the standard library.
+ * <p>
+ * When an image is drawn at a much smaller size than its original size,
+ * scaling down the full image every frame is both slow and produces
+ * aliasing artifacts. The image therefore provides "mip levels", versions
+ * of the image that have been scaled down by powers of two. The mip levels
+ * are generated once, the first time they are needed, and are then used
+ * for all subsequent frames.
  */
 @Getter
 public class AWTImage implements Image {
 
     private BufferedImage image;
     private Region region;
+    @Getter(NONE) private volatile BufferedImage[] mipLevels;
+
+    private static final int MAX_MIP_LEVELS = 6;
 
     public AWTImage(BufferedImage image) {
         Preconditions.checkArgument(image != null, "Image is null");
@@ -31,6 +46,82 @@ public class AWTImage implements Image {
         this.region = new Region(0, 0, image.getWidth(), image.getHeight());
     }
 
+    /**
+     * Returns the version of this image that should be used when drawing the
+     * image at the specified scale, where 1.0 indicates the original size.
+     * This returns the smallest mip level that is still at least as large as
+     * the size at which the image will be displayed. If the image is not
+     * scaled down by at least half, this returns the original image.
+     */
+    public BufferedImage getMipLevel(double scale) {
+        if (scale > 0.5) {
+            return image;
+        }
+
+        BufferedImage[] levels = mipLevels;
+        if (levels == null) {
+            levels = generateMipLevels();
+        }
+
+        int level = 0;
+        while (level < levels.length && scale <= 0.5) {
+            scale *= 2.0;
+            level++;
+        }
+
+        return level == 0 ? image : levels[level - 1];
+    }
+
+    private synchronized BufferedImage[] generateMipLevels() {
+        if (mipLevels != null) {
+            return mipLevels;
+        }
+
+        int count = 0;
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        while (count < MAX_MIP_LEVELS && width >= 2 && height >= 2) {
+            width /= 2;
+            height /= 2;
+            count++;
+        }
+
+        BufferedImage[] levels = new BufferedImage[count];
+        BufferedImage previous = image;
+
+        for (int i = 0; i < count; i++) {
+            levels[i] = downscale(previous);
+            previous = levels[i];
+        }
+
+        mipLevels = levels;
+        return levels;
+    }
+
+    /**
+     * Scales the image down to half its size. Every pixel in the result
+     * is based on four pixels in the original image. The result uses the
+     * same color model as the original, so that images that have been
+     * converted to the display-compatible format remain compatible.
+     */
+    private static BufferedImage downscale(BufferedImage original) {
+        int width = original.getWidth() / 2;
+        int height = original.getHeight() / 2;
+
+        ColorModel colorModel = original.getColorModel();
+        BufferedImage result = new BufferedImage(colorModel,
+            colorModel.createCompatibleWritableRaster(width, height),
+            colorModel.isAlphaPremultiplied(), null);
+
+        Graphics2D g2 = result.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(original, 0, 0, width, height, null);
+        g2.dispose();
+        return result;
+    }
+
     @Override
     public Image extractRegion(Region subRegion) {
         BufferedImage subImage = image.getSubimage(
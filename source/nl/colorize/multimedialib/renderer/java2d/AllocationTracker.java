@@ -0,0 +1,128 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import lombok.Getter;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.util.LogHelper;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Uses the JVM's management interface to track the number of bytes that
+ * are allocated during every frame, and to report garbage collection pauses
+ * to {@link FrameStats}. Allocations are measured using
+ * {@code com.sun.management.ThreadMXBean}, which is supported by most JVM
+ * implementations but is not part of the Java standard library.
+ * <p>
+ * Garbage collection notifications are delivered on a background thread,
+ * and are attributed to the frame during which they were received. Only
+ * stop-the-world pauses are reported. Garbage collectors that perform most
+ * of their work concurrently report their concurrent cycles separately,
+ * these are ignored since they do not block the renderer thread.
+ * <p>
+ * The garbage collection listeners are registered with the JVM, and
+ * therefore outlive the renderer that enabled them. Renderers should call
+ * {@link #disable()} when they are stopped or when they replace their
+ * {@link FrameStats}, otherwise the listeners will keep the old instance
+ * alive and keep reporting to it.
+ */
+public final class AllocationTracker implements NotificationListener {
+
+    private FrameStats frameStats;
+    private List<NotificationEmitter> emitters;
+    @Getter private boolean allocationTrackingSupported;
+
+    private static final Logger LOGGER = LogHelper.getLogger(AllocationTracker.class);
+
+    private AllocationTracker(FrameStats frameStats) {
+        this.frameStats = frameStats;
+        this.emitters = new ArrayList<>();
+        this.allocationTrackingSupported = false;
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+            return;
+        }
+
+        CompositeData data = (CompositeData) notification.getUserData();
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(data);
+
+        if (isPause(info)) {
+            frameStats.recordGarbageCollection(info.getGcInfo().getDuration() * 1_000_000L);
+        }
+    }
+
+    private boolean isPause(GarbageCollectionNotificationInfo info) {
+        String name = info.getGcName();
+        String action = info.getGcAction();
+        return !name.contains("Cycles") && !name.contains("Concurrent") && !action.contains("concurrent");
+    }
+
+    /**
+     * Removes the garbage collection listeners that were registered by
+     * {@link #enable(FrameStats)}. Calling this method more than once has no
+     * effect.
+     */
+    public void disable() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                LOGGER.warning("Garbage collection listener already removed");
+            }
+        }
+
+        emitters.clear();
+    }
+
+    /**
+     * Enables allocation and garbage collection tracking for the specified
+     * {@link FrameStats}. Allocations are measured for the thread that
+     * performs the frame updates, which means this method should be called
+     * before the first frame is measured. Returns the tracker, which should
+     * be disabled once it is no longer used. If the JVM does not support
+     * measuring allocations, only garbage collection pauses will be tracked.
+     */
+    public static AllocationTracker enable(FrameStats frameStats) {
+        AllocationTracker tracker = new AllocationTracker(frameStats);
+
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(tracker, null, null);
+                tracker.emitters.add(emitter);
+            }
+        }
+
+        frameStats.enableGarbageCollectionTracking();
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean allocationBean &&
+                allocationBean.isThreadAllocatedMemorySupported()) {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+            frameStats.enableAllocationTracking(allocationBean::getCurrentThreadAllocatedBytes);
+            tracker.allocationTrackingSupported = true;
+        } else {
+            LOGGER.warning("JVM does not support measuring allocated memory");
+        }
+
+        return tracker;
+    }
+}
@@ -0,0 +1,143 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import nl.colorize.multimedialib.renderer.EventTracer;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.scene.Scene;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Emits <a href="https://docs.oracle.com/en/java/javase/25/jfapi/">Java
+ * Flight Recorder</a> events, so that frames, scene changes, media loading,
+ * and network requests can be correlated with garbage collection and I/O
+ * when profiling desktop applications.
+ * <p>
+ * Frame events are only created when JFR is actually recording them. When
+ * recording is disabled, tracing a frame only checks a flag and does not
+ * create any objects. Media and network events are created every time,
+ * since they are relatively rare, but are only committed when recording.
+ */
+public class FlightRecorderTracer implements EventTracer {
+
+    @Nullable private FrameEvent frameEvent;
+
+    private static final EventType FRAME_EVENT_TYPE = EventType.getEventType(FrameEvent.class);
+
+    @Override
+    public void phaseStarted(String phase) {
+        boolean frameStart = phase.equals(FrameStats.PHASE_FRAME_UPDATE) ||
+            (phase.equals(FrameStats.PHASE_FRAME_RENDER) && frameEvent == null);
+
+        if (frameStart && FRAME_EVENT_TYPE.isEnabled()) {
+            frameEvent = new FrameEvent();
+            frameEvent.begin();
+        }
+    }
+
+    @Override
+    public void phaseEnded(String phase, long nanos) {
+        if (frameEvent == null) {
+            return;
+        }
+
+        if (phase.equals(FrameStats.PHASE_FRAME_UPDATE)) {
+            frameEvent.updateTime = nanos;
+        } else if (phase.equals(FrameStats.PHASE_FRAME_RENDER)) {
+            frameEvent.renderTime = nanos;
+            frameEvent.commit();
+            frameEvent = null;
+        }
+    }
+
+    @Override
+    public void sceneStarted(Scene scene) {
+        SceneEvent event = new SceneEvent();
+        event.scene = scene.getClass().getName();
+        event.action = "start";
+        event.commit();
+    }
+
+    @Override
+    public void sceneEnded(Scene scene) {
+        SceneEvent event = new SceneEvent();
+        event.scene = scene.getClass().getName();
+        event.action = "end";
+        event.commit();
+    }
+
+    @Name("nl.colorize.multimedialib.Frame")
+    @Label("Frame")
+    @Category("MultimediaLib")
+    @StackTrace(false)
+    static class FrameEvent extends Event {
+
+        @Label("Update Time")
+        @Timespan
+        long updateTime;
+
+        @Label("Render Time")
+        @Timespan
+        long renderTime;
+    }
+
+    @Name("nl.colorize.multimedialib.Scene")
+    @Label("Scene Change")
+    @Category("MultimediaLib")
+    @StackTrace(false)
+    static class SceneEvent extends Event {
+
+        @Label("Scene")
+        String scene;
+
+        @Label("Action")
+        String action;
+    }
+
+    @Name("nl.colorize.multimedialib.MediaLoad")
+    @Label("Media Load")
+    @Category("MultimediaLib")
+    static class MediaLoadEvent extends Event {
+
+        @Label("File")
+        String file;
+
+        @Label("Type")
+        String type;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("nl.colorize.multimedialib.NetworkRequest")
+    @Label("Network Request")
+    @Category("MultimediaLib")
+    static class NetworkRequestEvent extends Event {
+
+        @Label("Method")
+        String method;
+
+        @Label("URL")
+        String url;
+
+        @Label("Status")
+        int status;
+
+        @Label("Response Size")
+        @DataAmount
+        long bytes;
+    }
+}
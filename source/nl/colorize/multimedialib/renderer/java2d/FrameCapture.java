@@ -0,0 +1,245 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.stage.Stage;
+import nl.colorize.util.LogHelper;
+import nl.colorize.util.swing.Utils2D;
+import org.jspecify.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Captures screenshots and image sequences without blocking the renderer
+ * thread. The stage is rendered into a pooled image buffer on the renderer
+ * thread, after which encoding the image and writing it to a file happen
+ * on a background thread.
+ * <p>
+ * The number of image buffers is limited. When all buffers are still being
+ * encoded, new frames are dropped rather than waiting for a buffer to become
+ * available. This means capturing never stalls the animation loop, even when
+ * the background thread cannot keep up with the requested capture rate.
+ * <p>
+ * Image sequences are captured at a fixed framerate, based on the frame
+ * update's delta time rather than on the actual time. Frames in the sequence
+ * are numbered consecutively, so the sequence can be converted to a video.
+ * Dropped frames are skipped and are not part of the numbering.
+ */
+public class FrameCapture {
+
+    private ExecutorService executor;
+    private Semaphore availableBuffers;
+    private Queue<BufferedImage> idleBuffers;
+    private Java2DGraphicsContext graphicsContext;
+    private AtomicInteger capturedFrames;
+    private AtomicInteger droppedFrames;
+
+    @Nullable private File sequenceDir;
+    private String sequenceFormat;
+    private double sequenceInterval;
+    private double sequenceTime;
+    private int sequenceFrame;
+
+    private static final int DEFAULT_BUFFERS = 4;
+    private static final int ENCODER_THREADS = 2;
+    private static final Logger LOGGER = LogHelper.getLogger(FrameCapture.class);
+
+    public FrameCapture(int bufferCount, ExecutorService executor) {
+        Preconditions.checkArgument(bufferCount >= 1, "Invalid buffer count: " + bufferCount);
+
+        this.executor = executor;
+        this.availableBuffers = new Semaphore(bufferCount);
+        this.idleBuffers = new ConcurrentLinkedQueue<>();
+        this.capturedFrames = new AtomicInteger(0);
+        this.droppedFrames = new AtomicInteger(0);
+        this.sequenceFormat = "png";
+    }
+
+    public FrameCapture() {
+        this(DEFAULT_BUFFERS, Executors.newFixedThreadPool(ENCODER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "MultimediaLib-Capture");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Renders the stage into an image buffer, then encodes that image and
+     * writes it to the specified file in the background. The image format
+     * is based on the file extension, and can be either PNG or JPEG. Returns
+     * false if the frame was dropped because all image buffers are still
+     * in use, or because this {@link FrameCapture} has already been closed.
+     * <p>
+     * Rendering the frame is not included in the stage's instrumentation,
+     * since the frame is also rendered to the screen.
+     */
+    public boolean capture(Stage stage, int width, int height, File outputFile) {
+        String format = getFormat(outputFile);
+
+        if (executor.isShutdown() || !availableBuffers.tryAcquire()) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+
+        BufferedImage buffer = acquireBuffer(width, height, format);
+
+        try {
+            renderFrame(stage, buffer);
+        } catch (RuntimeException e) {
+            releaseBuffer(buffer);
+            throw e;
+        }
+
+        try {
+            executor.submit(() -> encode(buffer, format, outputFile));
+            return true;
+        } catch (RejectedExecutionException e) {
+            releaseBuffer(buffer);
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+    }
+
+    private String getFormat(File outputFile) {
+        String name = outputFile.getName().toLowerCase();
+
+        if (name.endsWith(".png")) {
+            return "png";
+        } else if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return "jpg";
+        } else {
+            throw new IllegalArgumentException("Unsupported image format: " + outputFile.getName());
+        }
+    }
+
+    private BufferedImage acquireBuffer(int width, int height, String format) {
+        // JPEG does not support transparency, so JPEG images need to
+        // be captured to an image buffer without an alpha channel.
+        int type = format.equals("jpg") ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage buffer = idleBuffers.poll();
+
+        if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height ||
+                buffer.getType() != type) {
+            buffer = new BufferedImage(width, height, type);
+        }
+
+        return buffer;
+    }
+
+    private void releaseBuffer(BufferedImage buffer) {
+        idleBuffers.offer(buffer);
+        availableBuffers.release();
+    }
+
+    private void renderFrame(Stage stage, BufferedImage buffer) {
+        if (graphicsContext == null) {
+            graphicsContext = new Java2DGraphicsContext(stage.getCanvas());
+        }
+
+        Graphics2D g2 = Utils2D.createGraphics(buffer, false, false);
+        graphicsContext.bind(g2);
+        stage.visitWithoutInstrumentation(graphicsContext);
+        graphicsContext.dispose();
+    }
+
+    private void encode(BufferedImage buffer, String format, File outputFile) {
+        try {
+            ImageIO.write(buffer, format, outputFile);
+            capturedFrames.incrementAndGet();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error while writing " + outputFile.getAbsolutePath(), e);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Starts capturing an image sequence at the specified framerate. Frames
+     * are written to the output directory as {@code frame-00000.png},
+     * {@code frame-00001.png}, etcetera. Frames will be captured when
+     * calling {@link #update(Stage, int, int, double)}.
+     */
+    public void startSequence(File outputDir, String format, double framerate) {
+        Preconditions.checkArgument(outputDir.isDirectory(), "Not a directory: " + outputDir);
+        Preconditions.checkArgument(framerate > 0.0, "Invalid framerate: " + framerate);
+
+        sequenceDir = outputDir;
+        sequenceFormat = format;
+        sequenceInterval = 1.0 / framerate;
+        sequenceTime = sequenceInterval;
+        sequenceFrame = 0;
+    }
+
+    public void stopSequence() {
+        sequenceDir = null;
+    }
+
+    public boolean isCapturingSequence() {
+        return sequenceDir != null;
+    }
+
+    /**
+     * Captures the next frame in the image sequence, if the sequence is
+     * active and enough time has elapsed since the previous frame. This
+     * method should be called during every frame update.
+     */
+    public void update(Stage stage, int width, int height, double deltaTime) {
+        if (sequenceDir == null) {
+            return;
+        }
+
+        sequenceTime += deltaTime;
+
+        if (sequenceTime >= sequenceInterval) {
+            sequenceTime = sequenceTime % sequenceInterval;
+            File frameFile = new File(sequenceDir, String.format("frame-%05d.%s", sequenceFrame, sequenceFormat));
+
+            if (capture(stage, width, height, frameFile)) {
+                sequenceFrame++;
+            }
+        }
+    }
+
+    /**
+     * Waits until all frames that have been captured so far have been
+     * written, then stops the background threads. Returns false if the
+     * timeout expired before all frames were written.
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        executor.shutdown();
+
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int getCapturedFrames() {
+        return capturedFrames.get();
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames.get();
+    }
+}
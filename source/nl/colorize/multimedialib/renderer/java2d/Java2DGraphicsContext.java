@@ -7,6 +7,7 @@
 package nl.colorize.multimedialib.renderer.java2d;
 
 import lombok.Getter;
+import lombok.Setter;
 import nl.colorize.multimedialib.math.Circle;
 import nl.colorize.multimedialib.math.Line;
 import nl.colorize.multimedialib.math.Point2D;
@@ -14,13 +15,16 @@ import nl.colorize.multimedialib.math.Polygon;
 import nl.colorize.multimedialib.math.Rect;
 import nl.colorize.multimedialib.math.SegmentedLine;
 import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.renderer.MediaException;
+import nl.colorize.multimedialib.renderer.ResourceCache;
 import nl.colorize.multimedialib.stage.Align;
 import nl.colorize.multimedialib.stage.ColorRGB;
 import nl.colorize.multimedialib.stage.FontFace;
 import nl.colorize.multimedialib.stage.Group;
 import nl.colorize.multimedialib.stage.ImageTransform;
 import nl.colorize.multimedialib.stage.Mesh;
+import nl.colorize.multimedialib.stage.ParticleBatch;
 import nl.colorize.multimedialib.stage.Primitive;
 import nl.colorize.multimedialib.stage.Sprite;
 import nl.colorize.multimedialib.stage.Stage;
@@ -29,45 +33,115 @@ import nl.colorize.multimedialib.stage.Text;
 import nl.colorize.multimedialib.stage.Transform;
 import nl.colorize.multimedialib.stage.Transform3D;
 import nl.colorize.util.Cache;
+import nl.colorize.util.LogHelper;
 import nl.colorize.util.swing.Utils2D;
 
 import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
-import java.awt.Composite;
 import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.logging.Logger;
 
 /**
  * Uses Java 2D to render graphics. Because of Java 2D's flexibility, this class
  * supports several graphics contexts: drawing can be either directly to a
  * window using active rendering, but also to a Swing component, or to an image.
+ * <p>
+ * Changing the state of the {@link Graphics2D}, such as the color or the
+ * composite, is relatively expensive. This class therefore keeps track of
+ * the current state, and only changes it when necessary. Consecutive
+ * opaque rectangles and lines that share the same color and stroke are
+ * combined into a single path, which is then drawn in one operation.
+ * Translucent primitives are not combined, since overlapping parts would
+ * then no longer be blended with each other.
+ * <p>
+ * When instrumentation has been enabled for the stage, every change to the
+ * graphics state and every time the combined path is drawn is reported to
+ * the {@link InstrumentedStageVisitor}.
+ * <p>
+ * Sprites that are displayed at less than half their original size are
+ * drawn using one of the image's mip levels, see {@link AWTImage}. When
+ * accelerated images are enabled, sprite images are copied to a
+ * {@link VolatileImage} the first time they are drawn, which allows them
+ * to be kept in video memory. Volatile images can lose their contents at
+ * any time, in which case they are restored from the original image.
+ * <p>
+ * Images created by the renderer, such as masked images, pre-rendered
+ * circles, and volatile images, are stored in {@link ResourceCache}s with
+ * a fixed memory budget.
  */
 public class Java2DGraphicsContext implements StageVisitor {
 
     @Getter private Canvas canvas;
     private Graphics2D g2;
+    private InstrumentedStageVisitor instrumentation;
 
     private Cache<ColorRGB, Color> colorCache;
-    private Cache<MaskImage, BufferedImage> maskCache;
-    private Cache<CircleImage, BufferedImage> circleCache;
+    private ResourceCache<MaskImage, BufferedImage> maskCache;
+    private ResourceCache<CircleImage, BufferedImage> circleCache;
     private Cache<FontFace, Font> fontCache;
+    private Cache<Float, BasicStroke> strokeCache;
+    private AlphaComposite[] alphaComposites;
+    @Setter private boolean acceleratedImages;
+    private ResourceCache<BufferedImage, VolatileImage> volatileImages;
+
+    private Color currentColor;
+    private int currentAlpha;
+    private float currentStroke;
+    private Font currentFont;
+
+    private Path2D.Float batch;
+    private BatchType batchType;
+    private Color batchColor;
+    private float batchStroke;
+
+    private AffineTransform imageTransform;
+    private ImageTransform circleTransform;
+    private BufferedImage lastMaskSource;
+    private ColorRGB lastMaskColor;
+    private BufferedImage lastMask;
 
     private static final int CACHE_CAPACITY = 1000;
+    private static final long MASK_CACHE_BUDGET = 64L * 1024L * 1024L;
+    private static final long CIRCLE_CACHE_BUDGET = 16L * 1024L * 1024L;
+    private static final long VOLATILE_IMAGE_BUDGET = 256L * 1024L * 1024L;
+    private static final double CIRCLE_RADIUS_STEP = 0.5;
+    private static final int OPAQUE = 255;
+    private static final Logger LOGGER = LogHelper.getLogger(Java2DGraphicsContext.class);
 
     protected Java2DGraphicsContext(Canvas canvas) {
         this.canvas = canvas;
 
         this.colorCache = Cache.from(this::convertColor, CACHE_CAPACITY);
-        this.maskCache = Cache.from(MaskImage::render, CACHE_CAPACITY);
-        this.circleCache = Cache.from(CircleImage::render, CACHE_CAPACITY);
+        this.maskCache = new ResourceCache<>(MaskImage::render, this::estimateSize, Image::flush,
+            MASK_CACHE_BUDGET);
+        this.circleCache = new ResourceCache<>(CircleImage::render, this::estimateSize, Image::flush,
+            CIRCLE_CACHE_BUDGET);
         this.fontCache = Cache.from(this::prepareFont, CACHE_CAPACITY);
+        this.strokeCache = Cache.from(BasicStroke::new, CACHE_CAPACITY);
+        this.alphaComposites = new AlphaComposite[OPAQUE + 1];
+        this.acceleratedImages = false;
+        this.volatileImages = new ResourceCache<>(this::createVolatileImage, this::estimateSize, Image::flush,
+            VOLATILE_IMAGE_BUDGET);
+
+        this.batch = new Path2D.Float();
+        this.batchType = BatchType.NONE;
+        this.imageTransform = new AffineTransform();
+        this.circleTransform = new ImageTransform();
+
+        resetState();
     }
 
     /**
@@ -76,17 +150,41 @@ public class Java2DGraphicsContext implements StageVisitor {
      */
     public void bind(Graphics2D g2) {
         this.g2 = g2;
+        resetState();
     }
 
     public void dispose() {
         if (this.g2 != null) {
+            flushBatch();
             g2.dispose();
             g2 = null;
         }
     }
 
+    /**
+     * Forgets the tracked graphics state, so that the next draw operation
+     * will set the state regardless of its current value. This is needed
+     * when binding to a new {@link Graphics2D}, as its state is unknown.
+     */
+    private void resetState() {
+        currentColor = null;
+        currentAlpha = -1;
+        currentStroke = -1f;
+        currentFont = null;
+        batch.reset();
+        batchType = BatchType.NONE;
+    }
+
+    /**
+     * Uses the canvas of the stage that is about to be rendered. This is
+     * normally the same canvas that was used to create this graphics
+     * context, but graphics contexts that are used for offscreen rendering
+     * can be used to render multiple stages.
+     */
     @Override
     public void prepareStage(Stage stage) {
+        canvas = stage.getCanvas();
+        instrumentation = stage.getInstrumentation();
     }
 
     @Override
@@ -94,74 +192,76 @@ public class Java2DGraphicsContext implements StageVisitor {
         double width = canvas.toScreenX(canvas.getWidth());
         double height = canvas.toScreenY(canvas.getHeight());
 
-        g2.setColor(colorCache.get(backgroundColor));
+        flushBatch();
+        applyAlpha(100.0);
+        applyColor(colorCache.get(backgroundColor));
         g2.fillRect(0, 0, (int) Math.round(width), (int) Math.round(height) + 30);
     }
 
     @Override
     public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
-        double x0 = canvas.toScreenX(line.start().x());
-        double y0 = canvas.toScreenY(line.start().y());
-        double x1 = canvas.toScreenX(line.end().x());
-        double y1 = canvas.toScreenY(line.end().y());
-
-        Composite originalComposite = g2.getComposite();
-        applyAlphaComposite(graphic.getTransform().getAlpha());
-        g2.setStroke(new BasicStroke((float) graphic.getStroke()));
-        g2.setColor(getPrimitiveColor(graphic));
-        g2.drawLine((int) Math.round(x0), (int) Math.round(y0),
-            (int) Math.round(x1), (int) Math.round(y1));
-        g2.setComposite(originalComposite);
+        int x0 = toScreenX(line.start().x());
+        int y0 = toScreenY(line.start().y());
+        int x1 = toScreenX(line.end().x());
+        int y1 = toScreenY(line.end().y());
+
+        if (prepareBatch(BatchType.STROKE, graphic, graphic.getTransform().getAlpha())) {
+            batch.moveTo(x0, y0);
+            batch.lineTo(x1, y1);
+        } else {
+            g2.drawLine(x0, y0, x1, y1);
+        }
     }
 
     @Override
     public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
-        Composite originalComposite = g2.getComposite();
-        applyAlphaComposite(graphic.getTransform().getAlpha());
-        g2.setStroke(new BasicStroke((float) graphic.getStroke()));
-        g2.setColor(getPrimitiveColor(graphic));
-
-        for (Line segment : line.getSegments()) {
-            double x0 = canvas.toScreenX(segment.start().x());
-            double y0 = canvas.toScreenY(segment.start().y());
-            double x1 = canvas.toScreenX(segment.end().x());
-            double y1 = canvas.toScreenY(segment.end().y());
-
-            g2.drawLine((int) Math.round(x0), (int) Math.round(y0),
-                (int) Math.round(x1), (int) Math.round(y1));
+        boolean batched = prepareBatch(BatchType.STROKE, graphic, graphic.getTransform().getAlpha());
+        Path2D.Float path = batched ? batch : new Path2D.Float();
+        List<Point2D> points = line.points();
+
+        for (int i = 0; i < points.size(); i++) {
+            int x = toScreenX(points.get(i).x());
+            int y = toScreenY(points.get(i).y());
+
+            if (i == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
         }
 
-        g2.setComposite(originalComposite);
+        if (!batched) {
+            g2.draw(path);
+        }
     }
 
     @Override
     public void drawRect(Primitive graphic, Rect rect, Transform globalTransform) {
-        double screenX = canvas.toScreenX(rect.x());
-        double screenY = canvas.toScreenY(rect.y());
-        double screenWidth = canvas.toScreenX(rect.getEndX()) - screenX;
-        double screenHeight = canvas.toScreenY(rect.getEndY()) - screenY;
-
-        Composite originalComposite = g2.getComposite();
-        applyAlphaComposite(globalTransform.getAlpha());
-        g2.setColor(getPrimitiveColor(graphic));
-        g2.fillRect((int) Math.round(screenX), (int) Math.round(screenY),
-            (int) Math.round(screenWidth), (int) Math.round(screenHeight));
-        g2.setComposite(originalComposite);
+        int screenX = toScreenX(rect.x());
+        int screenY = toScreenY(rect.y());
+        int screenWidth = toScreenX(rect.getEndX()) - screenX;
+        int screenHeight = toScreenY(rect.getEndY()) - screenY;
+
+        if (prepareBatch(BatchType.FILL, graphic, globalTransform.getAlpha())) {
+            batch.moveTo(screenX, screenY);
+            batch.lineTo(screenX + screenWidth, screenY);
+            batch.lineTo(screenX + screenWidth, screenY + screenHeight);
+            batch.lineTo(screenX, screenY + screenHeight);
+            batch.closePath();
+        } else {
+            g2.fillRect(screenX, screenY, screenWidth, screenHeight);
+        }
     }
 
     @Override
     public void drawCircle(Primitive graphic, Circle circle, Transform globalTransform) {
         Color color = getPrimitiveColor(graphic);
-        CircleImage key = new CircleImage(circle.radius(), color);
+        CircleImage key = new CircleImage(ResourceCache.quantize(circle.radius(), CIRCLE_RADIUS_STEP), color);
         BufferedImage image = circleCache.get(key);
 
-        Transform transform = new Transform();
-        transform.setPosition(circle.center());
-        transform.setAlpha(globalTransform.getAlpha());
-
-        ImageTransform imageTransform = new ImageTransform();
-        imageTransform.set(transform);
-        drawImage(image, imageTransform);
+        circleTransform.setPosition(circle.center());
+        circleTransform.setAlpha(globalTransform.getAlpha());
+        drawImage(image, image.getWidth(), image.getHeight(), circleTransform, false);
     }
 
     @Override
@@ -170,15 +270,96 @@ public class Java2DGraphicsContext implements StageVisitor {
         int[] py = new int[polygon.getNumPoints()];
 
         for (int i = 0; i < polygon.getNumPoints(); i++) {
-            px[i] = (int) Math.round(canvas.toScreenX(polygon.getPointX(i)));
-            py[i] = (int) Math.round(canvas.toScreenY(polygon.getPointY(i)));
+            px[i] = toScreenX(polygon.getPointX(i));
+            py[i] = toScreenY(polygon.getPointY(i));
         }
 
-        Composite originalComposite = g2.getComposite();
-        applyAlphaComposite(globalTransform.getAlpha());
-        g2.setColor(getPrimitiveColor(graphic));
+        flushBatch();
+        applyAlpha(globalTransform.getAlpha());
+        applyColor(getPrimitiveColor(graphic));
         g2.fillPolygon(px, py, polygon.getNumPoints());
-        g2.setComposite(originalComposite);
+    }
+
+    private int toScreenX(double x) {
+        return (int) Math.round(canvas.toScreenX(x));
+    }
+
+    private int toScreenY(double y) {
+        return (int) Math.round(canvas.toScreenY(y));
+    }
+
+    /**
+     * Prepares to draw a primitive, and returns whether the primitive should
+     * be added to the current batch. Opaque primitives are added to the batch,
+     * and the batch is first drawn if the primitive cannot be combined with
+     * the primitives already in the batch. For translucent primitives, the
+     * batch is drawn and the graphics state is prepared so that the primitive
+     * can be drawn directly.
+     */
+    private boolean prepareBatch(BatchType type, Primitive graphic, double alpha) {
+        Color color = getPrimitiveColor(graphic);
+        float stroke = type == BatchType.STROKE ? (float) graphic.getStroke() : 0f;
+
+        if (batchType != BatchType.NONE &&
+                (batchType != type || !batchColor.equals(color) || batchStroke != stroke)) {
+            flushBatch();
+        }
+
+        if (toAlphaLevel(alpha) == OPAQUE) {
+            batchType = type;
+            batchColor = color;
+            batchStroke = stroke;
+            return true;
+        }
+
+        flushBatch();
+        applyAlpha(alpha);
+        applyColor(color);
+        if (type == BatchType.STROKE) {
+            applyStroke(stroke);
+        }
+        return false;
+    }
+
+    /**
+     * Draws all primitives that have been combined into the current batch,
+     * then starts a new batch. This needs to happen before drawing anything
+     * that is not part of the batch, so that graphics are still drawn in
+     * the same order as they appear on the stage.
+     */
+    private void flushBatch() {
+        if (batchType == BatchType.NONE) {
+            return;
+        }
+
+        applyAlpha(100.0);
+        applyColor(batchColor);
+
+        if (batchType == BatchType.STROKE) {
+            applyStroke(batchStroke);
+            g2.draw(batch);
+        } else {
+            g2.fill(batch);
+        }
+
+        batch.reset();
+        batchType = BatchType.NONE;
+
+        if (instrumentation != null) {
+            instrumentation.reportBatchFlushes(1);
+        }
+    }
+
+    @Override
+    public void finalize2D(Stage stage) {
+        flushBatch();
+        lastMaskSource = null;
+        lastMaskColor = null;
+        lastMask = null;
+
+        maskCache.reportUsage(instrumentation);
+        circleCache.reportUsage(instrumentation);
+        volatileImages.reportUsage(instrumentation);
     }
 
     private Color getPrimitiveColor(Primitive primitive) {
@@ -189,22 +370,143 @@ public class Java2DGraphicsContext implements StageVisitor {
     @Override
     public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
         AWTImage image = (AWTImage) sprite.getCurrentGraphics();
-        drawImage(image.getImage(), globalTransform);
+        double scale = canvas.getZoomLevel() *
+            Math.max(Math.abs(globalTransform.getScaleX()), Math.abs(globalTransform.getScaleY())) / 100.0;
+        BufferedImage source = image.getMipLevel(scale);
+
+        drawImage(source, image.getImage().getWidth(), image.getImage().getHeight(),
+            globalTransform, acceleratedImages);
+    }
+
+    /**
+     * Draws all particles directly from the particle arrays, instead of
+     * preparing a sprite for every particle. All particles use the same
+     * image, so the mip level is selected once based on the largest
+     * particle. Colored particles are drawn using masked images, consecutive
+     * particles with the same color share the same masked image.
+     */
+    @Override
+    public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        AWTImage image = (AWTImage) particles.getImage();
+        int width = image.getImage().getWidth();
+        int height = image.getImage().getHeight();
+        double zoomLevel = canvas.getZoomLevel();
+        BufferedImage source = image.getMipLevel(zoomLevel * particles.getMaxScale() / 100.0);
+        Image drawable = acceleratedImages ? accelerate(source) : source;
+        double sourceScaleX = (double) width / source.getWidth();
+        double sourceScaleY = (double) height / source.getHeight();
+
+        Point2D origin = globalTransform.getPosition();
+        double[] x = particles.getX();
+        double[] y = particles.getY();
+        double[] scale = particles.getScale();
+        double[] rotation = particles.getRotation();
+        double[] alpha = particles.getAlpha();
+
+        flushBatch();
+
+        for (int i = 0; i < particles.getCount(); i++) {
+            double particleAlpha = globalTransform.getAlpha() * alpha[i] / 100.0;
+            if (particleAlpha <= 0.0) {
+                continue;
+            }
+
+            double particleScale = zoomLevel * scale[i] / 100.0;
+            imageTransform.setToTranslation(canvas.toScreenX(origin.x() + x[i]),
+                canvas.toScreenY(origin.y() + y[i]));
+            imageTransform.rotate(Math.toRadians(rotation[i]));
+            imageTransform.scale(particleScale * sourceScaleX, particleScale * sourceScaleY);
+            imageTransform.translate(-source.getWidth() / 2.0, -source.getHeight() / 2.0);
+
+            applyAlpha(particleAlpha);
+            g2.drawImage(drawable, imageTransform, null);
+
+            ColorRGB color = particles.getParticleColor(i);
+            if (color != null) {
+                g2.drawImage(getParticleMask(source, color), imageTransform, null);
+            }
+        }
     }
 
-    private void drawImage(BufferedImage image, ImageTransform transform) {
-        Composite originalComposite = g2.getComposite();
-        applyAlphaComposite(transform.getAlpha());
+    private BufferedImage getParticleMask(BufferedImage source, ColorRGB color) {
+        if (source != lastMaskSource || color != lastMaskColor) {
+            lastMask = maskCache.get(new MaskImage(source, colorCache.get(color)));
+            lastMaskSource = source;
+            lastMaskColor = color;
+        }
+        return lastMask;
+    }
 
-        AffineTransform transform2D = applyTransform(transform, image.getWidth(), image.getHeight());
-        g2.drawImage(image, transform2D, null);
+    /**
+     * Draws an image using the specified transform. The width and height
+     * indicate the image's logical size, which is used to calculate the
+     * transform. The source image can be smaller than its logical size,
+     * in which case it is scaled up to compensate.
+     */
+    private void drawImage(BufferedImage source, int width, int height, ImageTransform transform,
+                           boolean accelerate) {
+        flushBatch();
+        applyAlpha(transform.getAlpha());
+
+        AffineTransform transform2D = applyTransform(transform, width, height);
+        if (source.getWidth() != width || source.getHeight() != height) {
+            transform2D.scale((double) width / source.getWidth(), (double) height / source.getHeight());
+        }
+
+        g2.drawImage(accelerate ? accelerate(source) : source, transform2D, null);
 
         if (transform.getMaskColor() != null) {
-            MaskImage key = new MaskImage(image, colorCache.get(transform.getMaskColor()));
+            MaskImage key = new MaskImage(source, colorCache.get(transform.getMaskColor()));
             g2.drawImage(maskCache.get(key), transform2D, null);
         }
+    }
 
-        g2.setComposite(originalComposite);
+    /**
+     * Returns a {@link VolatileImage} with the same contents as the specified
+     * image. The volatile image is created when the image is first drawn,
+     * and recreated or restored when it becomes invalid. Returns the original
+     * image if the volatile image's contents are not available.
+     */
+    private Image accelerate(BufferedImage image) {
+        GraphicsConfiguration graphicsConfig = g2.getDeviceConfiguration();
+        VolatileImage accelerated;
+
+        try {
+            accelerated = volatileImages.get(image);
+            int status = accelerated.validate(graphicsConfig);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImages.forget(image);
+                accelerated = volatileImages.get(image);
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                copyToVolatileImage(image, accelerated);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warning("Accelerated images not supported: " + e.getMessage());
+            acceleratedImages = false;
+            return image;
+        }
+
+        return accelerated.contentsLost() ? image : accelerated;
+    }
+
+    private VolatileImage createVolatileImage(BufferedImage image) {
+        GraphicsConfiguration graphicsConfig = g2.getDeviceConfiguration();
+        VolatileImage accelerated = graphicsConfig.createCompatibleVolatileImage(
+            image.getWidth(), image.getHeight(), Transparency.TRANSLUCENT);
+        accelerated.validate(graphicsConfig);
+        copyToVolatileImage(image, accelerated);
+        return accelerated;
+    }
+
+    private long estimateSize(Image image) {
+        return ResourceCache.estimateImageSize(image.getWidth(null), image.getHeight(null));
+    }
+
+    private void copyToVolatileImage(BufferedImage image, VolatileImage accelerated) {
+        Graphics2D volatileGraphics = accelerated.createGraphics();
+        volatileGraphics.setComposite(AlphaComposite.Src);
+        volatileGraphics.drawImage(image, 0, 0, null);
+        volatileGraphics.dispose();
     }
 
     @Override
@@ -212,14 +514,12 @@ public class Java2DGraphicsContext implements StageVisitor {
         Font font = fontCache.get(text.getFont().scale(canvas));
         ColorRGB color = text.getFont().color();
 
-        Composite originalComposite = g2.getComposite();
-        applyAlphaComposite(globalTransform.getAlpha());
-
-        g2.setColor(colorCache.get(color));
-        g2.setFont(font);
+        flushBatch();
+        applyAlpha(globalTransform.getAlpha());
+        applyColor(colorCache.get(color));
+        applyFont(font);
         drawLines(text.getLines(), globalTransform.getPosition(),
             text.getAlign(), text.getLineHeight());
-        g2.setComposite(originalComposite);
     }
 
     private void drawLines(List<String> lines, Point2D position, Align align, double lineHeight) {
@@ -256,7 +556,7 @@ public class Java2DGraphicsContext implements StageVisitor {
         int screenWidth = (int) (width * scaleX);
         int screenHeight = (int) (height * scaleY);
 
-        AffineTransform transform2D = new AffineTransform();
+        AffineTransform transform2D = imageTransform;
         transform2D.setToIdentity();
         transform2D.translate(screenX - screenWidth / 2f, screenY - screenHeight / 2f);
         transform2D.rotate(transform.getRotation().getRadians(), screenWidth / 2.0, screenHeight / 2.0);
@@ -264,10 +564,58 @@ public class Java2DGraphicsContext implements StageVisitor {
         return transform2D;
     }
 
-    private void applyAlphaComposite(double alpha) {
-        if (alpha != 100) {
-            Composite alphaComposite = AlphaComposite.SrcOver.derive((float) alpha / 100f);
-            g2.setComposite(alphaComposite);
+    /**
+     * Changes the composite to draw graphics with the specified alpha value.
+     * The alpha value is rounded to the nearest of 256 levels, which allows
+     * the composites to be reused. The difference is not visible, since the
+     * alpha value ends up in an 8-bit channel anyway.
+     */
+    private void applyAlpha(double alpha) {
+        int level = toAlphaLevel(alpha);
+
+        if (level != currentAlpha) {
+            if (alphaComposites[level] == null) {
+                alphaComposites[level] = level == OPAQUE ? AlphaComposite.SrcOver :
+                    AlphaComposite.SrcOver.derive(level / (float) OPAQUE);
+            }
+
+            g2.setComposite(alphaComposites[level]);
+            currentAlpha = level;
+            reportStateChange();
+        }
+    }
+
+    private int toAlphaLevel(double alpha) {
+        return (int) Math.round(Math.clamp(alpha, 0.0, 100.0) * OPAQUE / 100.0);
+    }
+
+    private void applyColor(Color color) {
+        if (!color.equals(currentColor)) {
+            g2.setColor(color);
+            currentColor = color;
+            reportStateChange();
+        }
+    }
+
+    private void applyStroke(float stroke) {
+        if (stroke != currentStroke) {
+            g2.setStroke(strokeCache.get(stroke));
+            currentStroke = stroke;
+            reportStateChange();
+        }
+    }
+
+    private void applyFont(Font font) {
+        if (!font.equals(currentFont)) {
+            g2.setFont(font);
+            currentFont = font;
+            reportStateChange();
+        }
+    }
+
+    private void reportStateChange() {
+        if (instrumentation != null) {
+            instrumentation.reportStateChange();
         }
     }
 
@@ -284,6 +632,16 @@ public class Java2DGraphicsContext implements StageVisitor {
         }
     }
 
+    /**
+     * The type of primitives in the current batch. Rectangles are filled,
+     * lines are stroked, so they cannot be combined into the same path.
+     */
+    private enum BatchType {
+        NONE,
+        FILL,
+        STROKE
+    }
+
     /**
      * Java2D does not use hardware acceleration for certain drawing operations.
      * This can have a significant performance impact, so shapes are rendered
@@ -7,9 +7,13 @@
 package nl.colorize.multimedialib.renderer.java2d;
 
 import lombok.Getter;
+import nl.colorize.multimedialib.math.Rect;
 import nl.colorize.multimedialib.math.Size;
+import nl.colorize.multimedialib.renderer.FramePacer;
 import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.FrameWatchdog;
 import nl.colorize.multimedialib.renderer.GraphicsMode;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.renderer.KeyCode;
 import nl.colorize.multimedialib.renderer.Network;
 import nl.colorize.multimedialib.renderer.RenderConfig;
@@ -19,16 +23,20 @@ import nl.colorize.multimedialib.scene.Scene;
 import nl.colorize.multimedialib.scene.SceneContext;
 import nl.colorize.multimedialib.scene.SceneManager;
 import nl.colorize.multimedialib.scene.Actor;
+import nl.colorize.multimedialib.stage.DirtyRegionTracker;
+import nl.colorize.multimedialib.stage.DrawList;
+import nl.colorize.multimedialib.stage.Stage;
+import nl.colorize.multimedialib.stage.StageVisitor;
 import nl.colorize.util.LogHelper;
 import nl.colorize.util.Platform;
 import nl.colorize.util.ResourceFile;
-import nl.colorize.util.Stopwatch;
 import nl.colorize.util.swing.ApplicationMenuListener;
 import nl.colorize.util.swing.MacIntegration;
 import nl.colorize.util.swing.MultiLabel;
 import nl.colorize.util.swing.Popups;
 import nl.colorize.util.swing.SwingUtils;
 import nl.colorize.util.swing.Utils2D;
+import org.jspecify.annotations.Nullable;
 
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
@@ -45,9 +53,9 @@ import java.awt.event.WindowListener;
 import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -58,6 +66,17 @@ import java.util.logging.Logger;
  * <p>
  * The renderer will use two different threads: the rendering thread is used to
  * update the graphics, while the Swing thread is used to listen for user input.
+ * When threaded rendering is enabled in the {@link RenderConfig}, the rendering
+ * thread only performs frame updates, and frames are drawn on a third thread
+ * using a {@link RenderThread}.
+ * <p>
+ * When partial redraw is enabled in the {@link RenderConfig}, frames are
+ * drawn to a persistent frame image instead of directly to the window. A
+ * {@link DirtyRegionTracker} determines which region of the frame image has
+ * changed, and only that region is redrawn. The window's back buffer does
+ * not retain its contents between frames, so the frame image is still
+ * copied to the window every frame, but this is far cheaper than redrawing
+ * the entire stage.
  */
 public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuListener {
 
@@ -66,11 +85,16 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
     @Getter private StandardMediaLoader mediaLoader;
     @Getter private Network network;
     @Getter private SceneManager sceneManager;
+    @Getter private FrameCapture frameCapture;
 
     private JFrame window;
     private Java2DGraphicsContext graphicsContext;
+    private RenderThread renderThread;
+    private DirtyRegionTracker dirtyRegions;
+    private BufferedImage frameImage;
     private AtomicBoolean canvasDirty;
     private AtomicBoolean terminated;
+    @Nullable private AllocationTracker allocationTracker;
 
     private static final boolean ANTI_ALIASING = true;
     private static final boolean BILINEAR_SCALING = true;
@@ -92,8 +116,30 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
         input = initializeInput();
         mediaLoader = new StandardMediaLoader();
         graphicsContext = new Java2DGraphicsContext(config.getCanvas());
+        graphicsContext.setAcceleratedImages(config.isAcceleratedImages());
         network = new StandardNetwork();
+        frameCapture = new FrameCapture();
         sceneManager = new SceneManager(this);
+        if (config.isFlightRecorder()) {
+            sceneManager.addTracer(new FlightRecorderTracer());
+        }
+        if (config.isAllocationTracking()) {
+            allocationTracker = AllocationTracker.enable(sceneManager.getFrameStats());
+        }
+        if (config.getHitchThreshold() > 0) {
+            sceneManager.addTracer(new FrameWatchdog(config.getHitchThreshold()).start());
+        }
+
+        if (config.isThreadedRendering()) {
+            renderThread = new RenderThread(this::drawSnapshot);
+            renderThread.start();
+        }
+
+        if (config.isPartialRedraw() && renderThread != null) {
+            LOGGER.warning("Partial redraw is not supported in combination with threaded rendering");
+        } else if (config.isPartialRedraw()) {
+            dirtyRegions = new DirtyRegionTracker();
+        }
 
         changeScene(initialScene);
 
@@ -168,34 +214,32 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
      * Main entry point for the rendering thread. This will keep running
      * the animation loop for as long as the application is active.
      * <p>
-     * After every frame, this method will sleep the rendering thread to
-     * synchronize the animation loop as close to the targeted framerate as
-     * possible. This mechanism is slightly different from the frame
-     * synchronization performed by {@link SceneContext}, as the Java2D
-     * renderer does not use vsync and needs to manually manage the
-     * framerate.
+     * After every frame, this method will use a {@link FramePacer} to wait
+     * until the next frame, to synchronize the animation loop as close to
+     * the targeted framerate as possible. This mechanism is slightly
+     * different from the frame synchronization performed by
+     * {@link SceneContext}, as the Java2D renderer does not use vsync and
+     * needs to manually manage the framerate.
      */
     private void runAnimationLoop() {
-        Stopwatch timer = new Stopwatch();
-        long targetFrameTime = Math.round(1000f / config.getFramerate());
+        FramePacer framePacer = new FramePacer(config.getFramerate(), sceneManager.getFrameStats());
 
         try {
             while (!terminated.get()) {
-                long oversleep = Math.max(timer.tick() - targetFrameTime, 0L);
-
                 if (canvasDirty.get()) {
                     canvasDirty.set(false);
                     prepareCanvas();
                 }
 
                 if (sceneManager.requestFrameUpdate() > 0) {
-                    renderFrame();
+                    if (renderThread != null) {
+                        publishFrame();
+                    } else {
+                        renderFrame();
+                    }
                 }
 
-                long frameTime = timer.tock();
-                long sleepTime = targetFrameTime - frameTime - oversleep;
-                Thread.yield();
-                Thread.sleep(Math.clamp(sleepTime, 1L, 100L));
+                framePacer.awaitNextFrame();
             }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error during animation loop", e);
@@ -211,13 +255,96 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
 
         if (bufferGraphics != null) {
             frameStats.markStart(FrameStats.PHASE_FRAME_RENDER);
-            Graphics2D g2 = Utils2D.createGraphics(bufferGraphics, ANTI_ALIASING, BILINEAR_SCALING);
+            if (dirtyRegions != null) {
+                drawPartialFrame(windowBuffer, bufferGraphics);
+            } else {
+                drawFrame(windowBuffer, bufferGraphics, getStage()::visit);
+            }
+            frameStats.markEnd(FrameStats.PHASE_FRAME_RENDER);
+        }
+    }
+
+    /**
+     * Records the stage into a {@link DrawList} that is then drawn by the
+     * {@link RenderThread}. In threaded mode, the render phase therefore only
+     * measures the time spent recording the stage on the rendering thread.
+     */
+    private void publishFrame() {
+        FrameStats frameStats = sceneManager.getFrameStats();
+        renderThread.reportDrawEvents(getStage().getInstrumentation());
+        frameStats.markStart(FrameStats.PHASE_FRAME_RENDER);
+        getStage().visit(renderThread.getUpdateBuffer());
+        renderThread.publish();
+        frameStats.markEnd(FrameStats.PHASE_FRAME_RENDER);
+        renderThread.reportDrawTime(frameStats);
+    }
+
+    /**
+     * Draws a snapshot on the {@link RenderThread}. The snapshot contains a
+     * copy of the canvas, and the instrumentation is owned by the render
+     * thread, so this does not access any state of the stage itself.
+     */
+    private void drawSnapshot(DrawList drawList, InstrumentedStageVisitor instrumentation) {
+        BufferStrategy windowBuffer = window.getBufferStrategy();
+        Graphics bufferGraphics = accessWindowGraphics(windowBuffer);
+
+        if (bufferGraphics != null) {
+            drawFrame(windowBuffer, bufferGraphics, visitor -> drawList.replay(visitor, instrumentation));
+        }
+    }
+
+    private void drawFrame(BufferStrategy windowBuffer, Graphics bufferGraphics, Consumer<StageVisitor> draw) {
+        Graphics2D g2 = Utils2D.createGraphics(bufferGraphics, ANTI_ALIASING, BILINEAR_SCALING);
+        graphicsContext.bind(g2);
+        draw.accept(graphicsContext);
+        blitGraphicsContext(windowBuffer);
+        graphicsContext.dispose();
+    }
+
+    /**
+     * Draws the frame in partial redraw mode. Only the region of the frame
+     * image that has changed since the previous frame is redrawn, the rest
+     * of the frame image still contains the previous frame. The frame image
+     * is then copied to the window.
+     */
+    private void drawPartialFrame(BufferStrategy windowBuffer, Graphics bufferGraphics) {
+        Stage stage = getStage();
+        prepareFrameImage();
+        stage.trackChanges(dirtyRegions);
+        Rect dirtyRegion = dirtyRegions.getDirtyRegion();
+
+        if (dirtyRegion != null) {
+            Graphics2D g2 = Utils2D.createGraphics(frameImage.getGraphics(), ANTI_ALIASING, BILINEAR_SCALING);
+            if (!dirtyRegions.isFullRedraw()) {
+                g2.clipRect(toScreenX(dirtyRegion.x()), toScreenY(dirtyRegion.y()),
+                    toScreenX(dirtyRegion.getEndX()) - toScreenX(dirtyRegion.x()) + 1,
+                    toScreenY(dirtyRegion.getEndY()) - toScreenY(dirtyRegion.y()) + 1);
+            }
             graphicsContext.bind(g2);
-            getStage().visit(graphicsContext);
-            blitGraphicsContext(windowBuffer);
+            stage.visit(graphicsContext);
             graphicsContext.dispose();
-            frameStats.markEnd(FrameStats.PHASE_FRAME_RENDER);
         }
+
+        bufferGraphics.drawImage(frameImage, 0, 0, null);
+        blitGraphicsContext(windowBuffer);
+        bufferGraphics.dispose();
+    }
+
+    private void prepareFrameImage() {
+        if (frameImage == null || frameImage.getWidth() != window.getWidth() ||
+                frameImage.getHeight() != window.getHeight()) {
+            frameImage = window.getGraphicsConfiguration().createCompatibleImage(
+                Math.max(window.getWidth(), 1), Math.max(window.getHeight(), 1));
+            dirtyRegions.forceFullRedraw();
+        }
+    }
+
+    private int toScreenX(double canvasX) {
+        return (int) Math.floor(config.getCanvas().toScreenX(canvasX));
+    }
+
+    private int toScreenY(double canvasY) {
+        return (int) Math.floor(config.getCanvas().toScreenY(canvasY));
     }
 
     private Graphics accessWindowGraphics(BufferStrategy windowBuffer) {
@@ -236,6 +363,10 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
 
         config.getCanvas().resizeScreen(windowWidth, windowHeight);
         config.getCanvas().offsetScreen(windowInsets.left, windowInsets.top);
+
+        if (dirtyRegions != null) {
+            dirtyRegions.forceFullRedraw();
+        }
     }
 
     private void blitGraphicsContext(BufferStrategy windowBuffer) {
@@ -251,6 +382,9 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
 
     @Override
     public void terminate() {
+        if (allocationTracker != null) {
+            allocationTracker.disable();
+        }
         System.exit(0);
     }
 
@@ -266,28 +400,24 @@ public class Java2DRenderer implements Renderer, SceneContext, ApplicationMenuLi
 
     @Override
     public List<Actor> getGlobalHandlers() {
-        return List.of(this::takeScreenshot);
+        return List.of(this::captureFrames);
     }
 
-    private void takeScreenshot(double deltaTime) {
+    /**
+     * Takes a screenshot when pressing F12, and captures the next frame if
+     * the application has started capturing an image sequence. Encoding and
+     * writing the images happens in the background, see {@link FrameCapture}.
+     */
+    private void captureFrames(double deltaTime) {
         if (input != null && input.isKeyReleased(KeyCode.F12)) {
             File screenshotFile = new File(Platform.getUserDesktopDir(),
                 "screenshot-" + System.currentTimeMillis() + ".png");
-            BufferedImage image = new BufferedImage(window.getWidth(), window.getHeight(),
-                BufferedImage.TYPE_INT_ARGB);
-            Java2DGraphicsContext screenshotContext = new Java2DGraphicsContext(config.getCanvas());
-            Graphics2D g2 = Utils2D.createGraphics(image, false, false);
-            screenshotContext.bind(g2);
-            getStage().visit(screenshotContext);
-            screenshotContext.dispose();
-
-            try {
-                Utils2D.savePNG(image, screenshotFile);
-                LOGGER.info("Saved screenshot to " + screenshotFile.getAbsolutePath());
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Error while taking screenshot", e);
+            if (frameCapture.capture(getStage(), window.getWidth(), window.getHeight(), screenshotFile)) {
+                LOGGER.info("Saving screenshot to " + screenshotFile.getAbsolutePath());
             }
         }
+
+        frameCapture.update(getStage(), window.getWidth(), window.getHeight(), deltaTime);
     }
 
     @Override
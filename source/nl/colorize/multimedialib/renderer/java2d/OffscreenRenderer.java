@@ -0,0 +1,183 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import nl.colorize.multimedialib.math.Size;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.RendererException;
+import nl.colorize.multimedialib.stage.Stage;
+import nl.colorize.util.swing.Utils2D;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Renders a {@link Stage} to a {@link BufferedImage} using Java2D, without
+ * requiring a window. This can be used to generate images on a server, for
+ * example thumbnails or images that show the current state of a game.
+ * <p>
+ * This class is thread-safe, multiple stages can be rendered concurrently
+ * from different threads. However, the stage's canvas is temporarily
+ * resized to the image dimensions during rendering. The same stage should
+ * therefore not be rendered from multiple threads at the same time, and it
+ * should not be rendered while it is also being displayed by a renderer.
+ * Rendering is done using a pool of graphics contexts, which means caches
+ * for colors, fonts, and derived images are shared between renders. The
+ * size of the pool limits the number of stages that can be rendered
+ * concurrently, threads will block until a graphics context becomes
+ * available.
+ * <p>
+ * Image buffers are also pooled when using
+ * {@link #render(Stage, int, int, Function)}, which renders the stage to a
+ * pooled image, passes that image to a callback, and returns the image to
+ * the pool afterward. This avoids allocating a new image for every render,
+ * which becomes significant when rendering large images. The callback
+ * should therefore not keep a reference to the image.
+ */
+public class OffscreenRenderer {
+
+    @Getter private int poolSize;
+    private Semaphore availableContexts;
+    private Queue<Java2DGraphicsContext> idleContexts;
+    private Map<Size, Queue<BufferedImage>> bufferPool;
+    private AtomicInteger allocatedBuffers;
+
+    private static final int MAX_BUFFERS_PER_SIZE = 4;
+
+    public OffscreenRenderer(int poolSize) {
+        Preconditions.checkArgument(poolSize >= 1, "Invalid pool size: " + poolSize);
+
+        this.poolSize = poolSize;
+        this.availableContexts = new Semaphore(poolSize, true);
+        this.idleContexts = new ConcurrentLinkedQueue<>();
+        this.bufferPool = new ConcurrentHashMap<>();
+        this.allocatedBuffers = new AtomicInteger(0);
+    }
+
+    public OffscreenRenderer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Renders the stage to a new image with the specified dimensions. The
+     * stage's canvas is temporarily resized to match the image dimensions.
+     * The returned image is owned by the caller, and is not part of the
+     * buffer pool.
+     */
+    public BufferedImage render(Stage stage, int width, int height) {
+        BufferedImage image = createBuffer(width, height);
+        render(stage, image);
+        return image;
+    }
+
+    /**
+     * Renders the stage to an existing image, which is cleared with the
+     * stage's background color before rendering. The stage's canvas is
+     * temporarily resized to match the image dimensions, its original size
+     * is restored once rendering has been completed. The stage must not be
+     * displayed by a renderer while it is being rendered offscreen, since
+     * the renderer would then observe the temporary canvas size. Offscreen
+     * renders are not included in the stage's instrumentation, so they do
+     * not affect the statistics of the stage's frames.
+     */
+    public void render(Stage stage, BufferedImage target) {
+        Canvas canvas = stage.getCanvas();
+        Size originalSize = canvas.getScreenSize();
+        double originalPixelRatio = canvas.getScreenPixelRatio();
+        Java2DGraphicsContext graphicsContext = acquireContext(stage);
+
+        try {
+            canvas.resizeScreen(target.getWidth(), target.getHeight(), 1.0);
+            Graphics2D g2 = Utils2D.createGraphics(target, true, true);
+            graphicsContext.bind(g2);
+            stage.visitWithoutInstrumentation(graphicsContext);
+        } finally {
+            graphicsContext.dispose();
+            releaseContext(graphicsContext);
+            canvas.resizeScreen(originalSize.width(), originalSize.height(), originalPixelRatio);
+        }
+    }
+
+    /**
+     * Renders the stage to a pooled image with the specified dimensions,
+     * then passes that image to the callback. The callback can be used to
+     * encode or copy the image. After the callback returns, the image is
+     * returned to the pool and might be reused by the next render. Returns
+     * the result of the callback.
+     */
+    public <T> T render(Stage stage, int width, int height, Function<BufferedImage, T> callback) {
+        BufferedImage buffer = acquireBuffer(width, height);
+
+        try {
+            render(stage, buffer);
+            return callback.apply(buffer);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private Java2DGraphicsContext acquireContext(Stage stage) {
+        try {
+            availableContexts.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RendererException("Interrupted while waiting for graphics context", e);
+        }
+
+        Java2DGraphicsContext graphicsContext = idleContexts.poll();
+        if (graphicsContext == null) {
+            graphicsContext = new Java2DGraphicsContext(stage.getCanvas());
+        }
+        return graphicsContext;
+    }
+
+    private void releaseContext(Java2DGraphicsContext graphicsContext) {
+        idleContexts.offer(graphicsContext);
+        availableContexts.release();
+    }
+
+    private BufferedImage acquireBuffer(int width, int height) {
+        Queue<BufferedImage> buffers = bufferPool.get(new Size(width, height));
+        BufferedImage buffer = buffers != null ? buffers.poll() : null;
+        return buffer != null ? buffer : createBuffer(width, height);
+    }
+
+    private void releaseBuffer(BufferedImage buffer) {
+        Size size = new Size(buffer.getWidth(), buffer.getHeight());
+        Queue<BufferedImage> buffers = bufferPool.computeIfAbsent(size, _ -> new ConcurrentLinkedQueue<>());
+
+        if (buffers.size() < MAX_BUFFERS_PER_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+
+    private BufferedImage createBuffer(int width, int height) {
+        Preconditions.checkArgument(width >= 1 && height >= 1,
+            "Invalid image size: " + width + "x" + height);
+
+        allocatedBuffers.incrementAndGet();
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Returns the number of images that have been allocated by this renderer
+     * so far. When rendering using pooled buffers, this number should remain
+     * stable once the pool has been filled.
+     */
+    public int getAllocatedBuffers() {
+        return allocatedBuffers.get();
+    }
+}
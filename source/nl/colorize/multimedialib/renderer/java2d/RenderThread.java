@@ -0,0 +1,236 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import nl.colorize.multimedialib.stage.DrawList;
+import nl.colorize.util.LogHelper;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Draws frames on a separate thread, so that frame updates and drawing the
+ * frame can run concurrently. After every frame update, the update thread
+ * records the stage into a {@link DrawList} and publishes it. The render
+ * thread then draws the most recently published draw list, while the
+ * update thread is already working on the next frame.
+ * <p>
+ * Three draw lists are used: one that is being recorded by the update
+ * thread, one that is being drawn by the render thread, and the most recent
+ * draw list that has been published but not yet drawn. This means neither
+ * thread ever has to wait for the other. When the render thread cannot keep
+ * up, it skips to the most recent frame instead of drawing outdated frames.
+ * When the update thread cannot keep up, the render thread waits until the
+ * next frame has been published.
+ * <p>
+ * The time spent drawing is measured by the render thread, but reported to
+ * {@link FrameStats} by the update thread, as {@link FrameStats} is not
+ * thread-safe. It is recorded as {@link FrameStats#PHASE_FRAME_DRAW}.
+ * <p>
+ * The same applies to instrumentation. The render thread never uses the
+ * stage's {@link InstrumentedStageVisitor}, since that is owned by the
+ * update thread. When the stage is instrumented, the render thread uses
+ * its own instrumentation while drawing, and the events it reported, such
+ * as batch flushes, are passed to the stage's instrumentation by the
+ * update thread.
+ */
+public class RenderThread {
+
+    private BiConsumer<DrawList, InstrumentedStageVisitor> drawCallback;
+    private final Object lock;
+    private DrawList updateBuffer;
+    private DrawList pendingBuffer;
+    private DrawList drawBuffer;
+    private boolean pending;
+    private AtomicBoolean running;
+    private AtomicLong drawTime;
+    private InstrumentedStageVisitor drawInstrumentation;
+    private DrawEvents drawEvents;
+
+    private static final Logger LOGGER = LogHelper.getLogger(RenderThread.class);
+
+    /**
+     * Creates a render thread that uses the specified callback to draw
+     * frames. The callback receives the draw list, and the instrumentation
+     * that should be used when replaying it. The latter is {@code null} if
+     * the stage was not instrumented.
+     */
+    public RenderThread(BiConsumer<DrawList, InstrumentedStageVisitor> drawCallback) {
+        this.drawCallback = drawCallback;
+        this.lock = new Object();
+        this.updateBuffer = new DrawList();
+        this.pendingBuffer = new DrawList();
+        this.drawBuffer = new DrawList();
+        this.pending = false;
+        this.running = new AtomicBoolean(false);
+        this.drawTime = new AtomicLong(-1L);
+        // The instrumentation publishes to its own FrameStats, which is
+        // only used by the render thread.
+        this.drawInstrumentation = new InstrumentedStageVisitor(new FrameStats());
+        this.drawEvents = new DrawEvents();
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::runDrawLoop, "MultimediaLib-Java2D-Draw");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public void stop() {
+        running.set(false);
+
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the draw list that should be used by the update thread to
+     * record the current frame. The draw list should be published using
+     * {@link #publish()} once the frame has been recorded.
+     */
+    public DrawList getUpdateBuffer() {
+        return updateBuffer;
+    }
+
+    /**
+     * Publishes the draw list that was recorded by the update thread, so
+     * that it will be drawn by the render thread. If the previously
+     * published draw list has not been drawn yet, it is replaced.
+     */
+    public void publish() {
+        synchronized (lock) {
+            DrawList published = updateBuffer;
+            updateBuffer = pendingBuffer;
+            pendingBuffer = published;
+            pending = true;
+            lock.notifyAll();
+        }
+    }
+
+    private void runDrawLoop() {
+        while (running.get()) {
+            DrawList drawList = awaitFrame();
+
+            if (drawList != null) {
+                drawFrame(drawList);
+            }
+        }
+    }
+
+    private DrawList awaitFrame() {
+        synchronized (lock) {
+            while (!pending && running.get()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running.set(false);
+                }
+            }
+
+            if (!pending) {
+                return null;
+            }
+
+            DrawList next = pendingBuffer;
+            pendingBuffer = drawBuffer;
+            drawBuffer = next;
+            pending = false;
+            return drawBuffer;
+        }
+    }
+
+    private void drawFrame(DrawList drawList) {
+        InstrumentedStageVisitor instrumentation = drawList.isInstrumented() ? drawInstrumentation : null;
+        long start = System.nanoTime();
+
+        try {
+            drawCallback.accept(drawList, instrumentation);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Error while drawing frame", e);
+        }
+
+        drawTime.set(System.nanoTime() - start);
+
+        if (instrumentation != null) {
+            synchronized (lock) {
+                drawEvents.add(instrumentation);
+            }
+        }
+    }
+
+    /**
+     * Records the time spent drawing the most recent frame in the specified
+     * {@link FrameStats}, if a frame has been drawn since the last time this
+     * method was called. This method should be called from the update
+     * thread.
+     */
+    public void reportDrawTime(FrameStats frameStats) {
+        long nanos = drawTime.getAndSet(-1L);
+
+        if (nanos >= 0L) {
+            frameStats.record(FrameStats.PHASE_FRAME_DRAW, nanos);
+        }
+    }
+
+    /**
+     * Passes the events reported while drawing frames since the last time
+     * this method was called to the stage's instrumentation. This method
+     * should be called from the update thread, before the stage is visited.
+     */
+    public void reportDrawEvents(@Nullable InstrumentedStageVisitor instrumentation) {
+        synchronized (lock) {
+            if (instrumentation != null) {
+                instrumentation.reportDeferredEvents(drawEvents.batchFlushes, drawEvents.stateChanges,
+                    drawEvents.textureSwitches, drawEvents.cacheHits, drawEvents.cacheMisses,
+                    drawEvents.cacheMemory);
+            }
+            drawEvents.clear();
+        }
+    }
+
+    /**
+     * Events reported by the renderer while drawing on the render thread,
+     * which have not yet been passed to the update thread.
+     */
+    private static class DrawEvents {
+
+        private int batchFlushes;
+        private int stateChanges;
+        private int textureSwitches;
+        private int cacheHits;
+        private int cacheMisses;
+        private long cacheMemory;
+
+        public void add(InstrumentedStageVisitor instrumentation) {
+            batchFlushes += instrumentation.getBatchFlushes();
+            stateChanges += instrumentation.getStateChanges();
+            textureSwitches += instrumentation.getTextureSwitches();
+            cacheHits += instrumentation.getCacheHits();
+            cacheMisses += instrumentation.getCacheMisses();
+            cacheMemory = instrumentation.getCacheMemory();
+        }
+
+        public void clear() {
+            batchFlushes = 0;
+            stateChanges = 0;
+            textureSwitches = 0;
+            cacheHits = 0;
+            cacheMisses = 0;
+            cacheMemory = 0L;
+        }
+    }
+}
@@ -7,8 +7,11 @@
 package nl.colorize.multimedialib.renderer.java2d;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Utf8;
+import com.google.common.io.CountingInputStream;
 import nl.colorize.multimedialib.renderer.MediaException;
 import nl.colorize.multimedialib.renderer.MediaLoader;
+import nl.colorize.multimedialib.renderer.java2d.FlightRecorderTracer.MediaLoadEvent;
 import nl.colorize.multimedialib.renderer.headless.NullAudio;
 import nl.colorize.multimedialib.stage.Audio;
 import nl.colorize.multimedialib.stage.ColorRGB;
@@ -54,26 +57,28 @@ public class StandardMediaLoader implements MediaLoader {
 
     @Override
     public Image loadImage(ResourceFile file) {
+        MediaLoadEvent event = new MediaLoadEvent();
+        event.begin();
+
         try {
             ResourceFile source = locateFile(file);
-            BufferedImage original = Utils2D.loadImage(source.openStream());
+            CountingInputStream stream = new CountingInputStream(source.openStream());
+            BufferedImage original = Utils2D.loadImage(stream);
+            commitLoadEvent(event, file, "image", stream.getCount());
 
-            if (Platform.isWindows()) {
-                return prepareImage(file, original);
-            } else {
-                return new AWTImage(original);
-            }
+            return prepareImage(original);
         } catch (IOException e) {
             throw new MediaException("Cannot load image from " + file.path(), e);
         }
     }
 
     /**
-     * Prepares the image in order to make it hardware-accelerated. If this
-     * is not possible on the current platform, the original image will be
-     * used.
+     * Converts the image to the format used by the display, so that drawing
+     * the image does not require converting it every frame, and so that it
+     * can be hardware-accelerated. If this is not possible, for example in
+     * headless environments, the original image will be used.
      */
-    private Image prepareImage(ResourceFile file, BufferedImage original) {
+    private Image prepareImage(BufferedImage original) {
         try {
             BufferedImage compatible = Utils2D.makeImageCompatible(original);
             return new AWTImage(compatible);
@@ -101,7 +106,27 @@ public class StandardMediaLoader implements MediaLoader {
 
     @Override
     public String loadText(ResourceFile file) {
-        return locateFile(file).read(UTF_8);
+        MediaLoadEvent event = new MediaLoadEvent();
+        event.begin();
+        String text = locateFile(file).read(UTF_8);
+        commitLoadEvent(event, file, "text", Utf8.encodedLength(text));
+        return text;
+    }
+
+    /**
+     * Completes the Java Flight Recorder event for loading a media file.
+     * Audio and fonts are not included, since they are loaded just-in-time
+     * and not when calling the {@link MediaLoader} method.
+     */
+    private void commitLoadEvent(MediaLoadEvent event, ResourceFile file, String type, long bytes) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.file = file.path();
+            event.type = type;
+            event.bytes = bytes;
+            event.commit();
+        }
     }
 
     @Override
@@ -114,6 +139,11 @@ public class StandardMediaLoader implements MediaLoader {
         return locateFile(file).exists();
     }
 
+    @Override
+    public boolean supportsBackgroundLoading() {
+        return true;
+    }
+
     protected File getApplicationDataFile(String appName) {
         Preconditions.checkArgument(appName.length() >= 2, "Invalid application name");
         return Platform.getApplicationData(appName, APPLICATION_DATA_FILE_NAME);
@@ -6,10 +6,12 @@
 
 package nl.colorize.multimedialib.renderer.java2d;
 
+import com.google.common.base.Utf8;
 import com.google.common.net.HttpHeaders;
 import nl.colorize.multimedialib.renderer.Network;
 import nl.colorize.multimedialib.renderer.PeerConnection;
 import nl.colorize.multimedialib.renderer.Response;
+import nl.colorize.multimedialib.renderer.java2d.FlightRecorderTracer.NetworkRequestEvent;
 import nl.colorize.util.EventQueue;
 import nl.colorize.util.Platform;
 import nl.colorize.util.TupleList;
@@ -25,7 +27,8 @@ import java.util.Map;
 /**
  * Sends HTTP requests using the HTTP client included as part of the Java
  * standard library. It also provides web socket support through the
- * Java-WebSocket library.
+ * Java-WebSocket library. Requests are reported as Java Flight Recorder
+ * events, which only have an effect while JFR is recording.
  */
 public class StandardNetwork implements Network {
 
@@ -43,12 +46,31 @@ public class StandardNetwork implements Network {
 
         HttpRequest request = URLLoader.buildRequest(method, url, combinedHeaders, body);
         EventQueue<Response> eventQueue = new EventQueue<>();
+        NetworkRequestEvent event = new NetworkRequestEvent();
+        event.begin();
+
         URLLoader.sendAsync(request)
-            .map(this::mapResponse)
+            .map(response -> {
+                commitRequestEvent(event, method, url, response.statusCode(), response.body());
+                return mapResponse(response);
+            })
             .subscribe(eventQueue::onNext, eventQueue::onError);
         return eventQueue;
     }
 
+    private void commitRequestEvent(NetworkRequestEvent event, String method, String url,
+                                    int status, String responseBody) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.url = url;
+            event.status = status;
+            event.bytes = Utf8.encodedLength(responseBody);
+            event.commit();
+        }
+    }
+
     private Response mapResponse(HttpResponse<String> response) {
         TupleList<String, String> headers = new TupleList<>();
 
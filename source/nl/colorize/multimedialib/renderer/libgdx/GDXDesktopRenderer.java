@@ -16,11 +16,14 @@ import com.badlogic.gdx.graphics.glutils.HdpiMode;
 import com.badlogic.gdx.utils.GdxNativesLoader;
 import com.badlogic.gdx.utils.SharedLibraryLoader;
 import nl.colorize.multimedialib.math.Size;
+import nl.colorize.multimedialib.renderer.FrameWatchdog;
 import nl.colorize.multimedialib.renderer.GraphicsMode;
 import nl.colorize.multimedialib.renderer.KeyCode;
 import nl.colorize.multimedialib.renderer.RenderConfig;
 import nl.colorize.multimedialib.renderer.Renderer;
 import nl.colorize.multimedialib.renderer.RendererException;
+import nl.colorize.multimedialib.renderer.java2d.AllocationTracker;
+import nl.colorize.multimedialib.renderer.java2d.FlightRecorderTracer;
 import nl.colorize.multimedialib.renderer.java2d.StandardMediaLoader;
 import nl.colorize.multimedialib.renderer.java2d.StandardNetwork;
 import nl.colorize.multimedialib.scene.Scene;
@@ -30,6 +33,7 @@ import nl.colorize.util.LogHelper;
 import nl.colorize.util.Platform;
 import nl.colorize.util.TextUtils;
 import nl.colorize.util.swing.SwingUtils;
+import org.jspecify.annotations.Nullable;
 import org.lwjgl.system.Configuration;
 
 import java.awt.Dimension;
@@ -51,6 +55,8 @@ import static com.badlogic.gdx.Files.FileType.Internal;
  */
 public class GDXDesktopRenderer extends GDXContext implements Renderer {
 
+    @Nullable private AllocationTracker allocationTracker;
+
     private static AtomicBoolean nativeLibrariesLoaded = new AtomicBoolean(false);
 
     private static final List<NativeLibrary> INTEL_MAC_NATIVE_LIBRARIES = List.of(
@@ -169,6 +175,15 @@ public class GDXDesktopRenderer extends GDXContext implements Renderer {
     public void start(RenderConfig config, Scene initialScene) {
         this.config = config;
         this.sceneManager = new SceneManager(this, initialScene);
+        if (config.isFlightRecorder()) {
+            sceneManager.addTracer(new FlightRecorderTracer());
+        }
+        if (config.isAllocationTracking()) {
+            allocationTracker = AllocationTracker.enable(sceneManager.getFrameStats());
+        }
+        if (config.getHitchThreshold() > 0) {
+            sceneManager.addTracer(new FrameWatchdog(config.getHitchThreshold()).start());
+        }
 
         try {
             Lwjgl3ApplicationConfiguration gdxConfig = configure();
@@ -224,6 +239,9 @@ public class GDXDesktopRenderer extends GDXContext implements Renderer {
 
     @Override
     public void terminate() {
+        if (allocationTracker != null) {
+            allocationTracker.disable();
+        }
         System.exit(0);
     }
 
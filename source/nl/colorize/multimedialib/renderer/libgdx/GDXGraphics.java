@@ -8,13 +8,12 @@ package nl.colorize.multimedialib.renderer.libgdx;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.TextureData;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.Material;
@@ -24,14 +23,11 @@ import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.environment.PointLight;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.Quaternion;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.math.collision.Ray;
-import com.google.common.base.Preconditions;
 import nl.colorize.multimedialib.math.Box;
 import nl.colorize.multimedialib.math.Circle;
 import nl.colorize.multimedialib.math.Line;
@@ -44,6 +40,8 @@ import nl.colorize.multimedialib.math.Shape3D;
 import nl.colorize.multimedialib.math.Sphere;
 import nl.colorize.multimedialib.renderer.Canvas;
 import nl.colorize.multimedialib.renderer.GraphicsMode;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import nl.colorize.multimedialib.renderer.ResourceCache;
 import nl.colorize.multimedialib.renderer.World3D;
 import nl.colorize.multimedialib.stage.Align;
 import nl.colorize.multimedialib.stage.ColorRGB;
@@ -52,6 +50,7 @@ import nl.colorize.multimedialib.stage.Group;
 import nl.colorize.multimedialib.stage.ImageTransform;
 import nl.colorize.multimedialib.stage.Light;
 import nl.colorize.multimedialib.stage.Mesh;
+import nl.colorize.multimedialib.stage.ParticleBatch;
 import nl.colorize.multimedialib.stage.Primitive;
 import nl.colorize.multimedialib.stage.Sprite;
 import nl.colorize.multimedialib.stage.Stage;
@@ -59,7 +58,6 @@ import nl.colorize.multimedialib.stage.StageVisitor;
 import nl.colorize.multimedialib.stage.Text;
 import nl.colorize.multimedialib.stage.Transform;
 import nl.colorize.multimedialib.stage.Transform3D;
-import nl.colorize.util.Cache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -78,9 +76,16 @@ public class GDXGraphics implements StageVisitor, World3D {
     private Canvas canvas;
     private GDXMediaLoader mediaLoader;
 
-    private SpriteBatch spriteBatch;
-    private ShapeRenderer shapeBatch;
-    private Cache<MaskTexture, TextureRegion> maskCache;
+    private PolygonSpriteBatch batch;
+    private Texture whiteTexel;
+    private Color shapeColor;
+    private float[] shapeVertices;
+    private ResourceCache<MaskTexture, TextureRegion> maskCache;
+    private InstrumentedStageVisitor instrumentation;
+    private Texture lastTexture;
+    private TextureRegion lastMaskSource;
+    private ColorRGB lastMaskColor;
+    private TextureRegion lastMask;
 
     protected PerspectiveCamera camera;
     private Environment environment;
@@ -91,7 +96,13 @@ public class GDXGraphics implements StageVisitor, World3D {
     private static final double NEAR_PLANE = 1;
     private static final double FAR_PLANE = 300;
     private static final int CIRCLE_SEGMENTS = 32;
-    private static final int MASK_CACHE_SIZE = 1024;
+    private static final float[] CIRCLE_COS = createCircleTable(true);
+    private static final float[] CIRCLE_SIN = createCircleTable(false);
+    private static final short[] CIRCLE_TRIANGLES = createCircleTriangles();
+    private static final short[] QUAD_TRIANGLES = {0, 1, 2, 0, 2, 3};
+    private static final short[] TRIANGLE = {0, 1, 2};
+    private static final int VERTEX_SIZE = 5;
+    private static final long MASK_CACHE_BUDGET = 64L * 1024L * 1024L;
     private static final int TEXTURE_FLAGS = Position | Normal | TextureCoordinates;
     private static final int SPHERE_SEGMENTS = 32;
 
@@ -99,7 +110,12 @@ public class GDXGraphics implements StageVisitor, World3D {
         this.graphicsMode = graphicsMode;
         this.canvas = canvas;
         this.mediaLoader = mediaLoader;
-        this.maskCache = Cache.from(this::createMask, MASK_CACHE_SIZE);
+        this.whiteTexel = createWhiteTexel();
+        this.shapeColor = new Color();
+        this.shapeVertices = new float[(CIRCLE_SEGMENTS + 1) * VERTEX_SIZE];
+        this.maskCache = new ResourceCache<>(this::createMask,
+            region -> ResourceCache.estimateImageSize(region.getRegionWidth(), region.getRegionHeight()),
+            region -> region.getTexture().dispose(), MASK_CACHE_BUDGET);
 
         camera = new PerspectiveCamera(FIELD_OF_VIEW, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         camera.near = (float) NEAR_PLANE;
@@ -110,8 +126,12 @@ public class GDXGraphics implements StageVisitor, World3D {
     }
 
     protected void restartBatch() {
-        spriteBatch = new SpriteBatch();
-        shapeBatch = new ShapeRenderer();
+        if (batch != null) {
+            batch.dispose();
+            modelBatch.dispose();
+        }
+
+        batch = new PolygonSpriteBatch();
         modelBatch = new ModelBatch();
         if (displayList != null) {
             displayList.clear();
@@ -120,6 +140,9 @@ public class GDXGraphics implements StageVisitor, World3D {
 
     @Override
     public void prepareStage(Stage stage) {
+        instrumentation = stage.getInstrumentation();
+        lastTexture = null;
+
         if (displayList == null) {
             displayList = new ArrayList<>();
         }
@@ -153,80 +176,96 @@ public class GDXGraphics implements StageVisitor, World3D {
         }
     }
 
-    @Override
-    public void drawBackground(ColorRGB backgroundColor) {
-        switchMode(false, true);
-        shapeBatch.setColor(convertColor(backgroundColor));
-        shapeBatch.rect(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        switchMode(false, false);
-    }
-
-    private Color getPrimitiveColor(Primitive primitive, Transform globalTransform) {
-        ColorRGB color = primitive.getColor();
-        return convertColor(color, globalTransform.getAlpha());
+    /**
+     * Creates a texture that consists of a single white pixel. Shapes are
+     * drawn as polygons that use this texture, with the shape's color as
+     * the vertex color. This allows shapes to be drawn using the same
+     * batch as sprites and text.
+     */
+    private Texture createWhiteTexel() {
+        Pixmap pixmap = new Pixmap(1, 1, RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        return texture;
+    }
+
+    private static float[] createCircleTable(boolean cos) {
+        float[] table = new float[CIRCLE_SEGMENTS];
+        for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+            double angle = 2.0 * Math.PI * i / CIRCLE_SEGMENTS;
+            table[i] = (float) (cos ? Math.cos(angle) : Math.sin(angle));
+        }
+        return table;
     }
 
     /**
-     * Draws a line using libGDX's {@code ShapeBatch}. Drawing lines will
-     * always trigger a mode switch, as "line mode" and "fill mode" are
-     * separate and lines are the only shape without a fill.
+     * Circles are drawn as a triangle fan, with the center as the first
+     * vertex followed by the vertices along the circle's edge.
      */
-    @Override
-    public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
-        Color color = getPrimitiveColor(graphic, globalTransform);
-        if (graphic.getStroke() == 1f) {
-            drawBasicLines(List.of(line), color);
-        } else {
-            drawComplexLines(List.of(line), color, graphic.getStroke());
+    private static short[] createCircleTriangles() {
+        short[] triangles = new short[CIRCLE_SEGMENTS * 3];
+        for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+            triangles[i * 3] = 0;
+            triangles[i * 3 + 1] = (short) (i + 1);
+            triangles[i * 3 + 2] = (short) ((i + 1) % CIRCLE_SEGMENTS + 1);
         }
+        return triangles;
     }
 
     @Override
-    public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
-        Color color = getPrimitiveColor(graphic, globalTransform);
-        if (graphic.getStroke() == 1f) {
-            drawBasicLines(line.getSegments(), color);
-        } else {
-            drawComplexLines(line.getSegments(), color, graphic.getStroke());
+    public void drawBackground(ColorRGB backgroundColor) {
+        float width = Gdx.graphics.getWidth();
+        float height = Gdx.graphics.getHeight();
+        float color = toPackedColor(backgroundColor, 100.0);
+        drawQuad(0f, 0f, width, 0f, width, height, 0f, height, color);
+
+        // 3D graphics do not use the batch, so the background
+        // needs to be drawn before the 3D graphics.
+        if (graphicsMode == GraphicsMode.MODE_3D) {
+            endBatch();
         }
     }
 
-    private void drawBasicLines(List<Line> lines, Color color) {
-        switchMode(false, false);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
+    private float getPrimitiveColor(Primitive primitive, Transform globalTransform) {
+        return toPackedColor(primitive.getColor(), globalTransform.getAlpha());
+    }
 
-        shapeBatch.begin(ShapeRenderer.ShapeType.Line);
-        shapeBatch.setColor(color);
+    @Override
+    public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
+        float color = getPrimitiveColor(graphic, globalTransform);
+        drawLineSegment(line.start(), line.end(), graphic.getStroke(), color);
+    }
 
-        for (Line segment : lines) {
-            float x0 = toScreenX(segment.start().x());
-            float y0 = toScreenY(segment.start().y());
-            float x1 = toScreenX(segment.end().x());
-            float y1 = toScreenY(segment.end().y());
+    @Override
+    public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
+        float color = getPrimitiveColor(graphic, globalTransform);
+        List<Point2D> points = line.points();
 
-            shapeBatch.line(x0, y0, x1, y1);
+        for (int i = 1; i < points.size(); i++) {
+            drawLineSegment(points.get(i - 1), points.get(i), graphic.getStroke(), color);
         }
-
-        shapeBatch.end();
     }
 
-    private void drawComplexLines(List<Line> lines, Color color, double stroke) {
-        switchMode(false, false);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-
-        shapeBatch.begin(ShapeRenderer.ShapeType.Filled);
-        shapeBatch.setColor(color);
-
-        for (Line segment : lines) {
-            float x0 = toScreenX(segment.start().x());
-            float y0 = toScreenY(segment.start().y());
-            float x1 = toScreenX(segment.end().x());
-            float y1 = toScreenY(segment.end().y());
-
-            shapeBatch.rectLine(new Vector2(x0, y0), new Vector2(x1, y1), (float) stroke);
+    /**
+     * Draws a line segment as a quad, with the stroke as the width in screen
+     * pixels. This means lines do not need to be drawn using a separate
+     * line drawing mode.
+     */
+    private void drawLineSegment(Point2D start, Point2D end, double stroke, float color) {
+        float x0 = toScreenX(start.x());
+        float y0 = toScreenY(start.y());
+        float x1 = toScreenX(end.x());
+        float y1 = toScreenY(end.y());
+        float length = (float) Math.hypot(x1 - x0, y1 - y0);
+
+        if (length > 0f) {
+            float offsetX = (y0 - y1) / length * (float) stroke / 2f;
+            float offsetY = (x1 - x0) / length * (float) stroke / 2f;
+            drawQuad(x0 + offsetX, y0 + offsetY, x1 + offsetX, y1 + offsetY,
+                x1 - offsetX, y1 - offsetY, x0 - offsetX, y0 - offsetY, color);
         }
-
-        shapeBatch.end();
     }
 
     @Override
@@ -235,27 +274,28 @@ public class GDXGraphics implements StageVisitor, World3D {
         float y = toScreenY(rect.getEndY());
         float width = (float) rect.width() * (float) canvas.getZoomLevel();
         float height = (float) rect.height() * (float) canvas.getZoomLevel();
+        float color = getPrimitiveColor(graphic, globalTransform);
 
-        switchMode(false, true);
-        shapeBatch.setColor(getPrimitiveColor(graphic, globalTransform));
-        shapeBatch.rect(x, y, width, height);
+        drawQuad(x, y, x + width, y, x + width, y + height, x, y + height, color);
     }
 
     @Override
     public void drawCircle(Primitive graphic, Circle circle, Transform globalTransform) {
-        float width = (float) circle.radius() * (float) canvas.getZoomLevel() * 2f;
-        float height = (float) circle.radius() * (float) canvas.getZoomLevel() * 2f;
-        float x = toScreenX(circle.center().x()) - width / 2f;
-        float y = toScreenY(circle.center().y()) - height / 2f;
-
-        switchMode(false, true);
-        shapeBatch.setColor(getPrimitiveColor(graphic, globalTransform));
-        shapeBatch.ellipse(x, y, width, height, CIRCLE_SEGMENTS);
+        float centerX = toScreenX(circle.center().x());
+        float centerY = toScreenY(circle.center().y());
+        float radius = (float) circle.radius() * (float) canvas.getZoomLevel();
+        float color = getPrimitiveColor(graphic, globalTransform);
+
+        setShapeVertex(0, centerX, centerY, color);
+        for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+            setShapeVertex(i + 1, centerX + CIRCLE_COS[i] * radius, centerY + CIRCLE_SIN[i] * radius, color);
+        }
+        drawShape(CIRCLE_SEGMENTS + 1, CIRCLE_TRIANGLES);
     }
 
     @Override
     public void drawPolygon(Primitive graphic, Polygon polygon, Transform globalTransform) {
-        Color color = getPrimitiveColor(graphic, globalTransform);
+        float color = getPrimitiveColor(graphic, globalTransform);
         if (polygon.getNumPoints() == 3) {
             drawTriangle(polygon.toPoints(), color);
         } else {
@@ -265,12 +305,34 @@ public class GDXGraphics implements StageVisitor, World3D {
         }
     }
 
-    private void drawTriangle(double[] vertices, Color color) {
-        switchMode(false, true);
-        shapeBatch.setColor(color);
-        shapeBatch.triangle(toScreenX(vertices[0]), toScreenY(vertices[1]),
-            toScreenX(vertices[2]), toScreenY(vertices[3]),
-            toScreenX(vertices[4]), toScreenY(vertices[5]));
+    private void drawTriangle(double[] vertices, float color) {
+        setShapeVertex(0, toScreenX(vertices[0]), toScreenY(vertices[1]), color);
+        setShapeVertex(1, toScreenX(vertices[2]), toScreenY(vertices[3]), color);
+        setShapeVertex(2, toScreenX(vertices[4]), toScreenY(vertices[5]), color);
+        drawShape(3, TRIANGLE);
+    }
+
+    private void drawQuad(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3,
+                          float color) {
+        setShapeVertex(0, x0, y0, color);
+        setShapeVertex(1, x1, y1, color);
+        setShapeVertex(2, x2, y2, color);
+        setShapeVertex(3, x3, y3, color);
+        drawShape(4, QUAD_TRIANGLES);
+    }
+
+    private void setShapeVertex(int index, float x, float y, float color) {
+        int offset = index * VERTEX_SIZE;
+        shapeVertices[offset] = x;
+        shapeVertices[offset + 1] = y;
+        shapeVertices[offset + 2] = color;
+        shapeVertices[offset + 3] = 0.5f;
+        shapeVertices[offset + 4] = 0.5f;
+    }
+
+    private void drawShape(int vertexCount, short[] triangles) {
+        prepareBatch(whiteTexel);
+        batch.draw(whiteTexel, shapeVertices, 0, vertexCount * VERTEX_SIZE, triangles, 0, triangles.length);
     }
 
     @Override
@@ -289,14 +351,57 @@ public class GDXGraphics implements StageVisitor, World3D {
             textureRegion = maskCache.get(new MaskTexture(textureRegion, transform.getMaskColor()));
         }
 
-        switchMode(true, false);
-        spriteBatch.setColor(1f, 1f, 1f, (float) transform.getAlpha() / 100f);
-        spriteBatch.draw(textureRegion, screenX - screenWidth / 2f, screenY - screenHeight / 2f,
+        prepareBatch(textureRegion.getTexture());
+        batch.setColor(1f, 1f, 1f, (float) transform.getAlpha() / 100f);
+        batch.draw(textureRegion, screenX - screenWidth / 2f, screenY - screenHeight / 2f,
             screenWidth / 2f, screenHeight / 2f, screenWidth, screenHeight,
             (float) transform.getScaleX() / 100f, (float) transform.getScaleY() / 100f,
             (float) -transform.getRotation().degrees());
     }
 
+    /**
+     * Draws all particles directly from the particle arrays, instead of
+     * preparing a sprite for every particle. Colored particles are drawn
+     * using mask textures, consecutive particles with the same color share
+     * the same mask texture.
+     */
+    @Override
+    public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        TextureRegion textureRegion = ((GDXImage) particles.getImage()).getTextureRegion();
+        float screenWidth = textureRegion.getRegionWidth() * (float) canvas.getZoomLevel();
+        float screenHeight = textureRegion.getRegionHeight() * (float) canvas.getZoomLevel();
+
+        Point2D origin = globalTransform.getPosition();
+        double[] x = particles.getX();
+        double[] y = particles.getY();
+        double[] scale = particles.getScale();
+        double[] rotation = particles.getRotation();
+        double[] alpha = particles.getAlpha();
+
+        for (int i = 0; i < particles.getCount(); i++) {
+            ColorRGB color = particles.getParticleColor(i);
+            TextureRegion particleRegion = color == null ? textureRegion : getParticleMask(textureRegion, color);
+            float screenX = toScreenX(origin.x() + x[i]);
+            float screenY = toScreenY(origin.y() + y[i]);
+            float particleScale = (float) scale[i] / 100f;
+
+            prepareBatch(particleRegion.getTexture());
+            batch.setColor(1f, 1f, 1f, (float) (globalTransform.getAlpha() * alpha[i]) / 10_000f);
+            batch.draw(particleRegion, screenX - screenWidth / 2f, screenY - screenHeight / 2f,
+                screenWidth / 2f, screenHeight / 2f, screenWidth, screenHeight,
+                particleScale, particleScale, (float) -rotation[i]);
+        }
+    }
+
+    private TextureRegion getParticleMask(TextureRegion source, ColorRGB color) {
+        if (source != lastMaskSource || color != lastMaskColor) {
+            lastMask = maskCache.get(new MaskTexture(source, color));
+            lastMaskSource = source;
+            lastMaskColor = color;
+        }
+        return lastMask;
+    }
+
     private TextureRegion createMask(MaskTexture config) {
         TextureRegion original = config.original;
         TextureData textureData = original.getTexture().getTextureData();
@@ -331,12 +436,12 @@ public class GDXGraphics implements StageVisitor, World3D {
         // itself, since those numbers don't work well with scaling.
         double ascent = 0.8f * text.getFont().size();
 
-        switchMode(true, false);
+        prepareBatch(bitmapFont.getRegion().getTexture());
 
         text.forLines((i, line) -> {
             double lineY = globalTransform.getPosition().y() + i * text.getLineHeight() - ascent;
             float screenY = toScreenY(lineY);
-            bitmapFont.draw(spriteBatch, line, screenX, screenY, 0, align, false);
+            bitmapFont.draw(batch, line, screenX, screenY, 0, align, false);
         });
     }
 
@@ -350,7 +455,13 @@ public class GDXGraphics implements StageVisitor, World3D {
 
     @Override
     public void finalize2D(Stage stage) {
-        switchMode(false, false);
+        endBatch();
+        // Masks can be disposed when they are evicted from the cache, so
+        // they should not be reused after the frame has been drawn.
+        lastMaskSource = null;
+        lastMaskColor = null;
+        lastMask = null;
+        maskCache.reportUsage(instrumentation);
     }
 
     @Override
@@ -406,53 +517,45 @@ public class GDXGraphics implements StageVisitor, World3D {
         return convertColor(color, 100f);
     }
 
+    private float toPackedColor(ColorRGB color, double alpha) {
+        shapeColor.set(color.r() / 255f, color.g() / 255f, color.b() / 255f, (float) alpha / 100f);
+        return shapeColor.toFloatBits();
+    }
+
     private Vector3 convertVector(Point3D point) {
         return new Vector3((float) point.x(), (float) point.y(), (float) point.z());
     }
 
     /**
-     * Switches graphics modes. libGDX is heavily reliant on performing drawing
-     * operations in batch mode. As a consequence, there is a performance
-     * penalty when drawing sprites and shapes interchangeably, as this will
-     * trigger several mode switches during each frame.
+     * Prepares the batch for drawing with the specified texture. Sprites,
+     * text, and shapes are all drawn using the same batch, so switching
+     * between them does not require ending one batch and starting another.
+     * The batch only needs to be flushed when the texture changes.
      */
-    private void switchMode(boolean sprites, boolean shapes) {
-        Preconditions.checkArgument(!(sprites && shapes), "Invalid drawing mode");
-
-        if (sprites) {
-            endShapeBatch();
-            beginSpriteBatch();
-        } else if (shapes) {
-            endSpriteBatch();
-            beginShapeBatch();
-        } else {
-            endSpriteBatch();
-            endShapeBatch();
+    private void prepareBatch(Texture texture) {
+        if (!batch.isDrawing()) {
+            batch.begin();
+            reportStateChange();
         }
-    }
 
-    private void beginSpriteBatch() {
-        if (!spriteBatch.isDrawing()) {
-            spriteBatch.begin();
+        if (instrumentation != null && texture != lastTexture) {
+            instrumentation.reportTextureSwitch();
         }
+        lastTexture = texture;
     }
 
-    private void endSpriteBatch() {
-        if (spriteBatch.isDrawing()) {
-            spriteBatch.end();
-        }
-    }
-
-    private void beginShapeBatch() {
-        if (!shapeBatch.isDrawing()) {
-            Gdx.gl.glEnable(GL20.GL_BLEND);
-            shapeBatch.begin(ShapeRenderer.ShapeType.Filled);
+    private void endBatch() {
+        if (batch.isDrawing()) {
+            batch.end();
+            if (instrumentation != null) {
+                instrumentation.reportBatchFlushes(batch.renderCalls);
+            }
         }
     }
 
-    private void endShapeBatch() {
-        if (shapeBatch.isDrawing()) {
-            shapeBatch.end();
+    private void reportStateChange() {
+        if (instrumentation != null) {
+            instrumentation.reportStateChange();
         }
     }
 
@@ -520,12 +623,12 @@ public class GDXGraphics implements StageVisitor, World3D {
     }
 
     protected void dispose() {
-        endSpriteBatch();
-        endShapeBatch();
+        endBatch();
 
-        spriteBatch.dispose();
-        shapeBatch.dispose();
+        batch.dispose();
+        whiteTexel.dispose();
         modelBatch.dispose();
+        maskCache.clear();
     }
 
     /**
@@ -21,12 +21,15 @@ import io.github.humbleui.types.IRect;
 import lombok.Getter;
 import nl.colorize.multimedialib.math.Size;
 import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.FrameWatchdog;
 import nl.colorize.multimedialib.renderer.GraphicsMode;
 import nl.colorize.multimedialib.renderer.MediaLoader;
 import nl.colorize.multimedialib.renderer.Network;
 import nl.colorize.multimedialib.renderer.RenderConfig;
 import nl.colorize.multimedialib.renderer.Renderer;
 import nl.colorize.multimedialib.renderer.RendererException;
+import nl.colorize.multimedialib.renderer.java2d.AllocationTracker;
+import nl.colorize.multimedialib.renderer.java2d.FlightRecorderTracer;
 import nl.colorize.multimedialib.renderer.java2d.StandardMediaLoader;
 import nl.colorize.multimedialib.renderer.java2d.StandardNetwork;
 import nl.colorize.multimedialib.scene.Scene;
@@ -34,6 +37,7 @@ import nl.colorize.multimedialib.scene.SceneContext;
 import nl.colorize.multimedialib.scene.SceneManager;
 import nl.colorize.util.LogHelper;
 import nl.colorize.util.ResourceFile;
+import org.jspecify.annotations.Nullable;
 import org.lwjgl.glfw.Callbacks;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
@@ -62,6 +66,7 @@ public class SkijaRenderer implements Renderer, SceneContext {
 
     private Surface surface;
     private BackendRenderTarget renderTarget;
+    @Nullable private AllocationTracker allocationTracker;
 
     private static final Logger LOGGER = LogHelper.getLogger(SkijaRenderer.class);
 
@@ -72,6 +77,15 @@ public class SkijaRenderer implements Renderer, SceneContext {
         this.mediaLoader = new SkijaMediaLoader();
         this.input = new LWJGLInput(config);
         this.sceneManager = new SceneManager(this);
+        if (config.isFlightRecorder()) {
+            sceneManager.addTracer(new FlightRecorderTracer());
+        }
+        if (config.isAllocationTracking()) {
+            allocationTracker = AllocationTracker.enable(sceneManager.getFrameStats());
+        }
+        if (config.getHitchThreshold() > 0) {
+            sceneManager.addTracer(new FrameWatchdog(config.getHitchThreshold()).start());
+        }
 
         GLFWErrorCallback.createPrint(System.err).set();
 
@@ -189,6 +203,9 @@ public class SkijaRenderer implements Renderer, SceneContext {
 
     @Override
     public void terminate() {
+        if (allocationTracker != null) {
+            allocationTracker.disable();
+        }
         System.exit(0);
     }
 
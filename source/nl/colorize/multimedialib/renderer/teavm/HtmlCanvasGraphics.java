@@ -15,6 +15,7 @@ import nl.colorize.multimedialib.math.Region;
 import nl.colorize.multimedialib.math.SegmentedLine;
 import nl.colorize.multimedialib.math.Size;
 import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.stage.ColorRGB;
 import nl.colorize.multimedialib.stage.FontFace;
 import nl.colorize.multimedialib.stage.Group;
@@ -45,6 +46,7 @@ public class HtmlCanvasGraphics implements StageVisitor {
 
     private HTMLCanvasElement htmlCanvas;
     private CanvasRenderingContext2D context;
+    private InstrumentedStageVisitor instrumentation;
 
     public HtmlCanvasGraphics(Canvas sceneCanvas, TeaMediaLoader mediaLoader) {
         this.sceneCanvas = sceneCanvas;
@@ -94,6 +96,7 @@ public class HtmlCanvasGraphics implements StageVisitor {
 
     @Override
     public void prepareStage(Stage stage) {
+        instrumentation = stage.getInstrumentation();
         context.clearRect(0f, 0f, htmlCanvas.getWidth(), htmlCanvas.getHeight());
     }
 
@@ -229,6 +232,11 @@ public class HtmlCanvasGraphics implements StageVisitor {
         return font.size() + "px " + font.family();
     }
 
+    @Override
+    public void finalize2D(Stage stage) {
+        mediaLoader.reportCacheUsage(instrumentation);
+    }
+
     @Override
     public void visitGroup(Group group, Transform3D globalTransform) {
         throw new UnsupportedOperationException();
@@ -7,17 +7,19 @@
 package nl.colorize.multimedialib.renderer.teavm;
 
 import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.renderer.MediaException;
 import nl.colorize.multimedialib.renderer.MediaLoader;
+import nl.colorize.multimedialib.renderer.ResourceCache;
 import nl.colorize.multimedialib.stage.Audio;
 import nl.colorize.multimedialib.stage.ColorRGB;
 import nl.colorize.multimedialib.stage.FontFace;
 import nl.colorize.multimedialib.stage.Image;
 import nl.colorize.multimedialib.stage.Mesh;
-import nl.colorize.util.Cache;
 import nl.colorize.util.LogHelper;
 import nl.colorize.util.ResourceFile;
 import nl.colorize.util.Subject;
+import org.jspecify.annotations.Nullable;
 import org.teavm.jso.browser.Storage;
 import org.teavm.jso.browser.Window;
 import org.teavm.jso.canvas.CanvasRenderingContext2D;
@@ -56,10 +58,10 @@ public class TeaMediaLoader implements MediaLoader {
 
     private Map<ResourceFile, HTMLImageElement> preloadedImages;
     private Set<ResourceFile> preloadedFonts;
-    private Cache<MaskImage, HTMLCanvasElement> maskImageCache;
+    private ResourceCache<MaskImage, HTMLCanvasElement> maskImageCache;
 
     private static final ResourceFile MANIFEST_FILE = new ResourceFile("resource-file-manifest");
-    private static final int IMAGE_CACHE_SIZE = 500;
+    private static final long MASK_CACHE_BUDGET = 64L * 1024L * 1024L;
     private static final Logger LOGGER = LogHelper.getLogger(TeaMediaLoader.class);
 
     public TeaMediaLoader() {
@@ -69,7 +71,9 @@ public class TeaMediaLoader implements MediaLoader {
 
         preloadedImages = new HashMap<>();
         preloadedFonts = new HashSet<>();
-        maskImageCache = Cache.from(this::createMaskImage, IMAGE_CACHE_SIZE);
+        maskImageCache = new ResourceCache<>(this::createMaskImage,
+            canvas -> ResourceCache.estimateImageSize(canvas.getWidth(), canvas.getHeight()),
+            this::releaseMaskImage, MASK_CACHE_BUDGET);
     }
 
     /**
@@ -251,6 +255,25 @@ public class TeaMediaLoader implements MediaLoader {
         return canvas;
     }
 
+    /**
+     * Releases the memory used by a masked image that has been evicted from
+     * the cache. Browsers keep the canvas backing store alive until the
+     * canvas itself is garbage collected, resizing the canvas releases it
+     * immediately.
+     */
+    private void releaseMaskImage(HTMLCanvasElement canvas) {
+        canvas.setWidth(0);
+        canvas.setHeight(0);
+    }
+
+    /**
+     * Reports the mask image cache's hit rate and memory usage for the
+     * current frame.
+     */
+    protected void reportCacheUsage(@Nullable InstrumentedStageVisitor instrumentation) {
+        maskImageCache.reportUsage(instrumentation);
+    }
+
     /**
      * Used as a cache key for masking images. The entire image is masked,
      * not just the image region. If we need a masked region, we just extract
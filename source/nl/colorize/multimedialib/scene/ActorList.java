@@ -0,0 +1,134 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Stores actors in a dense array, optimized for actors being attached and
+ * removed during frame updates. Removing an actor only clears its slot,
+ * the array is compacted once after the frame update has been completed.
+ * This means every removal takes constant time, compared to copying the
+ * entire array for every removal.
+ * <p>
+ * Actors are always updated in the order in which they were attached.
+ * Actors that are attached <em>during</em> iteration are appended to the
+ * end of the array, but will not be part of the iteration that is already
+ * in progress. This is achieved by the caller iterating up to the size
+ * that was obtained before the iteration started.
+ */
+final class ActorList implements Iterable<Actor> {
+
+    private Actor[] actors;
+    private int size;
+    private int removed;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    public ActorList() {
+        this.actors = new Actor[INITIAL_CAPACITY];
+        this.size = 0;
+        this.removed = 0;
+    }
+
+    public void add(Actor actor) {
+        Preconditions.checkNotNull(actor, "Cannot attach null actor");
+
+        if (size == actors.length) {
+            actors = Arrays.copyOf(actors, size * 2);
+        }
+
+        actors[size] = actor;
+        size++;
+    }
+
+    /**
+     * Returns the actor at the specified index, or {@code null} if the actor
+     * in that slot has been removed but the array has not been compacted yet.
+     */
+    public Actor get(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return actors[index];
+    }
+
+    /**
+     * Removes the actor at the specified index, leaving an empty slot until
+     * the next time {@link #compact()} is called.
+     */
+    public void remove(int index) {
+        Preconditions.checkElementIndex(index, size);
+
+        if (actors[index] != null) {
+            actors[index] = null;
+            removed++;
+        }
+    }
+
+    /**
+     * Removes the empty slots left by removed actors, while retaining the
+     * order of the remaining actors. This only performs a single pass over
+     * the array, regardless of the number of actors that have been removed.
+     */
+    public void compact() {
+        if (removed == 0) {
+            return;
+        }
+
+        int remaining = 0;
+        for (int i = 0; i < size; i++) {
+            if (actors[i] != null) {
+                actors[remaining] = actors[i];
+                remaining++;
+            }
+        }
+
+        Arrays.fill(actors, remaining, size, null);
+        size = remaining;
+        removed = 0;
+    }
+
+    /**
+     * Returns the number of slots in the array, including the empty slots
+     * of actors that have been removed since the last compaction.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Actor> iterator() {
+        return new Iterator<>() {
+            private int next = skipEmpty(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Actor next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                Actor actor = actors[next];
+                next = skipEmpty(next + 1);
+                return actor;
+            }
+        };
+    }
+
+    private int skipEmpty(int index) {
+        while (index < size && actors[index] == null) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,137 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene;
+
+import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.renderer.MediaException;
+import nl.colorize.multimedialib.renderer.MediaLoader;
+import nl.colorize.multimedialib.stage.Audio;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.FontFace;
+import nl.colorize.multimedialib.stage.Image;
+import nl.colorize.multimedialib.stage.SpriteAtlas;
+import nl.colorize.util.ResourceFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Describes the media files that should be loaded before a scene is started.
+ * Passing the manifest to {@link SceneContext#changeScene(Scene, AssetManifest)}
+ * will load these files while the current scene is still active, so that
+ * the requested scene does not need to load them during
+ * {@link Scene#start(SceneContext)}. Once all files have been loaded, the
+ * scene can obtain them from the manifest.
+ * <p>
+ * Assets are identified by their resource file. Fonts are also identified
+ * by their file, alternative sizes or colors can be obtained using
+ * {@link FontFace#derive(int)}.
+ */
+public final class AssetManifest {
+
+    private List<Asset> assets;
+    private Map<ResourceFile, Object> loaded;
+    private AtomicInteger loadedCount;
+
+    public AssetManifest() {
+        this.assets = new ArrayList<>();
+        this.loaded = new ConcurrentHashMap<>();
+        this.loadedCount = new AtomicInteger(0);
+    }
+
+    private AssetManifest add(ResourceFile file, Function<MediaLoader, Object> loader) {
+        Preconditions.checkState(loadedCount.get() == 0, "Manifest is already being loaded");
+        assets.add(new Asset(file, loader));
+        return this;
+    }
+
+    public AssetManifest addImage(ResourceFile file) {
+        return add(file, mediaLoader -> mediaLoader.loadImage(file));
+    }
+
+    public AssetManifest addAtlas(ResourceFile file) {
+        return add(file, mediaLoader -> mediaLoader.loadAtlas(file));
+    }
+
+    public AssetManifest addAudio(ResourceFile file) {
+        return add(file, mediaLoader -> mediaLoader.loadAudio(file));
+    }
+
+    public AssetManifest addFont(ResourceFile file, String family, int size, ColorRGB color) {
+        return add(file, mediaLoader -> mediaLoader.loadFont(file, family, size, color));
+    }
+
+    public AssetManifest addText(ResourceFile file) {
+        return add(file, mediaLoader -> mediaLoader.loadText(file));
+    }
+
+    /**
+     * Loads the asset at the specified index, and returns the fraction of
+     * assets that have been loaded so far. This method is thread-safe, so
+     * different assets can be loaded concurrently.
+     *
+     * @throws MediaException if the asset could not be loaded.
+     */
+    float load(int index, MediaLoader mediaLoader) {
+        Asset asset = assets.get(index);
+        loaded.put(asset.file, asset.loader.apply(mediaLoader));
+        return (float) loadedCount.incrementAndGet() / (float) assets.size();
+    }
+
+    /**
+     * Returns the fraction of assets that have been loaded so far, as a
+     * number between 0.0 and 1.0. An empty manifest is considered to be
+     * fully loaded.
+     */
+    public float getProgress() {
+        if (assets.isEmpty()) {
+            return 1f;
+        }
+        return (float) loadedCount.get() / (float) assets.size();
+    }
+
+    public int size() {
+        return assets.size();
+    }
+
+    public boolean isLoaded() {
+        return loadedCount.get() == assets.size();
+    }
+
+    private <T> T get(ResourceFile file, Class<T> type) {
+        Object asset = loaded.get(file);
+        Preconditions.checkState(asset != null, "Asset not loaded: " + file);
+        return type.cast(asset);
+    }
+
+    public Image getImage(ResourceFile file) {
+        return get(file, Image.class);
+    }
+
+    public SpriteAtlas getAtlas(ResourceFile file) {
+        return get(file, SpriteAtlas.class);
+    }
+
+    public Audio getAudio(ResourceFile file) {
+        return get(file, Audio.class);
+    }
+
+    public FontFace getFont(ResourceFile file) {
+        return get(file, FontFace.class);
+    }
+
+    public String getText(ResourceFile file) {
+        return get(file, String.class);
+    }
+
+    private record Asset(ResourceFile file, Function<MediaLoader, Object> loader) {
+    }
+}
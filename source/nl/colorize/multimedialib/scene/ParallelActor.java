@@ -0,0 +1,32 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene;
+
+/**
+ * Marks an {@link Actor} as safe to update concurrently with other parallel
+ * actors. During each frame update, the {@link SceneManager} first updates
+ * all parallel actors on a pool of worker threads, then waits for all of
+ * them to finish before updating the "normal" actors on the renderer thread.
+ * Rendering the frame will only start after both phases have completed.
+ * <p>
+ * Implementing this interface is an explicit promise that the actor's
+ * {@link #update(double)} method, and the update methods of its sub-actors,
+ * only access state that is owned by the actor itself. Parallel actors
+ * should <em>not</em> modify the stage, attach other actors, or change the
+ * active scene, since none of those operations are thread-safe. The usual
+ * approach is for a parallel actor to perform the expensive calculations,
+ * and for a normal actor or the scene itself to apply the results during
+ * the same or the next frame update.
+ * <p>
+ * Parallel actors are only updated concurrently on platforms that support
+ * multithreading. On other platforms, such as the browser, parallel actors
+ * are updated sequentially in the order in which they were attached. The
+ * same applies to simulations, which need to be deterministic.
+ */
+@FunctionalInterface
+public interface ParallelActor extends Actor {
+}
@@ -9,6 +9,7 @@ package nl.colorize.multimedialib.scene;
 import nl.colorize.multimedialib.renderer.Canvas;
 import nl.colorize.multimedialib.renderer.FrameStats;
 import nl.colorize.multimedialib.renderer.InputDevice;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.renderer.MediaLoader;
 import nl.colorize.multimedialib.renderer.Network;
 import nl.colorize.multimedialib.renderer.RenderConfig;
@@ -66,6 +67,17 @@ public interface SceneContext {
         getSceneManager().changeScene(requestedScene);
     }
 
+    /**
+     * Requests the renderer to change the active scene once all assets in
+     * the manifest have been loaded. The current scene remains active while
+     * the assets are being loaded, on background threads if supported by
+     * the platform. Returns an {@link EventQueue} that receives the fraction
+     * of assets that have been loaded, or an error if loading failed.
+     */
+    default EventQueue<Float> changeScene(Scene requestedScene, AssetManifest manifest) {
+        return getSceneManager().changeScene(requestedScene, manifest);
+    }
+
     /**
      * Attaches an actor to the currently active scene. The actor will remain
      * active until either its parent scene ends or it is marked as completed,
@@ -212,6 +224,20 @@ public interface SceneContext {
     default void terminate() {
     }
 
+    /**
+     * Enables instrumentation for the stage, which measures the draw calls
+     * made by the renderer and publishes the results to {@link FrameStats}.
+     * Returns the instrumentation, which will be reused if instrumentation
+     * had already been enabled.
+     */
+    default InstrumentedStageVisitor enableInstrumentation() {
+        Stage stage = getStage();
+        if (stage.getInstrumentation() == null) {
+            stage.setInstrumentation(new InstrumentedStageVisitor(getFrameStats()));
+        }
+        return stage.getInstrumentation();
+    }
+
     /**
      * Returns debug and support information that can be displayed when running
      * a MultimediaLib application in debug mode. The returned list is intended
@@ -231,6 +257,19 @@ public interface SceneContext {
         }
         info.add("Update time:  " + frameStats.getFrameUpdateTime() + "ms");
         info.add("Render time:  " + frameStats.getFrameRenderTime() + "ms");
+        if (getConfig().isThreadedRendering()) {
+            info.add("Draw time:  " + frameStats.getFrameDrawTime() + "ms");
+        }
+        if (frameStats.isPacingMeasured()) {
+            info.add("Pacing error:  " + (frameStats.getPacingErrorNanos() / 1000L) + "us");
+        }
+        if (frameStats.isAllocationTracking()) {
+            info.add("Allocated:  " + (frameStats.getAllocatedBytesPerFrame() / 1024L) + " KB/frame");
+        }
+        if (frameStats.isGarbageCollectionTracking()) {
+            info.add("GC pauses:  " + frameStats.getGarbageCollectionCount() +
+                " (" + frameStats.getGarbageCollectionTime() + "ms)");
+        }
 
         if (!frameStats.getCustomStats().isEmpty()) {
             info.add("");
@@ -240,6 +279,14 @@ public interface SceneContext {
             info.add(customStat + ":  " + frameStats.getAverageTimeMS(customStat) + "ms");
         }
 
+        if (!frameStats.getCounters().isEmpty()) {
+            info.add("");
+        }
+
+        for (String counter : frameStats.getCounters()) {
+            info.add(counter + ":  " + frameStats.getAverageCount(counter));
+        }
+
         return info;
     }
 }
@@ -7,17 +7,33 @@
 package nl.colorize.multimedialib.scene;
 
 import lombok.Getter;
+import lombok.Setter;
+import nl.colorize.multimedialib.renderer.EventTracer;
 import nl.colorize.multimedialib.renderer.FrameStats;
 import nl.colorize.multimedialib.renderer.InputDevice;
+import nl.colorize.multimedialib.renderer.InputRecording;
+import nl.colorize.multimedialib.renderer.MediaLoader;
 import nl.colorize.multimedialib.renderer.Pointer;
 import nl.colorize.multimedialib.renderer.Renderer;
+import nl.colorize.multimedialib.renderer.RendererException;
 import nl.colorize.multimedialib.stage.Stage;
+import nl.colorize.util.EventQueue;
+import nl.colorize.util.Platform;
 import nl.colorize.util.Stopwatch;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Responsible for the scene life cycle, including the life cycle of its
@@ -27,6 +43,26 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * instead of directly with this class. The purpos of this class can be
  * seen as a partial standard implementation of {@link SceneContext},
  * allowing the scene management logic to be shared across renderers.
+ * <p>
+ * Actors that implement {@link ParallelActor} are updated concurrently
+ * using the parallel executor, which defaults to the common fork/join pool.
+ * Parallel actors attached to the scene are updated before the scene's
+ * other actors, and global parallel actors are updated before the other
+ * global actors. In both cases, all parallel actors have completed their
+ * frame update before the remaining actors are updated. Global parallel
+ * actors receive the same frame update as other global actors, meaning
+ * their sub-actors are not updated.
+ * <p>
+ * Scenes can be requested together with an {@link AssetManifest}, in which
+ * case the assets are loaded while the current scene remains active. When
+ * the renderer's {@link MediaLoader} supports background loading, assets
+ * are loaded using the preload executor. Otherwise, one asset is loaded
+ * during every frame update, which still spreads the loading time over
+ * multiple frames.
+ * <p>
+ * Setting an {@link InputRecording} will record the delta time and input
+ * state for every frame update. The recording can be played back using
+ * {@code ReplayInput} to reproduce the exact same sequence of frames.
  */
 public class SceneManager {
 
@@ -36,14 +72,22 @@ public class SceneManager {
     @Getter private FrameStats frameStats;
 
     private SceneLogic activeScene;
-    private List<Actor> attachedActors;
     @Getter private Stage stage;
     private Queue<SceneLogic> requestedSceneQueue;
-    private List<Actor> globalActors;
+    private ActorList globalActors;
+    @Setter @Nullable private ExecutorService parallelExecutor;
+    private List<ParallelTask> parallelTasks;
+    private Map<Actor, ParallelTask> parallelTaskCache;
+    private double parallelDeltaTime;
+    @Nullable private Preload preload;
+    @Setter @Nullable private ExecutorService preloadExecutor;
+    @Getter @Setter @Nullable private InputRecording inputRecording;
+    private List<EventTracer> tracers;
 
     private static final long FRAME_LEEWAY_MS = 5;
     private static final double MIN_FRAME_TIME = 0.01f;
     private static final double MAX_FRAME_TIME = 0.2f;
+    private static final int PRELOAD_THREADS = 2;
 
     protected SceneManager(SceneContext context, Stopwatch timer) {
         this.context = context;
@@ -52,10 +96,17 @@ public class SceneManager {
         this.frameStats = new FrameStats();
 
         activeScene = null;
-        attachedActors = new CopyOnWriteArrayList<>();
         stage = new Stage(context.getConfig().getCanvas());
         requestedSceneQueue = new ArrayDeque<>();
-        globalActors = new CopyOnWriteArrayList<>();
+        globalActors = new ActorList();
+        parallelExecutor = null;
+        parallelTasks = new ArrayList<>();
+        parallelTaskCache = new IdentityHashMap<>();
+        parallelDeltaTime = 0.0;
+        preload = null;
+        preloadExecutor = null;
+        inputRecording = null;
+        tracers = new ArrayList<>();
     }
 
     public SceneManager(SceneContext context, Scene initialScene) {
@@ -125,6 +176,14 @@ public class SceneManager {
     protected void performFrameUpdate(double deltaTime) {
         updateInput(context.getInput(), deltaTime);
 
+        if (inputRecording != null) {
+            inputRecording.recordFrame(deltaTime, context.getInput());
+        }
+
+        if (preload != null) {
+            updatePreload();
+        }
+
         if (!requestedSceneQueue.isEmpty()) {
             activateRequestedScene();
         }
@@ -143,20 +202,131 @@ public class SceneManager {
         }
     }
 
+    /**
+     * Updates all actors in the list that implement {@link ParallelActor}
+     * using the parallel executor, then waits until all of them have
+     * completed their frame update. Exceptions thrown by parallel actors are
+     * rethrown on the renderer thread, so they reach the renderer's error
+     * handler.
+     */
+    private void updateParallelActors(ActorList actors, boolean global, double deltaTime) {
+        parallelTasks.clear();
+        parallelDeltaTime = deltaTime;
+        prepareParallelTasks(actors, global);
+
+        if (parallelTasks.isEmpty()) {
+            return;
+        }
+
+        String phase = global ?
+            FrameStats.PHASE_PARALLEL_GLOBAL_UPDATE : FrameStats.PHASE_PARALLEL_UPDATE;
+        frameStats.markStart(phase);
+
+        if (parallelTasks.size() == 1 || Platform.isTeaVM()) {
+            for (int i = 0; i < parallelTasks.size(); i++) {
+                callParallelTask(parallelTasks.get(i));
+            }
+        } else {
+            awaitParallelTasks();
+        }
+
+        frameStats.markEnd(phase);
+        parallelTasks.clear();
+    }
+
+    private void prepareParallelTasks(ActorList actors, boolean global) {
+        int count = actors.size();
+
+        for (int i = 0; i < count; i++) {
+            Actor actor = actors.get(i);
+            if (actor instanceof ParallelActor && !actor.isCompleted()) {
+                parallelTasks.add(getParallelTask(actor, global));
+            }
+        }
+    }
+
+    /**
+     * Returns the task that is used to update the specified parallel actor.
+     * Tasks are created once, when the actor is attached, and are then
+     * reused during every frame update.
+     */
+    private ParallelTask getParallelTask(Actor actor, boolean global) {
+        ParallelTask task = parallelTaskCache.get(actor);
+        if (task == null) {
+            task = new ParallelTask(actor, global);
+            parallelTaskCache.put(actor, task);
+        }
+        return task;
+    }
+
+    private void forgetParallelTask(Actor actor) {
+        if (actor instanceof ParallelActor) {
+            parallelTaskCache.remove(actor);
+        }
+    }
+
+    private void callParallelTask(ParallelTask task) {
+        try {
+            task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RendererException("Parallel actor failed", e);
+        }
+    }
+
+    private void awaitParallelTasks() {
+        if (parallelExecutor == null) {
+            parallelExecutor = ForkJoinPool.commonPool();
+        }
+
+        try {
+            // invokeAll() acts as the barrier between the parallel
+            // phase and the rest of the frame update.
+            for (Future<Void> result : parallelExecutor.invokeAll(parallelTasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RendererException("Interrupted while updating parallel actors", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RendererException("Parallel actor failed", e.getCause());
+        }
+    }
+
     private void updateActiveScene(double deltaTime) {
         activeScene.scene.update(context, deltaTime);
+        updateParallelActors(activeScene.attachedActors, false, deltaTime);
+
+        ActorList actors = activeScene.attachedActors;
+        // Actors that are attached during this loop are
+        // appended to the list, but will only receive
+        // frame updates starting from the next frame.
+        int count = actors.size();
 
-        for (Actor actor : activeScene.attachedActors) {
-            updateActor(actor, deltaTime);
+        for (int i = 0; i < count; i++) {
+            Actor actor = actors.get(i);
+
+            if (actor != null) {
+                if (!(actor instanceof ParallelActor)) {
+                    updateActor(actor, deltaTime);
+                }
 
-            // We need to check an actor's status again,
-            // in case it has been marked as completed
-            // during the frame update that just happened.
-            if (actor.isCompleted()) {
-                activeScene.attachedActors.remove(actor);
+                // We need to check an actor's status again,
+                // in case it has been marked as completed
+                // during the frame update that just happened.
+                if (actor.isCompleted()) {
+                    actors.remove(i);
+                    forgetParallelTask(actor);
+                }
             }
         }
 
+        actors.compact();
+
         stage.getAnimationTimer().update(deltaTime);
     }
 
@@ -189,6 +359,12 @@ public class SceneManager {
     private void activateRequestedScene() {
         if (activeScene != null) {
             activeScene.scene.end(context);
+            for (Actor actor : activeScene.attachedActors) {
+                forgetParallelTask(actor);
+            }
+            for (EventTracer tracer : tracers) {
+                tracer.sceneEnded(activeScene.scene);
+            }
             stage.clear();
             stage.getAnimationTimer().reset();
         }
@@ -198,6 +374,9 @@ public class SceneManager {
         if (requestedScene != null) {
             activeScene = requestedScene;
             activeScene.scene.start(context);
+            for (EventTracer tracer : tracers) {
+                tracer.sceneStarted(activeScene.scene);
+            }
 
             if (!requestedSceneQueue.isEmpty()) {
                 activateRequestedScene();
@@ -205,19 +384,91 @@ public class SceneManager {
         }
     }
 
+    /**
+     * Checks whether the scene that is currently being preloaded can be
+     * activated. If the assets are loaded on the renderer thread, this will
+     * also load the next asset. Progress and errors are always reported from
+     * here, even when the assets are loaded in the background, so that
+     * subscribers receive them on the renderer thread, in order, and at most
+     * one error per request.
+     */
+    private void updatePreload() {
+        AssetManifest manifest = preload.manifest;
+
+        if (!preload.background && !manifest.isLoaded() && preload.error == null) {
+            loadPreloadAsset(preload, preload.nextIndex);
+            preload.nextIndex++;
+        }
+
+        if (preload.error != null) {
+            preload.progress.onError(preload.error);
+            preload = null;
+            return;
+        }
+
+        float progress = manifest.getProgress();
+        if (progress > preload.reportedProgress) {
+            preload.progress.onNext(progress);
+            preload.reportedProgress = progress;
+        }
+
+        if (manifest.isLoaded()) {
+            requestedSceneQueue.offer(new SceneLogic(preload.scene, new ActorList()));
+            preload = null;
+        }
+    }
+
+    /**
+     * Loads one of the assets in the manifest. This method can be called from
+     * the preload threads, so it only updates the manifest and the request's
+     * error. The actual events are sent by {@link #updatePreload()}.
+     */
+    private void loadPreloadAsset(Preload target, int index) {
+        try {
+            target.manifest.load(index, context.getMediaLoader());
+        } catch (RuntimeException e) {
+            synchronized (target) {
+                if (target.error == null) {
+                    target.error = e;
+                }
+            }
+        }
+    }
+
     private void updateGlobalActors(double deltaTime) {
-        for (Actor actor : globalActors) {
-            if (!actor.isCompleted()) {
-                actor.update(deltaTime);
+        updateParallelActors(globalActors, true, deltaTime);
+
+        int count = globalActors.size();
+
+        for (int i = 0; i < count; i++) {
+            Actor actor = globalActors.get(i);
+
+            if (actor != null && !actor.isCompleted()) {
+                if (!(actor instanceof ParallelActor)) {
+                    actor.update(deltaTime);
+                }
                 // Same as with "normal" scene actors,
                 // we need to check again if it was
                 // marked as completed during the
                 // frame update we just did.
                 if (actor.isCompleted()) {
-                    globalActors.remove(actor);
+                    globalActors.remove(i);
+                    forgetParallelTask(actor);
                 }
             }
         }
+
+        globalActors.compact();
+    }
+
+    /**
+     * Forwards frame phases and scene changes to the specified
+     * {@link EventTracer}, so that they can be correlated with other events
+     * in external profiling tools.
+     */
+    public void addTracer(EventTracer tracer) {
+        tracers.add(tracer);
+        frameStats.addTracer(tracer);
     }
 
     /**
@@ -228,11 +479,56 @@ public class SceneManager {
      * @see SceneContext#changeScene(Scene)
      */
     public void changeScene(Scene requestedScene) {
-        List<Actor> attachedActors = new CopyOnWriteArrayList<>();
-        SceneLogic sceneConfig = new SceneLogic(requestedScene, attachedActors);
+        preload = null;
+        SceneLogic sceneConfig = new SceneLogic(requestedScene, new ActorList());
         requestedSceneQueue.offer(sceneConfig);
     }
 
+    /**
+     * Requests to change the active scene once all assets in the manifest
+     * have been loaded. The current scene remains active while the assets
+     * are being loaded. Returns an {@link EventQueue} that receives the
+     * fraction of assets that have been loaded, or an error if one of the
+     * assets could not be loaded. In the latter case the requested scene
+     * will not be activated. Events are only sent during frame updates, so
+     * progress never decreases and at most one error is reported, even when
+     * assets are loaded concurrently in the background.
+     * <p>
+     * If another scene is requested while the assets are still being loaded,
+     * the preloaded scene will not be activated. Assets that are already
+     * being loaded in the background will still finish loading, but are
+     * then discarded.
+     *
+     * @see SceneContext#changeScene(Scene, AssetManifest)
+     */
+    public EventQueue<Float> changeScene(Scene requestedScene, AssetManifest manifest) {
+        MediaLoader mediaLoader = context.getMediaLoader();
+        boolean background = mediaLoader.supportsBackgroundLoading() && !Platform.isTeaVM();
+        Preload request = new Preload(requestedScene, manifest, new EventQueue<>(), background);
+        preload = request;
+
+        if (manifest.size() > 0 && background) {
+            if (preloadExecutor == null) {
+                preloadExecutor = Executors.newFixedThreadPool(PRELOAD_THREADS, runnable -> {
+                    Thread thread = new Thread(runnable, "MultimediaLib-Preload");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            for (int i = 0; i < manifest.size(); i++) {
+                int index = i;
+                preloadExecutor.submit(() -> {
+                    if (request.error == null) {
+                        loadPreloadAsset(request, index);
+                    }
+                });
+            }
+        }
+
+        return request.progress;
+    }
+
     /**
      * Attaches an actor to the currently active scene. The actor will remain
      * active until either its parent scene ends or it is marked as completed,
@@ -241,6 +537,10 @@ public class SceneManager {
      * @see SceneContext#attach(Actor)
      */
     public void attach(Actor actor) {
+        if (actor instanceof ParallelActor) {
+            getParallelTask(actor, false);
+        }
+
         if (requestedSceneQueue.isEmpty()) {
             activeScene.attachedActors.add(actor);
         } else {
@@ -257,14 +557,71 @@ public class SceneManager {
      * @see SceneContext#attachGlobalActor(Actor)
      */
     public void attachGlobalActor(Actor actor) {
+        if (actor instanceof ParallelActor) {
+            getParallelTask(actor, true);
+        }
+
         globalActors.add(actor);
     }
 
+    /**
+     * Updates a single parallel actor, using the delta time of the current
+     * frame update. One task is created for every parallel actor, so that
+     * the parallel phase does not need to create new objects every frame.
+     * Global actors are updated in the same way as sequential global actors,
+     * which does not include their sub-actors.
+     */
+    private class ParallelTask implements Callable<Void> {
+
+        private Actor actor;
+        private boolean global;
+
+        public ParallelTask(Actor actor, boolean global) {
+            this.actor = actor;
+            this.global = global;
+        }
+
+        @Override
+        public Void call() {
+            if (global) {
+                actor.update(parallelDeltaTime);
+            } else {
+                updateActor(actor, parallelDeltaTime);
+            }
+            return null;
+        }
+    }
+
     /**
      * Combines a scene with its attached actors. Keeping them together allows
      * actors to be attached before the scene has received its first frame
      * update.
      */
-    private record SceneLogic(Scene scene, List<Actor> attachedActors) {
+    private record SceneLogic(Scene scene, ActorList attachedActors) {
+    }
+
+    /**
+     * Tracks a scene that has been requested, but will only be activated
+     * once all assets in its manifest have been loaded.
+     */
+    private static class Preload {
+
+        private Scene scene;
+        private AssetManifest manifest;
+        private EventQueue<Float> progress;
+        private boolean background;
+        private int nextIndex;
+        private float reportedProgress;
+        @Nullable private volatile RuntimeException error;
+
+        public Preload(Scene scene, AssetManifest manifest, EventQueue<Float> progress,
+                       boolean background) {
+            this.scene = scene;
+            this.manifest = manifest;
+            this.progress = progress;
+            this.background = background;
+            this.nextIndex = 0;
+            this.reportedProgress = 0f;
+        }
     }
 }
@@ -0,0 +1,110 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Stores numerical component data for entities, using one primitive array
+ * per field. For example, a component store for movement could define the
+ * fields X, Y, velocity X, and velocity Y, with each field being stored in
+ * its own {@code double[]}. Systems can then obtain these arrays using
+ * {@link #getField(int)} and iterate over them in a tight loop, which avoids
+ * both indirection and per-entity objects.
+ * <p>
+ * The arrays returned by {@link #getField(int)} are indexed using the dense
+ * array of the underlying sparse set, and only the first {@link #size()}
+ * elements are valid. The arrays are replaced when the store grows, so
+ * systems should obtain the arrays again during every frame update.
+ */
+public final class ComponentStore extends SparseSet {
+
+    private double[][] fields;
+
+    public ComponentStore(int fieldCount) {
+        Preconditions.checkArgument(fieldCount >= 1, "Invalid field count: " + fieldCount);
+
+        this.fields = new double[fieldCount][INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds the entity to this store, with all fields set to zero. Returns the
+     * entity's index in the field arrays. If the entity is already part of
+     * this store, this returns its existing index and leaves its fields
+     * unchanged.
+     */
+    public int add(int entity) {
+        return insert(entity);
+    }
+
+    /**
+     * Adds the entity to this store, using the specified values for its
+     * fields. If the entity is already part of this store, its fields will
+     * be overwritten with the new values.
+     *
+     * @throws IllegalArgumentException if the number of values does not
+     *         match the number of fields in this store.
+     */
+    public void add(int entity, double... values) {
+        Preconditions.checkArgument(values.length == fields.length,
+            "Expected " + fields.length + " values, got " + values.length);
+
+        int index = insert(entity);
+        for (int i = 0; i < values.length; i++) {
+            fields[i][index] = values[i];
+        }
+    }
+
+    public double get(int entity, int field) {
+        int index = indexOf(entity);
+        Preconditions.checkArgument(index != -1, "Entity not in store: " + entity);
+        return fields[field][index];
+    }
+
+    public void set(int entity, int field, double value) {
+        int index = indexOf(entity);
+        Preconditions.checkArgument(index != -1, "Entity not in store: " + entity);
+        fields[field][index] = value;
+    }
+
+    /**
+     * Returns the primitive array that contains the values of the specified
+     * field for all entities in this store. The array is indexed using the
+     * dense array, see {@link #getEntity(int)}, and only the first
+     * {@link #size()} elements are valid.
+     */
+    public double[] getField(int field) {
+        return fields[field];
+    }
+
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = Arrays.copyOf(fields[i], capacity);
+        }
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        for (double[] field : fields) {
+            field[to] = field[from];
+        }
+    }
+
+    @Override
+    protected void clear(int index) {
+        for (double[] field : fields) {
+            field[index] = 0.0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+/**
+ * Systems contain the logic in an entity component system. During every
+ * frame update, the {@link EntityWorld} updates its systems in the order in
+ * which they were added. Systems typically iterate over the arrays of one
+ * or more {@link ComponentStore}s, which allows large numbers of entities
+ * to be updated in a tight loop.
+ */
+@FunctionalInterface
+public interface EntitySystem {
+
+    /**
+     * Performs this system's logic for one frame update.
+     *
+     * @param deltaTime Elapsed time since the last frame update, in seconds.
+     */
+    public void update(EntityWorld world, double deltaTime);
+}
@@ -0,0 +1,187 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.scene.Actor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entity component system that can be used as an alternative to actors for
+ * scenes that contain large numbers of similar objects. Entities are plain
+ * {@code int} identifiers, component data is stored in primitive arrays
+ * (see {@link ComponentStore}), and logic is implemented by systems that
+ * iterate over those arrays (see {@link EntitySystem}). Compared to using
+ * one actor per object, this avoids the per-object indirection and memory
+ * overhead, which becomes noticeable once scenes contain many thousands of
+ * objects.
+ * <p>
+ * The entity world is itself an {@link Actor}, so it can be attached to a
+ * scene and will receive frame updates from the scene manager. During each
+ * frame update, systems are updated in the order in which they were added.
+ * Use {@link StageSyncSystem} to copy the results to stage nodes, so that
+ * the entities are visible when the stage is rendered.
+ * <p>
+ * Identifiers of destroyed entities are recycled when creating new
+ * entities. Systems should therefore not keep references to entities
+ * after they have been destroyed. Entities that are destroyed while the
+ * systems are being updated will only be removed after all systems have
+ * completed, so that systems iterating over the component stores do not
+ * see the stores change halfway through the frame update.
+ */
+public class EntityWorld implements Actor {
+
+    private int nextEntity;
+    private int[] freeEntities;
+    private int freeCount;
+    private boolean[] alive;
+    private int entityCount;
+
+    private List<SparseSet> stores;
+    private List<EntitySystem> systems;
+
+    private boolean updating;
+    private int[] pendingDestroy;
+    private int pendingCount;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    public EntityWorld() {
+        this.nextEntity = 0;
+        this.freeEntities = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.alive = new boolean[INITIAL_CAPACITY];
+        this.entityCount = 0;
+
+        this.stores = new ArrayList<>();
+        this.systems = new ArrayList<>();
+
+        this.updating = false;
+        this.pendingDestroy = new int[INITIAL_CAPACITY];
+        this.pendingCount = 0;
+    }
+
+    /**
+     * Creates a new component store with the specified number of fields.
+     * Entities are automatically removed from this store when they are
+     * destroyed.
+     */
+    public ComponentStore addComponentStore(int fieldCount) {
+        ComponentStore store = new ComponentStore(fieldCount);
+        stores.add(store);
+        return store;
+    }
+
+    /**
+     * Creates a new store for object references. Entities are automatically
+     * removed from this store when they are destroyed.
+     */
+    public <T> ObjectStore<T> addObjectStore() {
+        ObjectStore<T> store = new ObjectStore<>();
+        stores.add(store);
+        return store;
+    }
+
+    public void addSystem(EntitySystem system) {
+        Preconditions.checkNotNull(system, "Missing system");
+        systems.add(system);
+    }
+
+    /**
+     * Creates a new entity and returns its identifier. This will reuse the
+     * identifier of a previously destroyed entity if one is available.
+     */
+    public int createEntity() {
+        int entity;
+        if (freeCount > 0) {
+            freeCount--;
+            entity = freeEntities[freeCount];
+        } else {
+            entity = nextEntity;
+            nextEntity++;
+            if (entity >= alive.length) {
+                alive = Arrays.copyOf(alive, alive.length * 2);
+            }
+        }
+
+        alive[entity] = true;
+        entityCount++;
+        return entity;
+    }
+
+    /**
+     * Destroys the entity and removes it from all component stores. If this
+     * is called while systems are being updated, the entity will only be
+     * destroyed after all systems have been completed.
+     */
+    public void destroyEntity(int entity) {
+        Preconditions.checkArgument(isAlive(entity), "Entity does not exist: " + entity);
+
+        if (updating) {
+            if (pendingCount == pendingDestroy.length) {
+                pendingDestroy = Arrays.copyOf(pendingDestroy, pendingCount * 2);
+            }
+            pendingDestroy[pendingCount] = entity;
+            pendingCount++;
+        } else {
+            remove(entity);
+        }
+    }
+
+    private void remove(int entity) {
+        if (!alive[entity]) {
+            return;
+        }
+
+        for (SparseSet store : stores) {
+            store.remove(entity);
+        }
+
+        alive[entity] = false;
+        entityCount--;
+
+        if (freeCount == freeEntities.length) {
+            freeEntities = Arrays.copyOf(freeEntities, freeCount * 2);
+        }
+        freeEntities[freeCount] = entity;
+        freeCount++;
+    }
+
+    public boolean isAlive(int entity) {
+        return entity >= 0 && entity < nextEntity && alive[entity];
+    }
+
+    /**
+     * Returns the number of entities that currently exist, including
+     * entities that will be destroyed at the end of the current frame
+     * update.
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    @Override
+    public void update(double deltaTime) {
+        updating = true;
+
+        try {
+            for (EntitySystem system : systems) {
+                system.update(this, deltaTime);
+            }
+        } finally {
+            updating = false;
+        }
+
+        for (int i = 0; i < pendingCount; i++) {
+            remove(pendingDestroy[i]);
+        }
+        pendingCount = 0;
+    }
+}
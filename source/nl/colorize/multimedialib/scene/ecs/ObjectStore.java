@@ -0,0 +1,70 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Stores object references for entities. This is mainly intended for
+ * linking entities to objects that exist outside of the entity world, such
+ * as stage nodes. Numerical component data should be stored in a
+ * {@link ComponentStore} instead, since that avoids the indirection of
+ * following an object reference for every entity.
+ *
+ * @param <T> The type of object stored for each entity.
+ */
+public final class ObjectStore<T> extends SparseSet {
+
+    private Object[] values;
+
+    public ObjectStore() {
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds the entity to this store, or replaces the existing value if the
+     * entity is already part of this store.
+     */
+    public void add(int entity, T value) {
+        Preconditions.checkNotNull(value, "Missing value for entity " + entity);
+        int index = insert(entity);
+        values[index] = value;
+    }
+
+    public T get(int entity) {
+        int index = indexOf(entity);
+        Preconditions.checkArgument(index != -1, "Entity not in store: " + entity);
+        return getAt(index);
+    }
+
+    /**
+     * Returns the value at the specified index in the dense array. This can
+     * be used by systems to iterate over all values in this store.
+     */
+    @SuppressWarnings("unchecked")
+    public T getAt(int index) {
+        Preconditions.checkElementIndex(index, size());
+        return (T) values[index];
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void clear(int index) {
+        values[index] = null;
+    }
+}
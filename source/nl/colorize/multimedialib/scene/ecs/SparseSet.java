@@ -0,0 +1,138 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Base class for component storage, which maps entities to a densely packed
+ * array using a <a href="https://skypjack.github.io/2020-08-02-ecs-baf-part-9/">
+ * sparse set</a>. Adding, removing, and looking up entities all take constant
+ * time. Removing an entity moves the last element into the removed slot, so
+ * the dense array never contains gaps. Subclasses store the actual component
+ * data in parallel arrays, using the same indices as the dense array.
+ * <p>
+ * Since removing an entity changes the order of the dense array, the order
+ * in which entities are iterated is <em>not</em> the order in which they
+ * were added.
+ */
+public abstract class SparseSet {
+
+    private int[] sparse;
+    private int[] entities;
+    private int size;
+
+    protected static final int INITIAL_CAPACITY = 64;
+
+    protected SparseSet() {
+        this.sparse = new int[INITIAL_CAPACITY];
+        this.entities = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds the entity to this set and returns its index in the dense array.
+     * If the entity is already part of this set, this returns its existing
+     * index.
+     */
+    protected int insert(int entity) {
+        Preconditions.checkArgument(entity >= 0, "Invalid entity: " + entity);
+
+        if (entity >= sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.max(entity + 1, sparse.length * 2));
+        }
+
+        if (has(entity)) {
+            return indexOf(entity);
+        }
+
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            grow(size * 2);
+        }
+
+        int index = size;
+        entities[index] = entity;
+        // The sparse array stores index + 1, so that zero can
+        // be used to indicate the entity is not part of this set.
+        sparse[entity] = index + 1;
+        size++;
+        return index;
+    }
+
+    /**
+     * Removes the entity from this set by moving the last element into its
+     * slot. Returns false if the entity was not part of this set.
+     */
+    public boolean remove(int entity) {
+        int index = indexOf(entity);
+        if (index == -1) {
+            return false;
+        }
+
+        int last = size - 1;
+        if (index != last) {
+            int lastEntity = entities[last];
+            entities[index] = lastEntity;
+            sparse[lastEntity] = index + 1;
+            move(last, index);
+        }
+
+        clear(last);
+        sparse[entity] = 0;
+        size--;
+        return true;
+    }
+
+    public boolean has(int entity) {
+        return entity >= 0 && entity < sparse.length && sparse[entity] != 0;
+    }
+
+    /**
+     * Returns the index of the entity in the dense array, or -1 if the
+     * entity is not part of this set.
+     */
+    public int indexOf(int entity) {
+        if (!has(entity)) {
+            return -1;
+        }
+        return sparse[entity] - 1;
+    }
+
+    /**
+     * Returns the entity stored at the specified index in the dense array.
+     * Systems use this, in combination with {@link #size()}, to iterate
+     * over all entities in this set.
+     */
+    public int getEntity(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return entities[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Grows the component data arrays to the specified capacity. Called when
+     * the dense array is full.
+     */
+    protected abstract void grow(int capacity);
+
+    /**
+     * Moves the component data from one index in the dense array to another.
+     */
+    protected abstract void move(int from, int to);
+
+    /**
+     * Clears the component data at the specified index, called when the
+     * element at that index is no longer used.
+     */
+    protected abstract void clear(int index);
+}
@@ -0,0 +1,60 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.stage.Spatial2D;
+import nl.colorize.multimedialib.stage.Transform;
+
+/**
+ * Copies entity positions from a {@link ComponentStore} to the stage nodes
+ * linked to those entities. This system should be added <em>after</em> the
+ * systems that modify the positions, so that the stage reflects the state
+ * of the entity world at the end of the frame update. Entities that have a
+ * linked stage node but no position, or the other way around, are ignored.
+ * Stage nodes are only updated when their position has actually changed.
+ */
+public class StageSyncSystem implements EntitySystem {
+
+    private ObjectStore<? extends Spatial2D> nodes;
+    private ComponentStore positions;
+    private int fieldX;
+    private int fieldY;
+
+    /**
+     * Creates a system that copies the values of {@code fieldX} and
+     * {@code fieldY} in the {@code positions} store to the local transform
+     * of the stage nodes in the {@code nodes} store.
+     */
+    public StageSyncSystem(ObjectStore<? extends Spatial2D> nodes, ComponentStore positions,
+                           int fieldX, int fieldY) {
+        Preconditions.checkElementIndex(fieldX, positions.getFieldCount(), "Invalid X field");
+        Preconditions.checkElementIndex(fieldY, positions.getFieldCount(), "Invalid Y field");
+
+        this.nodes = nodes;
+        this.positions = positions;
+        this.fieldX = fieldX;
+        this.fieldY = fieldY;
+    }
+
+    @Override
+    public void update(EntityWorld world, double deltaTime) {
+        double[] x = positions.getField(fieldX);
+        double[] y = positions.getField(fieldY);
+        int count = nodes.size();
+
+        for (int i = 0; i < count; i++) {
+            int index = positions.indexOf(nodes.getEntity(i));
+            if (index != -1) {
+                Transform transform = nodes.getAt(i).getTransform();
+                if (transform.getX() != x[index] || transform.getY() != y[index]) {
+                    transform.setPosition(x[index], y[index]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.effect;
+
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.ParticleBatch;
+
+/**
+ * Changes the state of all particles in a {@link ParticleBatch} during
+ * every frame update. Affectors operate on the particle arrays directly,
+ * which allows them to update all particles in a single loop. This
+ * interface also contains factory methods for commonly used affectors.
+ */
+@FunctionalInterface
+public interface ParticleAffector {
+
+    /**
+     * Updates all active particles in the batch.
+     *
+     * @param deltaTime Elapsed time since the last frame update, in seconds.
+     */
+    public void apply(ParticleBatch particles, double deltaTime);
+
+    /**
+     * Returns the fraction of its lifetime that the particle at the
+     * specified index has been alive, between 0.0 and 1.0.
+     */
+    private static double getLife(ParticleBatch particles, int index) {
+        return Math.min(particles.getAge()[index] / particles.getLifetime()[index], 1.0);
+    }
+
+    /**
+     * Accelerates all particles with the specified acceleration, in pixels
+     * per second squared.
+     */
+    public static ParticleAffector gravity(double accelerationX, double accelerationY) {
+        return (particles, deltaTime) -> {
+            double[] velocityX = particles.getVelocityX();
+            double[] velocityY = particles.getVelocityY();
+
+            for (int i = 0; i < particles.getCount(); i++) {
+                velocityX[i] += accelerationX * deltaTime;
+                velocityY[i] += accelerationY * deltaTime;
+            }
+        };
+    }
+
+    /**
+     * Slows down all particles, with the velocity reduced by the specified
+     * fraction every second.
+     */
+    public static ParticleAffector drag(double coefficient) {
+        return (particles, deltaTime) -> {
+            double factor = Math.max(1.0 - coefficient * deltaTime, 0.0);
+            double[] velocityX = particles.getVelocityX();
+            double[] velocityY = particles.getVelocityY();
+
+            for (int i = 0; i < particles.getCount(); i++) {
+                velocityX[i] *= factor;
+                velocityY[i] *= factor;
+            }
+        };
+    }
+
+    /**
+     * Changes the alpha of all particles over their lifetime, from the start
+     * value when the particle is spawned to the end value when the particle
+     * is removed. Alpha values are percentages, similar to
+     * {@link nl.colorize.multimedialib.stage.Transform}.
+     */
+    public static ParticleAffector alphaOverLife(double startAlpha, double endAlpha) {
+        return (particles, _) -> {
+            double[] alpha = particles.getAlpha();
+
+            for (int i = 0; i < particles.getCount(); i++) {
+                alpha[i] = startAlpha + (endAlpha - startAlpha) * getLife(particles, i);
+            }
+        };
+    }
+
+    /**
+     * Changes the scale of all particles over their lifetime. Scale values
+     * are percentages, where 100% indicates the image's original size.
+     */
+    public static ParticleAffector scaleOverLife(double startScale, double endScale) {
+        return (particles, _) -> {
+            double[] scale = particles.getScale();
+
+            for (int i = 0; i < particles.getCount(); i++) {
+                scale[i] = startScale + (endScale - startScale) * getLife(particles, i);
+            }
+        };
+    }
+
+    /**
+     * Changes the color of all particles over their lifetime, interpolating
+     * between the start and end colors.
+     */
+    public static ParticleAffector colorOverLife(ColorRGB startColor, ColorRGB endColor) {
+        return (particles, _) -> {
+            int[] color = particles.getColor();
+
+            for (int i = 0; i < particles.getCount(); i++) {
+                double life = getLife(particles, i);
+                int r = (int) Math.round(startColor.r() + (endColor.r() - startColor.r()) * life);
+                int g = (int) Math.round(startColor.g() + (endColor.g() - startColor.g()) * life);
+                int b = (int) Math.round(startColor.b() + (endColor.b() - startColor.b()) * life);
+                color[i] = (r << 16) | (g << 8) | b;
+            }
+        };
+    }
+}
@@ -0,0 +1,185 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.effect;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import nl.colorize.multimedialib.math.RNG;
+import nl.colorize.multimedialib.scene.Actor;
+import nl.colorize.multimedialib.stage.ParticleBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spawns particles into a {@link ParticleBatch}, and then updates those
+ * particles during every frame update. Particles are spawned at the
+ * emitter's origin, with a random speed, direction, and lifetime within
+ * the configured ranges. During every frame update, particles move based
+ * on their velocity, after which the {@link ParticleAffector}s are applied.
+ * Particles are removed once they reach the end of their lifetime.
+ * <p>
+ * Emitters can either spawn particles continuously, based on the emission
+ * rate, or spawn a number of particles at once using {@link #burst(int)}.
+ * The emitter is completed once it has been stopped and all of its
+ * particles have been removed. Since the particle batch has a fixed
+ * capacity, particles that would exceed that capacity are not spawned.
+ */
+public class ParticleEmitter implements Actor {
+
+    @Getter private ParticleBatch particles;
+    private List<ParticleAffector> affectors;
+    private boolean emitting;
+    private double spawnAccumulator;
+
+    private double originX;
+    private double originY;
+    private double emissionRate;
+    private double minSpeed;
+    private double maxSpeed;
+    private double minDirection;
+    private double maxDirection;
+    private double minLifetime;
+    private double maxLifetime;
+
+    public ParticleEmitter(ParticleBatch particles) {
+        this.particles = particles;
+        this.affectors = new ArrayList<>();
+        this.emitting = true;
+        this.spawnAccumulator = 0.0;
+
+        this.originX = 0.0;
+        this.originY = 0.0;
+        this.emissionRate = 0.0;
+        this.minSpeed = 0.0;
+        this.maxSpeed = 0.0;
+        this.minDirection = 0.0;
+        this.maxDirection = 360.0;
+        this.minLifetime = 1.0;
+        this.maxLifetime = 1.0;
+    }
+
+    /**
+     * Changes the position where particles are spawned, relative to the
+     * particle batch.
+     */
+    public ParticleEmitter withOrigin(double x, double y) {
+        originX = x;
+        originY = y;
+        return this;
+    }
+
+    /**
+     * Changes the number of particles that are spawned every second. A value
+     * of zero means particles are only spawned using {@link #burst(int)}.
+     */
+    public ParticleEmitter withEmissionRate(double particlesPerSecond) {
+        Preconditions.checkArgument(particlesPerSecond >= 0.0, "Invalid rate: " + particlesPerSecond);
+        emissionRate = particlesPerSecond;
+        return this;
+    }
+
+    /**
+     * Changes the range of initial particle speed, in pixels per second.
+     */
+    public ParticleEmitter withSpeed(double min, double max) {
+        Preconditions.checkArgument(max >= min, "Invalid speed range");
+        minSpeed = min;
+        maxSpeed = max;
+        return this;
+    }
+
+    /**
+     * Changes the range of initial particle direction, in degrees clockwise.
+     */
+    public ParticleEmitter withDirection(double min, double max) {
+        Preconditions.checkArgument(max >= min, "Invalid direction range");
+        minDirection = min;
+        maxDirection = max;
+        return this;
+    }
+
+    /**
+     * Changes the range of particle lifetime, in seconds.
+     */
+    public ParticleEmitter withLifetime(double min, double max) {
+        Preconditions.checkArgument(min > 0.0 && max >= min, "Invalid lifetime range");
+        minLifetime = min;
+        maxLifetime = max;
+        return this;
+    }
+
+    public ParticleEmitter withAffector(ParticleAffector affector) {
+        affectors.add(affector);
+        return this;
+    }
+
+    /**
+     * Immediately spawns the specified number of particles, regardless of
+     * the emission rate.
+     */
+    public void burst(int count) {
+        for (int i = 0; i < count; i++) {
+            spawn();
+        }
+    }
+
+    private void spawn() {
+        double speed = RNG.getDouble(minSpeed, maxSpeed);
+        double direction = Math.toRadians(RNG.getDouble(minDirection, maxDirection));
+        double lifetime = RNG.getDouble(minLifetime, maxLifetime);
+        particles.spawn(originX, originY, Math.cos(direction) * speed,
+            Math.sin(direction) * speed, lifetime);
+    }
+
+    /**
+     * Stops spawning new particles. Existing particles will still be updated
+     * until they reach the end of their lifetime.
+     */
+    public void stop() {
+        emitting = false;
+    }
+
+    @Override
+    public void update(double deltaTime) {
+        if (emitting && emissionRate > 0.0) {
+            spawnAccumulator += emissionRate * deltaTime;
+            int spawnCount = (int) spawnAccumulator;
+            spawnAccumulator -= spawnCount;
+            burst(spawnCount);
+        }
+
+        double[] x = particles.getX();
+        double[] y = particles.getY();
+        double[] velocityX = particles.getVelocityX();
+        double[] velocityY = particles.getVelocityY();
+        double[] age = particles.getAge();
+        double[] lifetime = particles.getLifetime();
+
+        // Iterate backwards, since removing a particle moves
+        // the last particle into its place.
+        for (int i = particles.getCount() - 1; i >= 0; i--) {
+            age[i] += deltaTime;
+
+            if (age[i] >= lifetime[i]) {
+                particles.remove(i);
+            } else {
+                x[i] += velocityX[i] * deltaTime;
+                y[i] += velocityY[i] * deltaTime;
+            }
+        }
+
+        for (ParticleAffector affector : affectors) {
+            affector.apply(particles, deltaTime);
+        }
+    }
+
+    @Override
+    public boolean isCompleted() {
+        return !emitting && particles.getCount() == 0;
+    }
+}
@@ -11,6 +11,7 @@ import nl.colorize.multimedialib.math.Point2D;
 import nl.colorize.multimedialib.math.Rect;
 import nl.colorize.multimedialib.math.SegmentedLine;
 import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.scene.SceneContext;
 import nl.colorize.multimedialib.scene.Actor;
 import nl.colorize.multimedialib.stage.Align;
@@ -18,13 +19,14 @@ import nl.colorize.multimedialib.stage.ColorRGB;
 import nl.colorize.multimedialib.stage.Container;
 import nl.colorize.multimedialib.stage.FontFace;
 import nl.colorize.multimedialib.stage.Primitive;
-import nl.colorize.multimedialib.stage.Spatial2D;
 import nl.colorize.multimedialib.stage.Text;
 import nl.colorize.util.TextUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static nl.colorize.multimedialib.renderer.FrameStats.BUFFER_CAPACITY;
 import static nl.colorize.multimedialib.stage.ColorRGB.BLACK;
 import static nl.colorize.multimedialib.stage.ColorRGB.WHITE;
 
@@ -35,6 +37,22 @@ import static nl.colorize.multimedialib.stage.ColorRGB.WHITE;
  * is marked as inactive, it will disable this logic (monitoring performance
  * is, ironically, bad for performance).
  * <p>
+ * The graphs are created once, and then updated in place. Every possible
+ * point in a graph is created in advance, in stage coordinates, so that the
+ * stage does not need to reposition the graphs during every frame. Shapes
+ * are immutable, so a graph needs a new line when its values change, but
+ * graphs are only published when they are visible and when their values
+ * have actually changed. This keeps the number of objects that would
+ * distort the statistics being depicted to a minimum. Texts are also only
+ * updated when their value changes.
+ * <p>
+ * In addition to the frame time graph, the monitor shows the 95th and 99th
+ * percentile of the frame time. When allocation tracking or stage
+ * instrumentation is enabled, an additional graph shows the number of bytes
+ * allocated and the number of draw calls during every frame. The compact
+ * version of the monitor only shows the frame time graph and updates at a
+ * lower rate, which further reduces the impact on performance.
+ * <p>
  * This widget is included as part of the library so that it can be used as a
  * debugging tool in applications.
  */
@@ -45,17 +63,62 @@ public class PerformanceMonitor implements Actor {
     private Text framerate;
     private Container frameDataContainer;
     private boolean detailed;
+    private boolean compact;
+    private double updateInterval;
+    private double elapsedTime;
+    private PointGrid frameGrid;
+    private PointGrid extraGrid;
+
+    private Graph frameGraph;
+    private Graph updateGraph;
+    private Graph renderGraph;
+    private Primitive p95Line;
+    private Primitive p99Line;
+    private double lastFramerate;
+
+    private Container extraContainer;
+    private Graph allocationGraph;
+    private Graph drawCallGraph;
+    private Text allocationLabel;
+    private Text drawCallLabel;
+    private long lastAllocation;
+    private long lastGarbageCollections;
+    private long lastDrawCalls;
+
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 100;
+    private static final int EXTRA_HEIGHT = 50;
+    private static final long NANOS_PER_PIXEL = 500_000L;
+    private static final double COMPACT_UPDATE_INTERVAL = 0.5;
 
     private static final ColorRGB FRAME_COLOR = ColorRGB.parseHex("#e45d61");
     private static final ColorRGB UPDATE_COLOR = ColorRGB.parseHex("#DC9498");
     private static final ColorRGB RENDER_COLOR = ColorRGB.parseHex("#DCBEC0");
     private static final ColorRGB LINE_COLOR = ColorRGB.parseHex("#adadad");
+    private static final ColorRGB P95_COLOR = ColorRGB.parseHex("#f0c05a");
+    private static final ColorRGB P99_COLOR = ColorRGB.parseHex("#f08a3c");
+    private static final ColorRGB ALLOCATION_COLOR = ColorRGB.parseHex("#7fb2e5");
+    private static final ColorRGB DRAW_CALL_COLOR = ColorRGB.parseHex("#8fd694");
 
     public PerformanceMonitor(SceneContext context, boolean detailed) {
+        this(context, detailed, false, 0.0);
+    }
+
+    private PerformanceMonitor(SceneContext context, boolean detailed, boolean compact, double updateInterval) {
         this.context = context;
         this.detailed = detailed;
+        this.compact = compact;
+        this.updateInterval = updateInterval;
+        this.elapsedTime = 0.0;
+        this.frameGrid = new PointGrid(HEIGHT);
+        this.extraGrid = new PointGrid(EXTRA_HEIGHT);
+        this.lastFramerate = -1.0;
+        this.lastAllocation = -1L;
+        this.lastGarbageCollections = -1L;
+        this.lastDrawCalls = -1L;
+
         container = new Container();
-        container.addChild(new Primitive(new Rect(0, 0, 300, 100), BLACK, 50));
+        container.addChild(new Primitive(new Rect(0, 0, WIDTH, HEIGHT), BLACK, 50));
 
         attachGraphics();
     }
@@ -66,13 +129,30 @@ public class PerformanceMonitor implements Actor {
         frameDataContainer = new Container();
         container.addChild(frameDataContainer);
 
+        renderGraph = new Graph(RENDER_COLOR, frameGrid);
+        updateGraph = new Graph(UPDATE_COLOR, frameGrid);
+        frameGraph = new Graph(FRAME_COLOR, frameGrid);
+
+        if (detailed) {
+            frameDataContainer.addChild(renderGraph.primitive);
+            frameDataContainer.addChild(updateGraph.primitive);
+        }
+        frameDataContainer.addChild(frameGraph.primitive);
+
+        p95Line = new Primitive(new Line(0, 0, WIDTH, 0), P95_COLOR);
+        p99Line = new Primitive(new Line(0, 0, WIDTH, 0), P99_COLOR);
+        if (!compact) {
+            frameDataContainer.addChild(p95Line);
+            frameDataContainer.addChild(p99Line);
+        }
+
         FontFace font = context.getMediaLoader().loadDefaultFont(12, WHITE);
         framerate = new Text("", font.derive(30), Align.RIGHT);
         framerate.getTransform().setPosition(290, 30);
         container.addChild(framerate);
 
         for (int i = 0; i <= 5; i++) {
-            container.addChild(new Primitive(new Line(0, i * 20, 300, i * 20), LINE_COLOR));
+            container.addChild(new Primitive(new Line(0, i * 20, WIDTH, i * 20), LINE_COLOR));
 
             if (i > 0) {
                 Text label = new Text((i * 10) + "ms", font.derive(10).derive(LINE_COLOR));
@@ -81,46 +161,152 @@ public class PerformanceMonitor implements Actor {
             }
         }
 
-        container.addChild(new Primitive(new Line(0, 0, 300, 0), WHITE));
-        container.addChild(new Primitive(new Line(0, 100, 300, 100), WHITE));
-        container.addChild(new Primitive(new Line(0, 0, 0, 100), LINE_COLOR));
-        container.addChild(new Primitive(new Line(300, 0, 300, 100), LINE_COLOR));
+        container.addChild(new Primitive(new Line(0, 0, WIDTH, 0), WHITE));
+        container.addChild(new Primitive(new Line(0, HEIGHT, WIDTH, HEIGHT), WHITE));
+        container.addChild(new Primitive(new Line(0, 0, 0, HEIGHT), LINE_COLOR));
+        container.addChild(new Primitive(new Line(WIDTH, 0, WIDTH, HEIGHT), LINE_COLOR));
+
+        extraContainer = new Container();
+        extraContainer.getTransform().setPosition(0, -EXTRA_HEIGHT - 10);
+        extraContainer.addChild(new Primitive(new Rect(0, 0, WIDTH, EXTRA_HEIGHT), BLACK, 50));
+        allocationGraph = new Graph(ALLOCATION_COLOR, extraGrid);
+        drawCallGraph = new Graph(DRAW_CALL_COLOR, extraGrid);
+        extraContainer.addChild(allocationGraph.primitive);
+        extraContainer.addChild(drawCallGraph.primitive);
+        allocationLabel = new Text("", font.derive(10).derive(ALLOCATION_COLOR), Align.RIGHT);
+        allocationLabel.getTransform().setPosition(290, 14);
+        extraContainer.addChild(allocationLabel);
+        drawCallLabel = new Text("", font.derive(10).derive(DRAW_CALL_COLOR), Align.RIGHT);
+        drawCallLabel.getTransform().setPosition(290, 28);
+        extraContainer.addChild(drawCallLabel);
     }
 
     @Override
     public void update(double deltaTime) {
         FrameStats stats = context.getSceneManager().getFrameStats();
 
-        if (isActive() && stats.getBufferSize() >= 10) {
-            container.setPosition(20, context.getCanvas().getHeight() - 120);
-            framerate.setText(TextUtils.numberFormat(stats.getAverageFramerate(), 1));
+        if (!isActive() || stats.getBufferSize() < 10) {
+            return;
+        }
+
+        elapsedTime += deltaTime;
+        if (elapsedTime < updateInterval) {
+            return;
+        }
+        elapsedTime = 0.0;
+
+        int y = context.getCanvas().getHeight() - 120;
+        container.setPosition(20, y);
+        frameGrid.moveTo(20, y);
+        extraGrid.moveTo(20, y - EXTRA_HEIGHT - 10);
+        updateFramerate(stats);
+
+        updateTimeGraph(frameGraph, stats, FrameStats.PHASE_FRAME_TIME);
+        if (detailed) {
+            updateTimeGraph(renderGraph, stats, FrameStats.PHASE_FRAME_RENDER);
+            updateTimeGraph(updateGraph, stats, FrameStats.PHASE_FRAME_UPDATE);
+        }
+
+        if (!compact) {
+            updatePercentileLine(p95Line, stats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.95));
+            updatePercentileLine(p99Line, stats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.99));
+            updateExtraGraphs(stats);
+        }
+    }
+
+    private void updateFramerate(FrameStats stats) {
+        double value = Math.round(stats.getAverageFramerate() * 10.0) / 10.0;
+        if (value != lastFramerate) {
+            framerate.setText(TextUtils.numberFormat(value, 1));
+            lastFramerate = value;
+        }
+    }
+
+    private void updateTimeGraph(Graph graph, FrameStats stats, String phase) {
+        int size = stats.getBufferSize(phase);
+        graph.resize(size);
 
-            Iterable<Long> frameTimes = stats.getFrameTimes(FrameStats.PHASE_FRAME_TIME);
-            Iterable<Long> frameUpdateTimes = stats.getFrameTimes(FrameStats.PHASE_FRAME_UPDATE);
-            Iterable<Long> frameRenderTimes = stats.getFrameTimes(FrameStats.PHASE_FRAME_RENDER);
+        for (int i = 0; i < size; i++) {
+            long pixels = stats.getFrameTimeNanos(phase, i) / NANOS_PER_PIXEL;
+            graph.set(i, HEIGHT - (int) Math.min(pixels, HEIGHT));
+        }
+
+        graph.publish();
+    }
+
+    private void updatePercentileLine(Primitive line, long nanos) {
+        long pixels = Math.min(nanos / NANOS_PER_PIXEL, HEIGHT);
+        line.getTransform().setPosition(0, HEIGHT - pixels);
+    }
 
-            frameDataContainer.clearChildren();
-            if (detailed) {
-                frameDataContainer.addChild(depictFrameStats(frameRenderTimes, RENDER_COLOR));
-                frameDataContainer.addChild(depictFrameStats(frameUpdateTimes, UPDATE_COLOR));
+    private void updateExtraGraphs(FrameStats stats) {
+        boolean allocations = stats.isAllocationTracking();
+        boolean drawCalls = stats.hasCounter(InstrumentedStageVisitor.COUNTER_DRAW_CALLS);
+
+        if (!allocations && !drawCalls) {
+            return;
+        }
+
+        if (extraContainer.getParent() == null) {
+            container.addChild(extraContainer);
+        }
+
+        if (allocations) {
+            updateAllocationGraph(stats);
+        }
+
+        if (drawCalls) {
+            updateCounterGraph(drawCallGraph, stats, InstrumentedStageVisitor.COUNTER_DRAW_CALLS);
+            long value = stats.getCount(InstrumentedStageVisitor.COUNTER_DRAW_CALLS);
+            if (value != lastDrawCalls) {
+                drawCallLabel.setText(value + " draw calls");
+                lastDrawCalls = value;
             }
-            frameDataContainer.addChild(depictFrameStats(frameTimes, FRAME_COLOR));
         }
     }
 
-    private Spatial2D depictFrameStats(Iterable<Long> frameTimes, ColorRGB color) {
-        double x = 0;
-        List<Point2D> points = new ArrayList<>();
+    private void updateAllocationGraph(FrameStats stats) {
+        int size = Math.min(stats.getCountBufferSize(FrameStats.COUNTER_ALLOCATED_UPDATE),
+            stats.getCountBufferSize(FrameStats.COUNTER_ALLOCATED_RENDER));
+        long max = 1L;
+
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, getAllocatedBytes(stats, i));
+        }
+
+        allocationGraph.resize(size);
+        for (int i = 0; i < size; i++) {
+            allocationGraph.setRelative(i, getAllocatedBytes(stats, i), max);
+        }
+        allocationGraph.publish();
+
+        long kilobytes = stats.getAllocatedBytesPerFrame() / 1024L;
+        long garbageCollections = stats.getGarbageCollectionCount();
+        if (kilobytes != lastAllocation || garbageCollections != lastGarbageCollections) {
+            allocationLabel.setText(kilobytes + " KB/frame, " + garbageCollections + " GC");
+            lastAllocation = kilobytes;
+            lastGarbageCollections = garbageCollections;
+        }
+    }
+
+    private long getAllocatedBytes(FrameStats stats, int index) {
+        return stats.getCount(FrameStats.COUNTER_ALLOCATED_UPDATE, index) +
+            stats.getCount(FrameStats.COUNTER_ALLOCATED_RENDER, index);
+    }
 
-        for (long frameTime : frameTimes) {
-            double y = Math.clamp(100f - frameTime * 2f, 0f, 100f);
-            points.add(new Point2D(x, y));
-            x += 300f / FrameStats.BUFFER_CAPACITY;
+    private void updateCounterGraph(Graph graph, FrameStats stats, String counter) {
+        int size = stats.getCountBufferSize(counter);
+        long max = 1L;
+
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, stats.getCount(counter, i));
         }
 
-        Primitive line = new Primitive(new SegmentedLine(points), color);
-        line.setStroke(3f);
-        return line;
+        graph.resize(size);
+        for (int i = 0; i < size; i++) {
+            graph.setRelative(i, stats.getCount(counter, i), max);
+        }
+        graph.publish();
     }
 
     public void setActive(boolean active) {
@@ -130,4 +316,122 @@ public class PerformanceMonitor implements Actor {
     public boolean isActive() {
         return container.getTransform().isVisible();
     }
+
+    /**
+     * Creates a compact version of the performance monitor, which only shows
+     * the framerate and the frame time graph. The compact version updates
+     * twice per second, rather than during every frame.
+     */
+    public static PerformanceMonitor compact(SceneContext context) {
+        return new PerformanceMonitor(context, false, true, COMPACT_UPDATE_INTERVAL);
+    }
+
+    /**
+     * All points that can be used in graphs with a certain height, created
+     * in advance. The points are expressed in stage coordinates, and are
+     * rounded to whole pixels, which is sufficiently precise for the size of
+     * the graphs. The points only need to be created again when the graphs
+     * are moved, which only happens when the canvas is resized.
+     */
+    private static class PointGrid {
+
+        private int height;
+        private Point2D origin;
+        private Point2D[][] points;
+
+        public PointGrid(int height) {
+            this.height = height;
+            this.origin = new Point2D(0, 0);
+            this.points = createPoints();
+        }
+
+        private Point2D[][] createPoints() {
+            Point2D[][] result = new Point2D[BUFFER_CAPACITY][height + 1];
+            for (int i = 0; i < BUFFER_CAPACITY; i++) {
+                for (int y = 0; y <= height; y++) {
+                    double x = origin.x() + i * (double) WIDTH / BUFFER_CAPACITY;
+                    result[i][y] = new Point2D(x, origin.y() + y);
+                }
+            }
+            return result;
+        }
+
+        public void moveTo(double x, double y) {
+            if (x != origin.x() || y != origin.y()) {
+                origin = new Point2D(x, y);
+                points = createPoints();
+            }
+        }
+    }
+
+    /**
+     * Graph that is depicted using a segmented line. The graph's values are
+     * updated in place, and are converted to an immutable list of points
+     * when the graph is published. Publishing does nothing if the values
+     * have not changed since the graph was last published. The points are
+     * already in stage coordinates, so the primitive's position is set to
+     * cancel out the position of its parent.
+     */
+    private static class Graph {
+
+        private PointGrid grid;
+        private int[] values;
+        private int size;
+        private boolean changed;
+        private Point2D publishedOrigin;
+        private List<Point2D> buffer;
+        private Primitive primitive;
+
+        public Graph(ColorRGB color, PointGrid grid) {
+            this.grid = grid;
+            this.values = new int[BUFFER_CAPACITY];
+            this.size = 2;
+            this.changed = false;
+            this.publishedOrigin = grid.origin;
+            this.buffer = new ArrayList<>(BUFFER_CAPACITY);
+
+            Arrays.fill(values, grid.height);
+            primitive = new Primitive(createLine(), color);
+            primitive.setStroke(3f);
+        }
+
+        public void resize(int size) {
+            int newSize = Math.clamp(size, 2, BUFFER_CAPACITY);
+            if (newSize != this.size) {
+                this.size = newSize;
+                changed = true;
+            }
+        }
+
+        public void set(int index, int y) {
+            int value = Math.clamp(y, 0, grid.height);
+            if (values[index] != value) {
+                values[index] = value;
+                changed = true;
+            }
+        }
+
+        public void setRelative(int index, long value, long max) {
+            set(index, grid.height - (int) (value * grid.height / max));
+        }
+
+        private SegmentedLine createLine() {
+            buffer.clear();
+            for (int i = 0; i < size; i++) {
+                buffer.add(grid.points[i][values[i]]);
+            }
+            return new SegmentedLine(List.copyOf(buffer));
+        }
+
+        public void publish() {
+            if (!changed && publishedOrigin == grid.origin) {
+                return;
+            }
+
+            primitive.setShape(createLine());
+            primitive.getTransform().setPosition(-grid.origin.x(), -grid.origin.y());
+            publishedOrigin = grid.origin;
+            changed = false;
+        }
+    }
 }
@@ -0,0 +1,260 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.effect;
+
+import com.google.common.base.Preconditions;
+import nl.colorize.multimedialib.scene.Actor;
+import nl.colorize.multimedialib.stage.Spatial2D;
+import nl.colorize.multimedialib.stage.Transform;
+import nl.colorize.util.animation.Interpolation;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Animates transform properties of many graphics at the same time, using a
+ * single actor. Creating a {@code Timeline} and an actor for every animated
+ * property becomes expensive when animating thousands of graphics, as every
+ * animation then needs to be allocated and dispatched separately. This class
+ * instead stores all active tweens in parallel arrays, and updates all of
+ * them in one loop during every frame update.
+ * <p>
+ * Tweens are identified by a {@code long} handle, which can be used to
+ * check if the tween is still active or to cancel it. Slots for completed
+ * tweens are reused, and handles contain a generation counter so that
+ * using the handle of a completed tween does not affect the new tween that
+ * has taken over its slot. Active tweens are kept densely packed, so the
+ * update loop only visits tweens that are actually running.
+ * <p>
+ * Tweens start from the property's value at the moment the tween is
+ * created. Starting another tween for the same property of the same graphic
+ * does not cancel the existing tween, so both will try to change the value.
+ */
+public class TweenEngine implements Actor {
+
+    // Dense arrays, containing the active tweens.
+    private Transform[] targets;
+    private TweenProperty[] properties;
+    private double[] start;
+    private double[] end;
+    private double[] duration;
+    private double[] elapsed;
+    private Interpolation[] easing;
+    private @Nullable Runnable[] callbacks;
+    private int[] denseToSlot;
+    private int count;
+
+    // Slots, used to map handles to the dense arrays.
+    private int[] slotToDense;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    public TweenEngine() {
+        this.targets = new Transform[INITIAL_CAPACITY];
+        this.properties = new TweenProperty[INITIAL_CAPACITY];
+        this.start = new double[INITIAL_CAPACITY];
+        this.end = new double[INITIAL_CAPACITY];
+        this.duration = new double[INITIAL_CAPACITY];
+        this.elapsed = new double[INITIAL_CAPACITY];
+        this.easing = new Interpolation[INITIAL_CAPACITY];
+        this.callbacks = new Runnable[INITIAL_CAPACITY];
+        this.denseToSlot = new int[INITIAL_CAPACITY];
+        this.count = 0;
+
+        this.slotToDense = new int[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.slotCount = 0;
+    }
+
+    /**
+     * Starts a tween that animates the property from its current value to
+     * {@code endValue}, within the specified duration in seconds. Returns
+     * the handle that identifies the tween.
+     *
+     * @throws IllegalArgumentException if the property is not supported by
+     *         the graphic's transform.
+     */
+    public long tween(Spatial2D target, TweenProperty property, double endValue,
+                      double duration, Interpolation easing) {
+        return tween(target, property, endValue, duration, easing, null);
+    }
+
+    /**
+     * Starts a tween that animates the property from its current value to
+     * {@code endValue}, within the specified duration in seconds. The
+     * callback is invoked once the tween has completed, but not when the
+     * tween is cancelled. Returns the handle that identifies the tween.
+     *
+     * @throws IllegalArgumentException if the property is not supported by
+     *         the graphic's transform.
+     */
+    public long tween(Spatial2D target, TweenProperty property, double endValue,
+                      double duration, Interpolation easing, @Nullable Runnable onComplete) {
+        Transform transform = target.getTransform();
+        Preconditions.checkArgument(property.isSupported(transform),
+            "Property " + property + " not supported for " + target);
+        Preconditions.checkArgument(duration > 0.0, "Invalid duration: " + duration);
+
+        if (count == targets.length) {
+            growDense(count * 2);
+        }
+
+        int slot = allocateSlot();
+        int index = count;
+        count++;
+
+        targets[index] = transform;
+        properties[index] = property;
+        start[index] = property.get(transform);
+        end[index] = endValue;
+        this.duration[index] = duration;
+        elapsed[index] = 0.0;
+        this.easing[index] = easing;
+        callbacks[index] = onComplete;
+        denseToSlot[index] = slot;
+        slotToDense[slot] = index;
+
+        return toHandle(slot);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            freeCount--;
+            return freeSlots[freeCount];
+        }
+
+        if (slotCount == slotToDense.length) {
+            slotToDense = Arrays.copyOf(slotToDense, slotCount * 2);
+            generations = Arrays.copyOf(generations, slotCount * 2);
+            freeSlots = Arrays.copyOf(freeSlots, slotCount * 2);
+        }
+
+        int slot = slotCount;
+        slotCount++;
+        return slot;
+    }
+
+    private void growDense(int capacity) {
+        targets = Arrays.copyOf(targets, capacity);
+        properties = Arrays.copyOf(properties, capacity);
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+        duration = Arrays.copyOf(duration, capacity);
+        elapsed = Arrays.copyOf(elapsed, capacity);
+        easing = Arrays.copyOf(easing, capacity);
+        callbacks = Arrays.copyOf(callbacks, capacity);
+        denseToSlot = Arrays.copyOf(denseToSlot, capacity);
+    }
+
+    private long toHandle(int slot) {
+        return ((long) generations[slot] << 32) | slot;
+    }
+
+    /**
+     * Returns the index of the tween in the dense arrays, or -1 if the handle
+     * refers to a tween that has already completed or was cancelled.
+     */
+    private int indexOf(long handle) {
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+
+        if (slot < 0 || slot >= slotCount || generations[slot] != generation) {
+            return -1;
+        }
+        return slotToDense[slot];
+    }
+
+    public boolean isActive(long handle) {
+        return indexOf(handle) != -1;
+    }
+
+    /**
+     * Stops the tween, leaving the property at its current value. Does
+     * nothing if the tween has already completed or was already cancelled.
+     */
+    public void cancel(long handle) {
+        int index = indexOf(handle);
+        if (index != -1) {
+            remove(index);
+        }
+    }
+
+    /**
+     * Stops all active tweens, leaving all properties at their current values.
+     */
+    public void cancelAll() {
+        while (count > 0) {
+            remove(count - 1);
+        }
+    }
+
+    /**
+     * Removes the tween by moving the last tween into its position in the
+     * dense arrays, and returns its slot to the pool.
+     */
+    private void remove(int index) {
+        int slot = denseToSlot[index];
+        int last = count - 1;
+
+        if (index != last) {
+            targets[index] = targets[last];
+            properties[index] = properties[last];
+            start[index] = start[last];
+            end[index] = end[last];
+            duration[index] = duration[last];
+            elapsed[index] = elapsed[last];
+            easing[index] = easing[last];
+            callbacks[index] = callbacks[last];
+            denseToSlot[index] = denseToSlot[last];
+            slotToDense[denseToSlot[index]] = index;
+        }
+
+        targets[last] = null;
+        easing[last] = null;
+        callbacks[last] = null;
+        count--;
+
+        generations[slot]++;
+        freeSlots[freeCount] = slot;
+        freeCount++;
+    }
+
+    public int getActiveCount() {
+        return count;
+    }
+
+    @Override
+    public void update(double deltaTime) {
+        int i = 0;
+
+        while (i < count) {
+            elapsed[i] += deltaTime;
+            double delta = Math.min(elapsed[i] / duration[i], 1.0);
+            double value = easing[i].interpolate(start[i], end[i], delta);
+            properties[i].set(targets[i], value);
+
+            if (delta >= 1.0) {
+                Runnable callback = callbacks[i];
+                // Removing the tween moves the last tween into
+                // this position, so the index should not be
+                // incremented.
+                remove(i);
+                if (callback != null) {
+                    callback.run();
+                }
+            } else {
+                i++;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.effect;
+
+import nl.colorize.multimedialib.stage.ImageTransform;
+import nl.colorize.multimedialib.stage.Transform;
+
+/**
+ * Transform properties that can be animated using the {@link TweenEngine}.
+ * Rotation and scale are only available for graphics that use an
+ * {@link ImageTransform}, the other properties are available for all
+ * graphics.
+ */
+public enum TweenProperty {
+    X,
+    Y,
+    ALPHA,
+    ROTATION,
+    SCALE,
+    SCALE_X,
+    SCALE_Y;
+
+    /**
+     * Returns true if this property can be animated for graphics using the
+     * specified transform.
+     */
+    public boolean isSupported(Transform transform) {
+        return switch (this) {
+            case X, Y, ALPHA -> true;
+            case ROTATION, SCALE, SCALE_X, SCALE_Y -> transform instanceof ImageTransform;
+        };
+    }
+
+    /**
+     * Returns the current value of this property in the specified transform.
+     * For {@link #SCALE}, this returns the horizontal scale.
+     */
+    public double get(Transform transform) {
+        return switch (this) {
+            case X -> transform.getX();
+            case Y -> transform.getY();
+            case ALPHA -> transform.getAlpha();
+            case ROTATION -> ((ImageTransform) transform).getRotation().degrees();
+            case SCALE, SCALE_X -> ((ImageTransform) transform).getScaleX();
+            case SCALE_Y -> ((ImageTransform) transform).getScaleY();
+        };
+    }
+
+    public void set(Transform transform, double value) {
+        switch (this) {
+            case X -> transform.setX(value);
+            case Y -> transform.setY(value);
+            case ALPHA -> transform.setAlpha(value);
+            case ROTATION -> ((ImageTransform) transform).setRotation(value);
+            case SCALE -> ((ImageTransform) transform).setScale(value);
+            case SCALE_X -> ((ImageTransform) transform).setScaleX(value);
+            case SCALE_Y -> ((ImageTransform) transform).setScaleY(value);
+        }
+    }
+}
@@ -64,6 +64,7 @@ public class Container implements Spatial2D, Iterable<Spatial2D> {
             case Primitive primitive -> primitive.setParent(this);
             case Sprite sprite -> sprite.setParent(this);
             case Text text -> text.setParent(this);
+            case ParticleBatch particles -> particles.setParent(this);
             default -> throw new UnsupportedOperationException("Unknown graphics type: " + child);
         }
 
@@ -0,0 +1,300 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import nl.colorize.multimedialib.math.Circle;
+import nl.colorize.multimedialib.math.Line;
+import nl.colorize.multimedialib.math.Point2D;
+import nl.colorize.multimedialib.math.Polygon;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.math.SegmentedLine;
+import nl.colorize.multimedialib.math.Shape;
+import nl.colorize.multimedialib.renderer.Canvas;
+import org.jspecify.annotations.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compares the stage to the previous frame, and determines which region of
+ * the canvas has changed. Renderers can use this to only redraw the part of
+ * the screen that has actually changed, which significantly reduces the
+ * amount of work for applications that display mostly static graphics.
+ * <p>
+ * The tracker is a {@link StageVisitor} that does not draw anything, but
+ * remembers the bounds and appearance of every node that would be drawn.
+ * Nodes that have moved, have changed their appearance, or have been added
+ * to or removed from the stage mark both their previous and their current
+ * bounds as dirty. The dirty region is the union of all dirty bounds.
+ * <p>
+ * When the dirty region covers a large part of the canvas, redrawing only
+ * that region is no longer worth the overhead, and the tracker reports that
+ * the entire canvas should be redrawn instead. This also happens when the
+ * canvas or the background color have changed. Particle batches change
+ * every frame and have no precise bounds, so stages that contain active
+ * particles are always redrawn entirely.
+ * <p>
+ * Node bounds are estimated conservatively, since underestimating the
+ * bounds would leave visible artifacts on the screen. This applies in
+ * particular to text, since the size of rendered text depends on the font
+ * and is not known in advance.
+ */
+public class DirtyRegionTracker implements StageVisitor {
+
+    private double fullRedrawThreshold;
+    private Map<Spatial2D, NodeState> nodes;
+    private long frame;
+
+    private Canvas canvas;
+    private int canvasWidth;
+    private int canvasHeight;
+    private double zoomLevel;
+    private ColorRGB backgroundColor;
+
+    @Getter private boolean fullRedraw;
+    private boolean dirty;
+    private double dirtyX0;
+    private double dirtyY0;
+    private double dirtyX1;
+    private double dirtyY1;
+
+    private static final double PADDING = 4.0;
+
+    /**
+     * Creates a tracker that will report a full redraw when the dirty region
+     * covers more than the specified fraction of the canvas. The threshold
+     * should be between 0.0 and 1.0.
+     */
+    public DirtyRegionTracker(double fullRedrawThreshold) {
+        Preconditions.checkArgument(fullRedrawThreshold >= 0.0 && fullRedrawThreshold <= 1.0,
+            "Invalid threshold: " + fullRedrawThreshold);
+
+        this.fullRedrawThreshold = fullRedrawThreshold;
+        this.nodes = new IdentityHashMap<>();
+        this.frame = 0L;
+        this.fullRedraw = true;
+    }
+
+    public DirtyRegionTracker() {
+        this(0.5);
+    }
+
+    /**
+     * Forces the next frame to be redrawn entirely, for example because the
+     * renderer's buffer was lost or because the window was resized.
+     */
+    public void forceFullRedraw() {
+        canvas = null;
+    }
+
+    /**
+     * Returns the region of the canvas that should be redrawn, in canvas
+     * coordinates. Returns {@code null} if nothing has changed since the
+     * previous frame. If {@link #isFullRedraw()} is true, this returns the
+     * bounds of the entire canvas.
+     */
+    public @Nullable Rect getDirtyRegion() {
+        if (fullRedraw) {
+            return canvas.getBounds();
+        } else if (!dirty) {
+            return null;
+        } else {
+            return Rect.fromPoints(dirtyX0, dirtyY0, dirtyX1, dirtyY1);
+        }
+    }
+
+    @Override
+    public void prepareStage(Stage stage) {
+        Canvas stageCanvas = stage.getCanvas();
+
+        fullRedraw = canvas != stageCanvas ||
+            canvasWidth != stageCanvas.getWidth() ||
+            canvasHeight != stageCanvas.getHeight() ||
+            zoomLevel != stageCanvas.getZoomLevel();
+
+        canvas = stageCanvas;
+        canvasWidth = stageCanvas.getWidth();
+        canvasHeight = stageCanvas.getHeight();
+        zoomLevel = stageCanvas.getZoomLevel();
+        dirty = false;
+        frame++;
+    }
+
+    @Override
+    public void drawBackground(ColorRGB color) {
+        if (!color.equals(backgroundColor)) {
+            backgroundColor = color;
+            fullRedraw = true;
+        }
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+        double width = sprite.getCurrentWidth() * Math.abs(globalTransform.getScaleX()) / 100.0;
+        double height = sprite.getCurrentHeight() * Math.abs(globalTransform.getScaleY()) / 100.0;
+        double rotation = globalTransform.getRotation().degrees();
+
+        // Sprites rotate around their center, so the bounds of a rotated
+        // sprite always fit within a square of the sprite's diagonal.
+        if (rotation != 0.0) {
+            width = Math.hypot(width, height);
+            height = width;
+        }
+
+        // Flipping is combined with the rotation into a single value. This
+        // works because angles are always less than 360 degrees.
+        int flags = (globalTransform.isFlipHorizontal() ? 1 : 0) | (globalTransform.isFlipVertical() ? 2 : 0);
+        Rect bounds = Rect.around(globalTransform.getPosition(), width + PADDING, height + PADDING);
+        track(sprite, bounds, globalTransform.getAlpha(), sprite.getCurrentGraphics(),
+            globalTransform.getMaskColor(), rotation + flags * 1000.0);
+    }
+
+    @Override
+    public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
+        trackPrimitive(graphic, line, graphic.getStroke());
+    }
+
+    @Override
+    public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
+        trackPrimitive(graphic, line, graphic.getStroke());
+    }
+
+    @Override
+    public void drawRect(Primitive graphic, Rect rect, Transform globalTransform) {
+        trackPrimitive(graphic, rect, 0.0);
+    }
+
+    @Override
+    public void drawCircle(Primitive graphic, Circle circle, Transform globalTransform) {
+        trackPrimitive(graphic, circle, 0.0);
+    }
+
+    @Override
+    public void drawPolygon(Primitive graphic, Polygon polygon, Transform globalTransform) {
+        trackPrimitive(graphic, polygon, 0.0);
+    }
+
+    private void trackPrimitive(Primitive graphic, Shape shape, double stroke) {
+        Rect bounds = shape.getBoundingBox().expand(stroke * 2.0 + PADDING);
+        track(graphic, bounds, graphic.getGlobalTransform().getAlpha(), shape, graphic.getColor(), stroke);
+    }
+
+    /**
+     * Estimates the bounds of the text. Text is drawn starting from its
+     * baseline, and can be aligned left, center, or right. The bounds are
+     * therefore extended in both horizontal directions, and include the
+     * area above the baseline.
+     */
+    @Override
+    public void drawText(Text text, Transform globalTransform) {
+        Point2D position = globalTransform.getPosition();
+        double fontSize = text.getFont() == null ? 10.0 : text.getFont().size();
+        double width = text.getStageBounds().width() * 2.0;
+        double height = text.getLines().size() * text.getLineHeight();
+
+        Rect bounds = Rect.fromPoints(position.x() - width - PADDING, position.y() - fontSize * 2.0,
+            position.x() + width + PADDING, position.y() + height + fontSize);
+        track(text, bounds, globalTransform.getAlpha(), text.getLines(), text.getFont(), text.getAlign().ordinal());
+    }
+
+    @Override
+    public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        if (particles.getCount() > 0) {
+            fullRedraw = true;
+        }
+    }
+
+    private void track(Spatial2D node, Rect bounds, double alpha, Object appearance, Object style,
+                       double detail) {
+        NodeState state = nodes.get(node);
+
+        if (state == null) {
+            state = new NodeState();
+            nodes.put(node, state);
+            markDirty(bounds);
+        } else if (!state.bounds.equals(bounds) || state.alpha != alpha || state.detail != detail ||
+                !Objects.equals(state.appearance, appearance) || !Objects.equals(state.style, style)) {
+            markDirty(state.bounds);
+            markDirty(bounds);
+        }
+
+        state.bounds = bounds;
+        state.alpha = alpha;
+        state.appearance = appearance;
+        state.style = style;
+        state.detail = detail;
+        state.frame = frame;
+    }
+
+    private void markDirty(Rect bounds) {
+        if (!dirty) {
+            dirtyX0 = bounds.x();
+            dirtyY0 = bounds.y();
+            dirtyX1 = bounds.getEndX();
+            dirtyY1 = bounds.getEndY();
+            dirty = true;
+        } else {
+            dirtyX0 = Math.min(dirtyX0, bounds.x());
+            dirtyY0 = Math.min(dirtyY0, bounds.y());
+            dirtyX1 = Math.max(dirtyX1, bounds.getEndX());
+            dirtyY1 = Math.max(dirtyY1, bounds.getEndY());
+        }
+    }
+
+    /**
+     * Marks nodes that were drawn during the previous frame, but not during
+     * this frame, as dirty. This includes nodes that have been removed from
+     * the stage, have become invisible, or have moved outside the canvas.
+     */
+    @Override
+    public void finalize2D(Stage stage) {
+        Iterator<NodeState> iterator = nodes.values().iterator();
+
+        while (iterator.hasNext()) {
+            NodeState state = iterator.next();
+            if (state.frame != frame) {
+                markDirty(state.bounds);
+                iterator.remove();
+            }
+        }
+
+        if (dirty && !fullRedraw) {
+            double dirtyArea = (Math.min(dirtyX1, canvasWidth) - Math.max(dirtyX0, 0.0)) *
+                (Math.min(dirtyY1, canvasHeight) - Math.max(dirtyY0, 0.0));
+            fullRedraw = dirtyArea > fullRedrawThreshold * canvasWidth * canvasHeight;
+        }
+    }
+
+    @Override
+    public void visitGroup(Group group, Transform3D globalTransform) {
+        fullRedraw = true;
+    }
+
+    @Override
+    public void drawMesh(Mesh mesh, Transform3D globalTransform) {
+        fullRedraw = true;
+    }
+
+    /**
+     * The bounds and appearance of a node during the most recent frame in
+     * which it was drawn. The appearance and style depend on the type of
+     * node, for example the current image and mask color for sprites.
+     */
+    private static class NodeState {
+
+        private Rect bounds;
+        private double alpha;
+        private Object appearance;
+        private Object style;
+        private double detail;
+        private long frame;
+    }
+}
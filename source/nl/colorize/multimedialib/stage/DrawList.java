@@ -0,0 +1,310 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.math.Circle;
+import nl.colorize.multimedialib.math.Line;
+import nl.colorize.multimedialib.math.Polygon;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.math.SegmentedLine;
+import nl.colorize.multimedialib.math.Shape;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the draw calls that are made while visiting the stage, so that
+ * they can be replayed later by another {@link StageVisitor}. The recorded
+ * draw calls are a snapshot of the stage at the moment it was visited:
+ * transforms, colors, text, and the current frame of sprite animations are
+ * copied, so the stage can be modified after recording without affecting
+ * the draw list. This allows the stage to be drawn on a different thread
+ * than the one that is updating it.
+ * <p>
+ * The draw calls are replayed using snapshot nodes that are owned by the
+ * draw list, not the original stage nodes. Renderers should therefore only
+ * rely on the node properties used for drawing, and not on the node's
+ * parent or local transform. Containers and culled nodes are not recorded,
+ * since they do not result in anything being drawn.
+ * <p>
+ * The stage that is passed to the visitor during replay is also a snapshot,
+ * with a copy of the original stage's canvas. It never has instrumentation,
+ * unless instrumentation is explicitly provided when replaying. This means
+ * the replaying thread never accesses the original stage, its canvas, or
+ * its instrumentation, which are owned by the thread that is updating the
+ * stage.
+ * <p>
+ * The draw list reuses its entries and snapshot nodes for every recording,
+ * so recording a stage of the same size every frame does not allocate new
+ * objects. Particle batches are recorded as a single entry, with a copy of
+ * the particle state, so that renderers can still draw all particles in a
+ * single pass when replaying. 3D graphics are not supported.
+ */
+public class DrawList implements StageVisitor {
+
+    private Stage snapshot;
+    private boolean instrumented;
+    private ColorRGB backgroundColor;
+    private List<Entry> entries;
+    private int size;
+
+    public DrawList() {
+        this.entries = new ArrayList<>();
+        this.size = 0;
+    }
+
+    /**
+     * Replays the recorded draw calls using the specified visitor. Replaying
+     * does not affect the recorded draw calls, so the same draw list can be
+     * replayed multiple times.
+     */
+    public void replay(StageVisitor visitor) {
+        replay(visitor, null);
+    }
+
+    /**
+     * Replays the recorded draw calls using the specified visitor, which is
+     * decorated by the specified instrumentation in the same way as
+     * {@link Stage#visit(StageVisitor)}. The instrumentation should be owned
+     * by the replaying thread, it should <em>not</em> be the instrumentation
+     * of the original stage.
+     */
+    public void replay(StageVisitor rendererVisitor, @Nullable InstrumentedStageVisitor instrumentation) {
+        if (snapshot == null) {
+            return;
+        }
+
+        StageVisitor visitor = rendererVisitor;
+        snapshot.setInstrumentation(instrumentation);
+        if (instrumentation != null) {
+            instrumentation.wrap(rendererVisitor);
+            visitor = instrumentation;
+        }
+
+        visitor.prepareStage(snapshot);
+        visitor.drawBackground(backgroundColor);
+
+        for (int i = 0; i < size; i++) {
+            replay(entries.get(i), visitor);
+        }
+
+        visitor.finalize2D(snapshot);
+    }
+
+    private void replay(Entry entry, StageVisitor visitor) {
+        switch (entry.type) {
+            case SPRITE -> visitor.drawSprite(entry.sprite, entry.imageTransform);
+            case LINE -> visitor.drawLine(entry.primitive, (Line) entry.shape, entry.transform);
+            case SEGMENTED_LINE -> visitor.drawSegmentedLine(entry.primitive,
+                (SegmentedLine) entry.shape, entry.transform);
+            case RECT -> visitor.drawRect(entry.primitive, (Rect) entry.shape, entry.transform);
+            case CIRCLE -> visitor.drawCircle(entry.primitive, (Circle) entry.shape, entry.transform);
+            case POLYGON -> visitor.drawPolygon(entry.primitive, (Polygon) entry.shape, entry.transform);
+            case TEXT -> visitor.drawText(entry.text, entry.transform);
+            case PARTICLES -> visitor.drawParticles(entry.particles, entry.transform);
+        }
+    }
+
+    /**
+     * Returns the number of draw calls that were recorded the last time the
+     * stage was visited.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns true if the original stage had instrumentation enabled when it
+     * was recorded. The replaying thread can use this to decide whether it
+     * should use its own instrumentation when replaying.
+     */
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+
+    @Override
+    public void prepareStage(Stage stage) {
+        Canvas canvas = stage.getCanvas();
+
+        if (snapshot == null || snapshot.getCanvas().getPreferredSize() != canvas.getPreferredSize() ||
+                snapshot.getCanvas().getScaleStrategy() != canvas.getScaleStrategy()) {
+            snapshot = new Stage(new Canvas(canvas.getPreferredSize(), canvas.getScaleStrategy()));
+        }
+
+        copyScreen(canvas, snapshot.getCanvas());
+        instrumented = stage.getInstrumentation() != null;
+        size = 0;
+    }
+
+    /**
+     * Copies the screen size and offset from the original canvas to the
+     * snapshot canvas, so that the snapshot canvas uses the same zoom level
+     * and coordinate conversions as the original canvas did at the moment
+     * of recording.
+     */
+    private void copyScreen(Canvas original, Canvas copy) {
+        if (!original.getScreenSize().equals(copy.getScreenSize()) ||
+                original.getScreenPixelRatio() != copy.getScreenPixelRatio()) {
+            copy.resizeScreen(original.getScreenSize().width(), original.getScreenSize().height(),
+                original.getScreenPixelRatio());
+        }
+
+        if (!original.getScreenOffset().equals(copy.getScreenOffset())) {
+            copy.offsetScreen(original.getScreenOffset().x(), original.getScreenOffset().y());
+        }
+    }
+
+    @Override
+    public void drawBackground(ColorRGB color) {
+        backgroundColor = color;
+    }
+
+    private Entry nextEntry(EntryType type) {
+        if (size == entries.size()) {
+            entries.add(new Entry());
+        }
+
+        Entry entry = entries.get(size);
+        entry.type = type;
+        size++;
+        return entry;
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+        Entry entry = nextEntry(EntryType.SPRITE);
+        entry.imageTransform.set(globalTransform);
+
+        Image image = sprite.getCurrentGraphics();
+        if (entry.sprite == null || entry.sprite.getCurrentGraphics() != image) {
+            entry.sprite = new Sprite(image);
+        }
+    }
+
+    @Override
+    public void drawLine(Primitive graphic, Line line, Transform globalTransform) {
+        recordPrimitive(EntryType.LINE, graphic, line, globalTransform);
+    }
+
+    @Override
+    public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
+        recordPrimitive(EntryType.SEGMENTED_LINE, graphic, line, globalTransform);
+    }
+
+    @Override
+    public void drawRect(Primitive graphic, Rect rect, Transform globalTransform) {
+        recordPrimitive(EntryType.RECT, graphic, rect, globalTransform);
+    }
+
+    @Override
+    public void drawCircle(Primitive graphic, Circle circle, Transform globalTransform) {
+        recordPrimitive(EntryType.CIRCLE, graphic, circle, globalTransform);
+    }
+
+    @Override
+    public void drawPolygon(Primitive graphic, Polygon polygon, Transform globalTransform) {
+        recordPrimitive(EntryType.POLYGON, graphic, polygon, globalTransform);
+    }
+
+    /**
+     * Records a primitive. The shape does not need to be copied, since the
+     * stage passes a repositioned copy of the primitive's shape to the
+     * visitor, and shapes are immutable.
+     */
+    private void recordPrimitive(EntryType type, Primitive graphic, Shape shape, Transform globalTransform) {
+        Entry entry = nextEntry(type);
+        entry.shape = shape;
+        entry.transform.set(globalTransform);
+
+        if (entry.primitive == null) {
+            entry.primitive = new Primitive(shape, graphic.getColor());
+        }
+
+        entry.primitive.setShape(graphic.getRawShape());
+        entry.primitive.setColor(graphic.getColor());
+        entry.primitive.setStroke(graphic.getStroke());
+        entry.primitive.getTransform().set(graphic.getTransform());
+        entry.primitive.getGlobalTransform().set(globalTransform);
+    }
+
+    @Override
+    public void drawText(Text text, Transform globalTransform) {
+        Entry entry = nextEntry(EntryType.TEXT);
+        entry.transform.set(globalTransform);
+
+        if (entry.text == null) {
+            entry.text = new Text("", text.getFont(), text.getAlign());
+        }
+
+        entry.text.setLines(text.getLines());
+        entry.text.setFont(text.getFont());
+        entry.text.setAlign(text.getAlign());
+        entry.text.setLineHeight(text.getLineHeight());
+        entry.text.getGlobalTransform().set(globalTransform);
+    }
+
+    @Override
+    public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        Entry entry = nextEntry(EntryType.PARTICLES);
+        entry.transform.set(globalTransform);
+
+        if (entry.particles == null || entry.particles.getImage() != particles.getImage() ||
+                entry.particles.getMaxParticles() < particles.getCount()) {
+            entry.particles = new ParticleBatch(particles.getImage(), particles.getMaxParticles());
+        }
+
+        entry.particles.copyParticles(particles);
+        entry.particles.getGlobalTransform().set(globalTransform);
+    }
+
+    @Override
+    public void visitGroup(Group group, Transform3D globalTransform) {
+        throw new UnsupportedOperationException("Draw list does not support 3D graphics");
+    }
+
+    @Override
+    public void drawMesh(Mesh mesh, Transform3D globalTransform) {
+        throw new UnsupportedOperationException("Draw list does not support 3D graphics");
+    }
+
+    private enum EntryType {
+        SPRITE,
+        LINE,
+        SEGMENTED_LINE,
+        RECT,
+        CIRCLE,
+        POLYGON,
+        TEXT,
+        PARTICLES
+    }
+
+    /**
+     * One recorded draw call. Entries are reused between recordings, and
+     * keep their snapshot nodes once those have been created. The only
+     * property of the snapshot sprite that is used for drawing is its
+     * current image, so the sprite is only replaced when the image changes.
+     */
+    private static class Entry {
+
+        private EntryType type;
+        private Transform transform;
+        private ImageTransform imageTransform;
+        private Shape shape;
+        private Sprite sprite;
+        private Primitive primitive;
+        private Text text;
+        private ParticleBatch particles;
+
+        public Entry() {
+            this.transform = new Transform();
+            this.imageTransform = new ImageTransform();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.Setter;
+import nl.colorize.multimedialib.math.Point2D;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.scene.Timer;
+import org.jspecify.annotations.Nullable;
+
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * Stage node that displays a large number of particles, which all use the
+ * same image. Particle state is stored in parallel primitive arrays, one
+ * array per property, instead of using a {@link Sprite} per particle. The
+ * arrays are allocated once, based on the maximum number of particles, and
+ * are then reused as particles are spawned and removed.
+ * <p>
+ * The renderer draws all particles in a single call to
+ * {@link StageVisitor#drawParticles(ParticleBatch, Transform)}. Particle
+ * positions are relative to this node's global transform, and the alpha of
+ * this node's global transform is applied to all particles.
+ * <p>
+ * Particle colors are quantized to 4 bits per channel when drawn. Colors
+ * typically change gradually over a particle's lifetime, and renderers
+ * usually need to create a separate version of the image for every color.
+ * Quantizing the colors limits the number of images to a small number of
+ * steps, which is not noticeable for particles.
+ * <p>
+ * This class only stores the particle state, it does not define how that
+ * state changes over time. Particle behavior is typically implemented by
+ * an actor that modifies the particle arrays during frame updates.
+ */
+public class ParticleBatch implements Spatial2D {
+
+    @Getter @Setter(PROTECTED) private Container parent;
+    @Getter private Transform transform;
+    @Getter private Transform globalTransform;
+    @Getter private Image image;
+
+    private int count;
+    private double[] x;
+    private double[] y;
+    private double[] velocityX;
+    private double[] velocityY;
+    private double[] age;
+    private double[] lifetime;
+    private double[] scale;
+    private double[] rotation;
+    private double[] alpha;
+    private int[] color;
+
+    private Sprite particleSprite;
+    private ColorRGB[] quantizedColors;
+
+    public static final int NO_COLOR = -1;
+    private static final int QUANTIZED_COLORS = 4096;
+
+    public ParticleBatch(Image image, int maxParticles) {
+        Preconditions.checkArgument(maxParticles >= 1, "Invalid max particles: " + maxParticles);
+
+        this.transform = new Transform();
+        this.globalTransform = new Transform();
+        this.image = image;
+
+        this.count = 0;
+        this.x = new double[maxParticles];
+        this.y = new double[maxParticles];
+        this.velocityX = new double[maxParticles];
+        this.velocityY = new double[maxParticles];
+        this.age = new double[maxParticles];
+        this.lifetime = new double[maxParticles];
+        this.scale = new double[maxParticles];
+        this.rotation = new double[maxParticles];
+        this.alpha = new double[maxParticles];
+        this.color = new int[maxParticles];
+
+        this.particleSprite = new Sprite(image);
+        this.quantizedColors = null;
+    }
+
+    /**
+     * Spawns a new particle at the specified position, relative to this node,
+     * and returns its index. The particle starts with 100% scale and alpha,
+     * no rotation, and no color. Returns -1 if the maximum number of
+     * particles has already been reached.
+     */
+    public int spawn(double x, double y, double velocityX, double velocityY, double lifetime) {
+        if (count == this.x.length) {
+            return -1;
+        }
+
+        int index = count;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+        this.age[index] = 0.0;
+        this.lifetime[index] = lifetime;
+        this.scale[index] = 100.0;
+        this.rotation[index] = 0.0;
+        this.alpha[index] = 100.0;
+        this.color[index] = NO_COLOR;
+        count++;
+        return index;
+    }
+
+    /**
+     * Removes the particle at the specified index by moving the last particle
+     * into its place. When removing particles during iteration, callers should
+     * therefore iterate backwards.
+     */
+    public void remove(int index) {
+        Preconditions.checkElementIndex(index, count);
+
+        int last = count - 1;
+        x[index] = x[last];
+        y[index] = y[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        age[index] = age[last];
+        lifetime[index] = lifetime[last];
+        scale[index] = scale[last];
+        rotation[index] = rotation[last];
+        alpha[index] = alpha[last];
+        color[index] = color[last];
+        count--;
+    }
+
+    /**
+     * Replaces the particles in this batch with a copy of the particles in
+     * another batch. Only the properties that are used for drawing are
+     * copied. This is used to create a snapshot of the particles that can
+     * be drawn on another thread, without allocating new arrays.
+     */
+    protected void copyParticles(ParticleBatch source) {
+        Preconditions.checkArgument(source.count <= x.length, "Insufficient capacity");
+
+        count = source.count;
+        System.arraycopy(source.x, 0, x, 0, count);
+        System.arraycopy(source.y, 0, y, 0, count);
+        System.arraycopy(source.scale, 0, scale, 0, count);
+        System.arraycopy(source.rotation, 0, rotation, 0, count);
+        System.arraycopy(source.alpha, 0, alpha, 0, count);
+        System.arraycopy(source.color, 0, color, 0, count);
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMaxParticles() {
+        return x.length;
+    }
+
+    // The following methods return the underlying particle arrays. Only
+    // the first getCount() elements contain active particles.
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getVelocityX() {
+        return velocityX;
+    }
+
+    public double[] getVelocityY() {
+        return velocityY;
+    }
+
+    public double[] getAge() {
+        return age;
+    }
+
+    public double[] getLifetime() {
+        return lifetime;
+    }
+
+    public double[] getScale() {
+        return scale;
+    }
+
+    public double[] getRotation() {
+        return rotation;
+    }
+
+    public double[] getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Returns the array containing the color of each particle in RGB format,
+     * or {@link #NO_COLOR} if the particle uses the image's original colors.
+     */
+    public int[] getColor() {
+        return color;
+    }
+
+    /**
+     * Returns a sprite that can be used to draw the particle at the specified
+     * index, for renderers that do not draw particles directly. The same
+     * sprite instance is reused for all particles, so it is only valid until
+     * the next call to this method.
+     */
+    protected Sprite prepareParticleSprite(int index, Transform globalTransform) {
+        ImageTransform particleTransform = particleSprite.getGlobalTransform();
+        Point2D origin = globalTransform.getPosition();
+        particleTransform.setPosition(origin.x() + x[index], origin.y() + y[index]);
+        particleTransform.setAlpha(globalTransform.getAlpha() * alpha[index] / 100.0);
+        particleTransform.setScale(scale[index]);
+        particleTransform.setRotation(rotation[index]);
+        particleTransform.setMaskColor(getParticleColor(index));
+        return particleSprite;
+    }
+
+    /**
+     * Returns the quantized color of the particle at the specified index, or
+     * {@code null} if the particle uses the image's original colors. The
+     * same {@link ColorRGB} instance is returned for all particles with the
+     * same quantized color, so renderers can compare colors by identity.
+     */
+    public @Nullable ColorRGB getParticleColor(int index) {
+        int rgb = color[index];
+        if (rgb == NO_COLOR) {
+            return null;
+        }
+
+        if (quantizedColors == null) {
+            quantizedColors = new ColorRGB[QUANTIZED_COLORS];
+        }
+
+        int key = ((rgb >> 12) & 0xF00) | ((rgb >> 8) & 0xF0) | ((rgb >> 4) & 0xF);
+        if (quantizedColors[key] == null) {
+            int quantized = rgb & 0xF0F0F0;
+            quantizedColors[key] = new ColorRGB(quantized | (quantized >> 4));
+        }
+        return quantizedColors[key];
+    }
+
+    /**
+     * Returns the largest scale of all active particles, as a percentage.
+     * Returns zero if there are no active particles.
+     */
+    public double getMaxScale() {
+        double maxScale = 0.0;
+        for (int i = 0; i < count; i++) {
+            maxScale = Math.max(maxScale, Math.abs(scale[i]));
+        }
+        return maxScale;
+    }
+
+    @Override
+    public void animate(Timer sceneTime) {
+    }
+
+    @Override
+    public Rect getStageBounds() {
+        Point2D origin = globalTransform.getPosition();
+        if (count == 0) {
+            return new Rect(origin.x(), origin.y(), 0, 0);
+        }
+
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+
+        // Particles are drawn centered on their position and can be
+        // rotated, so the padding needs to cover half the diagonal of
+        // the largest particle.
+        double padding = Math.hypot(image.getWidth(), image.getHeight()) / 2.0 * getMaxScale() / 100.0;
+        return new Rect(origin.x() + minX - padding, origin.y() + minY - padding,
+            maxX - minX + 2 * padding, maxY - minY + 2 * padding);
+    }
+
+    @Override
+    public String toString() {
+        return "ParticleBatch [" + count + "]";
+    }
+}
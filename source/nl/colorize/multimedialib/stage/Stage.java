@@ -10,12 +10,14 @@ import lombok.Getter;
 import lombok.Setter;
 import nl.colorize.multimedialib.math.Circle;
 import nl.colorize.multimedialib.math.Line;
+import nl.colorize.multimedialib.math.Point2D;
 import nl.colorize.multimedialib.math.Point3D;
 import nl.colorize.multimedialib.math.Polygon;
 import nl.colorize.multimedialib.math.Rect;
 import nl.colorize.multimedialib.math.SegmentedLine;
 import nl.colorize.multimedialib.math.Shape;
 import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.renderer.World3D;
 import nl.colorize.multimedialib.scene.Timer;
 import nl.colorize.util.LogHelper;
@@ -50,6 +52,7 @@ public final class Stage {
     private Point3D cameraPosition;
     private Point3D cameraFocus;
     private ColorRGB ambientLightColor;
+    private InstrumentedStageVisitor instrumentation;
 
     private static final String ROOT_CONTAINER_2D = "$$root";
     private static final String ROOT_CONTAINER_3D = "$$root3D";
@@ -140,8 +143,50 @@ public final class Stage {
      * Visits all nodes that are currently part of the stage. Nodes will be
      * visited in the order in which they should be drawn. Parent nodes will
      * be visited before their children.
+     * <p>
+     * If instrumentation has been enabled for this stage, the visitor will
+     * be decorated by the {@link InstrumentedStageVisitor}, which measures
+     * the draw calls before passing them to the original visitor.
+     */
+    public void visit(StageVisitor rendererVisitor) {
+        StageVisitor visitor = rendererVisitor;
+        if (instrumentation != null && rendererVisitor != instrumentation) {
+            instrumentation.wrap(rendererVisitor);
+            visitor = instrumentation;
+        }
+
+        visitNodes(visitor);
+    }
+
+    /**
+     * Visits all graphics on the stage, like {@link #visit(StageVisitor)},
+     * but without instrumentation. This is intended for additional renders
+     * of the current frame, such as screenshots, which would otherwise be
+     * counted twice in the frame's statistics.
+     */
+    public void visitWithoutInstrumentation(StageVisitor rendererVisitor) {
+        InstrumentedStageVisitor original = instrumentation;
+        instrumentation = null;
+
+        try {
+            visitNodes(rendererVisitor);
+        } finally {
+            instrumentation = original;
+        }
+    }
+
+    /**
+     * Compares the stage to the previous frame using the specified
+     * {@link DirtyRegionTracker}, to determine which region of the canvas
+     * needs to be redrawn. Unlike {@link #visit(StageVisitor)}, this is not
+     * included in the instrumentation, since the tracker does not actually
+     * draw anything.
      */
-    public void visit(StageVisitor visitor) {
+    public void trackChanges(DirtyRegionTracker tracker) {
+        visitNodes(tracker);
+    }
+
+    private void visitNodes(StageVisitor visitor) {
         visitor.prepareStage(this);
         visitor.drawBackground(backgroundColor);
         if (world3D != null) {
@@ -155,7 +200,12 @@ public final class Stage {
     private void visitNode2D(Spatial2D node, Transform globalTransform, StageVisitor visitor) {
         node.getGlobalTransform().set(globalTransform);
 
-        if (!globalTransform.isVisible() || !shouldDraw(node)) {
+        if (!globalTransform.isVisible()) {
+            return;
+        }
+
+        if (!shouldDraw(node)) {
+            visitor.visitCulledNode(node);
             return;
         }
 
@@ -166,6 +216,7 @@ public final class Stage {
             case Sprite sprite -> visitor.drawSprite(sprite, (ImageTransform) globalTransform);
             case Primitive primitive -> visitPrimitive(primitive, globalTransform, visitor);
             case Text text -> visitor.drawText(text, globalTransform);
+            case ParticleBatch particles -> visitor.drawParticles(particles, globalTransform);
             default -> LOGGER.warning("Unknown 2D graphics type: " + node.getClass());
         }
     }
@@ -175,7 +226,10 @@ public final class Stage {
             return true;
         }
 
-        if (canvas.getBounds().contains(node.getGlobalTransform().getPosition())) {
+        // The position of a particle batch is only the origin for its
+        // particles, so it can only be culled based on its bounds.
+        if (!(node instanceof ParticleBatch) &&
+                canvas.getBounds().contains(node.getGlobalTransform().getPosition())) {
             return true;
         }
 
@@ -197,7 +251,14 @@ public final class Stage {
     }
 
     private void visitPrimitive(Primitive graphic, Transform globalTransform, StageVisitor visitor) {
-        Shape displayedShape = graphic.getRawShape().reposition(globalTransform.getPosition());
+        Point2D offset = globalTransform.getPosition();
+        Shape displayedShape = graphic.getRawShape();
+
+        // Shapes are immutable, so primitives that are already in stage
+        // coordinates do not need a repositioned copy.
+        if (offset.x() != 0.0 || offset.y() != 0.0) {
+            displayedShape = displayedShape.reposition(offset);
+        }
 
         switch (displayedShape) {
             case Line line -> visitor.drawLine(graphic, line, globalTransform);
@@ -38,6 +38,14 @@ public interface StageVisitor {
     default void visitContainer(Container container, Transform globalTransform) {
     }
 
+    /**
+     * Called for nodes that are not drawn because they are located outside
+     * of the canvas. This is mainly intended for instrumentation, the
+     * default implementation of this method does nothing.
+     */
+    default void visitCulledNode(Spatial2D node) {
+    }
+
     public void drawBackground(ColorRGB color);
 
     public void drawSprite(Sprite sprite, ImageTransform globalTransform);
@@ -54,6 +62,22 @@ public interface StageVisitor {
 
     public void drawText(Text text, Transform globalTransform);
 
+    /**
+     * Draws all particles in the batch. Renderers can override this method
+     * to draw all particles in a single pass, without going through the
+     * sprite logic for every particle. The default implementation draws
+     * each particle using {@link #drawSprite(Sprite, ImageTransform)}, using
+     * a single sprite instance that is reused for all particles.
+     */
+    default void drawParticles(ParticleBatch particles, Transform globalTransform) {
+        int count = particles.getCount();
+
+        for (int i = 0; i < count; i++) {
+            Sprite sprite = particles.prepareParticleSprite(i, globalTransform);
+            drawSprite(sprite, sprite.getGlobalTransform());
+        }
+    }
+
     /**
      * Called after all 2D nodes on the stage have been visited. This is an
      * optional method, the default implementation is empty.
@@ -0,0 +1,300 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.tool;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import nl.colorize.multimedialib.math.Circle;
+import nl.colorize.multimedialib.math.RNG;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.GraphicsMode;
+import nl.colorize.multimedialib.renderer.RenderConfig;
+import nl.colorize.multimedialib.renderer.ScaleStrategy;
+import nl.colorize.multimedialib.renderer.WindowOptions;
+import nl.colorize.multimedialib.renderer.headless.CollectingStageVisitor;
+import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.multimedialib.scene.Scene;
+import nl.colorize.multimedialib.scene.SceneContext;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.Container;
+import nl.colorize.multimedialib.stage.FontFace;
+import nl.colorize.multimedialib.stage.Image;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Spatial2D;
+import nl.colorize.multimedialib.stage.Sprite;
+import nl.colorize.multimedialib.stage.Text;
+import nl.colorize.multimedialib.stage.Transform;
+import nl.colorize.util.LogHelper;
+import nl.colorize.util.ResourceFile;
+import nl.colorize.util.cli.Arg;
+import nl.colorize.util.cli.CommandLineArgumentParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static nl.colorize.multimedialib.tool.Demo2D.DEFAULT_CANVAS_HEIGHT;
+import static nl.colorize.multimedialib.tool.Demo2D.DEFAULT_CANVAS_WIDTH;
+
+/**
+ * Stress test that keeps adding moving sprites, primitives, and text to the
+ * stage until the renderer can no longer sustain the target framerate. This
+ * is loosely based on the "bunnymark" benchmark that is commonly used to
+ * compare 2D renderers. The result is the maximum number of nodes for which
+ * the target framerate could still be sustained, which provides a single
+ * number that can be used to compare different renderers and different
+ * versions of the library.
+ * <p>
+ * Nodes are added in steps. After each step, the stress test waits a number
+ * of frames for the framerate to stabilize, then measures the framerate
+ * using {@link FrameStats}. The stress test ends when the framerate drops
+ * below the target, after which the result is logged together with the
+ * frame time percentiles measured during the last sustainable step.
+ * <p>
+ * The stress test can be started from the command line, using either the
+ * Java2D renderer, the libGDX renderer, or the headless renderer. The
+ * headless renderer does not have an animation loop or draw anything, so
+ * in that case frames are performed back-to-back and only measure the
+ * time spent updating and traversing the stage.
+ */
+public class StressTest implements Scene {
+
+    @Arg(name = "--renderer", defaultValue = "java2d", usage = "One of 'java2d', 'gdx', 'headless'.")
+    protected String rendererName;
+
+    @Arg(defaultValue = "60", usage = "Target framerate, default is 60 fps.")
+    protected int framerate;
+
+    @Arg(defaultValue = "500", usage = "Number of nodes added during each step.")
+    protected int step;
+
+    @Arg(name = "--maxnodes", defaultValue = "1000000", usage = "Stops the stress test after reaching this number of nodes.")
+    protected int maxNodes;
+
+    private SceneContext context;
+    private Container layer;
+    private Image image;
+    private FontFace font;
+    private List<Spatial2D> nodes;
+    private double[] velocityX;
+    private double[] velocityY;
+
+    private int frame;
+    @Getter private Result result;
+    private boolean completed;
+
+    private static final ResourceFile IMAGE_FILE = new ResourceFile("colorize-emblem-64.png");
+    private static final int WARMUP_FRAMES = 30;
+    private static final double TOLERANCE = 0.95;
+    private static final ColorRGB BACKGROUND_COLOR = ColorRGB.parseHex("#343434");
+    private static final ColorRGB[] COLORS = {
+        ColorRGB.parseHex("#e45d61"),
+        ColorRGB.parseHex("#72A725"),
+        ColorRGB.parseHex("#43A1C7"),
+        ColorRGB.parseHex("#F1723D")
+    };
+    private static final Logger LOGGER = LogHelper.getLogger(StressTest.class);
+
+    public static void main(String[] argv) {
+        CommandLineArgumentParser argParser = new CommandLineArgumentParser(StressTest.class);
+        StressTest stressTest = argParser.parse(argv, StressTest.class);
+        stressTest.launch();
+    }
+
+    protected void launch() {
+        Preconditions.checkArgument(framerate > 0, "Invalid framerate: " + framerate);
+        Preconditions.checkArgument(step > 0, "Invalid step: " + step);
+
+        Canvas canvas = new Canvas(DEFAULT_CANVAS_WIDTH, DEFAULT_CANVAS_HEIGHT, ScaleStrategy.flexible());
+
+        if (rendererName.equals("headless")) {
+            RenderConfig config = RenderConfig.headless(GraphicsMode.MODE_2D, canvas)
+                .withFramerate(framerate);
+            HeadlessRenderer renderer = new HeadlessRenderer();
+            renderer.start(config, this);
+            runHeadless(renderer);
+        } else {
+            RenderConfig config = RenderConfig.forDesktop(rendererName, GraphicsMode.MODE_2D, canvas)
+                .withFramerate(framerate)
+                .withWindowOptions(new WindowOptions("MultimediaLib - Stress Test", false));
+            config.start(this);
+        }
+    }
+
+    /**
+     * Since the headless renderer does not have an animation loop, frames
+     * are performed back-to-back. The frame time is measured manually, and
+     * "rendering" only consists of visiting the stage.
+     */
+    private void runHeadless(HeadlessRenderer renderer) {
+        FrameStats frameStats = renderer.getFrameStats();
+        CollectingStageVisitor visitor = new CollectingStageVisitor();
+
+        while (!renderer.isTerminated()) {
+            frameStats.markEnd(FrameStats.PHASE_FRAME_TIME);
+            frameStats.markStart(FrameStats.PHASE_FRAME_UPDATE);
+            renderer.doFrame(1.0 / framerate);
+            frameStats.markEnd(FrameStats.PHASE_FRAME_UPDATE);
+            frameStats.markStart(FrameStats.PHASE_FRAME_RENDER);
+            renderer.getStage().visit(visitor);
+            frameStats.markEnd(FrameStats.PHASE_FRAME_RENDER);
+        }
+    }
+
+    @Override
+    public void start(SceneContext context) {
+        this.context = context;
+
+        context.getStage().setBackgroundColor(BACKGROUND_COLOR);
+        layer = context.getStage().addContainer();
+        image = context.getMediaLoader().loadImage(IMAGE_FILE);
+        font = context.getMediaLoader().loadDefaultFont(10, ColorRGB.WHITE);
+        nodes = new ArrayList<>();
+        velocityX = new double[step];
+        velocityY = new double[step];
+
+        frame = 0;
+        result = new Result(rendererName, 0, 0.0, 0L, 0L, 0L, 0L);
+        completed = false;
+
+        addNodes();
+    }
+
+    /**
+     * Adds the next step of nodes. Most nodes are sprites, since that is what
+     * most applications will be displaying, but the mix also includes
+     * primitives and text so that those code paths are measured as well.
+     */
+    private void addNodes() {
+        int offset = nodes.size();
+        velocityX = Arrays.copyOf(velocityX, offset + step);
+        velocityY = Arrays.copyOf(velocityY, offset + step);
+
+        for (int i = offset; i < offset + step; i++) {
+            Spatial2D node = createNode(i);
+            layer.addChild(node, RNG.getDouble(0.0, context.getCanvas().getWidth()),
+                RNG.getDouble(0.0, context.getCanvas().getHeight()));
+            nodes.add(node);
+            velocityX[i] = RNG.getDouble(-200.0, 200.0);
+            velocityY[i] = RNG.getDouble(-200.0, 200.0);
+        }
+    }
+
+    private Spatial2D createNode(int index) {
+        ColorRGB color = COLORS[index % COLORS.length];
+
+        return switch (index % 8) {
+            case 5 -> new Primitive(new Circle(8.0), color);
+            case 6 -> new Primitive(new Rect(-8.0, -8.0, 16.0, 16.0), color);
+            case 7 -> new Text(String.valueOf(index), font);
+            default -> new Sprite(image);
+        };
+    }
+
+    @Override
+    public void update(SceneContext context, double deltaTime) {
+        if (completed) {
+            return;
+        }
+
+        moveNodes(deltaTime);
+        frame++;
+
+        if (frame == WARMUP_FRAMES) {
+            context.getFrameStats().reset();
+        } else if (frame >= WARMUP_FRAMES + getMeasuredFrames()) {
+            evaluateStep(context.getFrameStats());
+        }
+    }
+
+    private int getMeasuredFrames() {
+        return Math.max(FrameStats.BUFFER_CAPACITY, framerate * 2);
+    }
+
+    private void moveNodes(double deltaTime) {
+        int width = context.getCanvas().getWidth();
+        int height = context.getCanvas().getHeight();
+
+        for (int i = 0; i < nodes.size(); i++) {
+            Transform transform = nodes.get(i).getTransform();
+            double x = transform.getX() + velocityX[i] * deltaTime;
+            double y = transform.getY() + velocityY[i] * deltaTime;
+
+            if (x < 0.0 || x > width) {
+                velocityX[i] = -velocityX[i];
+            }
+
+            if (y < 0.0 || y > height) {
+                velocityY[i] = -velocityY[i];
+            }
+
+            transform.setPosition(Math.clamp(x, 0.0, width), Math.clamp(y, 0.0, height));
+        }
+    }
+
+    private void evaluateStep(FrameStats frameStats) {
+        double measuredFramerate = frameStats.getAverageFramerate();
+        LOGGER.info(String.format("%d nodes: %.1f fps", nodes.size(), measuredFramerate));
+
+        if (measuredFramerate < framerate * TOLERANCE) {
+            complete();
+            return;
+        }
+
+        result = new Result(rendererName, nodes.size(), measuredFramerate,
+            frameStats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.5),
+            frameStats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.95),
+            frameStats.getPercentileNanos(FrameStats.PHASE_FRAME_TIME, 0.99),
+            frameStats.getMaxTimeNanos(FrameStats.PHASE_FRAME_TIME));
+
+        if (nodes.size() + step > maxNodes) {
+            complete();
+        } else {
+            addNodes();
+            frame = 0;
+        }
+    }
+
+    private void complete() {
+        completed = true;
+        LOGGER.info("Stress test result:\n" + result);
+        context.terminate();
+    }
+
+    /**
+     * The maximum number of nodes for which the renderer was able to sustain
+     * the target framerate, along with the frame time percentiles that were
+     * measured at that number of nodes.
+     */
+    public record Result(
+        String renderer,
+        int nodes,
+        double framerate,
+        long medianNanos,
+        long p95Nanos,
+        long p99Nanos,
+        long maxNanos
+    ) {
+
+        @Override
+        public String toString() {
+            return String.format("""
+                Renderer:         %s
+                Max nodes:        %d
+                Framerate:        %.1f fps
+                Frame time p50:   %.2f ms
+                Frame time p95:   %.2f ms
+                Frame time p99:   %.2f ms
+                Frame time max:   %.2f ms""",
+                renderer, nodes, framerate, medianNanos / 1_000_000.0, p95Nanos / 1_000_000.0,
+                p99Nanos / 1_000_000.0, maxNanos / 1_000_000.0);
+        }
+    }
+}
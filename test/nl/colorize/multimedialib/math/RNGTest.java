@@ -50,4 +50,24 @@ class RNGTest {
         assertEquals("[1, 2, 3, 4]", items.toString());
         assertEquals("[1, 2, 4, 3]", shuffled.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void seedCurrentThreadOnly() throws InterruptedException {
+        RNG.seedCurrentThread(1234L);
+        int first = RNG.getInt(0, 100);
+        RNG.clearCurrentThread();
+
+        int[] otherThread = new int[1];
+        Thread thread = new Thread(() -> {
+            RNG.seedCurrentThread(1234L);
+            otherThread[0] = RNG.getInt(0, 100);
+            RNG.clearCurrentThread();
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(28, first);
+        assertEquals(28, otherThread[0]);
+        assertEquals(28, RNG.getInt(0, 100));
+    }
+}
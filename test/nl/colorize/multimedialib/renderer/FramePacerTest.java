@@ -0,0 +1,91 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FramePacerTest {
+
+    @Test
+    void scheduleFramesAtTargetFramerate() {
+        FakeClock clock = new FakeClock(500_000L);
+        FrameStats frameStats = new FrameStats();
+        FramePacer framePacer = new FramePacer(100, frameStats, clock::read, clock::sleep);
+
+        long start = clock.time;
+        for (int i = 0; i <= 30; i++) {
+            framePacer.awaitNextFrame();
+        }
+
+        assertEquals(300_000_000L, clock.time - start, 100_000L);
+        assertEquals(30, frameStats.getBufferSize(FrameStats.PHASE_PACING_ERROR));
+        assertTrue(frameStats.isPacingMeasured());
+        assertTrue(frameStats.getPacingErrorNanos() <= FakeClock.TICK);
+    }
+
+    @Test
+    void wakeUpEarlierWhenPlatformOversleeps() {
+        FakeClock clock = new FakeClock(2_000_000L);
+        FramePacer framePacer = new FramePacer(100, null, clock::read, clock::sleep);
+
+        for (int i = 0; i <= 30; i++) {
+            framePacer.awaitNextFrame();
+        }
+
+        assertTrue(framePacer.getEstimatedOversleep() > 1_500_000L);
+        assertTrue(clock.requestedSleeps.getLast() < 8_000_000L);
+    }
+
+    @Test
+    void resetScheduleWhenFallingBehind() {
+        FakeClock clock = new FakeClock(0L);
+        FramePacer framePacer = new FramePacer(100, null, clock::read, clock::sleep);
+        framePacer.awaitNextFrame();
+        clock.time += 50_000_000L;
+        framePacer.awaitNextFrame();
+
+        long start = clock.time;
+        framePacer.awaitNextFrame();
+
+        assertEquals(10_000_000L, clock.time - start, 100_000L);
+    }
+
+    /**
+     * Simulated clock that advances a small amount every time it is read,
+     * and that oversleeps by a fixed amount.
+     */
+    private static class FakeClock {
+
+        private long time;
+        private long oversleep;
+        private List<Long> requestedSleeps;
+
+        private static final long TICK = 10_000L;
+
+        public FakeClock(long oversleep) {
+            this.time = 1_000_000_000L;
+            this.oversleep = oversleep;
+            this.requestedSleeps = new ArrayList<>();
+        }
+
+        public long read() {
+            time += TICK;
+            return time;
+        }
+
+        public void sleep(long nanos) {
+            requestedSleeps.add(nanos);
+            time += nanos + oversleep;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static nl.colorize.multimedialib.renderer.FrameStats.BUFFER_CAPACITY;
+import static nl.colorize.multimedialib.renderer.FrameStats.COUNTER_ALLOCATED_RENDER;
+import static nl.colorize.multimedialib.renderer.FrameStats.COUNTER_ALLOCATED_UPDATE;
+import static nl.colorize.multimedialib.renderer.FrameStats.COUNTER_GC_COUNT;
+import static nl.colorize.multimedialib.renderer.FrameStats.PHASE_FRAME_RENDER;
+import static nl.colorize.multimedialib.renderer.FrameStats.PHASE_FRAME_TIME;
+import static nl.colorize.multimedialib.renderer.FrameStats.PHASE_FRAME_UPDATE;
+import static nl.colorize.multimedialib.renderer.FrameStats.PHASE_GC_PAUSE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameStatsTest {
+
+    @Test
+    void measureWithNanosecondPrecision() {
+        AtomicLong clock = new AtomicLong(0L);
+        FrameStats frameStats = new FrameStats(clock::get);
+
+        frameStats.markStart(PHASE_FRAME_UPDATE);
+        clock.set(250_000L);
+        frameStats.markEnd(PHASE_FRAME_UPDATE);
+
+        assertEquals(250_000L, frameStats.getAverageTimeNanos(PHASE_FRAME_UPDATE));
+        assertEquals(0.00025, frameStats.getAverageTime(PHASE_FRAME_UPDATE), 0.000001);
+        assertEquals(0, frameStats.getFrameUpdateTime());
+    }
+
+    @Test
+    void consecutiveMarkEndMeasuresTimeBetweenFrames() {
+        AtomicLong clock = new AtomicLong(0L);
+        FrameStats frameStats = new FrameStats(clock::get);
+
+        frameStats.markEnd(PHASE_FRAME_TIME);
+        clock.set(20_000_000L);
+        frameStats.markEnd(PHASE_FRAME_TIME);
+        clock.set(40_000_000L);
+        frameStats.markEnd(PHASE_FRAME_TIME);
+
+        assertEquals(List.of(0L, 20L, 20L), ImmutableList.copyOf(frameStats.getFrameTimes(PHASE_FRAME_TIME)));
+        assertEquals(3, frameStats.getBufferSize());
+    }
+
+    @Test
+    void ringBufferKeepsMostRecentFrames() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+
+        for (int i = 1; i <= BUFFER_CAPACITY + 10; i++) {
+            frameStats.record("test", i * 1_000_000L);
+        }
+
+        assertEquals(BUFFER_CAPACITY, frameStats.getBufferSize("test"));
+        assertEquals(11_000_000L, frameStats.getFrameTimeNanos("test", 0));
+        assertEquals(70_000_000L, frameStats.getFrameTimeNanos("test", BUFFER_CAPACITY - 1));
+        assertEquals(40_500_000L, frameStats.getAverageTimeNanos("test"));
+    }
+
+    @Test
+    void percentiles() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+
+        for (int i = 1; i <= 100; i++) {
+            frameStats.record("test", i * 1_000_000L);
+        }
+
+        assertWithinError(50_000_000L, frameStats.getPercentileNanos("test", 0.5));
+        assertWithinError(95_000_000L, frameStats.getPercentileNanos("test", 0.95));
+        assertWithinError(99_000_000L, frameStats.getPercentileNanos("test", 0.99));
+        assertEquals(100_000_000L, frameStats.getMaxTimeNanos("test"));
+        assertEquals(100_000_000L, frameStats.getPercentileNanos("test", 1.0));
+    }
+
+    @Test
+    void percentilesForShortDurations() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+        frameStats.record("test", 10_000L);
+        frameStats.record("test", 20_000L);
+
+        assertWithinError(10_000L, frameStats.getPercentileNanos("test", 0.5));
+    }
+
+    @Test
+    void resetClearsPercentiles() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+        frameStats.record("test", 100_000_000L);
+        frameStats.reset();
+        frameStats.record("test", 1_000_000L);
+
+        assertEquals(1_000_000L, frameStats.getMaxTimeNanos("test"));
+        assertEquals(2, frameStats.getBufferSize("test"));
+    }
+
+    @Test
+    void customStats() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+        frameStats.markEnd(PHASE_FRAME_TIME);
+        frameStats.record("physics", 1000L);
+
+        assertEquals(List.of("physics"), frameStats.getCustomStats());
+    }
+
+    @Test
+    void trackAllocationsDuringUpdateAndRender() {
+        AtomicLong allocated = new AtomicLong(0L);
+        FrameStats frameStats = new FrameStats(() -> 0L);
+        frameStats.enableAllocationTracking(allocated::get);
+
+        frameStats.markStart(PHASE_FRAME_UPDATE);
+        allocated.addAndGet(1000L);
+        frameStats.markEnd(PHASE_FRAME_UPDATE);
+        allocated.addAndGet(5000L);
+        frameStats.markStart(PHASE_FRAME_RENDER);
+        allocated.addAndGet(2000L);
+        frameStats.markEnd(PHASE_FRAME_RENDER);
+
+        assertTrue(frameStats.isAllocationTracking());
+        assertEquals(1000L, frameStats.getCount(COUNTER_ALLOCATED_UPDATE));
+        assertEquals(2000L, frameStats.getCount(COUNTER_ALLOCATED_RENDER));
+        assertEquals(3000L, frameStats.getAllocatedBytesPerFrame());
+        assertEquals(List.of(), frameStats.getCounters());
+    }
+
+    @Test
+    void attributeGarbageCollectionToFrame() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+        frameStats.enableGarbageCollectionTracking();
+
+        frameStats.markEnd(PHASE_FRAME_TIME);
+        frameStats.recordGarbageCollection(3_000_000L);
+        frameStats.recordGarbageCollection(2_000_000L);
+        frameStats.markEnd(PHASE_FRAME_TIME);
+        frameStats.markEnd(PHASE_FRAME_TIME);
+
+        assertEquals(2L, frameStats.getGarbageCollectionCount());
+        assertEquals(5, frameStats.getGarbageCollectionTime());
+        assertEquals(0L, frameStats.getCount(COUNTER_GC_COUNT));
+        assertEquals(5_000_000L, frameStats.getMaxTimeNanos(PHASE_GC_PAUSE));
+    }
+
+    @Test
+    void queryingUnknownStatsDoesNotRegisterThem() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+
+        assertEquals(0L, frameStats.getAverageTimeNanos("a"));
+        assertEquals(0L, frameStats.getPercentileNanos("b", 0.95));
+        assertEquals(0, frameStats.getBufferSize("c"));
+        assertEquals(0L, frameStats.getCount("d"));
+        assertEquals(0L, frameStats.getAverageCount("e"));
+        assertEquals(0, frameStats.getCountBufferSize("f"));
+        assertFalse(frameStats.isPacingMeasured());
+
+        assertEquals(List.of(), frameStats.getCustomStats());
+        assertEquals(List.of(), frameStats.getCounters());
+        assertFalse(frameStats.hasCounter("d"));
+    }
+
+    @Test
+    void countersUseRingBuffer() {
+        FrameStats frameStats = new FrameStats(() -> 0L);
+        for (int i = 1; i <= BUFFER_CAPACITY + 10; i++) {
+            frameStats.recordCount("draws", i);
+        }
+        frameStats.reset();
+
+        assertEquals(BUFFER_CAPACITY + 10, frameStats.getCount("draws"));
+        assertEquals(11L, frameStats.getCount("draws", 0));
+        assertEquals(BUFFER_CAPACITY, frameStats.getCountBufferSize("draws"));
+        assertEquals(40L, frameStats.getAverageCount("draws"));
+    }
+
+    private void assertWithinError(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error <= 0.05, "Expected " + expected + ", got " + actual);
+    }
+}
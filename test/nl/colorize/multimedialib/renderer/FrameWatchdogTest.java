@@ -0,0 +1,136 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import nl.colorize.multimedialib.mock.MockScene;
+import nl.colorize.multimedialib.scene.Actor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameWatchdogTest {
+
+    @Test
+    void reportSlowFrame() {
+        FakeClock clock = new FakeClock();
+        List<HitchReport> reports = new ArrayList<>();
+        FrameWatchdog watchdog = new FrameWatchdog(20_000_000L, 1_000_000L, clock::read, clock::sleep);
+        watchdog.setReportHandler(reports::add);
+        watchdog.sceneStarted(new MockScene());
+
+        simulateFrame(watchdog, new SlowActor(watchdog, clock, 100, 5));
+        watchdog.checkFrame();
+
+        assertEquals(1, reports.size());
+        assertEquals(105_000_000L, reports.getFirst().frameNanos());
+        assertEquals(5, reports.getFirst().samples());
+        assertFalse(reports.getFirst().hotFrames().isEmpty());
+        assertEquals(MockScene.class.getName(), reports.getFirst().scene());
+        assertTrue(reports.getFirst().actors().contains(SlowActor.class.getName()));
+    }
+
+    @Test
+    void doNotReportFastFrames() {
+        FakeClock clock = new FakeClock();
+        List<HitchReport> reports = new ArrayList<>();
+        FrameWatchdog watchdog = new FrameWatchdog(100_000_000L, 1_000_000L, clock::read, clock::sleep);
+        watchdog.setReportHandler(reports::add);
+
+        for (int i = 0; i < 5; i++) {
+            simulateFrame(watchdog, new SlowActor(watchdog, clock, 5, 1));
+        }
+        watchdog.checkFrame();
+
+        assertEquals(0, reports.size());
+        assertEquals(List.of(95_000_000L, 95_000_000L, 95_000_000L, 95_000_000L, 95_000_000L,
+            50_000_000L), clock.requestedSleeps);
+    }
+
+    @Test
+    void reportEachSlowFrameSeparately() {
+        FakeClock clock = new FakeClock();
+        List<HitchReport> reports = new ArrayList<>();
+        FrameWatchdog watchdog = new FrameWatchdog(20_000_000L, 1_000_000L, clock::read, clock::sleep);
+        watchdog.setReportHandler(reports::add);
+
+        watchdog.phaseStarted(FrameStats.PHASE_FRAME_UPDATE);
+        new SlowActor(watchdog, clock, 50, 2).update(0.0);
+        watchdog.phaseStarted(FrameStats.PHASE_FRAME_UPDATE);
+        new SlowActor(watchdog, clock, 50, 3).update(0.0);
+        watchdog.phaseStarted(FrameStats.PHASE_FRAME_RENDER);
+        watchdog.phaseEnded(FrameStats.PHASE_FRAME_RENDER, 0L);
+        watchdog.checkFrame();
+
+        assertEquals(2, reports.size());
+        assertEquals(2, reports.get(0).samples());
+        assertEquals(3, reports.get(1).samples());
+    }
+
+    private void simulateFrame(FrameWatchdog watchdog, Actor actor) {
+        watchdog.phaseStarted(FrameStats.PHASE_FRAME_UPDATE);
+        actor.update(0.0);
+        watchdog.phaseEnded(FrameStats.PHASE_FRAME_UPDATE, 0L);
+        watchdog.phaseStarted(FrameStats.PHASE_FRAME_RENDER);
+        watchdog.phaseEnded(FrameStats.PHASE_FRAME_RENDER, 0L);
+    }
+
+    /**
+     * Actor that advances the simulated clock, then lets the watchdog check
+     * the frame while the actor is still on the stack.
+     */
+    private static class SlowActor implements Actor {
+
+        private FrameWatchdog watchdog;
+        private FakeClock clock;
+        private long durationNanos;
+        private int checks;
+
+        public SlowActor(FrameWatchdog watchdog, FakeClock clock, long durationMillis, int checks) {
+            this.watchdog = watchdog;
+            this.clock = clock;
+            this.durationNanos = durationMillis * 1_000_000L;
+            this.checks = checks;
+        }
+
+        @Override
+        public void update(double deltaTime) {
+            clock.time += durationNanos;
+            for (int i = 0; i < checks; i++) {
+                watchdog.checkFrame();
+            }
+        }
+    }
+
+    /**
+     * Simulated clock that only advances when sleeping, or when the test
+     * advances it explicitly.
+     */
+    private static class FakeClock {
+
+        private long time;
+        private List<Long> requestedSleeps;
+
+        public FakeClock() {
+            this.time = 1_000_000_000L;
+            this.requestedSleeps = new ArrayList<>();
+        }
+
+        public long read() {
+            return time;
+        }
+
+        public void sleep(long nanos) {
+            requestedSleeps.add(nanos);
+            time += nanos;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import com.google.common.collect.ImmutableList;
+import nl.colorize.multimedialib.math.Point2D;
+import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.multimedialib.scene.Scene;
+import nl.colorize.multimedialib.scene.SceneContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InputRecordingTest {
+
+    @Test
+    void recordAndReplayPointerState() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        InputRecording recording = new InputRecording();
+        recording.recordFrame(0.1, renderer);
+        renderer.setPointer(new Point2D(10, 20));
+        renderer.setPointerPressed(true);
+        recording.recordFrame(0.2, renderer);
+
+        ReplayInput replay = new ReplayInput(recording.toByteArray());
+
+        assertEquals(0.1, replay.nextFrame(), 0.0);
+        assertFalse(getPointer(replay).isPressed());
+
+        assertEquals(0.2, replay.nextFrame(), 0.0);
+        assertTrue(getPointer(replay).isPressed());
+        assertEquals(new Point2D(10, 20), getPointer(replay).getPosition());
+        assertFalse(replay.hasNextFrame());
+    }
+
+    @Test
+    void recordAndReplayKeys() {
+        InputRecording recording = new InputRecording();
+        recording.recordFrame(0.1, new KeyInput(KeyCode.SPACEBAR));
+        recording.recordFrame(0.1, new KeyInput());
+
+        ReplayInput replay = new ReplayInput(recording.toByteArray());
+        replay.nextFrame();
+
+        assertTrue(replay.isKeyPressed(KeyCode.SPACEBAR));
+        assertFalse(replay.isKeyPressed(KeyCode.ENTER));
+        assertTrue(replay.isKeyboardAvailable());
+
+        replay.nextFrame();
+
+        assertFalse(replay.isKeyPressed(KeyCode.SPACEBAR));
+    }
+
+    @Test
+    void replaySessionThroughHeadlessRenderer() {
+        FrameLog original = new FrameLog();
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.start(original);
+        renderer.getSceneManager().setInputRecording(new InputRecording());
+        renderer.doFrame(0.016);
+        renderer.setPointerPressed(true);
+        renderer.doFrame(0.017);
+        renderer.setPointerPressed(false);
+        renderer.doFrame(0.033);
+        byte[] data = renderer.getSceneManager().getInputRecording().toByteArray();
+
+        FrameLog replayed = new FrameLog();
+        HeadlessRenderer replayRenderer = new HeadlessRenderer();
+        replayRenderer.start(replayed);
+        int frames = replayRenderer.replay(new ReplayInput(data));
+
+        assertEquals(3, frames);
+        assertEquals(original.frames.subList(1, 4), replayed.frames.subList(1, 4));
+        assertEquals("0.017:true", replayed.frames.get(2));
+    }
+
+    private Pointer getPointer(InputDevice input) {
+        return ImmutableList.copyOf(input.getPointers()).getFirst();
+    }
+
+    /**
+     * Scene that logs the delta time and pointer state for every frame.
+     */
+    private static class FrameLog implements Scene {
+
+        private List<String> frames = new ArrayList<>();
+
+        @Override
+        public void start(SceneContext context) {
+        }
+
+        @Override
+        public void update(SceneContext context, double deltaTime) {
+            boolean pressed = getFirstPointer(context).isPressed();
+            frames.add(deltaTime + ":" + pressed);
+        }
+
+        private Pointer getFirstPointer(SceneContext context) {
+            return ImmutableList.copyOf(context.getInput().getPointers()).getFirst();
+        }
+    }
+
+    /**
+     * Input device with a keyboard, which only reports the specified keys
+     * as pressed.
+     */
+    private static class KeyInput extends HeadlessRenderer {
+
+        private List<KeyCode> pressed;
+
+        public KeyInput(KeyCode... pressed) {
+            this.pressed = List.of(pressed);
+        }
+
+        @Override
+        public boolean isKeyboardAvailable() {
+            return true;
+        }
+
+        @Override
+        public boolean isKeyPressed(KeyCode keyCode) {
+            return pressed.contains(keyCode);
+        }
+    }
+}
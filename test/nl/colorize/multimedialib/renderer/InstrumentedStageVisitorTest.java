@@ -0,0 +1,149 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.mock.MockImage;
+import nl.colorize.multimedialib.mock.MockStageVisitor;
+import nl.colorize.multimedialib.renderer.headless.CollectingStageVisitor;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.ImageTransform;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Sprite;
+import nl.colorize.multimedialib.stage.Stage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static nl.colorize.multimedialib.renderer.InstrumentedStageVisitor.COUNTER_BATCH_FLUSHES;
+import static nl.colorize.multimedialib.renderer.InstrumentedStageVisitor.COUNTER_CULLED;
+import static nl.colorize.multimedialib.renderer.InstrumentedStageVisitor.COUNTER_DRAW_CALLS;
+import static nl.colorize.multimedialib.renderer.InstrumentedStageVisitor.COUNTER_TEXTURE_SWITCHES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentedStageVisitorTest {
+
+    private static final Canvas CANVAS = new Canvas(800, 600, ScaleStrategy.flexible());
+
+    @Test
+    void countDrawCallsPerType() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(createSprite(), 100, 100);
+        stage.getRoot().addChild(createSprite(), 200, 100);
+        stage.getRoot().addChild(new Primitive(new Rect(10, 20, 30, 40), ColorRGB.RED));
+
+        FrameStats frameStats = new FrameStats();
+        InstrumentedStageVisitor instrumentation = new InstrumentedStageVisitor(frameStats);
+        stage.setInstrumentation(instrumentation);
+        CollectingStageVisitor renderer = new CollectingStageVisitor();
+        stage.visit(renderer);
+
+        assertEquals(2L, instrumentation.getDrawCalls(InstrumentedStageVisitor.DrawType.SPRITE));
+        assertEquals(1L, instrumentation.getDrawCalls(InstrumentedStageVisitor.DrawType.RECT));
+        assertEquals(0L, instrumentation.getDrawCalls(InstrumentedStageVisitor.DrawType.TEXT));
+        assertEquals(3L, frameStats.getCount(COUNTER_DRAW_CALLS));
+        assertEquals(2L, frameStats.getCount("Sprites"));
+        assertEquals(1L, frameStats.getCount("Rects"));
+        assertEquals(4, renderer.getNodes2D().size());
+    }
+
+    @Test
+    void onlyPublishDrawTypesThatHaveBeenUsed() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(createSprite(), 100, 100);
+
+        FrameStats frameStats = new FrameStats();
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+        stage.visit(new CollectingStageVisitor());
+
+        assertEquals(List.of("Draw sprites"), frameStats.getCustomStats());
+        assertTrue(frameStats.getCounters().contains("Sprites"));
+        assertFalse(frameStats.getCounters().contains("Meshes"));
+    }
+
+    @Test
+    void countCulledNodes() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(createSprite(), 100, 100);
+        stage.getRoot().addChild(createSprite(), 5000, 5000);
+        stage.getRoot().addChild(createSprite(), -5000, 100);
+
+        FrameStats frameStats = new FrameStats();
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+        stage.visit(new CollectingStageVisitor());
+
+        assertEquals(1L, frameStats.getCount(COUNTER_DRAW_CALLS));
+        assertEquals(2L, frameStats.getCount(COUNTER_CULLED));
+    }
+
+    @Test
+    void rendererCanReportAdditionalEvents() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(createSprite(), 100, 100);
+
+        FrameStats frameStats = new FrameStats();
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+        stage.visit(new MockStageVisitor() {
+            @Override
+            public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+                stage.getInstrumentation().reportTextureSwitch();
+            }
+
+            @Override
+            public void finalize2D(Stage visitedStage) {
+                visitedStage.getInstrumentation().reportBatchFlushes(2);
+            }
+        });
+
+        assertEquals(1L, frameStats.getCount(COUNTER_TEXTURE_SWITCHES));
+        assertEquals(2L, frameStats.getCount(COUNTER_BATCH_FLUSHES));
+    }
+
+    @Test
+    void countersAreResetEveryFrame() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(createSprite(), 100, 100);
+
+        FrameStats frameStats = new FrameStats();
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+        stage.visit(new CollectingStageVisitor());
+        stage.getRoot().addChild(createSprite(), 200, 100);
+        stage.visit(new CollectingStageVisitor());
+
+        assertEquals(2L, frameStats.getCount(COUNTER_DRAW_CALLS));
+        assertEquals(1L, frameStats.getAverageCount(COUNTER_DRAW_CALLS));
+        assertEquals(2, frameStats.getBufferSize("Draw sprites"));
+    }
+
+    @Test
+    void includeDeferredEventsInNextFrame() {
+        Stage stage = createStage();
+        FrameStats frameStats = new FrameStats();
+        InstrumentedStageVisitor instrumentation = new InstrumentedStageVisitor(frameStats);
+        stage.setInstrumentation(instrumentation);
+
+        instrumentation.reportDeferredEvents(3, 1, 2, 0, 0, 0L);
+        stage.visit(new MockStageVisitor());
+
+        assertEquals(3L, frameStats.getCount(COUNTER_BATCH_FLUSHES));
+        assertEquals(2L, frameStats.getCount(COUNTER_TEXTURE_SWITCHES));
+
+        stage.visit(new MockStageVisitor());
+
+        assertEquals(0L, frameStats.getCount(COUNTER_BATCH_FLUSHES));
+    }
+
+    private Stage createStage() {
+        return new Stage(CANVAS);
+    }
+
+    private Sprite createSprite() {
+        return new Sprite(new MockImage());
+    }
+}
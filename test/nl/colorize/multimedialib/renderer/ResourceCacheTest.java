@@ -0,0 +1,127 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer;
+
+import nl.colorize.multimedialib.mock.MockStageVisitor;
+import nl.colorize.multimedialib.stage.Stage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static nl.colorize.multimedialib.renderer.InstrumentedStageVisitor.COUNTER_CACHE_HIT_RATE;
+import static nl.colorize.multimedialib.renderer.InstrumentedStageVisitor.COUNTER_CACHE_MEMORY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ResourceCacheTest {
+
+    @Test
+    void createValuesOnDemand() {
+        ResourceCache<Integer, String> cache = new ResourceCache<>(key -> "v" + key, value -> 10L,
+            value -> {}, 100L);
+
+        String first = cache.get(1);
+
+        assertEquals("v1", first);
+        assertSame(first, cache.get(1));
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.001);
+        assertEquals(10L, cache.getMemoryUsage());
+    }
+
+    @Test
+    void evictLeastRecentlyUsedWhenExceedingBudget() {
+        List<String> disposed = new ArrayList<>();
+        ResourceCache<Integer, String> cache = new ResourceCache<>(key -> "v" + key, value -> 40L,
+            disposed::add, 100L);
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        cache.get(3);
+
+        assertEquals(List.of("v2"), disposed);
+        assertEquals(2, cache.getSize());
+        assertEquals(80L, cache.getMemoryUsage());
+        assertEquals(1L, cache.getEvictions());
+    }
+
+    @Test
+    void keepValueThatExceedsBudgetOnItsOwn() {
+        List<String> disposed = new ArrayList<>();
+        ResourceCache<Integer, String> cache = new ResourceCache<>(key -> "v" + key, value -> 500L,
+            disposed::add, 100L);
+
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(List.of("v1"), disposed);
+        assertEquals(1, cache.getSize());
+        assertEquals(500L, cache.getMemoryUsage());
+    }
+
+    @Test
+    void disposeValuesWhenCleared() {
+        List<String> disposed = new ArrayList<>();
+        ResourceCache<Integer, String> cache = new ResourceCache<>(key -> "v" + key, value -> 10L,
+            disposed::add, 100L);
+
+        cache.get(1);
+        cache.get(2);
+        cache.forget(1);
+        cache.clear();
+
+        assertEquals(List.of("v1", "v2"), disposed);
+        assertEquals(0, cache.getSize());
+        assertEquals(0L, cache.getMemoryUsage());
+    }
+
+    @Test
+    void quantize() {
+        assertEquals(10.0, ResourceCache.quantize(10.2, 0.5), 0.001);
+        assertEquals(10.5, ResourceCache.quantize(10.3, 0.5), 0.001);
+        assertEquals(12.0, ResourceCache.quantize(13.0, 4.0), 0.001);
+        assertEquals(40_000L, ResourceCache.estimateImageSize(100, 100));
+    }
+
+    @Test
+    void reportUsageToFrameStats() {
+        FrameStats frameStats = new FrameStats();
+        InstrumentedStageVisitor instrumentation = new InstrumentedStageVisitor(frameStats);
+        ResourceCache<Integer, String> cache = new ResourceCache<>(key -> "v" + key, value -> 2048L,
+            value -> {}, 10_000L);
+
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.setInstrumentation(instrumentation);
+        stage.visit(new MockStageVisitor() {
+            @Override
+            public void finalize2D(Stage stage) {
+                cache.get(1);
+                cache.get(1);
+                cache.get(1);
+                cache.get(2);
+                cache.reportUsage(instrumentation);
+            }
+        });
+
+        assertEquals(50L, frameStats.getCount(COUNTER_CACHE_HIT_RATE));
+        assertEquals(4L, frameStats.getCount(COUNTER_CACHE_MEMORY));
+    }
+
+    @Test
+    void doNotPublishCacheUsageWithoutCaches() {
+        FrameStats frameStats = new FrameStats();
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+        stage.visit(new MockStageVisitor());
+
+        assertFalse(frameStats.hasCounter(COUNTER_CACHE_HIT_RATE));
+    }
+}
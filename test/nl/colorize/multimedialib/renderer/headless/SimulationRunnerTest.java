@@ -0,0 +1,150 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.headless;
+
+import nl.colorize.multimedialib.math.RNG;
+import nl.colorize.multimedialib.scene.ParallelActor;
+import nl.colorize.multimedialib.scene.Scene;
+import nl.colorize.multimedialib.scene.SceneContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SimulationRunnerTest {
+
+    @Test
+    void runUntilMaxFrames() {
+        SimulationRunner runner = new SimulationRunner(60, 120, 1);
+        SimulationResult result = runner.runInstance(0, 1L, new RandomWalk(Integer.MAX_VALUE));
+
+        assertEquals(120, result.frames());
+        assertEquals(2.0, result.simulatedTime(), 0.001);
+        assertFalse(result.terminated());
+    }
+
+    @Test
+    void stopWhenSceneTerminates() {
+        SimulationRunner runner = new SimulationRunner(60, 1000, 1);
+        SimulationResult result = runner.runInstance(0, 1L, new RandomWalk(10));
+
+        assertEquals(10, result.frames());
+        assertTrue(result.terminated());
+    }
+
+    @Test
+    void parallelInstancesAreDeterministic() {
+        Map<Integer, List<Integer>> first = new ConcurrentHashMap<>();
+        Map<Integer, List<Integer>> second = new ConcurrentHashMap<>();
+
+        SimulationRunner runner = new SimulationRunner(60, 100, 4);
+        SimulationReport report = runner.run(8, 42L, i -> {
+            RandomWalk scene = new RandomWalk(50);
+            first.put(i, scene.steps);
+            return scene;
+        });
+        runner.run(8, 42L, i -> {
+            RandomWalk scene = new RandomWalk(50);
+            second.put(i, scene.steps);
+            return scene;
+        });
+
+        assertEquals(8, report.results().size());
+        assertEquals(400, report.getTotalFrames());
+        assertEquals(first, second);
+        assertNotEquals(first.get(0), first.get(1));
+    }
+
+    @Test
+    void parallelActorsUseSeededRandomNumbers() {
+        List<Integer> first = new ArrayList<>();
+        List<Integer> second = new ArrayList<>();
+
+        SimulationRunner runner = new SimulationRunner(60, 10, 1);
+        runner.runInstance(0, 42L, new ParallelRandomWalk(first));
+        runner.runInstance(0, 42L, new ParallelRandomWalk(second));
+
+        assertEquals(40, first.size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void rejectZeroInstances() {
+        SimulationRunner runner = new SimulationRunner(60, 10, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> runner.run(0, 1L, _ -> new RandomWalk(1)));
+    }
+
+    /**
+     * Scene that records a random number during every frame update, and
+     * terminates after the specified number of frames.
+     */
+    private static class RandomWalk implements Scene {
+
+        private int duration;
+        private List<Integer> steps;
+
+        public RandomWalk(int duration) {
+            this.duration = duration;
+            this.steps = new ArrayList<>();
+        }
+
+        @Override
+        public void start(SceneContext context) {
+        }
+
+        @Override
+        public void update(SceneContext context, double deltaTime) {
+            // The headless renderer performs an initial frame
+            // update with zero delta time when it is started.
+            if (deltaTime == 0.0) {
+                return;
+            }
+
+            steps.add(RNG.getInt(0, 1000));
+            if (steps.size() >= duration) {
+                context.terminate();
+            }
+        }
+    }
+
+    /**
+     * Scene that attaches multiple parallel actors, which all record a
+     * random number during every frame update.
+     */
+    private static class ParallelRandomWalk implements Scene {
+
+        private List<Integer> steps;
+
+        public ParallelRandomWalk(List<Integer> steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public void start(SceneContext context) {
+            for (int i = 0; i < 4; i++) {
+                context.attach((ParallelActor) deltaTime -> {
+                    if (deltaTime > 0.0) {
+                        steps.add(RNG.getInt(0, 1000));
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void update(SceneContext context, double deltaTime) {
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class AWTImageTest {
 
@@ -61,4 +62,26 @@ public class AWTImageTest {
         assertEquals(ColorRGB.GREEN, region.getColor(0, 0));
         assertEquals(ColorRGB.BLUE, region.getColor(1, 0));
     }
+
+    @Test
+    public void testGetMipLevel() {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 32; y++) {
+                image.setRGB(x, y, Color.RED.getRGB());
+            }
+        }
+
+        AWTImage texture = new AWTImage(image);
+
+        assertSame(image, texture.getMipLevel(1.0));
+        assertSame(image, texture.getMipLevel(0.6));
+        assertEquals(32, texture.getMipLevel(0.5).getWidth());
+        assertEquals(16, texture.getMipLevel(0.5).getHeight());
+        assertEquals(8, texture.getMipLevel(0.1).getWidth());
+        assertEquals(2, texture.getMipLevel(0.001).getWidth());
+        assertEquals(1, texture.getMipLevel(0.001).getHeight());
+        assertEquals(Color.RED.getRGB(), texture.getMipLevel(0.1).getRGB(4, 2));
+        assertSame(texture.getMipLevel(0.1), texture.getMipLevel(0.1));
+    }
 }
@@ -0,0 +1,38 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import nl.colorize.multimedialib.renderer.FrameStats;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllocationTrackerTest {
+
+    @Test
+    void removeListenersWhenDisabled() {
+        FrameStats frameStats = new FrameStats();
+        AllocationTracker tracker = AllocationTracker.enable(frameStats);
+        tracker.disable();
+        tracker.disable();
+
+        assertTrue(frameStats.isAllocationTracking() || !tracker.isAllocationTrackingSupported());
+
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter emitter) {
+                assertThrows(ListenerNotFoundException.class,
+                    () -> emitter.removeNotificationListener(tracker));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import com.google.common.util.concurrent.ForwardingExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import nl.colorize.multimedialib.renderer.ScaleStrategy;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameCaptureTest {
+
+    @Test
+    void captureScreenshotInBackground(@TempDir File tempDir) throws IOException {
+        File outputFile = new File(tempDir, "screenshot.png");
+        FrameCapture frameCapture = new FrameCapture();
+
+        assertTrue(frameCapture.capture(createStage(), 100, 100, outputFile));
+        assertTrue(frameCapture.close(5, TimeUnit.SECONDS));
+
+        BufferedImage image = ImageIO.read(outputFile);
+        assertEquals(ColorRGB.RED, new ColorRGB(image.getRGB(5, 5)));
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(20, 20)));
+        assertEquals(1, frameCapture.getCapturedFrames());
+    }
+
+    @Test
+    void dropFramesWhenAllBuffersAreInUse(@TempDir File tempDir) throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+            blocked.await();
+            return null;
+        });
+
+        FrameCapture frameCapture = new FrameCapture(2, executor);
+        Stage stage = createStage();
+
+        assertTrue(frameCapture.capture(stage, 100, 100, new File(tempDir, "a.png")));
+        assertTrue(frameCapture.capture(stage, 100, 100, new File(tempDir, "b.png")));
+        assertFalse(frameCapture.capture(stage, 100, 100, new File(tempDir, "c.png")));
+
+        blocked.countDown();
+        assertTrue(frameCapture.close(5, TimeUnit.SECONDS));
+
+        assertEquals(2, frameCapture.getCapturedFrames());
+        assertEquals(1, frameCapture.getDroppedFrames());
+        assertFalse(new File(tempDir, "c.png").exists());
+    }
+
+    @Test
+    void captureImageSequenceAtFixedFramerate(@TempDir File tempDir) {
+        FrameCapture frameCapture = new FrameCapture();
+        frameCapture.startSequence(tempDir, "jpg", 8.0);
+        Stage stage = createStage();
+
+        for (int i = 0; i < 60; i++) {
+            frameCapture.update(stage, 100, 100, 1.0 / 60.0);
+        }
+
+        frameCapture.stopSequence();
+        frameCapture.update(stage, 100, 100, 1.0);
+        assertTrue(frameCapture.close(5, TimeUnit.SECONDS));
+
+        assertEquals(8, frameCapture.getCapturedFrames() + frameCapture.getDroppedFrames());
+        assertTrue(new File(tempDir, "frame-00000.jpg").exists());
+    }
+
+    @Test
+    void dropFramesAfterClose(@TempDir File tempDir) {
+        FrameCapture frameCapture = new FrameCapture();
+        assertTrue(frameCapture.close(5, TimeUnit.SECONDS));
+
+        assertFalse(frameCapture.capture(createStage(), 100, 100, new File(tempDir, "a.png")));
+        assertEquals(1, frameCapture.getDroppedFrames());
+    }
+
+    @Test
+    void releaseBufferWhenEncoderRejectsFrame(@TempDir File tempDir) {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        ExecutorService executor = new ForwardingExecutorService() {
+            private ExecutorService delegate = MoreExecutors.newDirectExecutorService();
+
+            @Override
+            protected ExecutorService delegate() {
+                return delegate;
+            }
+
+            @Override
+            public Future<?> submit(Runnable task) {
+                if (reject.getAndSet(false)) {
+                    throw new RejectedExecutionException("Encoder busy");
+                }
+                return super.submit(task);
+            }
+        };
+
+        FrameCapture frameCapture = new FrameCapture(1, executor);
+        Stage stage = createStage();
+
+        assertFalse(frameCapture.capture(stage, 100, 100, new File(tempDir, "a.png")));
+        assertTrue(frameCapture.capture(stage, 100, 100, new File(tempDir, "b.png")));
+        assertEquals(1, frameCapture.getCapturedFrames());
+        assertEquals(1, frameCapture.getDroppedFrames());
+    }
+
+    @Test
+    void doNotIncludeCaptureInInstrumentation(@TempDir File tempDir) {
+        FrameStats frameStats = new FrameStats();
+        Stage stage = createStage();
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+
+        FrameCapture frameCapture = new FrameCapture();
+        assertTrue(frameCapture.capture(stage, 100, 100, new File(tempDir, "a.png")));
+        assertTrue(frameCapture.close(5, TimeUnit.SECONDS));
+
+        assertFalse(frameStats.hasCounter(InstrumentedStageVisitor.COUNTER_DRAW_CALLS));
+        assertNotNull(stage.getInstrumentation());
+    }
+
+    private Stage createStage() {
+        Stage stage = new Stage(new Canvas(100, 100, ScaleStrategy.flexible()));
+        stage.setBackgroundColor(ColorRGB.RED);
+        stage.getRoot().addChild(new Primitive(new Rect(10, 10, 20, 20), ColorRGB.BLUE));
+        return stage;
+    }
+}
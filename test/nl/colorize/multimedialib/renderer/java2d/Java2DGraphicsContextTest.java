@@ -0,0 +1,163 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import nl.colorize.multimedialib.math.Point2D;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.math.SegmentedLine;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import nl.colorize.multimedialib.renderer.ScaleStrategy;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.ParticleBatch;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Sprite;
+import nl.colorize.multimedialib.stage.Stage;
+import nl.colorize.util.swing.Utils2D;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Java2DGraphicsContextTest {
+
+    @Test
+    void combineOpaqueRectsWithSameColor() {
+        FrameStats frameStats = new FrameStats();
+        Stage stage = createStage(frameStats);
+        for (int i = 0; i < 10; i++) {
+            stage.getRoot().addChild(new Primitive(new Rect(i * 10, 0, 5, 5), ColorRGB.BLUE));
+        }
+
+        BufferedImage image = render(stage);
+
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(2, 2)));
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(92, 2)));
+        assertEquals(ColorRGB.RED, new ColorRGB(image.getRGB(7, 2)));
+        assertEquals(1L, frameStats.getCount(InstrumentedStageVisitor.COUNTER_BATCH_FLUSHES));
+        assertEquals(3L, frameStats.getCount(InstrumentedStageVisitor.COUNTER_STATE_CHANGES));
+    }
+
+    @Test
+    void doNotCombineTranslucentRects() {
+        FrameStats frameStats = new FrameStats();
+        Stage stage = createStage(frameStats);
+        stage.getRoot().addChild(new Primitive(new Rect(0, 0, 20, 20), ColorRGB.BLUE, 50));
+        stage.getRoot().addChild(new Primitive(new Rect(10, 10, 20, 20), ColorRGB.BLUE, 50));
+
+        BufferedImage image = render(stage);
+        ColorRGB single = new ColorRGB(image.getRGB(5, 5));
+        ColorRGB overlap = new ColorRGB(image.getRGB(15, 15));
+
+        assertEquals(0L, frameStats.getCount(InstrumentedStageVisitor.COUNTER_BATCH_FLUSHES));
+        assertTrue(overlap.b() > single.b());
+    }
+
+    @Test
+    void drawSegmentedLineAsSinglePath() {
+        FrameStats frameStats = new FrameStats();
+        Stage stage = createStage(frameStats);
+        SegmentedLine line = new SegmentedLine(List.of(new Point2D(10, 10), new Point2D(50, 10),
+            new Point2D(50, 50)));
+        stage.getRoot().addChild(new Primitive(line, ColorRGB.GREEN));
+
+        BufferedImage image = render(stage);
+
+        assertEquals(ColorRGB.GREEN, new ColorRGB(image.getRGB(30, 10)));
+        assertEquals(ColorRGB.GREEN, new ColorRGB(image.getRGB(50, 30)));
+        assertEquals(1L, frameStats.getCount(InstrumentedStageVisitor.COUNTER_BATCH_FLUSHES));
+    }
+
+    @Test
+    void drawScaledDownSpriteUsingMipLevel() {
+        Stage stage = createStage(new FrameStats());
+        Sprite sprite = new Sprite(createImage(200, 200, Color.BLUE));
+        sprite.getTransform().setScale(20);
+        stage.getRoot().addChild(sprite, 50, 50);
+
+        BufferedImage image = render(stage);
+
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(50, 50)));
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(32, 32)));
+        assertEquals(ColorRGB.RED, new ColorRGB(image.getRGB(25, 25)));
+    }
+
+    @Test
+    void drawAcceleratedImages() {
+        Stage stage = createStage(new FrameStats());
+        stage.getRoot().addChild(new Sprite(createImage(20, 20, Color.BLUE)), 50, 50);
+
+        Java2DGraphicsContext graphicsContext = new Java2DGraphicsContext(stage.getCanvas());
+        graphicsContext.setAcceleratedImages(true);
+
+        for (int i = 0; i < 2; i++) {
+            BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+            graphicsContext.bind(image.createGraphics());
+            stage.visit(graphicsContext);
+            graphicsContext.dispose();
+
+            assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(50, 50)));
+            assertEquals(ColorRGB.RED, new ColorRGB(image.getRGB(30, 30)));
+        }
+    }
+
+    @Test
+    void drawParticlesDirectlyFromParticleBatch() {
+        Stage stage = createStage(new FrameStats());
+        ParticleBatch particles = new ParticleBatch(createImage(10, 10, Color.BLUE), 10);
+        particles.spawn(20, 20, 0, 0, 1.0);
+        particles.spawn(60, 60, 0, 0, 1.0);
+        particles.spawn(80, 20, 0, 0, 1.0);
+        particles.getScale()[1] = 200.0;
+        particles.getColor()[2] = 0x00FF00;
+        stage.getRoot().addChild(particles);
+
+        BufferedImage image = render(stage);
+
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(20, 20)));
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(52, 52)));
+        assertEquals(ColorRGB.RED, new ColorRGB(image.getRGB(40, 40)));
+        assertEquals(ColorRGB.GREEN, new ColorRGB(image.getRGB(80, 20)));
+    }
+
+    private AWTImage createImage(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(color);
+        g2.fillRect(0, 0, width, height);
+        g2.dispose();
+        return new AWTImage(image);
+    }
+
+    /**
+     * Renders the stage using its instrumentation, unlike
+     * {@link OffscreenRenderer}, so that tests can inspect the statistics.
+     */
+    private BufferedImage render(Stage stage) {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        stage.getCanvas().resizeScreen(100, 100, 1.0);
+
+        Java2DGraphicsContext graphicsContext = new Java2DGraphicsContext(stage.getCanvas());
+        graphicsContext.bind(Utils2D.createGraphics(image, true, true));
+        stage.visit(graphicsContext);
+        graphicsContext.dispose();
+        return image;
+    }
+
+    private Stage createStage(FrameStats frameStats) {
+        Stage stage = new Stage(new Canvas(100, 100, ScaleStrategy.flexible()));
+        stage.setBackgroundColor(ColorRGB.RED);
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+        return stage;
+    }
+}
@@ -0,0 +1,108 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.renderer.java2d;
+
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.math.Size;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import nl.colorize.multimedialib.renderer.ScaleStrategy;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Stage;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class OffscreenRendererTest {
+
+    @Test
+    void renderStageToImage() {
+        OffscreenRenderer renderer = new OffscreenRenderer(1);
+        BufferedImage image = renderer.render(createStage(ColorRGB.BLUE), 200, 100);
+
+        assertEquals(200, image.getWidth());
+        assertEquals(100, image.getHeight());
+        assertEquals(ColorRGB.RED, new ColorRGB(image.getRGB(5, 5)));
+        assertEquals(ColorRGB.BLUE, new ColorRGB(image.getRGB(20, 20)));
+    }
+
+    @Test
+    void restoreCanvasSizeAfterRendering() {
+        Stage stage = createStage(ColorRGB.BLUE);
+        stage.getCanvas().resizeScreen(800, 600, 2.0);
+
+        OffscreenRenderer renderer = new OffscreenRenderer(1);
+        renderer.render(stage, 200, 100);
+
+        assertEquals(new Size(800, 600), stage.getCanvas().getScreenSize());
+        assertEquals(2.0, stage.getCanvas().getScreenPixelRatio(), 0.001);
+    }
+
+    @Test
+    void doNotIncludeOffscreenRenderInInstrumentation() {
+        FrameStats frameStats = new FrameStats();
+        Stage stage = createStage(ColorRGB.BLUE);
+        stage.setInstrumentation(new InstrumentedStageVisitor(frameStats));
+
+        OffscreenRenderer renderer = new OffscreenRenderer(1);
+        renderer.render(stage, 200, 100);
+
+        assertFalse(frameStats.hasCounter(InstrumentedStageVisitor.COUNTER_DRAW_CALLS));
+        assertNotNull(stage.getInstrumentation());
+    }
+
+    @Test
+    void reusePooledBuffers() {
+        OffscreenRenderer renderer = new OffscreenRenderer(1);
+        Stage stage = createStage(ColorRGB.BLUE);
+
+        for (int i = 0; i < 10; i++) {
+            int rgb = renderer.render(stage, 200, 100, image -> image.getRGB(20, 20));
+            assertEquals(ColorRGB.BLUE, new ColorRGB(rgb));
+        }
+
+        assertEquals(1, renderer.getAllocatedBuffers());
+    }
+
+    @Test
+    void renderConcurrently() throws Exception {
+        OffscreenRenderer renderer = new OffscreenRenderer(2);
+        List<ColorRGB> colors = List.of(ColorRGB.BLUE, ColorRGB.GREEN, ColorRGB.YELLOW, ColorRGB.WHITE);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 20; i++) {
+                Stage stage = createStage(colors.get(i % colors.size()));
+                results.add(executor.submit(() -> renderer.render(stage, 100, 100,
+                    image -> image.getRGB(20, 20))));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                ColorRGB expected = colors.get(i % colors.size());
+                assertEquals(expected, new ColorRGB(results.get(i).get()));
+            }
+        }
+    }
+
+    private Stage createStage(ColorRGB color) {
+        Stage stage = new Stage(new Canvas(100, 100, ScaleStrategy.flexible()));
+        stage.setBackgroundColor(ColorRGB.RED);
+        stage.getRoot().addChild(new Primitive(new Rect(10, 10, 20, 20), color));
+        return stage;
+    }
+}
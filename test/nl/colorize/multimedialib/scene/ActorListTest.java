@@ -0,0 +1,69 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene;
+
+import com.google.common.collect.ImmutableList;
+import nl.colorize.multimedialib.mock.MockScene;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ActorListTest {
+
+    @Test
+    void addBeyondInitialCapacity() {
+        ActorList actors = new ActorList();
+        for (int i = 0; i < 100; i++) {
+            actors.add(new MockScene());
+        }
+
+        assertEquals(100, actors.size());
+        assertEquals(100, ImmutableList.copyOf(actors).size());
+    }
+
+    @Test
+    void removeLeavesEmptySlotUntilCompacted() {
+        MockScene a = new MockScene();
+        MockScene b = new MockScene();
+        MockScene c = new MockScene();
+
+        ActorList actors = new ActorList();
+        actors.add(a);
+        actors.add(b);
+        actors.add(c);
+        actors.remove(1);
+
+        assertEquals(3, actors.size());
+        assertNull(actors.get(1));
+        assertEquals(List.of(a, c), ImmutableList.copyOf(actors));
+
+        actors.compact();
+
+        assertEquals(2, actors.size());
+        assertEquals(List.of(a, c), ImmutableList.copyOf(actors));
+    }
+
+    @Test
+    void compactPreservesOrder() {
+        List<MockScene> scenes = List.of(new MockScene(), new MockScene(), new MockScene(),
+            new MockScene(), new MockScene());
+
+        ActorList actors = new ActorList();
+        scenes.forEach(actors::add);
+        actors.remove(0);
+        actors.remove(2);
+        actors.remove(2);
+        actors.compact();
+        actors.add(scenes.get(2));
+
+        assertEquals(List.of(scenes.get(1), scenes.get(3), scenes.get(4), scenes.get(2)),
+            ImmutableList.copyOf(actors));
+    }
+}
@@ -7,17 +7,22 @@
 package nl.colorize.multimedialib.scene;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
 import nl.colorize.multimedialib.math.Point2D;
 import nl.colorize.multimedialib.mock.MockImage;
 import nl.colorize.multimedialib.mock.MockScene;
 import nl.colorize.multimedialib.mock.MockStageVisitor;
 import nl.colorize.multimedialib.mock.MockStopwatch;
+import nl.colorize.multimedialib.renderer.EventTracer;
+import nl.colorize.multimedialib.renderer.FrameStats;
 import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.multimedialib.renderer.java2d.StandardMediaLoader;
 import nl.colorize.multimedialib.stage.Animation;
 import nl.colorize.multimedialib.stage.ColorRGB;
 import nl.colorize.multimedialib.stage.Primitive;
 import nl.colorize.multimedialib.stage.Sprite;
 import nl.colorize.util.EventQueue;
+import nl.colorize.util.ResourceFile;
 import nl.colorize.util.Subject;
 import nl.colorize.util.animation.Interpolation;
 import nl.colorize.util.animation.Timeline;
@@ -26,11 +31,21 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static nl.colorize.multimedialib.math.Shape.EPSILON;
+import static nl.colorize.multimedialib.renderer.FrameStats.PHASE_PARALLEL_GLOBAL_UPDATE;
+import static nl.colorize.multimedialib.renderer.FrameStats.PHASE_PARALLEL_UPDATE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SceneManagerTest {
@@ -590,6 +605,330 @@ public class SceneManagerTest {
         assertEquals(List.of("1", "2", "complete"), events);
     }
 
+    @Test
+    void updateParallelActorsBeforeOtherActors() {
+        AtomicInteger counter = new AtomicInteger(0);
+        List<Integer> observed = new ArrayList<>();
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach(_ -> observed.add(counter.get()));
+        sceneManager.attach((ParallelActor) _ -> counter.incrementAndGet());
+        sceneManager.attach((ParallelActor) _ -> counter.incrementAndGet());
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(1f);
+
+        assertEquals(List.of(2, 4), observed);
+        FrameStats frameStats = sceneManager.getFrameStats();
+        assertEquals(2, ImmutableList.copyOf(frameStats.getFrameTimes(PHASE_PARALLEL_UPDATE)).size());
+    }
+
+    @Test
+    void parallelActorsAreUpdatedConcurrently() {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        ParallelActor actor = _ -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+                threads.add(Thread.currentThread().getName());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.setParallelExecutor(executor);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach(actor);
+        sceneManager.attach(actor);
+        sceneManager.performFrameUpdate(1f);
+        executor.shutdown();
+
+        assertEquals(2, threads.size());
+        assertEquals(2, threads.stream().distinct().count());
+    }
+
+    @Test
+    void completedParallelActorIsRemoved() {
+        MockScene child = new MockScene();
+        ParallelActor actor = new ParallelActor() {
+            @Override
+            public void update(double deltaTime) {
+                child.update(deltaTime);
+            }
+
+            @Override
+            public boolean isCompleted() {
+                return child.isCompleted();
+            }
+        };
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach(actor);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(1f);
+        child.setCompleted(true);
+        sceneManager.performFrameUpdate(1f);
+
+        assertEquals(2, child.getFrameUpdateCount());
+    }
+
+    @Test
+    void rethrowParallelActorException() {
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach((ParallelActor) _ -> {});
+        sceneManager.attach((ParallelActor) _ -> {
+            throw new IllegalStateException("test");
+        });
+
+        assertThrows(IllegalStateException.class, () -> sceneManager.performFrameUpdate(1f));
+    }
+
+    @Test
+    void parallelActorsReceiveDeltaTimeOfCurrentFrame() {
+        List<Double> observed = new CopyOnWriteArrayList<>();
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach((ParallelActor) observed::add);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(0.5f);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.performFrameUpdate(0.25f);
+
+        assertEquals(List.of(1.0, 0.5), observed);
+    }
+
+    @Test
+    void updateGlobalParallelActorsAfterSceneActors() {
+        List<String> events = new CopyOnWriteArrayList<>();
+        ParallelActor globalActor = new ParallelActor() {
+            @Override
+            public void update(double deltaTime) {
+                events.add("global");
+            }
+
+            @Override
+            public List<Actor> getSubActors() {
+                return List.of(_ -> events.add("sub"));
+            }
+        };
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach(_ -> events.add("scene"));
+        sceneManager.attachGlobalActor(globalActor);
+        sceneManager.performFrameUpdate(1f);
+
+        assertEquals(List.of("scene", "global"), events);
+        FrameStats frameStats = sceneManager.getFrameStats();
+        assertEquals(1, frameStats.getBufferSize(PHASE_PARALLEL_GLOBAL_UPDATE));
+        assertEquals(0, frameStats.getBufferSize(PHASE_PARALLEL_UPDATE));
+    }
+
+    @Test
+    void removeManyCompletedActorsWhilePreservingOrder() {
+        List<String> tracker = new ArrayList<>();
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        for (int i = 0; i < 1000; i++) {
+            String name = String.valueOf(i);
+            Timer timer = new Timer(i % 2 == 0 ? 1f : 2f);
+            sceneManager.attach(FluentActor.create()
+                .withTimerHandler(timer, _ -> tracker.add(name)));
+        }
+
+        sceneManager.performFrameUpdate(1f);
+        assertEquals(1000, tracker.size());
+        tracker.clear();
+
+        sceneManager.performFrameUpdate(1f);
+        assertEquals(500, tracker.size());
+        assertEquals(List.of("1", "3", "5"), tracker.subList(0, 3));
+        tracker.clear();
+
+        sceneManager.performFrameUpdate(1f);
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    void attachActorWhileOtherActorsAreRemoved() {
+        List<String> tracker = new ArrayList<>();
+        Timer timer = new Timer(1f);
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.attach(FluentActor.create()
+            .withTimerHandler(timer, _ -> tracker.add("a"))
+            .withCompletionHandler(() -> sceneManager.attach(_ -> tracker.add("c"))));
+        sceneManager.attach(_ -> tracker.add("b"));
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(1f);
+
+        assertEquals(List.of("a", "b", "b", "c"), tracker);
+    }
+
+    @Test
+    void preloadAssetsInBackgroundBeforeActivatingScene() {
+        MockScene sceneA = new MockScene();
+        MockScene sceneB = new MockScene();
+        AssetManifest manifest = new AssetManifest()
+            .addImage(new ResourceFile("effects/particle-circle.png"))
+            .addText(new ResourceFile("browser/index.html"));
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.setPreloadExecutor(MoreExecutors.newDirectExecutorService());
+        sceneManager.changeScene(sceneA);
+        sceneManager.performFrameUpdate(1f);
+        EventQueue<Float> progress = sceneManager.changeScene(sceneB, manifest);
+        sceneManager.performFrameUpdate(1f);
+        List<Float> events = new ArrayList<>();
+        progress.flush(events::add);
+
+        assertEquals(List.of(1f), events);
+        assertTrue(manifest.isLoaded());
+        assertEquals(1, sceneB.getStartCount());
+        assertFalse(manifest.getText(new ResourceFile("browser/index.html")).isEmpty());
+    }
+
+    @Test
+    void preloadAssetsOnRendererThread() {
+        context.setMediaLoader(new StandardMediaLoader() {
+            @Override
+            public boolean supportsBackgroundLoading() {
+                return false;
+            }
+        });
+
+        MockScene sceneA = new MockScene();
+        MockScene sceneB = new MockScene();
+        AssetManifest manifest = new AssetManifest()
+            .addImage(new ResourceFile("effects/particle-circle.png"))
+            .addImage(new ResourceFile("effects/particle-diamond.png"));
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(sceneA);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.changeScene(sceneB, manifest);
+        sceneManager.performFrameUpdate(1f);
+
+        assertEquals(2, sceneA.getFrameUpdateCount());
+        assertEquals(0, sceneB.getStartCount());
+
+        sceneManager.performFrameUpdate(1f);
+
+        assertEquals(1, sceneB.getStartCount());
+        assertNotNull(manifest.getImage(new ResourceFile("effects/particle-diamond.png")));
+    }
+
+    @Test
+    void doNotActivateSceneWhenPreloadFails() {
+        MockScene sceneA = new MockScene();
+        MockScene sceneB = new MockScene();
+        AssetManifest manifest = new AssetManifest()
+            .addImage(new ResourceFile("missing.png"));
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.setPreloadExecutor(MoreExecutors.newDirectExecutorService());
+        sceneManager.changeScene(sceneA);
+        sceneManager.performFrameUpdate(1f);
+        EventQueue<Float> progress = sceneManager.changeScene(sceneB, manifest);
+        sceneManager.performFrameUpdate(1f);
+        List<Exception> errors = new ArrayList<>();
+        progress.flush(_ -> {}, errors::add);
+
+        assertEquals(1, errors.size());
+        assertEquals(0, sceneB.getStartCount());
+        assertEquals(2, sceneA.getFrameUpdateCount());
+    }
+
+    @Test
+    void reportPreloadErrorOnlyOnce() {
+        MockScene sceneB = new MockScene();
+        AssetManifest manifest = new AssetManifest()
+            .addImage(new ResourceFile("missing-1.png"))
+            .addImage(new ResourceFile("effects/particle-circle.png"))
+            .addImage(new ResourceFile("missing-2.png"));
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.setPreloadExecutor(MoreExecutors.newDirectExecutorService());
+        sceneManager.changeScene(new MockScene());
+        sceneManager.performFrameUpdate(1f);
+        EventQueue<Float> progress = sceneManager.changeScene(sceneB, manifest);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(1f);
+        List<Float> events = new ArrayList<>();
+        List<Exception> errors = new ArrayList<>();
+        progress.flush(events::add, errors::add);
+
+        assertEquals(List.of(), events);
+        assertEquals(1, errors.size());
+        assertEquals(0, sceneB.getStartCount());
+    }
+
+    @Test
+    void reportPreloadProgressOnRendererThreadInOrder() {
+        context.setMediaLoader(new StandardMediaLoader() {
+            @Override
+            public boolean supportsBackgroundLoading() {
+                return false;
+            }
+        });
+
+        AssetManifest manifest = new AssetManifest()
+            .addImage(new ResourceFile("effects/particle-circle.png"))
+            .addImage(new ResourceFile("effects/particle-diamond.png"));
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.changeScene(new MockScene());
+        sceneManager.performFrameUpdate(1f);
+        EventQueue<Float> progress = sceneManager.changeScene(new MockScene(), manifest);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.performFrameUpdate(1f);
+        List<Float> events = new ArrayList<>();
+        progress.flush(events::add);
+
+        assertEquals(List.of(0.5f, 1f), events);
+    }
+
+    @Test
+    void forwardEventsToTracer() {
+        MockScene sceneA = new MockScene();
+        MockScene sceneB = new MockScene();
+        List<String> events = new ArrayList<>();
+
+        SceneManager sceneManager = new SceneManager(context);
+        sceneManager.addTracer(new EventTracer() {
+            @Override
+            public void phaseEnded(String phase, long nanos) {
+                events.add(phase);
+            }
+
+            @Override
+            public void sceneStarted(Scene scene) {
+                events.add(scene == sceneA ? "start A" : "start B");
+            }
+
+            @Override
+            public void sceneEnded(Scene scene) {
+                events.add(scene == sceneA ? "end A" : "end B");
+            }
+        });
+        sceneManager.changeScene(sceneA);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.changeScene(sceneB);
+        sceneManager.performFrameUpdate(1f);
+        sceneManager.getFrameStats().markStart(FrameStats.PHASE_FRAME_RENDER);
+        sceneManager.getFrameStats().markEnd(FrameStats.PHASE_FRAME_RENDER);
+
+        assertEquals(List.of("start A", "end A", "start B", FrameStats.PHASE_FRAME_RENDER), events);
+    }
+
     private record Counter(List<String> frames) implements Scene {
 
         public Counter() {
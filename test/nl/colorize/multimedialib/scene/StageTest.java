@@ -15,6 +15,7 @@ import nl.colorize.multimedialib.math.Rect;
 import nl.colorize.multimedialib.math.SegmentedLine;
 import nl.colorize.multimedialib.mock.MockImage;
 import nl.colorize.multimedialib.mock.MockMesh;
+import nl.colorize.multimedialib.mock.MockStageVisitor;
 import nl.colorize.multimedialib.mock.MockWorld3D;
 import nl.colorize.multimedialib.renderer.Canvas;
 import nl.colorize.multimedialib.renderer.ScaleStrategy;
@@ -24,6 +25,7 @@ import nl.colorize.multimedialib.stage.Container;
 import nl.colorize.multimedialib.stage.Group;
 import nl.colorize.multimedialib.stage.ImageTransform;
 import nl.colorize.multimedialib.stage.Mesh;
+import nl.colorize.multimedialib.stage.ParticleBatch;
 import nl.colorize.multimedialib.stage.Primitive;
 import nl.colorize.multimedialib.stage.Sprite;
 import nl.colorize.multimedialib.stage.Stage;
@@ -38,6 +40,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StageTest {
@@ -304,4 +307,75 @@ class StageTest {
         assertEquals(new Point3D(10, 20, 30), parent.getGlobalTransform().getPosition());
         assertEquals(new Point3D(50, 70, 90), child.getGlobalTransform().getPosition());
     }
+
+    @Test
+    void drawParticlesAsSprites() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        particles.spawn(10, 20, 0, 0, 1.0);
+        particles.spawn(30, 40, 0, 0, 1.0);
+
+        Stage stage = new Stage(CANVAS);
+        stage.getRoot().addChild(particles, 100, 100);
+
+        List<Point2D> positions = new ArrayList<>();
+        MockStageVisitor visitor = new MockStageVisitor() {
+            @Override
+            public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+                positions.add(globalTransform.getPosition());
+            }
+        };
+        stage.visit(visitor);
+
+        assertEquals(List.of(new Point2D(110, 120), new Point2D(130, 140)), positions);
+    }
+
+    @Test
+    void quantizeParticleColors() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        particles.spawn(0, 0, 0, 0, 1.0);
+        particles.spawn(0, 0, 0, 0, 1.0);
+        particles.spawn(0, 0, 0, 0, 1.0);
+        particles.getColor()[0] = 0xFF0000;
+        particles.getColor()[1] = 0xFE0101;
+        particles.getColor()[2] = 0x123456;
+
+        assertSame(particles.getParticleColor(0), particles.getParticleColor(1));
+        assertEquals(new ColorRGB(0xFF0000), particles.getParticleColor(0));
+        assertEquals(new ColorRGB(0x113355), particles.getParticleColor(2));
+    }
+
+    @Test
+    void particleBoundsIncludeParticleScale() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(10, 10), 100);
+        particles.spawn(100, 100, 0, 0, 1.0);
+        particles.getScale()[0] = 300.0;
+        Rect bounds = particles.getStageBounds();
+
+        assertEquals(78.8, bounds.x(), 0.1);
+        assertEquals(78.8, bounds.y(), 0.1);
+        assertEquals(42.4, bounds.width(), 0.1);
+        assertEquals(42.4, bounds.height(), 0.1);
+    }
+
+    @Test
+    void cullParticleBatchOutsideCanvas() {
+        ParticleBatch visible = new ParticleBatch(new MockImage(10, 10), 100);
+        visible.spawn(100, 100, 0, 0, 1.0);
+        ParticleBatch culled = new ParticleBatch(new MockImage(10, 10), 100);
+        culled.spawn(100, 100, 0, 0, 1.0);
+
+        Stage stage = new Stage(CANVAS);
+        stage.getRoot().addChild(visible, -50, -50);
+        stage.getRoot().addChild(culled, 5000, 5000);
+
+        List<ParticleBatch> drawn = new ArrayList<>();
+        stage.visit(new MockStageVisitor() {
+            @Override
+            public void drawParticles(ParticleBatch particles, Transform globalTransform) {
+                drawn.add(particles);
+            }
+        });
+
+        assertEquals(List.of(visible), drawn);
+    }
 }
@@ -0,0 +1,74 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ComponentStoreTest {
+
+    @Test
+    void addAndGetFields() {
+        ComponentStore store = new ComponentStore(2);
+        store.add(3, 10.0, 20.0);
+        store.add(7, 30.0, 40.0);
+
+        assertEquals(2, store.size());
+        assertTrue(store.has(3));
+        assertFalse(store.has(4));
+        assertEquals(10.0, store.get(3, 0), 0.001);
+        assertEquals(40.0, store.get(7, 1), 0.001);
+    }
+
+    @Test
+    void removeMovesLastElementIntoSlot() {
+        ComponentStore store = new ComponentStore(1);
+        store.add(1, 1.0);
+        store.add(2, 2.0);
+        store.add(3, 3.0);
+        store.remove(1);
+
+        assertEquals(2, store.size());
+        assertEquals(3, store.getEntity(0));
+        assertEquals(3.0, store.getField(0)[0], 0.001);
+        assertEquals(2.0, store.get(2, 0), 0.001);
+        assertFalse(store.has(1));
+    }
+
+    @Test
+    void growBeyondInitialCapacity() {
+        ComponentStore store = new ComponentStore(2);
+        for (int i = 0; i < 1000; i++) {
+            store.add(i * 2, i, -i);
+        }
+
+        assertEquals(1000, store.size());
+        assertEquals(500.0, store.get(1000, 0), 0.001);
+        assertEquals(-999.0, store.get(1998, 1), 0.001);
+    }
+
+    @Test
+    void removedSlotIsCleared() {
+        ComponentStore store = new ComponentStore(1);
+        store.add(5, 123.0);
+        store.remove(5);
+        store.add(5);
+
+        assertEquals(0.0, store.get(5, 0), 0.001);
+    }
+
+    @Test
+    void rejectWrongNumberOfValues() {
+        ComponentStore store = new ComponentStore(2);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add(1, 1.0));
+    }
+}
@@ -0,0 +1,123 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.ecs;
+
+import nl.colorize.multimedialib.stage.Sprite;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityWorldTest {
+
+    @Test
+    void createAndDestroyEntities() {
+        EntityWorld world = new EntityWorld();
+        int a = world.createEntity();
+        int b = world.createEntity();
+        world.destroyEntity(a);
+
+        assertFalse(world.isAlive(a));
+        assertTrue(world.isAlive(b));
+        assertEquals(1, world.getEntityCount());
+    }
+
+    @Test
+    void recycleDestroyedEntities() {
+        EntityWorld world = new EntityWorld();
+        int a = world.createEntity();
+        world.createEntity();
+        world.destroyEntity(a);
+
+        assertEquals(a, world.createEntity());
+    }
+
+    @Test
+    void destroyedEntityIsRemovedFromStores() {
+        EntityWorld world = new EntityWorld();
+        ComponentStore positions = world.addComponentStore(2);
+        ObjectStore<String> names = world.addObjectStore();
+
+        int entity = world.createEntity();
+        positions.add(entity, 1.0, 2.0);
+        names.add(entity, "a");
+        world.destroyEntity(entity);
+
+        assertEquals(0, positions.size());
+        assertEquals(0, names.size());
+    }
+
+    @Test
+    void updateSystemsInOrder() {
+        List<String> updated = new ArrayList<>();
+
+        EntityWorld world = new EntityWorld();
+        world.addSystem((w, dt) -> updated.add("a"));
+        world.addSystem((w, dt) -> updated.add("b"));
+        world.update(1.0);
+
+        assertEquals(List.of("a", "b"), updated);
+    }
+
+    @Test
+    void destroyDuringUpdateIsDeferred() {
+        EntityWorld world = new EntityWorld();
+        ComponentStore health = world.addComponentStore(1);
+        health.add(world.createEntity(), 0.0);
+        health.add(world.createEntity(), 5.0);
+        health.add(world.createEntity(), 0.0);
+
+        List<Integer> sizes = new ArrayList<>();
+
+        world.addSystem((w, dt) -> {
+            for (int i = 0; i < health.size(); i++) {
+                if (health.getField(0)[i] <= 0.0) {
+                    w.destroyEntity(health.getEntity(i));
+                }
+            }
+        });
+        world.addSystem((w, dt) -> sizes.add(health.size()));
+        world.update(1.0);
+
+        assertEquals(List.of(3), sizes);
+        assertEquals(1, health.size());
+        assertEquals(1, world.getEntityCount());
+    }
+
+    @Test
+    void moveEntitiesAndSyncToStage() {
+        EntityWorld world = new EntityWorld();
+        ComponentStore movement = world.addComponentStore(4);
+        ObjectStore<Sprite> sprites = world.addObjectStore();
+
+        world.addSystem((w, dt) -> {
+            double[] x = movement.getField(0);
+            double[] y = movement.getField(1);
+            double[] velocityX = movement.getField(2);
+            double[] velocityY = movement.getField(3);
+
+            for (int i = 0; i < movement.size(); i++) {
+                x[i] += velocityX[i] * dt;
+                y[i] += velocityY[i] * dt;
+            }
+        });
+        world.addSystem(new StageSyncSystem(sprites, movement, 0, 1));
+
+        Sprite sprite = new Sprite();
+        int entity = world.createEntity();
+        movement.add(entity, 10.0, 20.0, 2.0, -1.0);
+        sprites.add(entity, sprite);
+        world.update(2.0);
+
+        assertEquals(14.0, sprite.getTransform().getX(), 0.001);
+        assertEquals(18.0, sprite.getTransform().getY(), 0.001);
+    }
+}
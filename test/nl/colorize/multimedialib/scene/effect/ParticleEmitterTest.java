@@ -0,0 +1,101 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.effect;
+
+import nl.colorize.multimedialib.mock.MockImage;
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.ParticleBatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParticleEmitterTest {
+
+    @Test
+    void spawnParticlesBasedOnEmissionRate() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 1000);
+        ParticleEmitter emitter = new ParticleEmitter(particles)
+            .withEmissionRate(100)
+            .withLifetime(10, 10);
+        emitter.update(0.5);
+
+        assertEquals(50, particles.getCount());
+    }
+
+    @Test
+    void removeParticlesAtEndOfLifetime() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 1000);
+        ParticleEmitter emitter = new ParticleEmitter(particles)
+            .withLifetime(1, 1);
+        emitter.burst(10);
+        emitter.update(0.5);
+
+        assertEquals(10, particles.getCount());
+
+        emitter.update(0.6);
+
+        assertEquals(0, particles.getCount());
+    }
+
+    @Test
+    void doNotExceedMaxParticles() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        ParticleEmitter emitter = new ParticleEmitter(particles);
+        emitter.burst(200);
+
+        assertEquals(100, particles.getCount());
+    }
+
+    @Test
+    void moveParticlesWithGravityAndDrag() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        ParticleEmitter emitter = new ParticleEmitter(particles)
+            .withSpeed(10, 10)
+            .withDirection(0, 0)
+            .withLifetime(10, 10)
+            .withAffector(ParticleAffector.gravity(0, 20))
+            .withAffector(ParticleAffector.drag(0.5));
+        emitter.burst(1);
+        emitter.update(1.0);
+
+        assertEquals(10.0, particles.getX()[0], 0.001);
+        assertEquals(5.0, particles.getVelocityX()[0], 0.001);
+        assertEquals(10.0, particles.getVelocityY()[0], 0.001);
+    }
+
+    @Test
+    void changeAlphaAndColorOverLife() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        ParticleEmitter emitter = new ParticleEmitter(particles)
+            .withLifetime(2, 2)
+            .withAffector(ParticleAffector.alphaOverLife(100, 0))
+            .withAffector(ParticleAffector.colorOverLife(ColorRGB.BLACK, ColorRGB.WHITE));
+        emitter.burst(1);
+        emitter.update(1.0);
+
+        assertEquals(50.0, particles.getAlpha()[0], 0.001);
+        assertEquals(new ColorRGB(128, 128, 128).getRGB(), particles.getColor()[0]);
+    }
+
+    @Test
+    void completedWhenStoppedAndAllParticlesRemoved() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        ParticleEmitter emitter = new ParticleEmitter(particles)
+            .withEmissionRate(10)
+            .withLifetime(1, 1);
+        emitter.update(0.5);
+        emitter.stop();
+
+        assertFalse(emitter.isCompleted());
+
+        emitter.update(1.0);
+
+        assertTrue(emitter.isCompleted());
+    }
+}
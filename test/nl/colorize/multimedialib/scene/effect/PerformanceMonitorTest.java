@@ -6,12 +6,26 @@
 
 package nl.colorize.multimedialib.scene.effect;
 
+import com.google.common.collect.ImmutableList;
+import nl.colorize.multimedialib.math.SegmentedLine;
 import nl.colorize.multimedialib.mock.MockScene;
+import nl.colorize.multimedialib.mock.MockStageVisitor;
 import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
 import nl.colorize.multimedialib.renderer.headless.HeadlessRenderer;
+import nl.colorize.multimedialib.stage.Container;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Spatial2D;
+import nl.colorize.multimedialib.stage.Transform;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static nl.colorize.multimedialib.math.Shape.EPSILON;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class PerformanceMonitorTest {
 
@@ -40,10 +54,12 @@ class PerformanceMonitorTest {
                 $$root [1]
                     Container [18]
                         Rect [(0, 0, 300, 100)]
-                        Container [3]
+                        Container [5]
                             SegmentedLine
                             SegmentedLine
                             SegmentedLine
+                            Line
+                            Line
                         Text [1,000.0]
                         Line
                         Line
@@ -64,4 +80,120 @@ class PerformanceMonitorTest {
 
         assertEquals(expected, renderer.getStage().toString());
     }
+
+    @Test
+    void reuseGraphGeometry() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.start(new MockScene());
+
+        PerformanceMonitor performanceMonitor = new PerformanceMonitor(renderer, true);
+        renderer.attach(performanceMonitor);
+        simulateFrames(renderer, 20);
+        Container frameData = (Container) children(findMonitor(renderer)).get(1);
+        List<Spatial2D> before = children(frameData);
+        simulateFrames(renderer, 20);
+        List<Spatial2D> after = children(frameData);
+
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertSame(before.get(i), after.get(i));
+        }
+    }
+
+    @Test
+    void compactModeUpdatesAtLowerRate() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.start(new MockScene());
+
+        PerformanceMonitor performanceMonitor = PerformanceMonitor.compact(renderer);
+        renderer.attach(performanceMonitor);
+        simulateFrames(renderer, 15, 0.02);
+        Container monitor = findMonitor(renderer);
+
+        assertEquals(1, children((Container) children(monitor).get(1)).size());
+        assertEquals(0.0, monitor.getTransform().getPosition().x(), EPSILON);
+
+        simulateFrames(renderer, 30, 0.02);
+
+        assertEquals(20.0, monitor.getTransform().getPosition().x(), EPSILON);
+    }
+
+    @Test
+    void showDrawCallGraphWhenInstrumentationIsEnabled() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.start(new MockScene());
+        FrameStats frameStats = renderer.getSceneManager().getFrameStats();
+
+        PerformanceMonitor performanceMonitor = new PerformanceMonitor(renderer, false);
+        renderer.attach(performanceMonitor);
+        simulateFrames(renderer, 20);
+
+        assertEquals(18, children(findMonitor(renderer)).size());
+
+        frameStats.recordCount(InstrumentedStageVisitor.COUNTER_DRAW_CALLS, 10);
+        simulateFrames(renderer, 1);
+
+        assertEquals(19, children(findMonitor(renderer)).size());
+    }
+
+    @Test
+    void drawGraphsWithoutRepositioning() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.start(new MockScene());
+
+        PerformanceMonitor performanceMonitor = new PerformanceMonitor(renderer, false);
+        renderer.attach(performanceMonitor);
+        simulateFrames(renderer, 20);
+
+        List<SegmentedLine> lines = new ArrayList<>();
+        renderer.getStage().visit(new MockStageVisitor() {
+            @Override
+            public void drawSegmentedLine(Primitive graphic, SegmentedLine line, Transform globalTransform) {
+                assertSame(graphic.getRawShape(), line);
+                lines.add(line);
+            }
+        });
+
+        assertEquals(1, lines.size());
+        assertEquals(20.0, lines.getFirst().getHead().x(), EPSILON);
+        assertEquals(580.0, lines.getFirst().getHead().y(), EPSILON);
+        assertThrows(UnsupportedOperationException.class, () -> lines.getFirst().points().clear());
+    }
+
+    @Test
+    void doNotPublishUnchangedGraphs() {
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.start(new MockScene());
+
+        PerformanceMonitor performanceMonitor = new PerformanceMonitor(renderer, false);
+        renderer.attach(performanceMonitor);
+        simulateFrames(renderer, FrameStats.BUFFER_CAPACITY + 10);
+        Container frameData = (Container) children(findMonitor(renderer)).get(1);
+        Primitive frameGraph = (Primitive) children(frameData).getFirst();
+        Object before = frameGraph.getRawShape();
+        simulateFrames(renderer, 5);
+
+        assertSame(before, frameGraph.getRawShape());
+    }
+
+    private void simulateFrames(HeadlessRenderer renderer, int frames) {
+        simulateFrames(renderer, frames, 1.0);
+    }
+
+    private void simulateFrames(HeadlessRenderer renderer, int frames, double deltaTime) {
+        for (int i = 0; i < frames; i++) {
+            FrameStats frameStats = renderer.getSceneManager().getFrameStats();
+            frameStats.markStart(FrameStats.PHASE_FRAME_TIME);
+            frameStats.markEnd(FrameStats.PHASE_FRAME_TIME);
+            renderer.doFrame(deltaTime);
+        }
+    }
+
+    private Container findMonitor(HeadlessRenderer renderer) {
+        return (Container) children(renderer.getStage().getRoot()).getFirst();
+    }
+
+    private List<Spatial2D> children(Container container) {
+        return ImmutableList.copyOf(container);
+    }
 }
@@ -0,0 +1,110 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.scene.effect;
+
+import nl.colorize.multimedialib.stage.ColorRGB;
+import nl.colorize.multimedialib.stage.Primitive;
+import nl.colorize.multimedialib.stage.Sprite;
+import nl.colorize.util.animation.Interpolation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TweenEngineTest {
+
+    @Test
+    void animatePropertyOverTime() {
+        Sprite sprite = new Sprite();
+        sprite.getTransform().setX(10);
+
+        TweenEngine engine = new TweenEngine();
+        long handle = engine.tween(sprite, TweenProperty.X, 20, 2.0, Interpolation.LINEAR);
+        engine.update(1.0);
+
+        assertEquals(15.0, sprite.getTransform().getX(), 0.001);
+        assertTrue(engine.isActive(handle));
+
+        engine.update(1.0);
+
+        assertEquals(20.0, sprite.getTransform().getX(), 0.001);
+        assertFalse(engine.isActive(handle));
+        assertEquals(0, engine.getActiveCount());
+    }
+
+    @Test
+    void callbackWhenCompleted() {
+        List<String> completed = new ArrayList<>();
+
+        TweenEngine engine = new TweenEngine();
+        engine.tween(new Sprite(), TweenProperty.ALPHA, 0, 1.0, Interpolation.LINEAR,
+            () -> completed.add("a"));
+        engine.tween(new Sprite(), TweenProperty.ALPHA, 0, 2.0, Interpolation.LINEAR,
+            () -> completed.add("b"));
+        engine.update(1.5);
+
+        assertEquals(List.of("a"), completed);
+    }
+
+    @Test
+    void cancelTween() {
+        Sprite sprite = new Sprite();
+
+        TweenEngine engine = new TweenEngine();
+        long handle = engine.tween(sprite, TweenProperty.ROTATION, 90, 1.0, Interpolation.LINEAR);
+        engine.update(0.5);
+        engine.cancel(handle);
+        engine.update(0.5);
+
+        assertEquals(45.0, sprite.getTransform().getRotation().degrees(), 0.001);
+        assertFalse(engine.isActive(handle));
+    }
+
+    @Test
+    void staleHandleDoesNotAffectReusedSlot() {
+        TweenEngine engine = new TweenEngine();
+        long first = engine.tween(new Sprite(), TweenProperty.SCALE, 50, 1.0, Interpolation.LINEAR);
+        engine.update(1.0);
+        long second = engine.tween(new Sprite(), TweenProperty.SCALE, 50, 1.0, Interpolation.LINEAR);
+        engine.cancel(first);
+
+        assertTrue(engine.isActive(second));
+        assertEquals(1, engine.getActiveCount());
+    }
+
+    @Test
+    void animateManyTweens() {
+        List<Sprite> sprites = new ArrayList<>();
+        TweenEngine engine = new TweenEngine();
+
+        for (int i = 0; i < 1000; i++) {
+            Sprite sprite = new Sprite();
+            sprites.add(sprite);
+            engine.tween(sprite, TweenProperty.Y, 100, 1.0 + (i % 2), Interpolation.LINEAR);
+        }
+
+        engine.update(1.0);
+
+        assertEquals(500, engine.getActiveCount());
+        assertEquals(100.0, sprites.get(0).getTransform().getY(), 0.001);
+        assertEquals(50.0, sprites.get(1).getTransform().getY(), 0.001);
+    }
+
+    @Test
+    void rejectUnsupportedProperty() {
+        Primitive primitive = Primitive.fromRect(10, 10, ColorRGB.RED);
+        TweenEngine engine = new TweenEngine();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> engine.tween(primitive, TweenProperty.ROTATION, 90, 1.0, Interpolation.LINEAR));
+    }
+}
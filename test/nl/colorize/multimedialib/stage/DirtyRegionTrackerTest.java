@@ -0,0 +1,142 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.mock.MockImage;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.ScaleStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyRegionTrackerTest {
+
+    @Test
+    void firstFrameIsFullRedraw() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 100, 100);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+
+        assertTrue(tracker.isFullRedraw());
+        assertEquals(new Rect(0, 0, 800, 600), tracker.getDirtyRegion());
+    }
+
+    @Test
+    void unchangedFrameDoesNotNeedRedraw() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 100, 100);
+        stage.getRoot().addChild(new Primitive(new Rect(0, 0, 10, 10), ColorRGB.RED), 200, 100);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+        stage.trackChanges(tracker);
+
+        assertFalse(tracker.isFullRedraw());
+        assertNull(tracker.getDirtyRegion());
+    }
+
+    @Test
+    void movedSpriteMarksOldAndNewBoundsAsDirty() {
+        Stage stage = createStage();
+        Sprite sprite = new Sprite(new MockImage(10, 10));
+        stage.getRoot().addChild(sprite, 100, 100);
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 500, 500);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+        sprite.getTransform().setPosition(120, 100);
+        stage.trackChanges(tracker);
+        Rect dirtyRegion = tracker.getDirtyRegion();
+
+        assertFalse(tracker.isFullRedraw());
+        assertTrue(dirtyRegion.contains(new Rect(95, 95, 30, 10)));
+        assertTrue(dirtyRegion.width() < 50);
+        assertTrue(dirtyRegion.height() < 30);
+    }
+
+    @Test
+    void removedNodeIsDirty() {
+        Stage stage = createStage();
+        Primitive rect = new Primitive(new Rect(0, 0, 10, 10), ColorRGB.RED);
+        stage.getRoot().addChild(rect, 200, 100);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+        stage.detach(rect);
+        stage.trackChanges(tracker);
+
+        assertFalse(tracker.isFullRedraw());
+        assertTrue(tracker.getDirtyRegion().contains(new Rect(200, 100, 10, 10)));
+    }
+
+    @Test
+    void changedColorIsDirty() {
+        Stage stage = createStage();
+        Primitive rect = new Primitive(new Rect(0, 0, 10, 10), ColorRGB.RED);
+        stage.getRoot().addChild(rect, 200, 100);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+        rect.setColor(ColorRGB.BLUE);
+        stage.trackChanges(tracker);
+
+        assertTrue(tracker.getDirtyRegion().contains(new Rect(200, 100, 10, 10)));
+    }
+
+    @Test
+    void fullRedrawWhenDirtyRegionExceedsThreshold() {
+        Stage stage = createStage();
+        Sprite spriteA = new Sprite(new MockImage(10, 10));
+        Sprite spriteB = new Sprite(new MockImage(10, 10));
+        stage.getRoot().addChild(spriteA, 10, 10);
+        stage.getRoot().addChild(spriteB, 790, 590);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker(0.5);
+        stage.trackChanges(tracker);
+        spriteA.getTransform().setPosition(20, 20);
+        spriteB.getTransform().setPosition(780, 580);
+        stage.trackChanges(tracker);
+
+        assertTrue(tracker.isFullRedraw());
+    }
+
+    @Test
+    void fullRedrawWhenBackgroundColorChanges() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 100, 100);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+        stage.setBackgroundColor(ColorRGB.BLUE);
+        stage.trackChanges(tracker);
+
+        assertTrue(tracker.isFullRedraw());
+    }
+
+    @Test
+    void forceFullRedraw() {
+        Stage stage = createStage();
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 100, 100);
+
+        DirtyRegionTracker tracker = new DirtyRegionTracker();
+        stage.trackChanges(tracker);
+        tracker.forceFullRedraw();
+        stage.trackChanges(tracker);
+
+        assertTrue(tracker.isFullRedraw());
+    }
+
+    private Stage createStage() {
+        return new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+    }
+}
@@ -0,0 +1,187 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.stage;
+
+import nl.colorize.multimedialib.math.Point2D;
+import nl.colorize.multimedialib.math.Rect;
+import nl.colorize.multimedialib.mock.MockImage;
+import nl.colorize.multimedialib.mock.MockStageVisitor;
+import nl.colorize.multimedialib.renderer.Canvas;
+import nl.colorize.multimedialib.renderer.FrameStats;
+import nl.colorize.multimedialib.renderer.InstrumentedStageVisitor;
+import nl.colorize.multimedialib.renderer.ScaleStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrawListTest {
+
+    @Test
+    void replayRecordedDrawCalls() {
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 100, 100);
+        stage.getRoot().addChild(new Primitive(new Rect(0, 0, 10, 10), ColorRGB.RED), 200, 100);
+        stage.getRoot().addChild(new Text("Test", null), 300, 100);
+
+        DrawList drawList = new DrawList();
+        stage.visit(drawList);
+
+        MockStageVisitor visitor = new MockStageVisitor();
+        drawList.replay(visitor);
+
+        assertEquals(3, drawList.getSize());
+        assertEquals(List.of("background", "sprite", "rect", "text"), visitor.getRendered());
+    }
+
+    @Test
+    void snapshotIsNotAffectedByChangesToStage() {
+        MockImage imageA = new MockImage(10, 10);
+        Sprite sprite = new Sprite(imageA);
+        Primitive rect = new Primitive(new Rect(0, 0, 10, 10), ColorRGB.RED);
+
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.getRoot().addChild(sprite, 100, 100);
+        stage.getRoot().addChild(rect, 200, 100);
+
+        DrawList drawList = new DrawList();
+        stage.visit(drawList);
+
+        sprite.addGraphics("b", new MockImage(20, 20));
+        sprite.changeGraphics("b");
+        sprite.getTransform().setPosition(300, 300);
+        rect.setColor(ColorRGB.BLUE);
+
+        List<Object> replayed = new ArrayList<>();
+        drawList.replay(new MockStageVisitor() {
+            @Override
+            public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+                replayed.add(sprite.getCurrentGraphics());
+                replayed.add(globalTransform.getPosition());
+            }
+
+            @Override
+            public void drawRect(Primitive graphic, Rect rect, Transform globalTransform) {
+                replayed.add(graphic.getColor());
+            }
+        });
+
+        assertSame(imageA, replayed.get(0));
+        assertEquals(new Point2D(100, 100), replayed.get(1));
+        assertEquals(ColorRGB.RED, replayed.get(2));
+    }
+
+    @Test
+    void reuseEntriesForNextRecording() {
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        Sprite sprite = new Sprite(new MockImage(10, 10));
+        stage.getRoot().addChild(sprite, 100, 100);
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 200, 100);
+
+        DrawList drawList = new DrawList();
+        stage.visit(drawList);
+        stage.detach(sprite);
+        stage.visit(drawList);
+
+        MockStageVisitor visitor = new MockStageVisitor();
+        drawList.replay(visitor);
+
+        assertEquals(1, drawList.getSize());
+        assertEquals(List.of("background", "sprite"), visitor.getRendered());
+    }
+
+    @Test
+    void reuseSpriteSnapshotWhileImageIsUnchanged() {
+        MockImage imageB = new MockImage(20, 20);
+        Sprite sprite = new Sprite(new MockImage(10, 10));
+        sprite.addGraphics("b", imageB);
+
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.getRoot().addChild(sprite, 100, 100);
+
+        List<Sprite> replayed = new ArrayList<>();
+        MockStageVisitor visitor = new MockStageVisitor() {
+            @Override
+            public void drawSprite(Sprite sprite, ImageTransform globalTransform) {
+                replayed.add(sprite);
+            }
+        };
+
+        DrawList drawList = new DrawList();
+        stage.visit(drawList);
+        drawList.replay(visitor);
+        stage.visit(drawList);
+        drawList.replay(visitor);
+        sprite.changeGraphics("b");
+        stage.visit(drawList);
+        drawList.replay(visitor);
+
+        assertSame(replayed.get(0), replayed.get(1));
+        assertNotSame(replayed.get(1), replayed.get(2));
+        assertSame(imageB, replayed.get(2).getCurrentGraphics());
+    }
+
+    @Test
+    void replayParticlesInSingleDrawCall() {
+        ParticleBatch particles = new ParticleBatch(new MockImage(), 100);
+        particles.spawn(10, 20, 0, 0, 1.0);
+        particles.spawn(30, 40, 0, 0, 1.0);
+
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.getRoot().addChild(particles, 100, 100);
+
+        DrawList drawList = new DrawList();
+        stage.visit(drawList);
+        particles.getX()[0] = 50;
+        particles.remove(1);
+
+        List<Object> replayed = new ArrayList<>();
+        drawList.replay(new MockStageVisitor() {
+            @Override
+            public void drawParticles(ParticleBatch snapshot, Transform globalTransform) {
+                replayed.add(snapshot.getCount());
+                replayed.add(snapshot.getX()[0]);
+                replayed.add(globalTransform.getPosition());
+            }
+        });
+
+        assertEquals(1, drawList.getSize());
+        assertEquals(List.of(2, 10.0, new Point2D(100, 100)), replayed);
+    }
+
+    @Test
+    void replayUsesSnapshotOfCanvasAndNotStageInstrumentation() {
+        Stage stage = new Stage(new Canvas(800, 600, ScaleStrategy.flexible()));
+        stage.setInstrumentation(new InstrumentedStageVisitor(new FrameStats()));
+        stage.getRoot().addChild(new Sprite(new MockImage(10, 10)), 100, 100);
+
+        DrawList drawList = new DrawList();
+        stage.visit(drawList);
+        stage.getCanvas().resizeScreen(400, 300, 1.0);
+
+        List<Object> replayed = new ArrayList<>();
+        drawList.replay(new MockStageVisitor() {
+            @Override
+            public void prepareStage(Stage snapshot) {
+                replayed.add(snapshot.getCanvas());
+                replayed.add(snapshot.getCanvas().getWidth());
+                replayed.add(snapshot.getInstrumentation());
+            }
+        });
+
+        assertNotSame(stage.getCanvas(), replayed.get(0));
+        assertEquals(800, replayed.get(1));
+        assertNull(replayed.get(2));
+        assertTrue(drawList.isInstrumented());
+    }
+}
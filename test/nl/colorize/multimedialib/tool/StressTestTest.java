@@ -0,0 +1,30 @@
+//-----------------------------------------------------------------------------
+// Colorize MultimediaLib
+// Copyright 2009-2026 Colorize
+// Apache license (http://www.apache.org/licenses/LICENSE-2.0)
+//-----------------------------------------------------------------------------
+
+package nl.colorize.multimedialib.tool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StressTestTest {
+
+    @Test
+    void runHeadlessUntilMaxNodes() {
+        StressTest stressTest = new StressTest();
+        stressTest.rendererName = "headless";
+        stressTest.framerate = 10;
+        stressTest.step = 100;
+        stressTest.maxNodes = 300;
+        stressTest.launch();
+
+        assertEquals("headless", stressTest.getResult().renderer());
+        assertEquals(300, stressTest.getResult().nodes());
+        assertTrue(stressTest.getResult().framerate() >= 10.0);
+        assertTrue(stressTest.getResult().p95Nanos() > 0L);
+    }
+}